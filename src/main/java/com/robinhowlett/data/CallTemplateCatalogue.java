@@ -0,0 +1,209 @@
+package com.robinhowlett.data;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.RaceDistance;
+import com.robinhowlett.exceptions.DataModelException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import lombok.Getter;
+
+/**
+ * A catalogue of the {@link PointsOfCall} and {@link FractionalPoint} templates for each {@link
+ * Breed}, keyed by race distance. Each template applies from its floor (in feet) up to, but not
+ * including, the floor of the next template, so lookups are a binary search over a sorted array of
+ * floors.
+ * <p>
+ * Templates are shared and must not be modified; use {@link PointsOfCall#copyCalls()} to create
+ * the points of call for an individual {@link Starter}.
+ */
+public class CallTemplateCatalogue {
+
+    public static final String CALL_TEMPLATES_RESOURCE = "/call-templates.json";
+
+    private final Map<Breed, BreedTemplates> templatesByBreed;
+
+    CallTemplateCatalogue(Map<Breed, BreedTemplates> templatesByBreed) {
+        this.templatesByBreed = templatesByBreed;
+    }
+
+    /**
+     * @return the catalogue loaded from the bundled {@value #CALL_TEMPLATES_RESOURCE} resource
+     */
+    public static CallTemplateCatalogue getInstance() {
+        return BundledCatalogue.INSTANCE;
+    }
+
+    public static CallTemplateCatalogue load(InputStream inputStream)
+            throws CallTemplatesNotLoadedException {
+        if (inputStream == null) {
+            throw new CallTemplatesNotLoadedException("no call templates available", null);
+        }
+
+        Map<Breed, TemplateDefinitions> definitions;
+        try {
+            definitions = new ObjectMapper().readValue(inputStream,
+                    new TypeReference<Map<Breed, TemplateDefinitions>>() {
+                    });
+        } catch (IOException e) {
+            throw new CallTemplatesNotLoadedException(e.getMessage(), e);
+        }
+
+        Map<Breed, BreedTemplates> templatesByBreed = new EnumMap<>(Breed.class);
+        for (Map.Entry<Breed, TemplateDefinitions> entry : definitions.entrySet()) {
+            templatesByBreed.put(entry.getKey(),
+                    new BreedTemplates(entry.getValue().getPointsOfCall(),
+                            entry.getValue().getFractionalPoints()));
+        }
+        return new CallTemplateCatalogue(templatesByBreed);
+    }
+
+    public Optional<PointsOfCall> getPointsOfCall(RaceDistance raceDistance, Breed breed) {
+        return (raceDistance != null ?
+                getPointsOfCall(raceDistance.getFeet(), breed) : Optional.empty());
+    }
+
+    public Optional<PointsOfCall> getPointsOfCall(int feet, Breed breed) {
+        BreedTemplates templates = templatesFor(breed);
+        if (templates != null) {
+            int index = floorIndex(templates.getPointsOfCallFloors(), feet);
+            if (index >= 0) {
+                return Optional.of(templates.getPointsOfCall()[index]);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public Optional<FractionalPoint> getFractionalPoint(RaceDistance raceDistance, Breed breed) {
+        return (raceDistance != null ?
+                getFractionalPoint(raceDistance.getFeet(), breed) : Optional.empty());
+    }
+
+    public Optional<FractionalPoint> getFractionalPoint(int feet, Breed breed) {
+        BreedTemplates templates = templatesFor(breed);
+        if (templates != null) {
+            int index = floorIndex(templates.getFractionalPointFloors(), feet);
+            if (index >= 0) {
+                return Optional.of(templates.getFractionalPoints()[index]);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Arabians are charted like Thoroughbreds, and Mixed races like Quarter Horses, unless the
+    // catalogue defines templates for them explicitly
+    BreedTemplates templatesFor(Breed breed) {
+        if (breed == null) {
+            return null;
+        }
+        BreedTemplates templates = templatesByBreed.get(breed);
+        if (templates == null) {
+            templates = templatesByBreed.get(Breed.isTBOrArabian(breed) ?
+                    Breed.THOROUGHBRED : Breed.QUARTER_HORSE);
+        }
+        return templates;
+    }
+
+    /**
+     * @param floors a sorted array of floors
+     * @param feet   the race distance in feet
+     * @return the index of the greatest floor that is less than or equal to the feet value, or -1
+     * if the distance is shorter than every floor
+     */
+    static int floorIndex(int[] floors, int feet) {
+        int index = Arrays.binarySearch(floors, feet);
+        // when not found, binarySearch returns (-(insertion point) - 1)
+        return (index >= 0 ? index : -index - 2);
+    }
+
+    /**
+     * The templates for a single {@link Breed}, sorted by floor
+     */
+    static class BreedTemplates {
+        @Getter
+        private final int[] pointsOfCallFloors;
+        @Getter
+        private final PointsOfCall[] pointsOfCall;
+        @Getter
+        private final int[] fractionalPointFloors;
+        @Getter
+        private final FractionalPoint[] fractionalPoints;
+
+        BreedTemplates(List<PointsOfCall> pointsOfCall, List<FractionalPoint> fractionalPoints) {
+            List<PointsOfCall> sortedPointsOfCall = new ArrayList<>(pointsOfCall);
+            sortedPointsOfCall.sort(Comparator.comparingInt(PointsOfCall::getFloor));
+            this.pointsOfCall = new PointsOfCall[sortedPointsOfCall.size()];
+            this.pointsOfCallFloors = new int[sortedPointsOfCall.size()];
+            for (int i = 0; i < sortedPointsOfCall.size(); i++) {
+                PointsOfCall template = sortedPointsOfCall.get(i);
+                this.pointsOfCall[i] = new PointsOfCall(template.getDistance(),
+                        template.getFloor(), Collections.unmodifiableList(template.getCalls()));
+                this.pointsOfCallFloors[i] = template.getFloor();
+            }
+
+            List<FractionalPoint> sortedFractionalPoints = new ArrayList<>(fractionalPoints);
+            sortedFractionalPoints.sort(Comparator.comparingInt(FractionalPoint::getFloor));
+            this.fractionalPoints = new FractionalPoint[sortedFractionalPoints.size()];
+            this.fractionalPointFloors = new int[sortedFractionalPoints.size()];
+            for (int i = 0; i < sortedFractionalPoints.size(); i++) {
+                FractionalPoint template = sortedFractionalPoints.get(i);
+                this.fractionalPoints[i] = new FractionalPoint(template.getDistance(),
+                        template.getFloor(),
+                        Collections.unmodifiableList(template.getFractionals()));
+                this.fractionalPointFloors[i] = template.getFloor();
+            }
+        }
+    }
+
+    /**
+     * The JSON representation of a single {@link Breed}'s templates in the bundled resource
+     */
+    static class TemplateDefinitions {
+        @Getter
+        private final List<PointsOfCall> pointsOfCall;
+        @Getter
+        private final List<FractionalPoint> fractionalPoints;
+
+        @JsonCreator
+        TemplateDefinitions(
+                @JsonProperty("pointsOfCall") List<PointsOfCall> pointsOfCall,
+                @JsonProperty("fractionalPoints") List<FractionalPoint> fractionalPoints) {
+            this.pointsOfCall = (pointsOfCall != null ? pointsOfCall : new ArrayList<>());
+            this.fractionalPoints =
+                    (fractionalPoints != null ? fractionalPoints : new ArrayList<>());
+        }
+    }
+
+    // loaded on first use of getInstance()
+    private static class BundledCatalogue {
+        private static final CallTemplateCatalogue INSTANCE;
+
+        static {
+            try (InputStream inputStream =
+                         CallTemplateCatalogue.class.getResourceAsStream(CALL_TEMPLATES_RESOURCE)) {
+                INSTANCE = load(inputStream);
+            } catch (IOException | CallTemplatesNotLoadedException e) {
+                throw new IllegalStateException(String.format("Unable to load the bundled %s " +
+                        "resource", CALL_TEMPLATES_RESOURCE), e);
+            }
+        }
+    }
+
+    public static class CallTemplatesNotLoadedException extends DataModelException {
+        public CallTemplatesNotLoadedException(String message, Throwable cause) {
+            super(String.format("Unable to load the call templates: %s", message), cause);
+        }
+    }
+}
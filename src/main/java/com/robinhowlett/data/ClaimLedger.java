@@ -0,0 +1,377 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.Starter.Claim;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * Follows horses through the claiming ranks: each horse's starts in date order (and so its chain
+ * of claims, with who claimed it from whom), each trainer's claims in and out, and how the horses
+ * a trainer claimed ran next time out
+ * <p>
+ * Horse, trainer, owner, and track names are interned (case-insensitively) to int ids, and every
+ * start is a row of int columns referenced by id from per-horse and per-trainer id lists, so
+ * millions of starters take a few dozen bytes each. {@link RaceResult}s can be added at any time
+ * and in any order; a late chart's starts are inserted into their horses' date-ordered lists, and
+ * a chart that was already added is ignored. Instances are not thread-safe.
+ */
+public class ClaimLedger {
+
+    private static final int NONE = -1;
+
+    private final NameTable horses = new NameTable();
+    private final NameTable trainers = new NameTable();
+    private final NameTable owners = new NameTable();
+    private final NameTable tracks = new NameTable();
+
+    // one row per start
+    private int startCount;
+    private int[] startHorses = new int[1024];
+    private int[] startDays = new int[1024];
+    private int[] startTracks = new int[1024];
+    private int[] startRaceNumbers = new int[1024];
+    private int[] startTrainers = new int[1024];
+    private int[] startPositions = new int[1024];
+    private int[] claimPrices = new int[1024];
+    private boolean[] claimed = new boolean[1024];
+    private int[] newTrainers = new int[1024];
+    private int[] newOwners = new int[1024];
+
+    // start ids, in date order per horse, and in the order added per trainer
+    private final IdLists startsByHorse = new IdLists();
+    private final IdLists claimsByNewTrainer = new IdLists();
+    private int[] claimsOut = new int[64];
+
+    public void add(RaceResult raceResult) {
+        if (raceResult.getStarters() == null || raceResult.getRaceDate() == null) {
+            return;
+        }
+        int day = (int) raceResult.getRaceDate().toEpochDay();
+        int track = (raceResult.getTrack() != null ?
+                tracks.intern(raceResult.getTrack().getCanonical()) : NONE);
+        int raceNumber = (raceResult.getRaceNumber() != null ? raceResult.getRaceNumber() : 0);
+        for (Starter starter : raceResult.getStarters()) {
+            if (starter.getHorse() != null && starter.getHorse().getName() != null) {
+                add(starter, day, track, raceNumber);
+            }
+        }
+    }
+
+    private void add(Starter starter, int day, int track, int raceNumber) {
+        int horse = horses.intern(starter.getHorse().getName());
+        int index = insertionPoint(horse, day, raceNumber, track);
+        if (index < 0) {
+            return; // already added
+        }
+
+        int start = newStart();
+        startHorses[start] = horse;
+        startDays[start] = day;
+        startTracks[start] = track;
+        startRaceNumbers[start] = raceNumber;
+        startTrainers[start] = (starter.getTrainer() != null ?
+                trainers.intern(starter.getTrainer().getName()) : NONE);
+        Integer position = starter.getOfficialPosition();
+        startPositions[start] = (position != null ? position : 0);
+        Claim claim = starter.getClaim();
+        claimPrices[start] = (claim != null ? claim.getPrice() : 0);
+        claimed[start] = (claim != null && claim.isClaimed());
+        newTrainers[start] = NONE;
+        newOwners[start] = NONE;
+        if (claimed[start]) {
+            newTrainers[start] = trainers.intern(claim.getNewTrainerName());
+            newOwners[start] = owners.intern(claim.getNewOwnerName());
+            if (newTrainers[start] != NONE) {
+                claimsByNewTrainer.add(newTrainers[start], start);
+            }
+            if (startTrainers[start] != NONE) {
+                claimsOut = ensureCapacity(claimsOut, startTrainers[start] + 1);
+                claimsOut[startTrainers[start]]++;
+            }
+        }
+        startsByHorse.insert(horse, index, start);
+    }
+
+    private int newStart() {
+        if (startCount == startHorses.length) {
+            int capacity = startCount * 2;
+            startHorses = Arrays.copyOf(startHorses, capacity);
+            startDays = Arrays.copyOf(startDays, capacity);
+            startTracks = Arrays.copyOf(startTracks, capacity);
+            startRaceNumbers = Arrays.copyOf(startRaceNumbers, capacity);
+            startTrainers = Arrays.copyOf(startTrainers, capacity);
+            startPositions = Arrays.copyOf(startPositions, capacity);
+            claimPrices = Arrays.copyOf(claimPrices, capacity);
+            claimed = Arrays.copyOf(claimed, capacity);
+            newTrainers = Arrays.copyOf(newTrainers, capacity);
+            newOwners = Arrays.copyOf(newOwners, capacity);
+        }
+        return startCount++;
+    }
+
+    /**
+     * @return where a start belongs in the horse's date-ordered starts, or -1 if it is already
+     * there
+     */
+    private int insertionPoint(int horse, int day, int raceNumber, int track) {
+        int[] starts = startsByHorse.get(horse);
+        int low = 0;
+        int high = startsByHorse.size(horse) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int start = starts[middle];
+            int comparison = (startDays[start] != day ? Integer.compare(startDays[start], day) :
+                    Integer.compare(startRaceNumbers[start], raceNumber));
+            if (comparison == 0) {
+                comparison = Integer.compare(startTracks[start], track);
+            }
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return -1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the horse's claims, oldest first
+     */
+    public List<ClaimEvent> getClaimChain(String horseName) {
+        List<ClaimEvent> chain = new ArrayList<>();
+        int horse = horses.find(horseName);
+        for (int i = 0; i < startsByHorse.size(horse); i++) {
+            int start = startsByHorse.get(horse)[i];
+            if (claimed[start]) {
+                chain.add(claimEvent(start));
+            }
+        }
+        return chain;
+    }
+
+    /**
+     * @return the number of the horse's starts that have been added
+     */
+    public int getStarts(String horseName) {
+        return startsByHorse.size(horses.find(horseName));
+    }
+
+    /**
+     * @return the horses the trainer claimed, oldest claim first, each with the horse's next
+     * start (if it has run again)
+     */
+    public List<ClaimFollowUp> getClaimsBy(String trainerName) {
+        int trainer = trainers.find(trainerName);
+        List<ClaimFollowUp> followUps = new ArrayList<>();
+        for (int i = 0; i < claimsByNewTrainer.size(trainer); i++) {
+            int start = claimsByNewTrainer.get(trainer)[i];
+            int next = nextStart(start);
+            followUps.add(new ClaimFollowUp(claimEvent(start),
+                    (next != NONE ? nextStart(next, start) : null)));
+        }
+        followUps.sort(Comparator.comparing((ClaimFollowUp f) -> f.getClaim().getRaceDate())
+                .thenComparing(f -> f.getClaim().getRaceNumber()));
+        return followUps;
+    }
+
+    /**
+     * @return the trainer's claims in and out, and the first-start record of the horses claimed
+     */
+    public TrainerClaims getTrainerClaims(String trainerName) {
+        int trainer = trainers.find(trainerName);
+        int nextStarts = 0;
+        int nextStartWins = 0;
+        for (int i = 0; i < claimsByNewTrainer.size(trainer); i++) {
+            int next = nextStart(claimsByNewTrainer.get(trainer)[i]);
+            if (next != NONE) {
+                nextStarts++;
+                if (startPositions[next] == 1) {
+                    nextStartWins++;
+                }
+            }
+        }
+        return new TrainerClaims(trainerName, claimsByNewTrainer.size(trainer),
+                (trainer != NONE && trainer < claimsOut.length ? claimsOut[trainer] : 0),
+                nextStarts, nextStartWins);
+    }
+
+    private int nextStart(int start) {
+        int horse = startHorses[start];
+        int index = indexOf(horse, start);
+        return (index + 1 < startsByHorse.size(horse) ?
+                startsByHorse.get(horse)[index + 1] : NONE);
+    }
+
+    private int indexOf(int horse, int start) {
+        int[] starts = startsByHorse.get(horse);
+        for (int i = startsByHorse.size(horse) - 1; i >= 0; i--) {
+            if (starts[i] == start) {
+                return i;
+            }
+        }
+        return NONE;
+    }
+
+    private ClaimEvent claimEvent(int start) {
+        return new ClaimEvent(horses.get(startHorses[start]), date(start),
+                tracks.get(startTracks[start]), startRaceNumbers[start], claimPrices[start],
+                trainers.get(startTrainers[start]), trainers.get(newTrainers[start]),
+                owners.get(newOwners[start]));
+    }
+
+    private NextStart nextStart(int next, int claimStart) {
+        return new NextStart(date(next), tracks.get(startTracks[next]),
+                startRaceNumbers[next], startDays[next] - startDays[claimStart],
+                (startPositions[next] > 0 ? startPositions[next] : null), claimPrices[next],
+                trainers.get(startTrainers[next]), claimed[next]);
+    }
+
+    private LocalDate date(int start) {
+        return LocalDate.ofEpochDay(startDays[start]);
+    }
+
+    private static int[] ensureCapacity(int[] values, int size) {
+        return (size <= values.length ? values :
+                Arrays.copyOf(values, Math.max(size, values.length * 2)));
+    }
+
+    /**
+     * A horse being claimed, from the trainer who started it, by a new trainer and owner
+     */
+    @Data
+    public static class ClaimEvent {
+        private final String horse;
+        private final LocalDate raceDate;
+        private final String track;
+        private final int raceNumber;
+        private final int price;
+        private final String fromTrainer;
+        private final String toTrainer;
+        private final String toOwner;
+    }
+
+    /**
+     * The start after a claim; {@code claimedAgain} is set if the horse was claimed out of it
+     */
+    @Data
+    public static class NextStart {
+        private final LocalDate raceDate;
+        private final String track;
+        private final int raceNumber;
+        private final int daysSinceClaim;
+        private final Integer position;
+        private final int claimPrice;
+        private final String trainer;
+        private final boolean claimedAgain;
+
+        public boolean isWinner() {
+            return (position != null && position == 1);
+        }
+    }
+
+    /**
+     * A claim and the claimed horse's next start, which is null if it has not run again
+     */
+    @Data
+    public static class ClaimFollowUp {
+        private final ClaimEvent claim;
+        private final NextStart nextStart;
+    }
+
+    @Data
+    public static class TrainerClaims {
+        private final String trainer;
+        private final int claimsIn;
+        private final int claimsOut;
+        private final int nextStarts;
+        private final int nextStartWins;
+
+        public double getNextStartWinPercentage() {
+            return (nextStarts > 0 ? (100.0 * nextStartWins) / nextStarts : Double.NaN);
+        }
+    }
+
+    /**
+     * Interns names case-insensitively to consecutive ids, keeping the first spelling seen
+     */
+    private static class NameTable {
+        private final Map<String, Integer> idsByName = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        int intern(String name) {
+            if (name == null) {
+                return NONE;
+            }
+            String key = name.trim().toUpperCase(Locale.US);
+            Integer id = idsByName.get(key);
+            if (id == null) {
+                id = names.size();
+                names.add(name);
+                idsByName.put(key, id);
+            }
+            return id;
+        }
+
+        int find(String name) {
+            Integer id = (name != null ? idsByName.get(name.trim().toUpperCase(Locale.US)) :
+                    null);
+            return (id != null ? id : NONE);
+        }
+
+        String get(int id) {
+            return (id != NONE ? names.get(id) : null);
+        }
+    }
+
+    /**
+     * Growable lists of start ids, one per horse or trainer id
+     */
+    private static class IdLists {
+        private static final int[] EMPTY = new int[0];
+
+        private int[][] lists = new int[64][];
+        private int[] sizes = new int[64];
+
+        int[] get(int id) {
+            return (id >= 0 && id < lists.length && lists[id] != null ? lists[id] : EMPTY);
+        }
+
+        int size(int id) {
+            return (id >= 0 && id < sizes.length ? sizes[id] : 0);
+        }
+
+        void add(int id, int value) {
+            insert(id, size(id), value);
+        }
+
+        void insert(int id, int index, int value) {
+            if (id >= lists.length) {
+                int capacity = Math.max(id + 1, lists.length * 2);
+                lists = Arrays.copyOf(lists, capacity);
+                sizes = Arrays.copyOf(sizes, capacity);
+            }
+            int[] list = lists[id];
+            int size = sizes[id];
+            if (list == null) {
+                list = new int[4];
+            } else if (size == list.length) {
+                list = Arrays.copyOf(list, size * 2);
+            }
+            System.arraycopy(list, index, list, index + 1, size - index);
+            list[index] = value;
+            lists[id] = list;
+            sizes[id] = size + 1;
+        }
+    }
+}
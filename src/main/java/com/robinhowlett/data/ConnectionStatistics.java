@@ -0,0 +1,375 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.Surface;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WinPlaceShowPayoffPool.WinPlaceShowPayoff;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * Rolling win, in-the-money, and $2 win return-on-investment figures for jockeys, trainers,
+ * owners, and jockey-trainer combinations over the last N days (30, 60, and 365 by default), split
+ * by surface and {@link Distance}
+ * <p>
+ * Races are expected to arrive roughly in date order. Each connection keeps its starts as a
+ * date-ordered run of daily buckets of primitive counters (one bucket per day and surface and
+ * distance), with running totals per window. When a later race date arrives, each window drops
+ * the buckets that fell out of it from its totals, so sliding costs nothing per query and is
+ * amortized constant time per bucket. A late chart (older than the latest date seen for the
+ * connection, but within the longest window) is merged into, or inserted as, its day's bucket and
+ * added to the totals of the windows that cover that day; charts older than that are ignored.
+ * <p>
+ * Queries are answered as of the latest race date added. Instances are not thread-safe.
+ */
+public class ConnectionStatistics {
+
+    public static final int[] DEFAULT_WINDOWS = {30, 60, 365};
+
+    private static final Surface[] SURFACES = Surface.values();
+    private static final int SURFACE_COUNT = SURFACES.length + 1; // including unknown
+    private static final int CELLS = SURFACE_COUNT * Distance.values().length;
+
+    private static final int STARTS = 0;
+    private static final int WINS = 1;
+    private static final int IN_THE_MONEY = 2;
+    private static final int WIN_RETURNS = 3; // in cents, of a $2 win wager
+    private static final int COUNTERS = 4;
+
+    private final int[] windows;
+    private final Map<Connection, Map<String, Timeline>> timelines =
+            new EnumMap<>(Connection.class);
+    private int latestDay = Integer.MIN_VALUE;
+
+    public ConnectionStatistics() {
+        this(DEFAULT_WINDOWS);
+    }
+
+    /**
+     * @param windows the lengths, in days, of the windows that can be queried
+     */
+    public ConnectionStatistics(int... windows) {
+        if (windows.length == 0) {
+            throw new IllegalArgumentException("At least one window is required");
+        }
+        this.windows = Arrays.copyOf(windows, windows.length);
+        Arrays.sort(this.windows);
+        if (this.windows[0] < 1) {
+            throw new IllegalArgumentException(
+                    String.format("Windows must be at least one day: %s",
+                            Arrays.toString(windows)));
+        }
+        for (Connection connection : Connection.values()) {
+            timelines.put(connection, new HashMap<>());
+        }
+    }
+
+    /**
+     * @return the name under which a jockey-trainer combination is counted
+     */
+    public static String jockeyTrainer(String jockey, String trainer) {
+        return jockey + " / " + trainer;
+    }
+
+    public void add(RaceResult raceResult) {
+        if (raceResult.getRaceDate() == null || raceResult.getStarters() == null) {
+            return;
+        }
+        int day = (int) raceResult.getRaceDate().toEpochDay();
+        latestDay = Math.max(latestDay, day);
+
+        int surface = SURFACES.length;
+        Distance distance = Distance.UNKNOWN;
+        DistanceSurfaceTrackRecord distanceSurfaceTrackRecord =
+                raceResult.getDistanceSurfaceTrackRecord();
+        if (distanceSurfaceTrackRecord != null) {
+            Surface raceSurface = Surface.forText(distanceSurfaceTrackRecord.getSurface());
+            if (raceSurface != null) {
+                surface = raceSurface.ordinal();
+            }
+            if (distanceSurfaceTrackRecord.getRaceDistance() != null) {
+                distance = Distance.forFeet(
+                        distanceSurfaceTrackRecord.getRaceDistance().getFeet());
+            }
+        }
+        int cell = cell(surface, distance.ordinal());
+
+        for (Starter starter : raceResult.getStarters()) {
+            Integer position = starter.getOfficialPosition();
+            int[] counts = new int[COUNTERS];
+            counts[STARTS] = 1;
+            counts[WINS] = (position != null && position == 1 ? 1 : 0);
+            counts[IN_THE_MONEY] = (position != null && position >= 1 && position <= 3 ? 1 : 0);
+            WinPlaceShowPayoff payoff = starter.getWinPlaceShowPayoff();
+            if (counts[WINS] == 1 && payoff != null && payoff.getWin() != null &&
+                    payoff.getWin().getPayoff() != null) {
+                counts[WIN_RETURNS] = (int) Math.round(payoff.getWin().getPayoff() * 100);
+            }
+
+            String jockey = (starter.getJockey() != null ? starter.getJockey().getName() : null);
+            String trainer = (starter.getTrainer() != null ?
+                    starter.getTrainer().getName() : null);
+            String owner = (starter.getOwner() != null ? starter.getOwner().getName() : null);
+            add(Connection.JOCKEY, jockey, day, cell, counts);
+            add(Connection.TRAINER, trainer, day, cell, counts);
+            add(Connection.OWNER, owner, day, cell, counts);
+            if (jockey != null && trainer != null) {
+                add(Connection.JOCKEY_TRAINER, jockeyTrainer(jockey, trainer), day, cell, counts);
+            }
+        }
+    }
+
+    private void add(Connection connection, String name, int day, int cell, int[] counts) {
+        if (name == null) {
+            return;
+        }
+        timelines.get(connection).computeIfAbsent(key(name), k -> new Timeline(windows))
+                .add(day, cell, counts);
+    }
+
+    private static String key(String name) {
+        return name.trim().toUpperCase(Locale.US);
+    }
+
+    private static int cell(int surface, int distance) {
+        return (surface * Distance.values().length) + distance;
+    }
+
+    /**
+     * @return the latest race date added, or null if none were
+     */
+    public LocalDate getLatestDate() {
+        return (latestDay != Integer.MIN_VALUE ? LocalDate.ofEpochDay(latestDay) : null);
+    }
+
+    public Record getRecord(Connection connection, String name, int days) {
+        return getRecord(connection, name, days, null, null);
+    }
+
+    /**
+     * @param days     the length of the window, which must be one of the configured windows
+     * @param surface  the surface text e.g. "Turf", or null for every surface
+     * @param distance the distance category, or null for every distance
+     * @return the combined counts of the connection's matching starts in the window ending on the
+     * latest race date added (all zero for an unknown connection)
+     */
+    public Record getRecord(Connection connection, String name, int days, String surface,
+            Distance distance) {
+        int window = Arrays.binarySearch(windows, days);
+        if (window < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "No %d day window; the windows are %s", days, Arrays.toString(windows)));
+        }
+
+        long[] totals = new long[COUNTERS];
+        Timeline timeline = (name != null ? timelines.get(connection).get(key(name)) : null);
+        if (timeline != null) {
+            timeline.slide(latestDay);
+            Surface matching = (surface != null ? Surface.forText(surface) : null);
+            for (int s = 0; s < SURFACE_COUNT; s++) {
+                if (surface != null && (matching == null || s != matching.ordinal())) {
+                    continue;
+                }
+                for (int d = 0; d < Distance.values().length; d++) {
+                    if (distance != null && d != distance.ordinal()) {
+                        continue;
+                    }
+                    int base = ((window * CELLS) + cell(s, d)) * COUNTERS;
+                    for (int counter = 0; counter < COUNTERS; counter++) {
+                        totals[counter] += timeline.totals[base + counter];
+                    }
+                }
+            }
+        }
+        return new Record((int) totals[STARTS], (int) totals[WINS], (int) totals[IN_THE_MONEY],
+                totals[WIN_RETURNS] / 100.0);
+    }
+
+    public enum Connection {
+        JOCKEY,
+        TRAINER,
+        OWNER,
+        JOCKEY_TRAINER
+    }
+
+    /**
+     * Sprints are races of under a mile
+     */
+    public enum Distance {
+        SPRINT,
+        ROUTE,
+        UNKNOWN;
+
+        private static final int MILE = 5280;
+
+        public static Distance forFeet(Integer feet) {
+            if (feet == null || feet <= 0) {
+                return UNKNOWN;
+            }
+            return (feet < MILE ? SPRINT : ROUTE);
+        }
+    }
+
+    /**
+     * The counts of a connection's starts in one or more cells of a window
+     */
+    @Data
+    public static class Record {
+        private final int starts;
+        private final int wins;
+        private final int inTheMoney;
+        private final double winReturns; // of a $2 win wager on every start
+
+        public double getWinPercentage() {
+            return (starts > 0 ? (100.0 * wins) / starts : 0);
+        }
+
+        public double getInTheMoneyPercentage() {
+            return (starts > 0 ? (100.0 * inTheMoney) / starts : 0);
+        }
+
+        /**
+         * @return the percentage profit (or loss, if negative) of a $2 win wager on every start
+         */
+        public double getReturnOnInvestment() {
+            return (starts > 0 ? (100.0 * (winReturns - (2.0 * starts))) / (2.0 * starts) : 0);
+        }
+    }
+
+    /**
+     * The daily buckets of one connection, ordered by day, and the running totals of each window
+     */
+    private static class Timeline {
+        private final int[] windows;
+        private final int[] tails; // per window, the index of its first bucket
+        private final long[] totals; // per window, cell, and counter
+
+        private int head = Integer.MIN_VALUE; // the day every window ends on
+        private int start; // the live buckets are [start, end)
+        private int end;
+        private int[] days = new int[8];
+        private int[] cells = new int[8];
+        private int[] counts = new int[8 * COUNTERS];
+
+        Timeline(int[] windows) {
+            this.windows = windows;
+            this.tails = new int[windows.length];
+            this.totals = new long[windows.length * CELLS * COUNTERS];
+        }
+
+        void add(int day, int cell, int[] starterCounts) {
+            if (day >= head) {
+                slide(day);
+            } else if (day <= head - windows[windows.length - 1]) {
+                return; // older than every window
+            }
+
+            int index = find(day, cell);
+            if (index < 0) {
+                index = insert(-(index + 1), day, cell);
+            }
+            for (int counter = 0; counter < COUNTERS; counter++) {
+                counts[(index * COUNTERS) + counter] += starterCounts[counter];
+            }
+            for (int window = 0; window < windows.length; window++) {
+                if (day > head - windows[window]) {
+                    int base = ((window * CELLS) + cell) * COUNTERS;
+                    for (int counter = 0; counter < COUNTERS; counter++) {
+                        totals[base + counter] += starterCounts[counter];
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the index of the day's bucket for the cell or, if there isn't one, (-(insertion
+         * point) - 1)
+         */
+        private int find(int day, int cell) {
+            int index = end;
+            // late charts are rare and usually recent, so scan back from the latest day
+            while (index > start && days[index - 1] >= day) {
+                index--;
+                if (days[index] == day && cells[index] == cell) {
+                    return index;
+                }
+            }
+            int insertion = index;
+            while (insertion < end && days[insertion] == day) {
+                insertion++;
+            }
+            return -(insertion + 1);
+        }
+
+        private int insert(int index, int day, int cell) {
+            if (end == days.length) {
+                compact();
+                index -= start;
+                start = 0;
+            }
+            System.arraycopy(days, index, days, index + 1, end - index);
+            System.arraycopy(cells, index, cells, index + 1, end - index);
+            System.arraycopy(counts, index * COUNTERS, counts, (index + 1) * COUNTERS,
+                    (end - index) * COUNTERS);
+            days[index] = day;
+            cells[index] = cell;
+            Arrays.fill(counts, index * COUNTERS, (index + 1) * COUNTERS, 0);
+            end++;
+            // windows that start after this (late) day begin one bucket later
+            for (int window = 0; window < windows.length; window++) {
+                if (tails[window] > index || (tails[window] == index &&
+                        day <= head - windows[window])) {
+                    tails[window]++;
+                }
+            }
+            return index;
+        }
+
+        // moves the live buckets to the front, growing the arrays if they are more than half full
+        private void compact() {
+            int live = end - start;
+            int capacity = (live * 2 > days.length ? days.length * 2 : days.length);
+            days = move(days, start, live, 1, capacity);
+            cells = move(cells, start, live, 1, capacity);
+            counts = move(counts, start, live, COUNTERS, capacity);
+            for (int window = 0; window < windows.length; window++) {
+                tails[window] -= start;
+            }
+            end = live;
+        }
+
+        private static int[] move(int[] values, int from, int length, int width, int capacity) {
+            int[] moved = (capacity * width == values.length ? values : new int[capacity * width]);
+            System.arraycopy(values, from * width, moved, 0, length * width);
+            return moved;
+        }
+
+        /**
+         * Ends every window on this day, dropping the buckets that fall out of each from its totals
+         */
+        void slide(int day) {
+            if (day <= head) {
+                return;
+            }
+            head = day;
+            for (int window = 0; window < windows.length; window++) {
+                int tail = tails[window];
+                while (tail < end && days[tail] <= head - windows[window]) {
+                    int base = ((window * CELLS) + cells[tail]) * COUNTERS;
+                    for (int counter = 0; counter < COUNTERS; counter++) {
+                        totals[base + counter] -= counts[(tail * COUNTERS) + counter];
+                    }
+                    tail++;
+                }
+                tails[window] = tail;
+            }
+            // the longest window holds every live bucket
+            start = tails[windows.length - 1];
+        }
+    }
+}
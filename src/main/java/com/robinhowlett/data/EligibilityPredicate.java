@@ -0,0 +1,282 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.RaceConditions.ClaimingPriceRange;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import static com.robinhowlett.data.RaceRestrictions.ALL_SEXES;
+
+/**
+ * A compiled form of a race's {@link RaceRestrictions} (and, for claiming races, its {@link
+ * ClaimingPriceRange}) that tests whether a horse is eligible using a handful of integer
+ * operations.
+ * <p>
+ * Horses are packed into a {@code long} via {@link #packHorse(int, int, int, int)}: the sex bit
+ * (using the same bitmask as {@link RaceRestrictions#getSexes()}), the age, an interned id for the
+ * state the horse was bred in, and the lowest claiming price the connections would enter the horse
+ * for (0 meaning any price). State ids are assigned by the caller; 0 means unknown.
+ * <p>
+ * As with an unknown sex, a horse whose age is unknown ({@link #UNKNOWN_AGE}) is only eligible
+ * for races without age restrictions, and a horse whose state is unknown is only eligible for
+ * races not restricted to state-breds.
+ */
+@EqualsAndHashCode
+@ToString
+public class EligibilityPredicate {
+
+    public static final int COLT = 1;
+    public static final int GELDING = 2;
+    public static final int HORSE = 4;
+    public static final int FILLY = 8;
+    public static final int MARE = 16;
+    // a horse whose sex is unknown is only eligible for races open to all sexes
+    public static final int UNKNOWN_SEX = 32;
+    // a horse whose age is unknown is only eligible for races without age restrictions
+    public static final int UNKNOWN_AGE = 0;
+
+    static final int SEX_MASK = 0x3F;
+    static final int AGE_SHIFT = 8;
+    static final int AGE_MASK = 0xFF;
+    static final int STATE_SHIFT = 16;
+    static final int STATE_MASK = 0xFFFF;
+    static final int CLAIM_SHIFT = 32;
+
+    @Getter
+    private final int sexes;
+    @Getter
+    private final int minAge;
+    @Getter
+    private final int maxAge;
+    @Getter
+    private final int stateId; // 0 if not restricted to state-breds
+    @Getter
+    private final int maxClaim; // Integer.MAX_VALUE if not a claiming race
+
+    EligibilityPredicate(int sexes, int minAge, int maxAge, int stateId, int maxClaim) {
+        this.sexes = sexes;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.stateId = stateId;
+        this.maxClaim = maxClaim;
+    }
+
+    /**
+     * @param raceConditions the race conditions
+     * @param stateId        the interned id of the state the race is run in, used if the race is
+     *                       restricted to state-breds
+     * @return the compiled {@link EligibilityPredicate}
+     * @throws IllegalArgumentException if the race is restricted to state-breds and the state id
+     *                                  is not between 1 and 65535
+     */
+    public static EligibilityPredicate compile(RaceConditions raceConditions, int stateId) {
+        RaceTypeNameBlackTypeBreed raceType = raceConditions.getRaceTypeNameBlackTypeBreed();
+        boolean claimingRace = (raceType != null &&
+                RaceConditions.isClaimingRace(raceType.getType()));
+        return compile(raceConditions.getRestrictions(),
+                (claimingRace ? raceConditions.getClaimingPriceRange() : null), stateId);
+    }
+
+    /**
+     * @param restrictions       the age, sex, and state-bred restrictions; null if unrestricted
+     * @param claimingPriceRange the claiming price range for claiming races, otherwise null
+     * @param stateId            the interned id of the state the race is run in, used if the race
+     *                           is restricted to state-breds
+     * @return the compiled {@link EligibilityPredicate}
+     * @throws IllegalArgumentException if the race is restricted to state-breds and the state id
+     *                                  is not between 1 and 65535
+     */
+    public static EligibilityPredicate compile(RaceRestrictions restrictions,
+            ClaimingPriceRange claimingPriceRange, int stateId) {
+        int sexes = ALL_SEXES;
+        int minAge = 0;
+        int maxAge = Integer.MAX_VALUE;
+        int requiredStateId = 0;
+        if (restrictions != null) {
+            sexes = restrictions.getSexes();
+            if (restrictions.getMinAge() != null) {
+                minAge = restrictions.getMinAge();
+            }
+            // -1 means "and upward"
+            if (restrictions.getMaxAge() != null && restrictions.getMaxAge() != -1) {
+                maxAge = restrictions.getMaxAge();
+            }
+            // so that horses of unknown age fail any age restriction
+            if (restrictions.getMinAge() != null || restrictions.getMaxAge() != null) {
+                minAge = Math.max(minAge, UNKNOWN_AGE + 1);
+            }
+            if (restrictions.isStateBred()) {
+                // 0 would make the race open to horses bred anywhere
+                if (stateId <= 0 || stateId > STATE_MASK) {
+                    throw new IllegalArgumentException(String.format(
+                            "Invalid state id for a state-bred race: %d", stateId));
+                }
+                requiredStateId = stateId;
+            }
+        }
+
+        // 0 if the sex restriction wasn't parsed, so treated as unrestricted
+        int sexMask = (sexes == ALL_SEXES || sexes == 0 ? (ALL_SEXES | UNKNOWN_SEX) : sexes);
+        int maxClaim = (claimingPriceRange != null && claimingPriceRange.getMax() > 0 ?
+                claimingPriceRange.getMax() : Integer.MAX_VALUE);
+
+        return new EligibilityPredicate(sexMask, minAge, maxAge, requiredStateId, maxClaim);
+    }
+
+    /**
+     * @param sexBit             one of {@link #COLT}, {@link #GELDING}, {@link #HORSE}, {@link
+     *                           #FILLY}, {@link #MARE}, or {@link #UNKNOWN_SEX}
+     * @param age                the age in years (up to 255), or {@link #UNKNOWN_AGE}
+     * @param stateId            the interned id of the state the horse was bred in (up to 65535),
+     *                           0 if unknown
+     * @param claimingPriceFloor the lowest claiming price the horse would be entered for, 0 if any
+     * @return the packed horse
+     */
+    public static long packHorse(int sexBit, int age, int stateId, int claimingPriceFloor) {
+        return (sexBit & SEX_MASK) |
+                ((long) (age & AGE_MASK) << AGE_SHIFT) |
+                ((long) (stateId & STATE_MASK) << STATE_SHIFT) |
+                ((long) claimingPriceFloor << CLAIM_SHIFT);
+    }
+
+    public static long packHorse(Horse horse, LocalDate raceDate, int stateId,
+            int claimingPriceFloor) {
+        return packHorse(sexBit(horse.getSex()), ageOn(horse.getFoalingDate(), raceDate), stateId,
+                claimingPriceFloor);
+    }
+
+    /**
+     * @param sex the chart description (e.g. "Filly") or its first letter
+     * @return the matching sex bit, or {@link #UNKNOWN_SEX}
+     */
+    public static int sexBit(String sex) {
+        if (sex == null || sex.isEmpty()) {
+            return UNKNOWN_SEX;
+        }
+        switch (Character.toUpperCase(sex.charAt(0))) {
+            case 'C':
+            case 'R': // ridglings are entered as colts
+                return COLT;
+            case 'G':
+                return GELDING;
+            case 'H':
+                return HORSE;
+            case 'F':
+                return FILLY;
+            case 'M':
+                return MARE;
+            default:
+                return UNKNOWN_SEX;
+        }
+    }
+
+    /**
+     * @return the age of the horse on the race date, with every horse aging on January 1st, or
+     * {@link #UNKNOWN_AGE} if unknown
+     */
+    public static int ageOn(LocalDate foalingDate, LocalDate raceDate) {
+        if (foalingDate == null || raceDate == null) {
+            return UNKNOWN_AGE;
+        }
+        return Math.max(raceDate.getYear() - foalingDate.getYear(), 0);
+    }
+
+    public boolean test(long horse) {
+        return test(horse, sexes, minAge, maxAge, stateId, maxClaim);
+    }
+
+    static boolean test(long horse, int sexes, int minAge, int maxAge, int stateId,
+            int maxClaim) {
+        int age = (int) (horse >>> AGE_SHIFT) & AGE_MASK;
+        int horseStateId = (int) (horse >>> STATE_SHIFT) & STATE_MASK;
+        int claimingPriceFloor = (int) (horse >>> CLAIM_SHIFT);
+        return ((int) horse & sexes) != 0 &
+                age >= minAge & age <= maxAge &
+                (stateId == 0 | horseStateId == stateId) &
+                claimingPriceFloor <= maxClaim;
+    }
+
+    /**
+     * Tests many horses against this race
+     *
+     * @param horses  the packed horses
+     * @param count   the number of horses to test
+     * @param matches receives the indices of the eligible horses; must hold at least {@code count}
+     *                values
+     * @return the number of eligible horses written to {@code matches}
+     */
+    public int filter(long[] horses, int count, int[] matches) {
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            if (test(horses[i], sexes, minAge, maxAge, stateId, maxClaim)) {
+                matches[matched++] = i;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * Stores many compiled races as parallel arrays, so that one horse can be tested against all
+     * of them without touching any objects
+     */
+    public static class Columns {
+        private int[] sexes;
+        private int[] minAges;
+        private int[] maxAges;
+        private int[] stateIds;
+        private int[] maxClaims;
+        @Getter
+        private int size;
+
+        public Columns(int initialCapacity) {
+            int capacity = Math.max(initialCapacity, 1);
+            sexes = new int[capacity];
+            minAges = new int[capacity];
+            maxAges = new int[capacity];
+            stateIds = new int[capacity];
+            maxClaims = new int[capacity];
+        }
+
+        /**
+         * @return the index of the added race
+         */
+        public int add(EligibilityPredicate predicate) {
+            if (size == sexes.length) {
+                int capacity = sexes.length * 2;
+                sexes = Arrays.copyOf(sexes, capacity);
+                minAges = Arrays.copyOf(minAges, capacity);
+                maxAges = Arrays.copyOf(maxAges, capacity);
+                stateIds = Arrays.copyOf(stateIds, capacity);
+                maxClaims = Arrays.copyOf(maxClaims, capacity);
+            }
+            sexes[size] = predicate.getSexes();
+            minAges[size] = predicate.getMinAge();
+            maxAges[size] = predicate.getMaxAge();
+            stateIds[size] = predicate.getStateId();
+            maxClaims[size] = predicate.getMaxClaim();
+            return size++;
+        }
+
+        /**
+         * Tests one horse against every race
+         *
+         * @param horse   the packed horse
+         * @param matches receives the indices of the races the horse is eligible for; must hold at
+         *                least {@link #getSize()} values
+         * @return the number of races written to {@code matches}
+         */
+        public int filter(long horse, int[] matches) {
+            int matched = 0;
+            for (int i = 0; i < size; i++) {
+                if (test(horse, sexes[i], minAges[i], maxAges[i], stateIds[i], maxClaims[i])) {
+                    matches[matched++] = i;
+                }
+            }
+            return matched;
+        }
+    }
+}
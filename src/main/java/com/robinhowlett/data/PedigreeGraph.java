@@ -0,0 +1,490 @@
+package com.robinhowlett.data;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import lombok.Data;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+/**
+ * Stores every {@link Horse} once, by name and foaling date, with integer ids and the ids of its
+ * sire, dam, and damsire held in primitive arrays, rather than as the nested (and repeated)
+ * {@link Horse} objects of each chart
+ * <p>
+ * {@link #add(Horse)} interns a horse and its whole pedigree, filling in any details (including
+ * parents) that were missing from earlier sightings. Horses that share a name but were foaled on
+ * different dates are kept apart; a sighting without a foaling date, such as a sire listed in a
+ * pedigree, is matched to the only horse with that name, or to the horse with that name whose
+ * foaling date is not known yet. {@link #getHorse(int)} returns a shared {@link Horse} view
+ * whose pedigree is resolved from the graph on access. Progeny of a sire, dam, or damsire are
+ * answered from inverted adjacency lists, rebuilt on the first query after new horses are added.
+ * The graph serializes as a flat list of horses that reference their parents by id.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public class PedigreeGraph {
+
+    public static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Map<String, int[]> idsByName = new HashMap<>();
+    private int size;
+    private String[] names = new String[INITIAL_CAPACITY];
+    private int[] sires = newIds(INITIAL_CAPACITY);
+    private int[] dams = newIds(INITIAL_CAPACITY);
+    private int[] damSires = newIds(INITIAL_CAPACITY);
+    private String[] colors = new String[INITIAL_CAPACITY];
+    private String[] sexes = new String[INITIAL_CAPACITY];
+    private LocalDate[] foalingDates = new LocalDate[INITIAL_CAPACITY];
+    private String[] foalingLocations = new String[INITIAL_CAPACITY];
+    private Breeder[] breeders = new Breeder[INITIAL_CAPACITY];
+    private GraphHorse[] views = new GraphHorse[INITIAL_CAPACITY];
+
+    // inverted adjacency lists, in compressed sparse row form, rebuilt when stale
+    private Progeny progenyOfSires;
+    private Progeny progenyOfDams;
+    private Progeny progenyOfDamSires;
+
+    private static int[] newIds(int capacity) {
+        int[] ids = new int[capacity];
+        Arrays.fill(ids, NONE);
+        return ids;
+    }
+
+    /**
+     * Interns the horse and its sire, dam, and damsire (recursively)
+     *
+     * @return the horse's id, or {@link #NONE} for a null or unnamed horse
+     */
+    public int add(Horse horse) {
+        if (horse == null || horse.getName() == null) {
+            return NONE;
+        }
+        if (horse instanceof GraphHorse && ((GraphHorse) horse).graph == this) {
+            return ((GraphHorse) horse).id;
+        }
+
+        int id = intern(horse.getName(), horse.getFoalingDate());
+        if (colors[id] == null) {
+            colors[id] = horse.getColor();
+        }
+        if (sexes[id] == null) {
+            sexes[id] = horse.getSex();
+        }
+        if (foalingDates[id] == null) {
+            foalingDates[id] = horse.getFoalingDate();
+        }
+        if (foalingLocations[id] == null) {
+            foalingLocations[id] = horse.getFoalingLocation();
+        }
+        if (breeders[id] == null) {
+            breeders[id] = horse.getBreeder();
+        }
+        fillParent(sires, id, add(horse.getSire()));
+        fillParent(dams, id, add(horse.getDam()));
+        fillParent(damSires, id, add(horse.getDamSire()));
+        return id;
+    }
+
+    private int intern(String name, LocalDate foalingDate) {
+        String key = key(name);
+        int[] namesakes = idsByName.get(key);
+        int existing = (namesakes != null ? match(namesakes, foalingDate) : NONE);
+        if (existing != NONE) {
+            return existing;
+        }
+        if (size == names.length) {
+            grow();
+        }
+        int id = size++;
+        names[id] = name;
+        if (namesakes == null) {
+            idsByName.put(key, new int[]{id});
+        } else {
+            namesakes = Arrays.copyOf(namesakes, namesakes.length + 1);
+            namesakes[namesakes.length - 1] = id;
+            idsByName.put(key, namesakes);
+        }
+        invalidateProgeny();
+        return id;
+    }
+
+    /**
+     * @return the horse with this foaling date or, if there is none, the first whose foaling date
+     * is not known; without a foaling date, the only horse with the name, or else the first whose
+     * foaling date is not known. {@link #NONE} if a new horse is needed.
+     */
+    private int match(int[] namesakes, LocalDate foalingDate) {
+        if (foalingDate == null && namesakes.length == 1) {
+            return namesakes[0];
+        }
+        int undated = NONE;
+        for (int id : namesakes) {
+            if (foalingDate != null && foalingDate.equals(foalingDates[id])) {
+                return id;
+            }
+            if (foalingDates[id] == null && undated == NONE) {
+                undated = id;
+            }
+        }
+        return undated;
+    }
+
+    private static String key(String name) {
+        return name.trim().toUpperCase(Locale.US);
+    }
+
+    // keeps the first parent recorded for a horse, as for its other details
+    private void fillParent(int[] parents, int id, int parent) {
+        if (parent != NONE && parents[id] == NONE) {
+            parents[id] = parent;
+            invalidateProgeny();
+        }
+    }
+
+    private void setParent(int[] parents, int id, int parent) {
+        if (parents[id] != parent) {
+            parents[id] = parent;
+            invalidateProgeny();
+        }
+    }
+
+    private void invalidateProgeny() {
+        progenyOfSires = null;
+        progenyOfDams = null;
+        progenyOfDamSires = null;
+    }
+
+    private void grow() {
+        int capacity = names.length * 2;
+        names = Arrays.copyOf(names, capacity);
+        sires = grow(sires, capacity);
+        dams = grow(dams, capacity);
+        damSires = grow(damSires, capacity);
+        colors = Arrays.copyOf(colors, capacity);
+        sexes = Arrays.copyOf(sexes, capacity);
+        foalingDates = Arrays.copyOf(foalingDates, capacity);
+        foalingLocations = Arrays.copyOf(foalingLocations, capacity);
+        breeders = Arrays.copyOf(breeders, capacity);
+        views = Arrays.copyOf(views, capacity);
+    }
+
+    private static int[] grow(int[] ids, int capacity) {
+        int[] grown = Arrays.copyOf(ids, capacity);
+        Arrays.fill(grown, ids.length, capacity, NONE);
+        return grown;
+    }
+
+    /**
+     * @return the id of the (first added) horse with this name (ignoring case), or {@link #NONE}
+     */
+    public int getId(String name) {
+        int[] ids = (name != null ? idsByName.get(key(name)) : null);
+        return (ids != null ? ids[0] : NONE);
+    }
+
+    /**
+     * @return the ids of every horse with this name (ignoring case), in the order they were added
+     */
+    public int[] getIds(String name) {
+        int[] ids = (name != null ? idsByName.get(key(name)) : null);
+        return (ids != null ? ids.clone() : new int[0]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getName(int id) {
+        return names[checkId(id)];
+    }
+
+    public int getSire(int id) {
+        return sires[checkId(id)];
+    }
+
+    public int getDam(int id) {
+        return dams[checkId(id)];
+    }
+
+    /**
+     * @return the damsire or, if the chart did not list one, the sire of the dam
+     */
+    public int getDamSire(int id) {
+        int damSire = damSires[checkId(id)];
+        if (damSire == NONE && dams[id] != NONE) {
+            damSire = sires[dams[id]];
+        }
+        return damSire;
+    }
+
+    private int checkId(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException(String.format("No horse with id %d", id));
+        }
+        return id;
+    }
+
+    /**
+     * @return the shared view of this horse, or null for {@link #NONE}
+     */
+    public Horse getHorse(int id) {
+        if (id == NONE) {
+            return null;
+        }
+        checkId(id);
+        if (views[id] == null) {
+            views[id] = new GraphHorse(this, id);
+        }
+        return views[id];
+    }
+
+    public Horse getHorse(String name) {
+        return getHorse(getId(name));
+    }
+
+    /**
+     * @return the ids of the foals of this sire
+     */
+    public int[] getProgenyOfSire(int id) {
+        if (progenyOfSires == null) {
+            progenyOfSires = new Progeny(sires, size);
+        }
+        return progenyOfSires.of(checkId(id));
+    }
+
+    /**
+     * @return the ids of the foals of this dam
+     */
+    public int[] getProgenyOfDam(int id) {
+        if (progenyOfDams == null) {
+            progenyOfDams = new Progeny(dams, size);
+        }
+        return progenyOfDams.of(checkId(id));
+    }
+
+    /**
+     * @return the ids of the horses whose dam was sired by this horse
+     */
+    public int[] getProgenyOfDamSire(int id) {
+        if (progenyOfDamSires == null) {
+            int[] resolved = new int[size];
+            for (int foal = 0; foal < size; foal++) {
+                resolved[foal] = getDamSire(foal);
+            }
+            progenyOfDamSires = new Progeny(resolved, size);
+        }
+        return progenyOfDamSires.of(checkId(id));
+    }
+
+    @JsonProperty("horses")
+    public List<Entry> getEntries() {
+        return new AbstractList<Entry>() {
+            @Override
+            public Entry get(int id) {
+                return new Entry(id, names[id], idOrNull(sires[id]), idOrNull(dams[id]),
+                        idOrNull(damSires[id]), colors[id], sexes[id], foalingDates[id],
+                        foalingLocations[id], breeders[id]);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private static Integer idOrNull(int id) {
+        return (id != NONE ? id : null);
+    }
+
+    /**
+     * A horse of the graph as serialized, with its parents as ids
+     */
+    @Data
+    @JsonInclude(NON_NULL)
+    public static class Entry {
+        private final int id;
+        private final String name;
+        private final Integer sire;
+        private final Integer dam;
+        private final Integer damSire;
+        private final String color;
+        private final String sex;
+        private final LocalDate foalingDate;
+        private final String foalingLocation;
+        private final Breeder breeder;
+    }
+
+    private static class Progeny {
+        private final int[] offsets;
+        private final int[] foals;
+
+        // counting sort of the foals by parent
+        Progeny(int[] parents, int size) {
+            offsets = new int[size + 1];
+            for (int foal = 0; foal < size; foal++) {
+                if (parents[foal] != NONE) {
+                    offsets[parents[foal] + 1]++;
+                }
+            }
+            for (int id = 0; id < size; id++) {
+                offsets[id + 1] += offsets[id];
+            }
+            foals = new int[offsets[size]];
+            int[] next = Arrays.copyOf(offsets, size);
+            for (int foal = 0; foal < size; foal++) {
+                if (parents[foal] != NONE) {
+                    foals[next[parents[foal]]++] = foal;
+                }
+            }
+        }
+
+        int[] of(int id) {
+            return Arrays.copyOfRange(foals, offsets[id], offsets[id + 1]);
+        }
+    }
+
+    /**
+     * A {@link Horse} backed by the graph: its details and pedigree are read from (and written
+     * to) the graph's arrays, so the same sire is one shared object under all of its foals. Views
+     * are equal if they are the same horse of the same graph, so comparing or printing one never
+     * walks its pedigree.
+     */
+    static class GraphHorse extends Horse {
+        private final PedigreeGraph graph;
+        private final int id;
+
+        GraphHorse(PedigreeGraph graph, int id) {
+            super(graph.names[id]);
+            this.graph = graph;
+            this.id = id;
+        }
+
+        @JsonIgnore
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public String getColor() {
+            return graph.colors[id];
+        }
+
+        @Override
+        public void setColor(String color) {
+            graph.colors[id] = color;
+        }
+
+        @Override
+        public String getSex() {
+            return graph.sexes[id];
+        }
+
+        @Override
+        public void setSex(String sex) {
+            graph.sexes[id] = sex;
+        }
+
+        @Override
+        public Horse getSire() {
+            return graph.getHorse(graph.sires[id]);
+        }
+
+        @Override
+        public void setSire(Horse sire) {
+            graph.setParent(graph.sires, id, graph.add(sire));
+        }
+
+        @Override
+        public Horse getDam() {
+            return graph.getHorse(graph.dams[id]);
+        }
+
+        @Override
+        public void setDam(Horse dam) {
+            graph.setParent(graph.dams, id, graph.add(dam));
+        }
+
+        /**
+         * @return the damsire or, if the chart did not list one, the sire of the dam
+         */
+        @Override
+        public Horse getDamSire() {
+            return graph.getHorse(graph.getDamSire(id));
+        }
+
+        @Override
+        public void setDamSire(Horse damSire) {
+            graph.setParent(graph.damSires, id, graph.add(damSire));
+        }
+
+        @Override
+        public LocalDate getFoalingDate() {
+            return graph.foalingDates[id];
+        }
+
+        @Override
+        public void setFoalingDate(LocalDate foalingDate) {
+            graph.foalingDates[id] = foalingDate;
+        }
+
+        @Override
+        public String getFoalingLocation() {
+            return graph.foalingLocations[id];
+        }
+
+        @Override
+        public void setFoalingLocation(String foalingLocation) {
+            graph.foalingLocations[id] = foalingLocation;
+        }
+
+        @Override
+        public Breeder getBreeder() {
+            return graph.breeders[id];
+        }
+
+        @Override
+        public void setBreeder(Breeder breeder) {
+            graph.breeders[id] = breeder;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof GraphHorse)) {
+                return false;
+            }
+            GraphHorse other = (GraphHorse) o;
+            return (graph == other.graph && id == other.id);
+        }
+
+        @Override
+        protected boolean canEqual(Object other) {
+            return (other instanceof GraphHorse);
+        }
+
+        @Override
+        public int hashCode() {
+            return (31 * System.identityHashCode(graph)) + id;
+        }
+
+        @Override
+        public String toString() {
+            return "PedigreeGraph.GraphHorse(id=" + id + ", name=" + getName() + ")";
+        }
+    }
+}
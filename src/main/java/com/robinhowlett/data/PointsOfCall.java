@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,8 +21,8 @@ import static com.robinhowlett.data.Race.round;
 /**
  * Stores the {@link PointOfCall} instances for a particular race distance
  */
-@EqualsAndHashCode
-@ToString
+@EqualsAndHashCode(exclude = "callsByPoint")
+@ToString(exclude = "callsByPoint")
 public class PointsOfCall {
 
     @Getter
@@ -30,6 +31,8 @@ public class PointsOfCall {
     private final int floor;
     @Getter
     private final List<PointOfCall> calls;
+    // the calls indexed by their point value, so the stretch and finish are direct lookups
+    private final PointOfCall[] callsByPoint;
 
     @JsonCreator
     public PointsOfCall(
@@ -39,6 +42,28 @@ public class PointsOfCall {
         this.distance = distance;
         this.floor = floor;
         this.calls = calls;
+        this.callsByPoint = indexByPoint(calls);
+    }
+
+    static PointOfCall[] indexByPoint(List<PointOfCall> calls) {
+        if (calls == null) {
+            return new PointOfCall[0];
+        }
+
+        int maxPoint = -1;
+        for (PointOfCall pointOfCall : calls) {
+            maxPoint = Math.max(maxPoint, pointOfCall.getPoint());
+        }
+
+        PointOfCall[] callsByPoint = new PointOfCall[maxPoint + 1];
+        for (PointOfCall pointOfCall : calls) {
+            int point = pointOfCall.getPoint();
+            // keep the first call for a point, as the original linear scan did
+            if (point >= 0 && callsByPoint[point] == null) {
+                callsByPoint[point] = pointOfCall;
+            }
+        }
+        return callsByPoint;
     }
 
     public Optional<PointOfCall> getStretchPointOfCall() {
@@ -50,12 +75,25 @@ public class PointsOfCall {
     }
 
     private Optional<PointOfCall> getPointOfCall(int index) {
-        for (PointOfCall pointOfCall : getCalls()) {
-            if (pointOfCall.getPoint() == index) {
-                return Optional.of(pointOfCall);
+        return (index >= 0 && index < callsByPoint.length ?
+                Optional.ofNullable(callsByPoint[index]) : Optional.empty());
+    }
+
+    /**
+     * Creates fresh copies of the calls so that per-{@link Starter} state (e.g. the {@link
+     * PointOfCall.RelativePosition}) is never written onto a shared template
+     *
+     * @return a new {@link List} of new {@link PointOfCall} instances
+     */
+    public List<PointOfCall> copyCalls() {
+        List<PointOfCall> copies = new ArrayList<>();
+        if (calls != null) {
+            for (PointOfCall pointOfCall : calls) {
+                copies.add(new PointOfCall(pointOfCall.getPoint(), pointOfCall.getText(),
+                        pointOfCall.getCompact(), pointOfCall.getFeet()));
             }
         }
-        return Optional.empty();
+        return copies;
     }
 
     /**
@@ -6,40 +6,51 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-import lombok.Setter;
 import lombok.ToString;
 
 /**
  * Parses and stores the value amount, textual description, and any other additional information
  * specific to or enhancing the value
+ * <p>
+ * The enhancements' JSON text, the enhancements by type, and the numeric {@link Breakdown} of the
+ * purse are built on first access and cached until a setter is called or an enhancement is added
+ * to (or removed from) {@link #enhancementsList}; replacing an enhancement in place is not
+ * detected.
  */
 @JsonPropertyOrder({"value", "text", "availableMoney", "enhancements", "valueOfRace"})
 @NoArgsConstructor
-@EqualsAndHashCode
-@ToString
+@EqualsAndHashCode(exclude = "parsed")
+@ToString(exclude = "parsed")
 public class Purse {
 
+    private static final Pattern AMOUNT = Pattern.compile("\\$([\\d,]+)");
+    private static final Pattern PAYOUT =
+            Pattern.compile("(\\d+)(?:st|nd|rd|th)\\s+\\$([\\d,]+)", Pattern.CASE_INSENSITIVE);
+
     @JsonIgnore
     public List<PurseEnhancement> enhancementsList = new ArrayList<>();
     @Getter
-    @Setter
     private Integer value;
     @Getter
-    @Setter
     private String text;
     @Getter
-    @Setter
     private String availableMoney;
     @Getter
-    @Setter
     private String valueOfRace;
+    private Parsed parsed;
 
     @JsonCreator
     public Purse(Integer value, String text, String availableMoney, String valueOfRace,
@@ -51,18 +62,183 @@ public class Purse {
         this.enhancementsList = enhancementsList;
     }
 
+    public void setValue(Integer value) {
+        this.value = value;
+        this.parsed = null;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+        this.parsed = null;
+    }
+
+    public void setAvailableMoney(String availableMoney) {
+        this.availableMoney = availableMoney;
+        this.parsed = null;
+    }
+
+    public void setValueOfRace(String valueOfRace) {
+        this.valueOfRace = valueOfRace;
+        this.parsed = null;
+    }
+
     @JsonProperty("enhancements")
     public String getEnhancements() {
-        return (!enhancementsList.isEmpty() ? enhancementsList.stream()
-                .map(purseEnhancement -> String.format("%s: %s",
-                        purseEnhancement.getType().getChartValue(), purseEnhancement.getText()))
-                .collect(Collectors.joining(", ")) : null);
+        return parsed().enhancements;
     }
 
     public List<PurseEnhancement> getEnhancements(EnhancementType enhancementType) {
-        return enhancementsList.stream()
-                .filter(enhancement -> enhancement.getType().equals(enhancementType))
-                .collect(Collectors.toList());
+        return parsed().enhancementsByType.getOrDefault(enhancementType,
+                Collections.emptyList());
+    }
+
+    /**
+     * @return the purse's amounts as numbers
+     */
+    @JsonIgnore
+    public Breakdown getBreakdown() {
+        return parsed().breakdown;
+    }
+
+    private Parsed parsed() {
+        Parsed current = parsed;
+        if (current == null || current.enhancementsList != enhancementsList ||
+                current.size != size(enhancementsList)) {
+            current = new Parsed(this);
+            parsed = current;
+        }
+        return current;
+    }
+
+    private static int size(List<PurseEnhancement> enhancementsList) {
+        return (enhancementsList != null ? enhancementsList.size() : 0);
+    }
+
+    /**
+     * @return the first dollar amount in the text, or null if there isn't one
+     */
+    static Integer parseAmount(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = AMOUNT.matcher(text);
+        return (matcher.find() ? parseDollars(matcher.group(1)) : null);
+    }
+
+    private static Integer parseDollars(String digits) {
+        String amount = digits.replace(",", "");
+        return (!amount.isEmpty() ? Integer.valueOf(amount) : null);
+    }
+
+    /**
+     * @return the payout of each finishing position listed in the value of the race text e.g.
+     * "$9,700 1st $5,820, 2nd $1,940, 3rd $970", indexed by position - 1
+     */
+    static int[] parsePayouts(String valueOfRace) {
+        int[] payouts = new int[0];
+        if (valueOfRace == null) {
+            return payouts;
+        }
+        Matcher matcher = PAYOUT.matcher(valueOfRace);
+        while (matcher.find()) {
+            int position = Integer.parseInt(matcher.group(1));
+            Integer payout = parseDollars(matcher.group(2));
+            if (position < 1 || payout == null) {
+                continue;
+            }
+            if (position > payouts.length) {
+                payouts = Arrays.copyOf(payouts, position);
+            }
+            payouts[position - 1] = payout;
+        }
+        return payouts;
+    }
+
+    /**
+     * Everything derived from the purse's text and enhancements, built together
+     */
+    private static class Parsed {
+        private final List<PurseEnhancement> enhancementsList;
+        private final int size;
+        private final String enhancements;
+        private final Map<EnhancementType, List<PurseEnhancement>> enhancementsByType =
+                new EnumMap<>(EnhancementType.class);
+        private final Breakdown breakdown;
+
+        Parsed(Purse purse) {
+            enhancementsList = purse.enhancementsList;
+            size = size(enhancementsList);
+            enhancements = (size > 0 ? enhancementsList.stream()
+                    .map(purseEnhancement -> String.format("%s: %s",
+                            purseEnhancement.getType().getChartValue(),
+                            purseEnhancement.getText()))
+                    .collect(Collectors.joining(", ")) : null);
+
+            int plus = 0;
+            int includes = 0;
+            for (int i = 0; i < size; i++) {
+                PurseEnhancement enhancement = enhancementsList.get(i);
+                enhancementsByType.computeIfAbsent(enhancement.getType(),
+                        type -> new ArrayList<>()).add(enhancement);
+                Integer amount = parseAmount(enhancement.getText());
+                if (amount != null && enhancement.getType() == EnhancementType.PLUS) {
+                    plus += amount;
+                } else if (amount != null && enhancement.getType() == EnhancementType.INCLUDES) {
+                    includes += amount;
+                }
+            }
+            enhancementsByType.replaceAll((type, list) -> Collections.unmodifiableList(list));
+
+            breakdown = new Breakdown(purse.value, parseAmount(purse.availableMoney), plus,
+                    includes, parseAmount(purse.valueOfRace), parsePayouts(purse.valueOfRace));
+        }
+    }
+
+    /**
+     * The amounts of the purse as numbers (in whole dollars): its value, the available money, the
+     * money added to (plus) or included in the value by its enhancements, and the value of the
+     * race with what each finishing position was paid
+     */
+    @EqualsAndHashCode
+    @ToString
+    public static class Breakdown {
+        @Getter
+        private final Integer value;
+        @Getter
+        private final Integer availableMoney;
+        @Getter
+        private final int addedMoney;
+        @Getter
+        private final int includedMoney;
+        @Getter
+        private final Integer valueOfRace;
+        private final int[] payouts;
+
+        Breakdown(Integer value, Integer availableMoney, int addedMoney, int includedMoney,
+                Integer valueOfRace, int[] payouts) {
+            this.value = value;
+            this.availableMoney = availableMoney;
+            this.addedMoney = addedMoney;
+            this.includedMoney = includedMoney;
+            this.valueOfRace = valueOfRace;
+            this.payouts = payouts;
+        }
+
+        /**
+         * @return the number of finishing positions listed with a payout
+         */
+        public int getPaidPositions() {
+            return payouts.length;
+        }
+
+        /**
+         * @param position the official finishing position
+         * @return what the position was paid, or 0 if it is not listed
+         */
+        public int getPayout(Integer position) {
+            return (position != null && position >= 1 && position <= payouts.length ?
+                    payouts[position - 1] : 0);
+        }
     }
 
     /**
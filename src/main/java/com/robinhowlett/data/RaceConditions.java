@@ -1,38 +1,28 @@
 package com.robinhowlett.data;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.text.NumberFormat;
-import java.text.ParseException;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.ToString;
 
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
 import static com.robinhowlett.data.RaceRestrictions.ALL_SEXES;
 
-import static java.util.Locale.US;
-
 /**
  * Parses and stores the textual description of the race conditions and, if applicable, the minimum
  * and maximum claiming prices that can be availed of
  */
 @JsonPropertyOrder({"raceTypeNameBlackTypeBreed", "text", "restrictions", "purse",
         "claimingPriceRange", "summary"})
-@EqualsAndHashCode
-@ToString
+@EqualsAndHashCode(exclude = "summaryComponents")
+@ToString(exclude = "summaryComponents")
 public class RaceConditions {
 
     @Getter
@@ -45,11 +35,11 @@ public class RaceConditions {
     @JsonProperty("raceTypeNameBlackTypeBreed") // required for property order but unwrapped
     @JsonUnwrapped
     @Getter
-    @Setter
     private RaceTypeNameBlackTypeBreed raceTypeNameBlackTypeBreed;
     @Getter
-    @Setter
     private Purse purse;
+    // built on first access and discarded whenever the race type or purse is replaced
+    private SummaryComponents summaryComponents;
 
     public RaceConditions(String text, ClaimingPriceRange claimingPriceRange,
             RaceRestrictions raceRestrictions) {
@@ -67,57 +57,130 @@ public class RaceConditions {
         this.purse = purse;
     }
 
+    public void setRaceTypeNameBlackTypeBreed(
+            RaceTypeNameBlackTypeBreed raceTypeNameBlackTypeBreed) {
+        this.raceTypeNameBlackTypeBreed = raceTypeNameBlackTypeBreed;
+        this.summaryComponents = null;
+    }
+
+    public void setPurse(Purse purse) {
+        this.purse = purse;
+        this.summaryComponents = null;
+    }
+
     @JsonProperty("summary")
     public String getSummary() {
-        return buildSummary(restrictions, raceTypeNameBlackTypeBreed, claimingPriceRange, purse);
+        return getSummaryComponents().getSummary();
+    }
+
+    /**
+     * The summary is cached, so changes made directly to the {@link Purse} instance (rather than
+     * via {@link #setPurse(Purse)}) are not reflected
+     *
+     * @return the summary and its individual components
+     */
+    @JsonIgnore
+    public SummaryComponents getSummaryComponents() {
+        SummaryComponents components = summaryComponents;
+        if (components == null) {
+            components = buildSummaryComponents(restrictions, raceTypeNameBlackTypeBreed,
+                    claimingPriceRange, purse);
+            summaryComponents = components;
+        }
+        return components;
+    }
+
+    static SummaryComponents buildSummaryComponents(RaceRestrictions restrictions,
+            RaceTypeNameBlackTypeBreed raceTypeNameBlackTypeBreed,
+            ClaimingPriceRange claimingPriceRange, Purse purse) {
+        String summary = buildSummary(restrictions, raceTypeNameBlackTypeBreed,
+                claimingPriceRange, purse);
+
+        boolean claimingRace = (raceTypeNameBlackTypeBreed != null &&
+                isClaimingRace(raceTypeNameBlackTypeBreed.getType()));
+        Integer grade = (raceTypeNameBlackTypeBreed != null ?
+                raceTypeNameBlackTypeBreed.getGrade() : null);
+
+        int minClaim = 0, maxClaim = 0;
+        if (claimingRace && claimingPriceRange != null) {
+            minClaim = claimingPriceRange.getMin();
+            maxClaim = claimingPriceRange.getMax();
+        }
+
+        int purseBucket = 0;
+        if (!claimingRace && purse != null && purse.getValue() != null) {
+            purseBucket = toHundreds(purse.getValue());
+        }
+
+        return new SummaryComponents(summary,
+                (restrictions != null ? restrictions.getAgeCode() : null),
+                (restrictions != null && restrictions.getMinAge() != null ?
+                        restrictions.getMinAge() : 0),
+                (restrictions != null && restrictions.getMaxAge() != null ?
+                        restrictions.getMaxAge() : 0),
+                (restrictions != null ? restrictions.getSexes() : 0),
+                (restrictions != null && restrictions.isStateBred()),
+                (raceTypeNameBlackTypeBreed != null ? raceTypeNameBlackTypeBreed.getCode() : null),
+                (grade != null ? grade : 0),
+                claimingRace, minClaim, maxClaim, purseBucket);
     }
 
     static String buildSummary(RaceRestrictions restrictions,
             RaceTypeNameBlackTypeBreed raceTypeNameBlackTypeBreed,
             ClaimingPriceRange claimingPriceRange, Purse purse) {
-        String code = buildAgeSexesSummary(restrictions);
+        StringBuilder code = new StringBuilder(32);
+
+        appendAgeSexesSummary(code, restrictions);
 
-        code = buildStateBredSummary(code, restrictions);
+        appendStateBredSummary(code, restrictions);
 
         boolean claimingRace = false;
         if (raceTypeNameBlackTypeBreed != null) {
             claimingRace = isClaimingRace(raceTypeNameBlackTypeBreed.getType());
-            code = buildCodeSummary(code, raceTypeNameBlackTypeBreed);
+            appendCodeSummary(code, raceTypeNameBlackTypeBreed);
         }
 
         // for Claiming Races, use the claiming price range rather than the purse
         if (claimingRace) {
-            code = buildClaimingPriceSummary(code, claimingPriceRange);
+            appendClaimingPriceSummary(code, claimingPriceRange);
         } else {
-            code = buildPurseSummary(code, purse);
+            appendPurseSummary(code, purse);
         }
 
-        code = buildRestrictionsCode(code, restrictions);
+        appendRestrictionsCode(code, restrictions);
 
-        return (!code.isEmpty() ? code : null);
+        return (code.length() > 0 ? code.toString() : null);
     }
 
     static String buildStateBredSummary(String code, RaceRestrictions restrictions) {
+        return appendStateBredSummary(new StringBuilder(code), restrictions).toString();
+    }
+
+    static StringBuilder appendStateBredSummary(StringBuilder code,
+            RaceRestrictions restrictions) {
         if (restrictions != null && restrictions.isStateBred()) {
-            if (!code.isEmpty()) {
-                code = code.concat(" ").concat("[S]");
-            } else {
-                code = "[S]";
+            if (code.length() > 0) {
+                code.append(' ');
             }
+            code.append("[S]");
         }
         return code;
     }
 
     static String buildAgeSexesSummary(RaceRestrictions restrictions) {
-        String code = "";
+        return appendAgeSexesSummary(new StringBuilder(), restrictions).toString();
+    }
+
+    static StringBuilder appendAgeSexesSummary(StringBuilder code,
+            RaceRestrictions restrictions) {
         if (restrictions != null) {
             if (restrictions.getAgeCode() != null) {
-                code = restrictions.getAgeCode();
+                code.append(restrictions.getAgeCode());
             }
             if (restrictions.getSexesCode() != null && restrictions.getSexes() != ALL_SEXES) {
-                code = (!code.isEmpty() ?
-                        code.concat(" (").concat(restrictions.getSexesCode()) :
-                        code.concat("(").concat(restrictions.getSexesCode())).concat(")");
+                code.append(code.length() > 0 ? " (" : "(")
+                        .append(restrictions.getSexesCode())
+                        .append(')');
             }
         }
         return code;
@@ -125,27 +188,28 @@ public class RaceConditions {
 
     static String buildCodeSummary(String code,
             RaceTypeNameBlackTypeBreed raceTypeNameBlackTypeBreed) {
+        return appendCodeSummary(new StringBuilder(code), raceTypeNameBlackTypeBreed).toString();
+    }
+
+    static StringBuilder appendCodeSummary(StringBuilder code,
+            RaceTypeNameBlackTypeBreed raceTypeNameBlackTypeBreed) {
         Integer grade = raceTypeNameBlackTypeBreed.getGrade();
         if (grade != null) {
-            String gradeCode = "G".concat(String.valueOf(grade));
-            if (!code.isEmpty()) {
-                return code.concat(" ").concat(gradeCode);
-            } else {
-                return gradeCode;
+            if (code.length() > 0) {
+                code.append(' ');
             }
+            code.append('G').append(grade.intValue());
         } else {
             // e.g. ALW, CLM, AOC
             String raceCode = raceTypeNameBlackTypeBreed.getCode();
             if (raceCode != null) {
-                if (!code.isEmpty()) {
-                    return code.concat(" ").concat(raceCode);
-                } else {
-                    return raceCode;
+                if (code.length() > 0) {
+                    code.append(' ');
                 }
-            } else {
-                return code;
+                code.append(raceCode);
             }
         }
+        return code;
     }
 
     public static boolean isClaimingRace(String type) {
@@ -153,59 +217,137 @@ public class RaceConditions {
     }
 
     static String buildClaimingPriceSummary(String code, ClaimingPriceRange claimingPriceRange) {
+        return appendClaimingPriceSummary(new StringBuilder(code), claimingPriceRange)
+                .toString();
+    }
+
+    static StringBuilder appendClaimingPriceSummary(StringBuilder code,
+            ClaimingPriceRange claimingPriceRange) {
         if (claimingPriceRange != null) {
-            Integer max = claimingPriceRange.getMax();
-            Integer min = claimingPriceRange.getMin();
-            if ((max != null) && (max > 0)) {
-                String shortClaim;
-                // for claiming prices less than 10000, use a single decimal point
-                if (max >= 10000) {
-                    // e.g. CLM 50K
-                    shortClaim = String.valueOf(max / 1000);
-                } else {
-                    // e.g. MCL 5.5K
-                    shortClaim = String.format("%.1f", max / (double) 1000);
-                }
+            int max = claimingPriceRange.getMax();
+            int min = claimingPriceRange.getMin();
+            if (max > 0) {
+                code.append(' ');
+                // e.g. CLM 50K, or MCL 5.5K for claiming prices less than 10000
+                appendThousands(code, max);
 
                 // for claiming races with a range, format it as "max-minK", else "priceK"
-                if ((min != null) && (Integer.compare(min, max) != 0) && (min > 0)) {
-                    if (min >= 10000) {
-                        // e.g. CLM 50-45K
-                        shortClaim = shortClaim.concat("-")
-                                .concat(String.valueOf(min / 1000));
-                    } else {
-                        // e.g. CLM 5.5-4.5K
-                        shortClaim = shortClaim.concat("-")
-                                .concat(String.format("%.1f", min / (double) 1000));
-                    }
+                if ((min != max) && (min > 0)) {
+                    // e.g. CLM 50-45K or CLM 5.5-4.5K
+                    appendThousands(code.append('-'), min);
                 }
 
-                code = code.concat(" ").concat(shortClaim).concat("K");
+                code.append('K');
             }
         }
         return code;
     }
 
     static String buildPurseSummary(String code, Purse purse) {
+        return appendPurseSummary(new StringBuilder(code), purse).toString();
+    }
+
+    static StringBuilder appendPurseSummary(StringBuilder code, Purse purse) {
         if (purse != null && purse.getValue() != null) {
-            String shortPurse;
-            if (purse.getValue() >= 10000) {
-                shortPurse = String.valueOf(purse.getValue() / 1000);
-            } else {
-                shortPurse = String.format("%.1f", purse.getValue() / (double) 1000);
-            }
-            code = code.concat(" ").concat(shortPurse).concat("K");
+            appendThousands(code.append(' '), purse.getValue()).append('K');
         }
         return code;
     }
 
     static String buildRestrictionsCode(String code, RaceRestrictions restrictions) {
+        return appendRestrictionsCode(new StringBuilder(code), restrictions).toString();
+    }
+
+    static StringBuilder appendRestrictionsCode(StringBuilder code,
+            RaceRestrictions restrictions) {
         if ((restrictions != null) && (restrictions.getCode() != null)) {
-            code = code.concat(" (").concat(restrictions.getCode()).concat(")");
+            code.append(" (").append(restrictions.getCode()).append(')');
         }
         return code;
     }
 
+    /**
+     * Appends the amount in thousands: whole thousands (rounded down) for amounts of 10000 or
+     * more, otherwise to a single decimal place (rounded half-up) e.g. 50K, 5.5K
+     */
+    static StringBuilder appendThousands(StringBuilder code, int amount) {
+        if (amount >= 10000) {
+            return code.append(amount / 1000);
+        }
+
+        int hundreds = toHundreds(amount);
+        if (hundreds < 0) {
+            code.append('-');
+            hundreds = -hundreds;
+        } else if (amount < 0) {
+            code.append('-'); // e.g. -40 is "-0.0"
+        }
+        return code.append(hundreds / 10).append('.').append(hundreds % 10);
+    }
+
+    /**
+     * @return the amount in hundreds, at the same precision used by the summary text i.e. whole
+     * thousands for amounts of 10000 or more, otherwise rounded half-up to the nearest hundred
+     */
+    static int toHundreds(int amount) {
+        if (amount >= 10000) {
+            return (amount / 1000) * 10;
+        }
+        return (amount >= 0 ? (amount + 50) / 100 : -((50 - amount) / 100));
+    }
+
+    /**
+     * The individual parts of the race conditions summary, stored as primitives (or codes) so that
+     * races can be grouped without parsing the summary text
+     */
+    @EqualsAndHashCode
+    @ToString
+    public static class SummaryComponents {
+        @Getter
+        private final String summary;
+        @Getter
+        private final String ageCode;
+        @Getter
+        private final int minAge; // 0 if unknown
+        @Getter
+        private final int maxAge; // -1 if there is no maximum age, 0 if unknown
+        @Getter
+        private final int sexes; // the RaceRestrictions bitmask, 0 if unknown
+        @Getter
+        private final boolean stateBred;
+        @Getter
+        private final String code; // e.g. ALW, CLM, STK
+        @Getter
+        private final int grade; // 0 if not a graded race
+        @Getter
+        private final boolean claiming;
+        @Getter
+        private final int minClaim; // 0 if not a claiming race
+        @Getter
+        private final int maxClaim; // 0 if not a claiming race
+        // the purse as presented in the summary, in hundreds of dollars e.g. 200 for "20K" and 55
+        // for "5.5K"; 0 for claiming races or when the purse is unknown
+        @Getter
+        private final int purseBucket;
+
+        public SummaryComponents(String summary, String ageCode, int minAge, int maxAge,
+                int sexes, boolean stateBred, String code, int grade, boolean claiming,
+                int minClaim, int maxClaim, int purseBucket) {
+            this.summary = summary;
+            this.ageCode = ageCode;
+            this.minAge = minAge;
+            this.maxAge = maxAge;
+            this.sexes = sexes;
+            this.stateBred = stateBred;
+            this.code = code;
+            this.grade = grade;
+            this.claiming = claiming;
+            this.minClaim = minClaim;
+            this.maxClaim = maxClaim;
+            this.purseBucket = purseBucket;
+        }
+    }
+
     /**
      * Stores the range of the claiming prices that apply to a claiming race. Some claiming races
      * allow setting the claim within a particular range, others give weight allowances for lower
@@ -213,59 +355,114 @@ public class RaceConditions {
      */
     @Data
     public static class ClaimingPriceRange {
-        private static final Logger LOGGER = LoggerFactory.getLogger(ClaimingPriceRange.class);
-        private static final Pattern CLAIMING_PRICE_PATTERN =
-                Pattern.compile("Claiming Price: " +
-                        "\\$([0-9]{1,3}(,[0-9]{3})*)( - \\$([0-9]{1,3}(,[0-9]{3})*))?$");
+        static final String CLAIMING_PRICE_PREFIX = "Claiming Price: $";
+        static final String RANGE_SEPARATOR = " - $";
 
         private final int min;
         private final int max;
 
+        /**
+         * Scans for conditions ending in "Claiming Price: $25,000" or "Claiming Price: $25,000 -
+         * $22,500" (optionally followed by a single line terminator), where the amounts use
+         * comma-grouped thousands
+         *
+         * @param raceConditions the race conditions text
+         * @return the parsed {@link ClaimingPriceRange}, or null if the conditions do not end with
+         * a claiming price
+         */
         public static ClaimingPriceRange parse(String raceConditions) {
             if (raceConditions == null || raceConditions.isEmpty()) {
                 return null;
             }
 
-            Integer maxClaim = null, minClaim = null;
-            Matcher matcher = CLAIMING_PRICE_PATTERN.matcher(raceConditions);
-            if (matcher.find()) {
-                String maxClaimAmount = matcher.group(1);
-                if (maxClaimAmount != null) {
-                    try {
-                        maxClaim =
-                                NumberFormat.getNumberInstance(US).parse(maxClaimAmount).intValue();
-                    } catch (ParseException e) {
-                        LOGGER.error(String.format("Unable to parse a max claim price value from " +
-                                "text: %s", maxClaimAmount), e);
-                    }
-                }
+            int end = endIgnoringFinalLineTerminator(raceConditions);
 
-                String minClaimAmount = matcher.group(4);
-                if (minClaimAmount != null) {
-                    try {
-                        minClaim =
-                                NumberFormat.getNumberInstance(US).parse(minClaimAmount).intValue();
-                    } catch (ParseException e) {
-                        LOGGER.error(String.format("Unable to parse a min claim price value from " +
-                                "text: %s", minClaimAmount), e);
-                    }
-                } else if (maxClaim != null) {
-                    minClaim = maxClaim;
-                }
+            // only the last occurrence can be followed by nothing other than the amounts
+            int start = raceConditions.lastIndexOf(CLAIMING_PRICE_PREFIX,
+                    end - CLAIMING_PRICE_PREFIX.length());
+            if (start < 0) {
+                return null;
+            }
 
-                // integrity check
-                if (minClaim != null && maxClaim != null) {
-                    if (minClaim > maxClaim) {
-                        int holder = maxClaim;
-                        minClaim = holder;
-                        maxClaim = minClaim;
-                    }
+            int maxStart = start + CLAIMING_PRICE_PREFIX.length();
+            int maxEnd = scanAmount(raceConditions, maxStart, end);
+            if (maxEnd < 0) {
+                return null;
+            }
+
+            int maxClaim = amountValue(raceConditions, maxStart, maxEnd);
+            int minClaim;
+            if (maxEnd == end) {
+                minClaim = maxClaim;
+            } else if (raceConditions.startsWith(RANGE_SEPARATOR, maxEnd)) {
+                int minStart = maxEnd + RANGE_SEPARATOR.length();
+                int minEnd = scanAmount(raceConditions, minStart, end);
+                if (minEnd != end) {
+                    return null;
                 }
+                minClaim = amountValue(raceConditions, minStart, minEnd);
+            } else {
+                return null;
+            }
 
-                return new ClaimingPriceRange(minClaim, maxClaim);
+            // integrity check
+            if (minClaim > maxClaim) {
+                int holder = maxClaim;
+                maxClaim = minClaim;
+                minClaim = holder;
             }
 
-            return null;
+            return new ClaimingPriceRange(minClaim, maxClaim);
+        }
+
+        // mirrors a regex "$" boundary, which also matches before a final line terminator
+        static int endIgnoringFinalLineTerminator(String text) {
+            int end = text.length();
+            char last = text.charAt(end - 1);
+            if (last == '\n') {
+                return (end > 1 && text.charAt(end - 2) == '\r' ? end - 2 : end - 1);
+            } else if (last == '\r' || last == '\u0085' || last == '\u2028' ||
+                    last == '\u2029') {
+                return end - 1;
+            }
+            return end;
+        }
+
+        /**
+         * @return the index immediately after an amount of one to three digits followed by any
+         * number of comma-separated groups of three digits, or -1 if there is no such amount
+         */
+        static int scanAmount(String text, int from, int end) {
+            int index = from;
+            while (index < end && index - from < 3 && isDigit(text.charAt(index))) {
+                index++;
+            }
+            if (index == from) {
+                return -1;
+            }
+
+            while (index + 3 < end && text.charAt(index) == ',' &&
+                    isDigit(text.charAt(index + 1)) && isDigit(text.charAt(index + 2)) &&
+                    isDigit(text.charAt(index + 3))) {
+                index += 4;
+            }
+            return index;
+        }
+
+        // the digits of a previously scanned amount, saturating at Integer.MAX_VALUE
+        static int amountValue(String text, int from, int to) {
+            long value = 0;
+            for (int i = from; i < to; i++) {
+                char c = text.charAt(i);
+                if (c != ',') {
+                    value = Math.min((value * 10) + (c - '0'), Integer.MAX_VALUE);
+                }
+            }
+            return (int) value;
+        }
+
+        private static boolean isDigit(char c) {
+            return (c >= '0' && c <= '9');
         }
     }
 }
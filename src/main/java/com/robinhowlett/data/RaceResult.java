@@ -69,7 +69,7 @@ public class RaceResult implements Race {
     private final RaceConditions raceConditions;
     @JsonProperty("distanceSurfaceTrackRecord") // required for property order but unwrapped
     @JsonUnwrapped
-//    @Getter
+    @Getter
     private final DistanceSurfaceTrackRecord distanceSurfaceTrackRecord;
     @Getter
     private final Weather weather;
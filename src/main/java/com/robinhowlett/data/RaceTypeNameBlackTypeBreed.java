@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 import java.util.AbstractMap;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -28,6 +29,10 @@ public class RaceTypeNameBlackTypeBreed {
     public static final Map<String, String> RACE_TYPE_CODES;
     public static final String CAN = "CAN";
 
+    // the race type for each code, for Thoroughbred/Arabian races and for all other races
+    private static final Map<String, Map.Entry<String, String>> TB_OR_ARABIAN_CODE_TYPES;
+    private static final Map<String, Map.Entry<String, String>> OTHER_BREED_CODE_TYPES;
+
     static final String SPEED_INDEX_OPTIONAL_CLAIMING = "SPEED INDEX OPTIONAL CLAIMING";
     static final String ALLOWANCE_OPTIONAL_CLAIMING = "ALLOWANCE OPTIONAL CLAIMING";
     static final String CLAIMING_STAKES_TRIAL = "CLAIMING STAKES/TRIAL";
@@ -44,6 +49,8 @@ public class RaceTypeNameBlackTypeBreed {
     static final String STK = "STK";
     static final String UNK = "UNK";
 
+    static final Map.Entry<String, String> UNKNOWN_CODE_TYPE = codeType(UNKNOWN_RACE_TYPE, UNK);
+
     static {
         Map<String, String> raceCodes = new LinkedHashMap<>();
         raceCodes.put(SPEED_INDEX_OPTIONAL_CLAIMING, "AOC");
@@ -110,6 +117,9 @@ public class RaceTypeNameBlackTypeBreed {
         raceCodes.put("STAKE", "STK");
         raceCodes.put(TRIAL, "TRL");
         RACE_TYPE_CODES = Collections.unmodifiableMap(raceCodes);
+
+        TB_OR_ARABIAN_CODE_TYPES = buildCodeTypes(true);
+        OTHER_BREED_CODE_TYPES = buildCodeTypes(false);
     }
 
     @Getter
@@ -146,7 +156,6 @@ public class RaceTypeNameBlackTypeBreed {
                 name, grade, blackType, breed);
     }
 
-    @JsonCreator
     public RaceTypeNameBlackTypeBreed(String type, String code, String name, Integer grade,
             String blackType, Breed breed) {
         this.type = type;
@@ -157,30 +166,70 @@ public class RaceTypeNameBlackTypeBreed {
         this.breed = breed;
     }
 
+    /**
+     * Deserializes JSON that may only carry the race type code, deriving the race type and
+     * normalizing the code (e.g. "MAT" to "MCH") in the same way as parsing a chart does
+     */
+    @JsonCreator
+    static RaceTypeNameBlackTypeBreed fromJson(String type, String code, String name,
+            Integer grade, String blackType, Breed breed) {
+        if (type == null && code != null) {
+            Map.Entry<String, String> codeType = typeFromCode(code, breed);
+            type = codeType.getKey();
+            code = codeType.getValue();
+        }
+        return new RaceTypeNameBlackTypeBreed(type, code, name, grade, blackType, breed);
+    }
+
+    /**
+     * Looks up the race type for a chart's race type code
+     *
+     * @param code  the race type code e.g. "AOC"
+     * @param breed the {@link Breed} of the race; a null breed is treated as neither Thoroughbred
+     *              nor Arabian
+     * @return a shared, immutable entry of the race type and its (possibly normalized) code, or of
+     * {@value #UNKNOWN_RACE_TYPE} if the code is not recognized
+     */
     public static Map.Entry<String, String> typeFromCode(String code, Breed breed) {
-        if (code.equals("AOC")) {
-            return isTBOrArabian(breed) ?
-                    new AbstractMap.SimpleEntry(ALLOWANCE_OPTIONAL_CLAIMING, code) :
-                    new AbstractMap.SimpleEntry(SPEED_INDEX_OPTIONAL_CLAIMING, code);
-        } else if (code.equals("TRL")) {
-            return isTBOrArabian(breed) ?
-                    new AbstractMap.SimpleEntry(TRIAL, code) :
-                    new AbstractMap.SimpleEntry(TRIALS, code);
-        } else if ((code.equals("MAT") && isTBOrArabian(breed)) || code.equals("MCH")) {
-            return new AbstractMap.SimpleEntry(MATCH_RACE, MCH);
-        } else if (code.equals("STR") && isTBOrArabian(breed)) {
-            return new AbstractMap.SimpleEntry(STARTER_ALLOWANCE, STA);
-        } else if (code.equals("CAN") || code.equals("ZCH")) {
-            return new AbstractMap.SimpleEntry(CANCELLED, CAN);
-        } else if (code.equals("STK")) {
-            return new AbstractMap.SimpleEntry(STAKES, STK);
-        } else if (code.equals("CLT")) {
-            return new AbstractMap.SimpleEntry(STAKES, STK);
-        } else {
-            return RACE_TYPE_CODES.entrySet().stream()
-                    .filter(entry -> entry.getValue().equals(code))
-                    .findFirst()
-                    .orElse(new AbstractMap.SimpleEntry(UNKNOWN_RACE_TYPE, UNK));
+        if (code == null) {
+            return UNKNOWN_CODE_TYPE;
         }
+        Map<String, Map.Entry<String, String>> codeTypes =
+                (breed != null && isTBOrArabian(breed) ?
+                        TB_OR_ARABIAN_CODE_TYPES : OTHER_BREED_CODE_TYPES);
+        return codeTypes.getOrDefault(code, UNKNOWN_CODE_TYPE);
+    }
+
+    static Map<String, Map.Entry<String, String>> buildCodeTypes(boolean tbOrArabian) {
+        Map<String, Map.Entry<String, String>> codeTypes = new HashMap<>();
+
+        // where race types share a code, the first in insertion order is used
+        for (Map.Entry<String, String> raceTypeCode : RACE_TYPE_CODES.entrySet()) {
+            codeTypes.putIfAbsent(raceTypeCode.getValue(),
+                    codeType(raceTypeCode.getKey(), raceTypeCode.getValue()));
+        }
+
+        // codes whose race type depends on the breed, or that are normalized to another code
+        codeTypes.put("AOC", tbOrArabian ?
+                codeType(ALLOWANCE_OPTIONAL_CLAIMING, "AOC") :
+                codeType(SPEED_INDEX_OPTIONAL_CLAIMING, "AOC"));
+        codeTypes.put("TRL", tbOrArabian ?
+                codeType(TRIAL, "TRL") :
+                codeType(TRIALS, "TRL"));
+        if (tbOrArabian) {
+            codeTypes.put("MAT", codeType(MATCH_RACE, MCH));
+            codeTypes.put("STR", codeType(STARTER_ALLOWANCE, STA));
+        }
+        codeTypes.put(MCH, codeType(MATCH_RACE, MCH));
+        codeTypes.put(CAN, codeType(CANCELLED, CAN));
+        codeTypes.put("ZCH", codeType(CANCELLED, CAN));
+        codeTypes.put(STK, codeType(STAKES, STK));
+        codeTypes.put(CLT, codeType(STAKES, STK));
+
+        return Collections.unmodifiableMap(codeTypes);
+    }
+
+    private static Map.Entry<String, String> codeType(String type, String code) {
+        return new AbstractMap.SimpleImmutableEntry<>(type, code);
     }
 }
@@ -0,0 +1,306 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.TrackCondition;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Collector;
+
+import lombok.Data;
+import lombok.Getter;
+
+/**
+ * Scratch and cancellation rates and reasons of many {@link RaceResult}s, by track, surface,
+ * whether the race came off the turf, {@link TrackCondition}, and month
+ * <p>
+ * Scratch and cancellation reasons are dictionary-encoded (case- and whitespace-insensitively) to
+ * int ids, and each track, surface, off-the-turf, and track condition combination keeps a series
+ * of monthly counters, so a query only sums the counters of the matching combinations and months,
+ * e.g. the scratch rate of races taken off the turf at Gulfstream Park on a wet track. Indexes
+ * built on different threads (e.g. via {@link #collector()} on a parallel stream) are combined
+ * with {@link #merge(ScratchIndex)}. Instances are not thread-safe.
+ */
+public class ScratchIndex {
+
+    private final Map<String, Integer> reasonIds = new HashMap<>();
+    private final List<String> reasons = new ArrayList<>();
+    private final Map<Key, NavigableMap<YearMonth, Counts>> countsByKey = new HashMap<>();
+
+    public static Collector<RaceResult, ?, ScratchIndex> collector() {
+        return Collector.of(ScratchIndex::new, ScratchIndex::add, ScratchIndex::merge);
+    }
+
+    public void add(RaceResult raceResult) {
+        if (raceResult.getRaceDate() == null) {
+            return;
+        }
+        Counts counts = counts(Key.of(raceResult), YearMonth.from(raceResult.getRaceDate()));
+        counts.races++;
+
+        Cancellation cancellation = raceResult.getCancellation();
+        if (cancellation != null && cancellation.isCancelled()) {
+            counts.cancelled++;
+            counts.cancellationReasons = increment(counts.cancellationReasons,
+                    intern(cancellation.getReason()));
+        }
+        if (raceResult.getStarters() != null) {
+            counts.starters += raceResult.getStarters().size();
+        }
+        if (raceResult.getScratches() != null) {
+            for (Scratch scratch : raceResult.getScratches()) {
+                counts.scratches++;
+                counts.scratchReasons = increment(counts.scratchReasons,
+                        intern(scratch.getReason()));
+            }
+        }
+    }
+
+    private Counts counts(Key key, YearMonth month) {
+        return countsByKey.computeIfAbsent(key, k -> new TreeMap<>())
+                .computeIfAbsent(month, m -> new Counts());
+    }
+
+    /**
+     * @return the reason's id, or -1 if there is no reason
+     */
+    private int intern(String reason) {
+        if (reason == null || reason.trim().isEmpty()) {
+            return -1;
+        }
+        String normalized = reason.trim().replaceAll("\\s+", " ");
+        String key = normalized.toUpperCase(Locale.US);
+        Integer id = reasonIds.get(key);
+        if (id == null) {
+            id = reasons.size();
+            reasons.add(normalized);
+            reasonIds.put(key, id);
+        }
+        return id;
+    }
+
+    private static int[] increment(int[] reasonCounts, int reason) {
+        return increment(reasonCounts, reason, 1);
+    }
+
+    private static int[] increment(int[] reasonCounts, int reason, int count) {
+        if (reason < 0) {
+            return reasonCounts;
+        }
+        if (reason >= reasonCounts.length) {
+            reasonCounts = Arrays.copyOf(reasonCounts, Math.max(reason + 1,
+                    reasonCounts.length * 2));
+        }
+        reasonCounts[reason] += count;
+        return reasonCounts;
+    }
+
+    public ScratchIndex merge(ScratchIndex other) {
+        int[] reasonMapping = new int[other.reasons.size()];
+        for (int i = 0; i < reasonMapping.length; i++) {
+            reasonMapping[i] = intern(other.reasons.get(i));
+        }
+        other.countsByKey.forEach((key, months) -> months.forEach((month, otherCounts) -> {
+            Counts counts = counts(key, month);
+            counts.races += otherCounts.races;
+            counts.cancelled += otherCounts.cancelled;
+            counts.starters += otherCounts.starters;
+            counts.scratches += otherCounts.scratches;
+            counts.scratchReasons = mergeReasons(counts.scratchReasons,
+                    otherCounts.scratchReasons, reasonMapping);
+            counts.cancellationReasons = mergeReasons(counts.cancellationReasons,
+                    otherCounts.cancellationReasons, reasonMapping);
+        }));
+        return this;
+    }
+
+    private static int[] mergeReasons(int[] reasonCounts, int[] otherReasonCounts,
+            int[] reasonMapping) {
+        int reasons = Math.min(otherReasonCounts.length, reasonMapping.length);
+        for (int otherReason = 0; otherReason < reasons; otherReason++) {
+            reasonCounts = increment(reasonCounts, reasonMapping[otherReason],
+                    otherReasonCounts[otherReason]);
+        }
+        return reasonCounts;
+    }
+
+    /**
+     * @return the totals of every race that matches the query
+     */
+    public Totals query(Query query) {
+        int[] scratchReasons = new int[reasons.size()];
+        int[] cancellationReasons = new int[reasons.size()];
+        Totals totals = new Totals();
+        countsByKey.forEach((key, months) -> {
+            if (!query.matches(key)) {
+                return;
+            }
+            NavigableMap<YearMonth, Counts> range = months;
+            if (query.from != null) {
+                range = range.tailMap(query.from, true);
+            }
+            if (query.to != null) {
+                range = range.headMap(query.to, true);
+            }
+            for (Counts counts : range.values()) {
+                totals.races += counts.races;
+                totals.cancelled += counts.cancelled;
+                totals.starters += counts.starters;
+                totals.scratches += counts.scratches;
+                add(scratchReasons, counts.scratchReasons);
+                add(cancellationReasons, counts.cancellationReasons);
+            }
+        });
+        totals.scratchReasons = reasonCounts(scratchReasons);
+        totals.cancellationReasons = reasonCounts(cancellationReasons);
+        return totals;
+    }
+
+    private static void add(int[] totals, int[] counts) {
+        // the counts may have spare capacity beyond the reasons interned so far
+        for (int i = 0; i < Math.min(counts.length, totals.length); i++) {
+            totals[i] += counts[i];
+        }
+    }
+
+    // most frequent first
+    private Map<String, Integer> reasonCounts(int[] counts) {
+        Integer[] ids = new Integer[counts.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        Arrays.sort(ids, (a, b) -> Integer.compare(counts[b], counts[a]));
+        Map<String, Integer> reasonCounts = new LinkedHashMap<>();
+        for (int id : ids) {
+            if (counts[id] > 0) {
+                reasonCounts.put(reasons.get(id), counts[id]);
+            }
+        }
+        return reasonCounts;
+    }
+
+    /**
+     * The race's track, surface (as run), whether it came off the turf, and track condition
+     */
+    @Data
+    static class Key {
+        private final String track;
+        private final String surface;
+        private final boolean offTurf;
+        private final TrackCondition trackCondition;
+
+        static Key of(RaceResult raceResult) {
+            String track = (raceResult.getTrack() != null ?
+                    raceResult.getTrack().getCanonical() : null);
+            DistanceSurfaceTrackRecord distanceSurfaceTrackRecord =
+                    raceResult.getDistanceSurfaceTrackRecord();
+            if (distanceSurfaceTrackRecord == null) {
+                return new Key(track, null, false, null);
+            }
+            return new Key(track, distanceSurfaceTrackRecord.getSurface(),
+                    distanceSurfaceTrackRecord.isOffTurf(),
+                    distanceSurfaceTrackRecord.getTrackCondition());
+        }
+    }
+
+    private static class Counts {
+        private int races;
+        private int cancelled;
+        private int starters;
+        private int scratches;
+        private int[] scratchReasons = new int[0];
+        private int[] cancellationReasons = new int[0];
+    }
+
+    /**
+     * The scratches and cancellations of the races that matched a query; entries are the starters
+     * and the scratches
+     */
+    @Getter
+    public static class Totals {
+        private int races;
+        private int cancelled;
+        private int starters;
+        private int scratches;
+        // most frequent first
+        private Map<String, Integer> scratchReasons;
+        private Map<String, Integer> cancellationReasons;
+
+        public int getEntries() {
+            return starters + scratches;
+        }
+
+        public double getScratchRate() {
+            return (getEntries() > 0 ? (100.0 * scratches) / getEntries() : Double.NaN);
+        }
+
+        public double getScratchesPerRace() {
+            return (races > 0 ? (double) scratches / races : Double.NaN);
+        }
+
+        public double getCancellationRate() {
+            return (races > 0 ? (100.0 * cancelled) / races : Double.NaN);
+        }
+    }
+
+    /**
+     * Selects the races to total; criteria that are not set match every race
+     */
+    public static class Query {
+        private String track;
+        private String surface;
+        private Boolean offTurf;
+        private EnumSet<TrackCondition> trackConditions;
+        private YearMonth from;
+        private YearMonth to;
+
+        public Query track(String track) {
+            this.track = track;
+            return this;
+        }
+
+        /**
+         * @param surface the surface the race was run on, e.g. "Dirt"
+         */
+        public Query surface(String surface) {
+            this.surface = surface;
+            return this;
+        }
+
+        public Query offTurf(boolean offTurf) {
+            this.offTurf = offTurf;
+            return this;
+        }
+
+        public Query trackConditions(TrackCondition first, TrackCondition... rest) {
+            this.trackConditions = EnumSet.of(first, rest);
+            return this;
+        }
+
+        /**
+         * Matches the months of both dates, inclusive
+         */
+        public Query between(LocalDate from, LocalDate to) {
+            this.from = (from != null ? YearMonth.from(from) : null);
+            this.to = (to != null ? YearMonth.from(to) : null);
+            return this;
+        }
+
+        boolean matches(Key key) {
+            return (track == null || track.equals(key.getTrack())) &&
+                    (surface == null || surface.equals(key.getSurface())) &&
+                    (offTurf == null || offTurf == key.isOffTurf()) &&
+                    (trackConditions == null || (key.getTrackCondition() != null &&
+                            trackConditions.contains(key.getTrackCondition())));
+        }
+    }
+}
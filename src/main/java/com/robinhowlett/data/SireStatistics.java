@@ -0,0 +1,244 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.Surface;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collector;
+
+import lombok.Data;
+import lombok.Getter;
+
+/**
+ * Counts the starts, wins, and in-the-money finishes of the foals of each sire and damsire, split
+ * by surface and {@link DistanceBucket}, with first-time starters also counted separately
+ * <p>
+ * Sire names are interned to ids, and every count lives in a single int array indexed by sire,
+ * role, surface, distance bucket, and counter, so folding in a new {@link RaceResult} only
+ * increments array elements. Statistics built over separate partitions of the races (e.g. via
+ * {@link #collector()} on a parallel stream) are combined with {@link #merge(SireStatistics)}.
+ * Instances are not thread-safe.
+ */
+public class SireStatistics {
+
+    private static final Surface[] SURFACES = Surface.values();
+    private static final int SURFACE_COUNT = SURFACES.length + 1; // including unknown
+    private static final int BUCKET_COUNT = DistanceBucket.values().length;
+    private static final int ROLE_COUNT = Role.values().length;
+
+    private static final int STARTS = 0;
+    private static final int WINS = 1;
+    private static final int IN_THE_MONEY = 2;
+    private static final int FIRST_TIME_STARTS = 3;
+    private static final int FIRST_TIME_WINS = 4;
+    private static final int COUNTERS = 5;
+
+    private static final int CELLS_PER_SIRE = ROLE_COUNT * SURFACE_COUNT * BUCKET_COUNT;
+    private static final int STRIDE = CELLS_PER_SIRE * COUNTERS;
+
+    private final Map<String, Integer> idsByName = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private int[] counts = new int[STRIDE * 256];
+
+    public static Collector<RaceResult, ?, SireStatistics> collector() {
+        return Collector.of(SireStatistics::new, SireStatistics::add, SireStatistics::merge);
+    }
+
+    public void add(RaceResult raceResult) {
+        if (raceResult.getStarters() == null) {
+            return;
+        }
+        int surface = SURFACES.length;
+        DistanceBucket bucket = DistanceBucket.UNKNOWN;
+        DistanceSurfaceTrackRecord distanceSurfaceTrackRecord =
+                raceResult.getDistanceSurfaceTrackRecord();
+        if (distanceSurfaceTrackRecord != null) {
+            Surface raceSurface = Surface.forText(distanceSurfaceTrackRecord.getSurface());
+            if (raceSurface != null) {
+                surface = raceSurface.ordinal();
+            }
+            if (distanceSurfaceTrackRecord.getRaceDistance() != null) {
+                bucket = DistanceBucket.forFeet(
+                        distanceSurfaceTrackRecord.getRaceDistance().getFeet());
+            }
+        }
+
+        for (Starter starter : raceResult.getStarters()) {
+            Horse horse = starter.getHorse();
+            if (horse == null) {
+                continue;
+            }
+            Horse damSire = (horse.getDamSire() != null ? horse.getDamSire() :
+                    (horse.getDam() != null ? horse.getDam().getSire() : null));
+            count(horse.getSire(), Role.SIRE, surface, bucket, starter);
+            count(damSire, Role.DAM_SIRE, surface, bucket, starter);
+        }
+    }
+
+    private void count(Horse sire, Role role, int surface, DistanceBucket bucket,
+            Starter starter) {
+        if (sire == null || sire.getName() == null) {
+            return;
+        }
+        int base = (intern(sire.getName()) * STRIDE) +
+                (cell(role.ordinal(), surface, bucket.ordinal()) * COUNTERS);
+        Integer position = starter.getOfficialPosition();
+        boolean won = (position != null && position == 1);
+        boolean inTheMoney = (position != null && position >= 1 && position <= 3);
+        // a null LastRaced was not parsed, so is not known to be a first-time starter
+        boolean firstTimeStarter = (starter.getLastRaced() != null &&
+                !starter.getLastRaced().hasLastRace());
+
+        counts[base + STARTS]++;
+        if (won) {
+            counts[base + WINS]++;
+        }
+        if (inTheMoney) {
+            counts[base + IN_THE_MONEY]++;
+        }
+        if (firstTimeStarter) {
+            counts[base + FIRST_TIME_STARTS]++;
+            if (won) {
+                counts[base + FIRST_TIME_WINS]++;
+            }
+        }
+    }
+
+    private static int cell(int role, int surface, int bucket) {
+        return (((role * SURFACE_COUNT) + surface) * BUCKET_COUNT) + bucket;
+    }
+
+    private int intern(String name) {
+        String key = name.trim().toUpperCase(Locale.US);
+        Integer id = idsByName.get(key);
+        if (id == null) {
+            id = names.size();
+            names.add(name);
+            idsByName.put(key, id);
+            if ((id + 1) * STRIDE > counts.length) {
+                counts = Arrays.copyOf(counts, counts.length * 2);
+            }
+        }
+        return id;
+    }
+
+    public SireStatistics merge(SireStatistics other) {
+        for (int otherId = 0; otherId < other.names.size(); otherId++) {
+            int base = intern(other.names.get(otherId)) * STRIDE;
+            int otherBase = otherId * STRIDE;
+            for (int i = 0; i < STRIDE; i++) {
+                counts[base + i] += other.counts[otherBase + i];
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return the names of every sire and damsire counted
+     */
+    public List<String> getSires() {
+        return Collections.unmodifiableList(names);
+    }
+
+    public Record getRecord(String sire, Role role) {
+        return getRecord(sire, role, null, null);
+    }
+
+    /**
+     * @param surface the surface text e.g. "Turf", or null for every surface
+     * @param bucket  the distance bucket, or null for every distance
+     * @return the combined counts of the matching cells (all zero for an unknown sire)
+     */
+    public Record getRecord(String sire, Role role, String surface, DistanceBucket bucket) {
+        int[] totals = new int[COUNTERS];
+        Integer id = (sire != null ? idsByName.get(sire.trim().toUpperCase(Locale.US)) : null);
+        if (id != null) {
+            Surface matching = (surface != null ? Surface.forText(surface) : null);
+            for (int s = 0; s < SURFACE_COUNT; s++) {
+                if (surface != null && (matching == null || s != matching.ordinal())) {
+                    continue;
+                }
+                for (int b = 0; b < BUCKET_COUNT; b++) {
+                    if (bucket != null && b != bucket.ordinal()) {
+                        continue;
+                    }
+                    int base = (id * STRIDE) + (cell(role.ordinal(), s, b) * COUNTERS);
+                    for (int counter = 0; counter < COUNTERS; counter++) {
+                        totals[counter] += counts[base + counter];
+                    }
+                }
+            }
+        }
+        return new Record(totals[STARTS], totals[WINS], totals[IN_THE_MONEY],
+                totals[FIRST_TIME_STARTS], totals[FIRST_TIME_WINS]);
+    }
+
+    public enum Role {
+        SIRE,
+        DAM_SIRE
+    }
+
+    /**
+     * Race distances grouped into sprints (under 7 furlongs, split at 6 furlongs), the mile range,
+     * and routes
+     */
+    public enum DistanceBucket {
+        UNDER_SIX_FURLONGS(0, 3960),
+        SIX_FURLONGS(3960, 4620),
+        SEVEN_FURLONGS(4620, 5280),
+        MILE(5280, 5940),
+        NINE_FURLONGS_AND_UP(5940, Integer.MAX_VALUE),
+        UNKNOWN(0, 0);
+
+        // in feet, from inclusive to exclusive
+        @Getter
+        private final int from;
+        @Getter
+        private final int to;
+
+        DistanceBucket(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        public static DistanceBucket forFeet(Integer feet) {
+            if (feet != null && feet > 0) {
+                for (DistanceBucket bucket : values()) {
+                    if (feet >= bucket.from && feet < bucket.to) {
+                        return bucket;
+                    }
+                }
+            }
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * The counts of one or more cells
+     */
+    @Data
+    public static class Record {
+        private final int starts;
+        private final int wins;
+        private final int inTheMoney;
+        private final int firstTimeStarts;
+        private final int firstTimeWins;
+
+        public double getWinPercentage() {
+            return (starts > 0 ? (100.0 * wins) / starts : 0);
+        }
+
+        public double getInTheMoneyPercentage() {
+            return (starts > 0 ? (100.0 * inTheMoney) / starts : 0);
+        }
+
+        public double getFirstTimeWinPercentage() {
+            return (firstTimeStarts > 0 ? (100.0 * firstTimeWins) / firstTimeStarts : 0);
+        }
+    }
+}
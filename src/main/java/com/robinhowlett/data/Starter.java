@@ -41,7 +41,7 @@ import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
         "trainer", "owner", "weight", "medicationEquipment", "claim", "postPosition",
         "finishPosition", "officialPosition", "positionDeadHeat", "wageringPosition", "winner",
         "disqualified", "odds", "choice", "favorite", "wagering", "pointsOfCall", "fractionals",
-        "splits", "ratings", "comments"})
+        "splits", "ratings", "comments", "trouble"})
 @EqualsAndHashCode
 @ToString
 public class Starter {
@@ -70,6 +70,11 @@ public class Starter {
     private final Boolean favorite;
     @Getter
     private final String comments;
+    // a bitmask of the Trouble flags extracted from the comments and the race's footnotes
+    @JsonInclude(NON_NULL)
+    @Getter
+    @Setter
+    private Integer trouble;
     @Getter
     private final List<PointOfCall> pointsOfCall;
     @Getter
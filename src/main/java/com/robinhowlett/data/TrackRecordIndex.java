@@ -0,0 +1,346 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.TrackRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import lombok.Data;
+
+/**
+ * The current track record, and the fastest final times seen, for each track, distance, surface,
+ * and course, kept up to date as {@link RaceResult}s are added
+ * <p>
+ * Each chart's listed {@link TrackRecord} is folded in (the fastest one listed is kept), and a
+ * race whose {@link RaceResult#getFinalMillis()} beats the stored record replaces it. Until a
+ * chart lists a record for a configuration, the stored record is only inferred from the fastest
+ * time seen, so beating it is not reported; once one is listed, {@link #add(RaceResult)} reports
+ * every race that beats the stored record. The fastest times of each configuration are kept in a
+ * bounded heap, so memory per configuration is fixed. Lookups are hash lookups by {@link Key}.
+ * The index can be written to, and read back from, a compact binary snapshot.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public class TrackRecordIndex {
+
+    public static final int DEFAULT_FASTEST_TIMES = 10;
+
+    private static final int SNAPSHOT_MAGIC = 0x54524958; // "TRIX"
+    private static final int SNAPSHOT_VERSION = 2;
+
+    // slowest first, so the heap's root is the time to evict
+    private static final Comparator<Time> SLOWEST_FIRST =
+            Comparator.comparingLong(Time::getMillis).reversed();
+
+    private final int fastestTimes;
+    private final Map<Key, Configuration> configurations = new HashMap<>();
+
+    public TrackRecordIndex() {
+        this(DEFAULT_FASTEST_TIMES);
+    }
+
+    /**
+     * @param fastestTimes how many of the fastest times to keep for each configuration
+     */
+    public TrackRecordIndex(int fastestTimes) {
+        if (fastestTimes < 1) {
+            throw new IllegalArgumentException(
+                    String.format("At least one fastest time must be kept: %d", fastestTimes));
+        }
+        this.fastestTimes = fastestTimes;
+    }
+
+    /**
+     * Folds in the race's listed track record and final time
+     *
+     * @return the record broken by this race, or null if it didn't break the stored record, no
+     * chart has listed a record for its configuration yet, or it has no track, distance, or final
+     * time
+     */
+    public RecordBreak add(RaceResult raceResult) {
+        Key key = Key.of(raceResult);
+        if (key == null) {
+            return null;
+        }
+        Configuration configuration =
+                configurations.computeIfAbsent(key, k -> new Configuration());
+
+        TrackRecord listed = raceResult.getDistanceSurfaceTrackRecord().getTrackRecord();
+        if (listed != null && listed.getMillis() != null) {
+            configuration.offer(new Time(listed.getMillis(), listed.getTime(),
+                    (listed.getHolder() != null ? listed.getHolder().getName() : null),
+                    listed.getRaceDate(), null), fastestTimes);
+            if (configuration.record == null ||
+                    listed.getMillis() < configuration.record.getMillis()) {
+                configuration.record = listed;
+            }
+            configuration.listed = true;
+        }
+
+        Long finalMillis = raceResult.getFinalMillis();
+        if (finalMillis == null || raceResult.firstFinishers().isEmpty()) {
+            return null;
+        }
+        Horse winner = raceResult.firstFinishers().get(0).getHorse();
+        configuration.offer(new Time(finalMillis, raceResult.getFinalTime(),
+                (winner != null ? winner.getName() : null), raceResult.getRaceDate(),
+                raceResult.getRaceNumber()), fastestTimes);
+
+        TrackRecord previous = configuration.record;
+        if (previous != null && previous.getMillis() != null &&
+                finalMillis >= previous.getMillis()) {
+            return null;
+        }
+        configuration.record = new TrackRecord(winner, raceResult.getFinalTime(), finalMillis,
+                raceResult.getRaceDate());
+        // a record inferred from the times seen may not be the actual record, so isn't broken
+        return (previous != null && configuration.listed ?
+                new RecordBreak(key, previous, configuration.record, raceResult.getRaceNumber())
+                : null);
+    }
+
+    /**
+     * @return the stored track record (the fastest listed on a chart or run since or, if no chart
+     * listed one, the fastest time seen), or null if none is known
+     */
+    public TrackRecord getRecord(Key key) {
+        Configuration configuration = configurations.get(key);
+        return (configuration != null ? configuration.record : null);
+    }
+
+    /**
+     * @return whether a chart has listed a track record for this configuration, i.e. whether the
+     * stored record is more than the fastest time seen
+     */
+    public boolean isRecordListed(Key key) {
+        Configuration configuration = configurations.get(key);
+        return (configuration != null && configuration.listed);
+    }
+
+    /**
+     * @return the fastest times at this configuration, fastest first
+     */
+    public List<Time> getFastestTimes(Key key) {
+        Configuration configuration = configurations.get(key);
+        if (configuration == null) {
+            return Collections.emptyList();
+        }
+        List<Time> times = new ArrayList<>(configuration.fastest);
+        times.sort(SLOWEST_FIRST.reversed());
+        return times;
+    }
+
+    public Set<Key> getKeys() {
+        return Collections.unmodifiableSet(configurations.keySet());
+    }
+
+    public int getTimesPerConfiguration() {
+        return fastestTimes;
+    }
+
+    public void save(Path path) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream outputStream = Files.newOutputStream(temporary)) {
+            writeSnapshot(outputStream);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static TrackRecordIndex load(Path path) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            return readSnapshot(inputStream);
+        }
+    }
+
+    public void writeSnapshot(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeInt(fastestTimes);
+        out.writeInt(configurations.size());
+        for (Map.Entry<Key, Configuration> entry : configurations.entrySet()) {
+            Key key = entry.getKey();
+            writeString(out, key.getTrack());
+            out.writeInt(key.getFeet());
+            writeString(out, key.getSurface());
+            writeString(out, key.getCourse());
+
+            TrackRecord record = entry.getValue().record;
+            out.writeBoolean(entry.getValue().listed);
+            out.writeBoolean(record != null);
+            if (record != null) {
+                writeString(out, (record.getHolder() != null ?
+                        record.getHolder().getName() : null));
+                writeString(out, record.getTime());
+                out.writeLong(record.getMillis());
+                writeDate(out, record.getRaceDate());
+            }
+
+            out.writeInt(entry.getValue().fastest.size());
+            for (Time time : entry.getValue().fastest) {
+                out.writeLong(time.getMillis());
+                writeString(out, time.getTime());
+                writeString(out, time.getHorse());
+                writeDate(out, time.getRaceDate());
+                out.writeInt(time.getRaceNumber() != null ? time.getRaceNumber() : -1);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * @throws CorruptSnapshotException if the stream is not a snapshot of this version
+     */
+    public static TrackRecordIndex readSnapshot(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new CorruptSnapshotException("Not a track record index snapshot");
+        }
+        TrackRecordIndex index = new TrackRecordIndex(in.readInt());
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            Key key = new Key(readString(in), in.readInt(), readString(in), readString(in));
+            Configuration configuration = new Configuration();
+            configuration.listed = in.readBoolean();
+            if (in.readBoolean()) {
+                String holder = readString(in);
+                configuration.record = new TrackRecord((holder != null ? new Horse(holder) : null),
+                        readString(in), in.readLong(), readDate(in));
+            }
+            int times = in.readInt();
+            for (int t = 0; t < times; t++) {
+                long millis = in.readLong();
+                String time = readString(in);
+                String horse = readString(in);
+                LocalDate raceDate = readDate(in);
+                int raceNumber = in.readInt();
+                configuration.offer(new Time(millis, time, horse, raceDate,
+                        (raceNumber >= 0 ? raceNumber : null)), index.fastestTimes);
+            }
+            index.configurations.put(key, configuration);
+        }
+        return index;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return (in.readBoolean() ? in.readUTF() : null);
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate date) throws IOException {
+        out.writeBoolean(date != null);
+        if (date != null) {
+            out.writeLong(date.toEpochDay());
+        }
+    }
+
+    private static LocalDate readDate(DataInputStream in) throws IOException {
+        return (in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null);
+    }
+
+    /**
+     * A track, distance, surface, and course configuration
+     */
+    @Data
+    public static class Key {
+        private final String track; // the canonical track code
+        private final int feet;
+        private final String surface;
+        private final String course;
+
+        /**
+         * @return the race's configuration, or null if it has no track or distance
+         */
+        public static Key of(RaceResult raceResult) {
+            DistanceSurfaceTrackRecord distanceSurfaceTrackRecord =
+                    raceResult.getDistanceSurfaceTrackRecord();
+            if (raceResult.getTrack() == null || distanceSurfaceTrackRecord == null ||
+                    distanceSurfaceTrackRecord.getRaceDistance() == null) {
+                return null;
+            }
+            return new Key(raceResult.getTrack().getCanonical(),
+                    distanceSurfaceTrackRecord.getRaceDistance().getFeet(),
+                    distanceSurfaceTrackRecord.getSurface(),
+                    distanceSurfaceTrackRecord.getCourse());
+        }
+    }
+
+    /**
+     * A final time run at a configuration; the race number is null for times only known from a
+     * chart's listed track record
+     */
+    @Data
+    public static class Time {
+        private final long millis;
+        private final String time;
+        private final String horse;
+        private final LocalDate raceDate;
+        private final Integer raceNumber;
+    }
+
+    /**
+     * A race that ran faster than the stored track record
+     */
+    @Data
+    public static class RecordBreak {
+        private final Key key;
+        private final TrackRecord previous;
+        private final TrackRecord current;
+        private final Integer raceNumber;
+    }
+
+    public static class CorruptSnapshotException extends IOException {
+        public CorruptSnapshotException(String message) {
+            super(message);
+        }
+    }
+
+    private static class Configuration {
+        private final PriorityQueue<Time> fastest = new PriorityQueue<>(SLOWEST_FIRST);
+        private TrackRecord record;
+        private boolean listed; // whether any chart has listed a record
+
+        void offer(Time time, int capacity) {
+            for (Time existing : fastest) {
+                if (existing.getMillis() == time.getMillis() &&
+                        equal(existing.getHorse(), time.getHorse())) {
+                    return; // the same time, e.g. a record listed on many charts
+                }
+            }
+            if (fastest.size() < capacity) {
+                fastest.add(time);
+            } else if (time.getMillis() < fastest.peek().getMillis()) {
+                fastest.poll();
+                fastest.add(time);
+            }
+        }
+
+        private static boolean equal(String a, String b) {
+            return (a != null ? a.equalsIgnoreCase(b) : b == null);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.robinhowlett.data.ratings;
+
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.TrackCondition;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The {@link TrackBias} rows of many cards, ordered by track, race date, surface, and track
+ * condition, with totals over any selection of rows (e.g. a track's dirt races for a season)
+ */
+public class BiasTable {
+
+    private static final Comparator<TrackBias> ORDER =
+            Comparator.comparing(TrackBias::getTrack, Comparator.nullsFirst(String::compareTo))
+                    .thenComparing(TrackBias::getRaceDate,
+                            Comparator.nullsFirst(LocalDate::compareTo))
+                    .thenComparing(TrackBias::getSurface, Comparator.nullsFirst(String::compareTo))
+                    .thenComparing(TrackBias::getTrackCondition,
+                            Comparator.nullsFirst(TrackCondition::compareTo));
+
+    private final List<TrackBias> rows;
+
+    public BiasTable(List<TrackBias> rows) {
+        List<TrackBias> sorted = new ArrayList<>(rows);
+        sorted.sort(ORDER);
+        this.rows = Collections.unmodifiableList(sorted);
+    }
+
+    public List<TrackBias> getRows() {
+        return rows;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * @return the combined starts and wins of the matching rows, keeping the track, surface, and
+     * track condition only if every matching row shares them
+     */
+    public TrackBias total(Predicate<TrackBias> selection) {
+        List<TrackBias> selected = new ArrayList<>();
+        for (TrackBias row : rows) {
+            if (selection.test(row)) {
+                selected.add(row);
+            }
+        }
+        TrackBias total = new TrackBias(
+                shared(selected, TrackBias::getTrack), null,
+                shared(selected, TrackBias::getSurface),
+                shared(selected, TrackBias::getTrackCondition));
+        for (TrackBias row : selected) {
+            total.add(row);
+        }
+        return total;
+    }
+
+    private static <T> T shared(List<TrackBias> rows, Function<TrackBias, T> getter) {
+        T shared = null;
+        for (int i = 0; i < rows.size(); i++) {
+            T value = getter.apply(rows.get(i));
+            if (i == 0) {
+                shared = value;
+            } else if (shared == null || !shared.equals(value)) {
+                return null;
+            }
+        }
+        return shared;
+    }
+}
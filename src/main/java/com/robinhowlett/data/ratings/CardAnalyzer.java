@@ -0,0 +1,170 @@
+package com.robinhowlett.data.ratings;
+
+import com.robinhowlett.data.DistanceSurfaceTrackRecord;
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.TrackCondition;
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.TrackRecord;
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.Race;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Starter;
+import com.robinhowlett.data.ratings.RatingPipeline.Card;
+import com.robinhowlett.data.ratings.TrackBias.RunningStyle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import lombok.Data;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Computes the {@link TrackBias} of each surface and track condition of a race card, from every
+ * race run on it: which posts and running styles won more than their share, and how fast the
+ * surface played
+ * <p>
+ * Two variants are derived: the par variant of the {@link SpeedFigureCalculator} (in figure
+ * points), and the median percentage by which the winners' final times were slower than the
+ * track records listed on their charts. A whole season can be analyzed with {@link
+ * #analyze(Collection)}, which groups the races into cards and analyzes the cards in parallel.
+ */
+public class CardAnalyzer {
+
+    private static final String START = "Start";
+
+    private final SpeedFigureCalculator parCalculator = new SpeedFigureCalculator();
+    private final ForkJoinPool forkJoinPool;
+
+    public CardAnalyzer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public CardAnalyzer(ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * @return the bias table of every card of these races
+     */
+    public BiasTable analyze(Collection<RaceResult> raceResults) {
+        Map<Card, List<RaceResult>> cards = raceResults.stream()
+                .filter(raceResult -> raceResult.getCancellation() == null ||
+                        !raceResult.getCancellation().isCancelled())
+                .collect(groupingBy(Card::of));
+        List<TrackBias> biases = forkJoinPool.submit(() -> cards.values().parallelStream()
+                .flatMap(card -> analyzeCard(card).stream())
+                .collect(toList()))
+                .join();
+        return new BiasTable(biases);
+    }
+
+    /**
+     * @param card every race run at one track on one day
+     * @return the bias of each surface and track condition raced on
+     */
+    public List<TrackBias> analyzeCard(List<RaceResult> card) {
+        Map<Group, List<RaceResult>> groups = new LinkedHashMap<>();
+        for (RaceResult raceResult : card) {
+            DistanceSurfaceTrackRecord distanceSurfaceTrackRecord =
+                    raceResult.getDistanceSurfaceTrackRecord();
+            if (distanceSurfaceTrackRecord == null || raceResult.getStarters() == null) {
+                continue;
+            }
+            groups.computeIfAbsent(new Group(distanceSurfaceTrackRecord.getSurface(),
+                    distanceSurfaceTrackRecord.getTrackCondition()), g -> new ArrayList<>())
+                    .add(raceResult);
+        }
+
+        List<TrackBias> biases = new ArrayList<>();
+        groups.forEach((group, raceResults) -> {
+            RaceResult first = raceResults.get(0);
+            TrackBias bias = new TrackBias(
+                    (first.getTrack() != null ? first.getTrack().getCanonical() : null),
+                    first.getRaceDate(), group.getSurface(), group.getTrackCondition());
+            for (RaceResult raceResult : raceResults) {
+                addRace(bias, raceResult);
+            }
+            bias.setVariants(parCalculator.computeVariants(raceResults)
+                    .getVariant(group.getSurface()), recordVariant(raceResults));
+            biases.add(bias);
+        });
+        return biases;
+    }
+
+    private static void addRace(TrackBias bias, RaceResult raceResult) {
+        List<Starter> finishers = raceResult.getStarters().stream()
+                .filter(starter -> starter.getOfficialPosition() != null)
+                .collect(toList());
+        if (finishers.isEmpty()) {
+            return;
+        }
+        bias.addRace();
+        int fieldSize = finishers.size();
+        double expectedWins = 1.0 / fieldSize;
+        for (Starter starter : finishers) {
+            boolean won = starter.isWinner();
+            if (starter.getPostPosition() != null && starter.getPostPosition() > 0) {
+                bias.addPost(starter.getPostPosition(), won, expectedWins);
+            }
+            Integer earlyPosition = firstCallPosition(starter);
+            if (earlyPosition != null) {
+                bias.addStyle(RunningStyle.of(earlyPosition, fieldSize), won, expectedWins);
+            }
+        }
+    }
+
+    /**
+     * @return the position at the first point of call after the start (but before the finish),
+     * or null if there isn't one
+     */
+    static Integer firstCallPosition(Starter starter) {
+        List<PointOfCall> pointsOfCall = starter.getPointsOfCall();
+        if (pointsOfCall == null) {
+            return null;
+        }
+        for (int i = 0; i < pointsOfCall.size() - 1; i++) {
+            PointOfCall pointOfCall = pointsOfCall.get(i);
+            if (!START.equals(pointOfCall.getText()) && pointOfCall.hasRelativePosition() &&
+                    pointOfCall.getRelativePosition().getPosition() != null) {
+                return pointOfCall.getRelativePosition().getPosition();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the median percentage by which the final times were slower than the listed track
+     * records, or null if no race had both
+     */
+    private static Double recordVariant(List<RaceResult> raceResults) {
+        double[] percentages = new double[raceResults.size()];
+        int count = 0;
+        for (RaceResult raceResult : raceResults) {
+            TrackRecord trackRecord = raceResult.getDistanceSurfaceTrackRecord().getTrackRecord();
+            Long finalMillis = raceResult.getFinalMillis();
+            if (trackRecord != null && trackRecord.getMillis() != null &&
+                    trackRecord.getMillis() > 0 && finalMillis != null) {
+                percentages[count++] =
+                        100.0 * (finalMillis - trackRecord.getMillis()) / trackRecord.getMillis();
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+        Arrays.sort(percentages, 0, count);
+        double median = (count % 2 == 1 ? percentages[count / 2] :
+                (percentages[(count / 2) - 1] + percentages[count / 2]) / 2);
+        return Race.round(median, 2).doubleValue();
+    }
+
+    @Data
+    private static class Group {
+        private final String surface;
+        private final TrackCondition trackCondition;
+    }
+}
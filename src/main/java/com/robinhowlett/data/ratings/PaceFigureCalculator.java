@@ -0,0 +1,38 @@
+package com.robinhowlett.data.ratings;
+
+import com.robinhowlett.data.FractionalPoint.Fractional;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Starter;
+
+import java.util.List;
+
+/**
+ * A pace figure for each starter's time to the pace call: the last fractional at or before three
+ * quarters of the race distance (e.g. the half-mile of a six furlong sprint, or six furlongs of a
+ * route), on the same scale as the {@link SpeedFigureCalculator}
+ */
+public class PaceFigureCalculator extends SpeedFigureCalculator {
+
+    public static final String NAME = "Pace Figure";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected Fractional fractional(RaceResult raceResult, Starter starter) {
+        List<Fractional> fractionals = starter.getFractionals();
+        Fractional finish = starter.getFinishFractional();
+        if (fractionals == null || finish == null) {
+            return null;
+        }
+        Fractional pace = null;
+        for (Fractional fractional : fractionals) {
+            if (fractional != finish && fractional.getFeet() * 4 <= finish.getFeet() * 3) {
+                pace = fractional;
+            }
+        }
+        return pace;
+    }
+}
@@ -0,0 +1,40 @@
+package com.robinhowlett.data.ratings;
+
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Rating;
+import com.robinhowlett.data.Starter;
+
+import java.util.List;
+
+/**
+ * Computes one kind of {@link Rating} (e.g. a speed or pace figure) for the starters of a race
+ * card, run by the {@link RatingPipeline}
+ * <p>
+ * For each card, {@link #computeVariants(List)} is called once with every race of the card, and
+ * its {@link TrackVariants} are then passed to {@link #rate(RaceResult, Starter, TrackVariants)}
+ * for each starter. Cards are rated in parallel, so implementations must be thread-safe.
+ * Implementations with a public no-argument constructor can be installed by listing them in
+ * {@code META-INF/services/com.robinhowlett.data.ratings.RatingCalculator}.
+ */
+public interface RatingCalculator {
+
+    /**
+     * @return the name of the ratings this calculator produces; ratings with this name are
+     * replaced when a card is re-rated
+     */
+    String getName();
+
+    /**
+     * Derives how much faster or slower than normal each surface was on this card
+     *
+     * @param card every race run at one track on one day
+     */
+    default TrackVariants computeVariants(List<RaceResult> card) {
+        return TrackVariants.none();
+    }
+
+    /**
+     * @return the starter's rating, or null if the starter can't be rated (e.g. no final time)
+     */
+    Rating rate(RaceResult raceResult, Starter starter, TrackVariants variants);
+}
@@ -0,0 +1,137 @@
+package com.robinhowlett.data.ratings;
+
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Rating;
+import com.robinhowlett.data.Starter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ForkJoinPool;
+
+import lombok.Data;
+
+import static java.util.stream.Collectors.groupingBy;
+
+/**
+ * Fills in the {@link Starter} and {@link RaceResult} ratings of whole race cards with the
+ * ratings of each {@link RatingCalculator}
+ * <p>
+ * For each card, every calculator first derives its {@link TrackVariants} from all of the card's
+ * races and then rates each starter. A non-zero variant is also added to the ratings of each race
+ * on that surface, named e.g. "Speed Figure Variant". Ratings previously added under a
+ * calculator's name are replaced, so an archive can be re-rated after a formula change. Cards are
+ * independent of each other and are rated in parallel on a {@link ForkJoinPool}.
+ */
+public class RatingPipeline {
+
+    public static final String VARIANT_SUFFIX = " Variant";
+
+    private final List<RatingCalculator> calculators;
+    private final ForkJoinPool forkJoinPool;
+
+    public RatingPipeline(List<RatingCalculator> calculators) {
+        this(calculators, ForkJoinPool.commonPool());
+    }
+
+    public RatingPipeline(List<RatingCalculator> calculators, ForkJoinPool forkJoinPool) {
+        this.calculators = Collections.unmodifiableList(new ArrayList<>(calculators));
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    /**
+     * @return a pipeline of every {@link RatingCalculator} installed as a service on the
+     * classpath
+     */
+    public static RatingPipeline installed() {
+        List<RatingCalculator> calculators = new ArrayList<>();
+        ServiceLoader.load(RatingCalculator.class).forEach(calculators::add);
+        return new RatingPipeline(calculators);
+    }
+
+    public List<RatingCalculator> getCalculators() {
+        return calculators;
+    }
+
+    /**
+     * Rates the races of any number of cards, grouping them into cards by track and race date and
+     * rating the cards in parallel
+     */
+    public void rate(Collection<RaceResult> raceResults) {
+        Map<Card, List<RaceResult>> cards = raceResults.stream()
+                .filter(raceResult -> raceResult.getCancellation() == null ||
+                        !raceResult.getCancellation().isCancelled())
+                .collect(groupingBy(Card::of));
+        forkJoinPool.submit(() -> cards.values().parallelStream().forEach(this::rateCard))
+                .join();
+    }
+
+    /**
+     * Rates every starter of one card
+     *
+     * @param card every race run at one track on one day
+     */
+    public void rateCard(List<RaceResult> card) {
+        for (RatingCalculator calculator : calculators) {
+            TrackVariants variants = calculator.computeVariants(card);
+            String variantName = calculator.getName() + VARIANT_SUFFIX;
+            for (RaceResult raceResult : card) {
+                raceResult.setRatings(replace(raceResult.getRatings(), variantName,
+                        variantRating(variantName, variants, raceResult)));
+                if (raceResult.getStarters() == null) {
+                    continue;
+                }
+                for (Starter starter : raceResult.getStarters()) {
+                    starter.setRatings(replace(starter.getRatings(), calculator.getName(),
+                            calculator.rate(raceResult, starter, variants)));
+                }
+            }
+        }
+    }
+
+    private static Rating variantRating(String name, TrackVariants variants,
+            RaceResult raceResult) {
+        if (raceResult.getDistanceSurfaceTrackRecord() == null) {
+            return null;
+        }
+        Double variant = variants.getVariant(
+                raceResult.getDistanceSurfaceTrackRecord().getSurface());
+        if (variant == null || variant == 0) {
+            return null;
+        }
+        return new Rating(name, String.format("%+d", Math.round(variant)), variant, null);
+    }
+
+    private static List<Rating> replace(List<Rating> ratings, String name, Rating rating) {
+        List<Rating> replaced = new ArrayList<>();
+        if (ratings != null) {
+            for (Rating existing : ratings) {
+                if (!name.equals(existing.getName())) {
+                    replaced.add(existing);
+                }
+            }
+        }
+        if (rating != null) {
+            replaced.add(rating);
+        }
+        return replaced;
+    }
+
+    /**
+     * The races run at one track on one day
+     */
+    @Data
+    static class Card {
+        private final String track;
+        private final LocalDate raceDate;
+
+        static Card of(RaceResult raceResult) {
+            return new Card((raceResult.getTrack() != null ?
+                    raceResult.getTrack().getCode() : null), raceResult.getRaceDate());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.robinhowlett.data.ratings;
+
+import com.robinhowlett.data.DistanceSurfaceTrackRecord;
+import com.robinhowlett.data.FractionalPoint.Fractional;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Rating;
+import com.robinhowlett.data.Starter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A speed figure for each starter's final time, on a scale where a par time at the distance is
+ * {@value #PAR_FIGURE} and a fifth of a second is worth 3 points at six furlongs (proportionally
+ * fewer at longer distances)
+ * <p>
+ * Par times follow a power curve through 1:10 for six furlongs and 1:50 for nine furlongs. The
+ * track variant of each surface is the median amount by which that card's winners beat (or fell
+ * short of) par, so a card on a fast surface doesn't inflate every figure. At least {@value
+ * #MIN_RACES_FOR_VARIANT} races on the surface are needed to derive a variant.
+ */
+public class SpeedFigureCalculator implements RatingCalculator {
+
+    public static final String NAME = "Speed Figure";
+    public static final int PAR_FIGURE = 100;
+
+    protected static final int MIN_RACES_FOR_VARIANT = 2;
+
+    private static final double SIX_FURLONGS = 3960;
+    private static final double SIX_FURLONGS_PAR_SECONDS = 70;
+    private static final double NINE_FURLONGS_PAR_SECONDS = 110;
+    // the exponent of the par velocity curve; horses run more slowly over longer distances
+    private static final double EXPONENT = Math.log(
+            (1.5 * SIX_FURLONGS / NINE_FURLONGS_PAR_SECONDS) /
+                    (SIX_FURLONGS / SIX_FURLONGS_PAR_SECONDS)) / Math.log(1.5);
+    private static final double SIX_FURLONGS_POINTS_PER_SECOND = 15;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public TrackVariants computeVariants(List<RaceResult> card) {
+        Map<String, List<Double>> deviationsBySurface = new HashMap<>();
+        for (RaceResult raceResult : card) {
+            String surface = surface(raceResult);
+            if (surface == null || raceResult.getWinners() == null) {
+                continue;
+            }
+            for (Starter winner : raceResult.getWinners()) {
+                Double figure = rawFigure(fractional(raceResult, winner));
+                if (figure != null) {
+                    deviationsBySurface.computeIfAbsent(surface, s -> new ArrayList<>())
+                            .add(figure - PAR_FIGURE);
+                    break; // count dead heats once
+                }
+            }
+        }
+
+        Map<String, Double> variantsBySurface = new HashMap<>();
+        deviationsBySurface.forEach((surface, deviations) -> {
+            if (deviations.size() >= MIN_RACES_FOR_VARIANT) {
+                variantsBySurface.put(surface, (double) Math.round(median(deviations)));
+            }
+        });
+        return new TrackVariants(variantsBySurface);
+    }
+
+    @Override
+    public Rating rate(RaceResult raceResult, Starter starter, TrackVariants variants) {
+        Double figure = rawFigure(fractional(raceResult, starter));
+        if (figure == null) {
+            return null;
+        }
+        double variant = variants.getVariantOrZero(surface(raceResult));
+        long rounded = Math.round(figure - variant);
+        return new Rating(getName(), String.valueOf(rounded), (double) rounded,
+                (variant != 0 ? String.format("Variant %+d", (long) variant) : null));
+    }
+
+    /**
+     * @return the fractional that the figure rates; the finish by default
+     */
+    protected Fractional fractional(RaceResult raceResult, Starter starter) {
+        return starter.getFinishFractional();
+    }
+
+    /**
+     * @return the figure, before the track variant, for this fractional time, or null if it has
+     * no time
+     */
+    protected static Double rawFigure(Fractional fractional) {
+        if (fractional == null || fractional.getMillis() == null || fractional.getFeet() <= 0) {
+            return null;
+        }
+        double feet = fractional.getFeet();
+        double seconds = fractional.getMillis() / 1000d;
+        double parSeconds = feet / ((SIX_FURLONGS / SIX_FURLONGS_PAR_SECONDS) *
+                Math.pow(feet / SIX_FURLONGS, EXPONENT));
+        double pointsPerSecond = SIX_FURLONGS_POINTS_PER_SECOND * (SIX_FURLONGS / feet);
+        return PAR_FIGURE + ((parSeconds - seconds) * pointsPerSecond);
+    }
+
+    protected static String surface(RaceResult raceResult) {
+        DistanceSurfaceTrackRecord distanceSurfaceTrackRecord =
+                raceResult.getDistanceSurfaceTrackRecord();
+        return (distanceSurfaceTrackRecord != null ?
+                distanceSurfaceTrackRecord.getSurface() : null);
+    }
+
+    private static double median(List<Double> values) {
+        Collections.sort(values);
+        int middle = values.size() / 2;
+        return (values.size() % 2 == 1 ? values.get(middle) :
+                (values.get(middle - 1) + values.get(middle)) / 2);
+    }
+}
@@ -0,0 +1,150 @@
+package com.robinhowlett.data.ratings;
+
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.TrackCondition;
+
+import java.time.LocalDate;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Post position and early position (running style) bias, and the track variants, of the races
+ * run on one surface in one track condition on one card, or the totals of many of those
+ * <p>
+ * Starts and wins are counted per post (posts beyond {@value #MAX_POST} are counted as {@value
+ * #MAX_POST}) and per {@link RunningStyle}, along with the wins expected if every starter had an
+ * equal chance (one divided by the field size). An impact value above 1 means a post or style won
+ * more often than its share.
+ */
+@EqualsAndHashCode
+@ToString
+public class TrackBias {
+
+    public static final int MAX_POST = 14;
+
+    @Getter
+    private final String track;
+    @Getter
+    private final LocalDate raceDate; // null for totals of many cards
+    @Getter
+    private final String surface;
+    @Getter
+    private final TrackCondition trackCondition;
+    @Getter
+    private int races;
+    private final int[] postStarts = new int[MAX_POST];
+    private final int[] postWins = new int[MAX_POST];
+    private final double[] postExpectedWins = new double[MAX_POST];
+    private final int[] styleStarts = new int[RunningStyle.values().length];
+    private final int[] styleWins = new int[RunningStyle.values().length];
+    private final double[] styleExpectedWins = new double[RunningStyle.values().length];
+    // per card only, so null for totals
+    @Getter
+    private Double parVariant;
+    @Getter
+    private Double recordVariant;
+
+    public TrackBias(String track, LocalDate raceDate, String surface,
+            TrackCondition trackCondition) {
+        this.track = track;
+        this.raceDate = raceDate;
+        this.surface = surface;
+        this.trackCondition = trackCondition;
+    }
+
+    void addRace() {
+        races++;
+    }
+
+    void addPost(int post, boolean won, double expectedWins) {
+        int index = Math.min(post, MAX_POST) - 1;
+        postStarts[index]++;
+        postWins[index] += (won ? 1 : 0);
+        postExpectedWins[index] += expectedWins;
+    }
+
+    void addStyle(RunningStyle style, boolean won, double expectedWins) {
+        styleStarts[style.ordinal()]++;
+        styleWins[style.ordinal()] += (won ? 1 : 0);
+        styleExpectedWins[style.ordinal()] += expectedWins;
+    }
+
+    void setVariants(Double parVariant, Double recordVariant) {
+        this.parVariant = parVariant;
+        this.recordVariant = recordVariant;
+    }
+
+    /**
+     * Adds the races, starts, and wins of the other bias to this one's
+     */
+    void add(TrackBias other) {
+        races += other.races;
+        for (int i = 0; i < MAX_POST; i++) {
+            postStarts[i] += other.postStarts[i];
+            postWins[i] += other.postWins[i];
+            postExpectedWins[i] += other.postExpectedWins[i];
+        }
+        for (int i = 0; i < styleStarts.length; i++) {
+            styleStarts[i] += other.styleStarts[i];
+            styleWins[i] += other.styleWins[i];
+            styleExpectedWins[i] += other.styleExpectedWins[i];
+        }
+    }
+
+    public int getPostStarts(int post) {
+        return postStarts[Math.min(post, MAX_POST) - 1];
+    }
+
+    public int getPostWins(int post) {
+        return postWins[Math.min(post, MAX_POST) - 1];
+    }
+
+    /**
+     * @return the post's wins divided by its expected wins, or NaN if it had no starts
+     */
+    public double getPostImpactValue(int post) {
+        int index = Math.min(post, MAX_POST) - 1;
+        return impactValue(postWins[index], postExpectedWins[index]);
+    }
+
+    public int getStyleStarts(RunningStyle style) {
+        return styleStarts[style.ordinal()];
+    }
+
+    public int getStyleWins(RunningStyle style) {
+        return styleWins[style.ordinal()];
+    }
+
+    /**
+     * @return the style's wins divided by its expected wins, or NaN if it had no starts
+     */
+    public double getStyleImpactValue(RunningStyle style) {
+        return impactValue(styleWins[style.ordinal()], styleExpectedWins[style.ordinal()]);
+    }
+
+    private static double impactValue(int wins, double expectedWins) {
+        return (expectedWins > 0 ? wins / expectedWins : Double.NaN);
+    }
+
+    /**
+     * Where a starter was at the first call after the start, relative to the field
+     */
+    public enum RunningStyle {
+        LEADER, // first
+        PRESSER, // second or third
+        MIDPACK, // the rest of the front half
+        CLOSER; // the back half
+
+        public static RunningStyle of(int position, int fieldSize) {
+            if (position <= 1) {
+                return LEADER;
+            } else if (position <= 3) {
+                return PRESSER;
+            } else if (position * 2 <= fieldSize) {
+                return MIDPACK;
+            }
+            return CLOSER;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.robinhowlett.data.ratings;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * The track variants of one race card, by surface (e.g. "Dirt"), in the points of the rating that
+ * derived them: positive when the surface was faster than normal
+ */
+@EqualsAndHashCode
+@ToString
+public class TrackVariants {
+
+    private static final TrackVariants NONE = new TrackVariants(Collections.emptyMap());
+
+    private final Map<String, Double> variantsBySurface;
+
+    public TrackVariants(Map<String, Double> variantsBySurface) {
+        this.variantsBySurface = new HashMap<>(variantsBySurface);
+    }
+
+    public static TrackVariants none() {
+        return NONE;
+    }
+
+    /**
+     * @return the variant of the surface, or null if none could be derived
+     */
+    public Double getVariant(String surface) {
+        return variantsBySurface.get(surface);
+    }
+
+    /**
+     * @return the variant of the surface, or zero if none could be derived
+     */
+    public double getVariantOrZero(String surface) {
+        Double variant = getVariant(surface);
+        return (variant != null ? variant : 0);
+    }
+}
@@ -0,0 +1,159 @@
+package com.robinhowlett.data.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Finds every occurrence of many patterns in one linear pass over a text, matching whole words
+ * only and ignoring case and the kind of whitespace
+ * <p>
+ * The patterns' trie and its failure links are compiled into a dense transition table over the
+ * characters used by the patterns (any other character returns to the root), so scanning costs
+ * one array lookup per character plus one step per match. Instances are immutable and can be
+ * shared between threads.
+ */
+class AhoCorasick {
+
+    private static final int ROOT = 0;
+
+    private final int[] characterClasses = new int[128]; // 0 for characters not in any pattern
+    private final int alphabetSize;
+    private final int[] transitions; // states * alphabetSize
+    private final int[] patternAtState; // the longest pattern ending at each state, or -1
+    private final int[] outputLinks; // the next state along the failure links with a pattern
+    private final int[] patternLengths;
+
+    /**
+     * Reports a match of the pattern at the given index, between start (inclusive) and end
+     * (exclusive)
+     */
+    interface MatchHandler {
+        void match(int pattern, int start, int end);
+    }
+
+    AhoCorasick(List<String> patterns) {
+        patternLengths = new int[patterns.size()];
+        int classes = 1;
+        List<String> normalized = new ArrayList<>();
+        for (int i = 0; i < patterns.size(); i++) {
+            String pattern = normalize(patterns.get(i));
+            if (pattern.isEmpty()) {
+                throw new IllegalArgumentException("Patterns cannot be empty");
+            }
+            for (char c : pattern.toCharArray()) {
+                if (c >= characterClasses.length) {
+                    throw new IllegalArgumentException(String.format(
+                            "Only ASCII patterns are supported: %s", patterns.get(i)));
+                }
+                if (characterClasses[c] == 0) {
+                    characterClasses[c] = classes++;
+                }
+            }
+            normalized.add(pattern);
+            patternLengths[i] = pattern.length();
+        }
+        alphabetSize = classes;
+
+        // build the trie
+        List<int[]> children = new ArrayList<>();
+        List<Integer> patternsAtStates = new ArrayList<>();
+        children.add(new int[alphabetSize]);
+        patternsAtStates.add(-1);
+        for (int i = 0; i < normalized.size(); i++) {
+            int state = ROOT;
+            for (char c : normalized.get(i).toCharArray()) {
+                int next = children.get(state)[characterClasses[c]];
+                if (next == ROOT) {
+                    next = children.size();
+                    children.add(new int[alphabetSize]);
+                    patternsAtStates.add(-1);
+                    children.get(state)[characterClasses[c]] = next;
+                }
+                state = next;
+            }
+            if (patternsAtStates.get(state) < 0) {
+                patternsAtStates.set(state, i);
+            }
+        }
+
+        // resolve the failure links breadth first into a complete transition table
+        int states = children.size();
+        transitions = new int[states * alphabetSize];
+        patternAtState = new int[states];
+        outputLinks = new int[states];
+        int[] failures = new int[states];
+        Arrays.fill(outputLinks, -1);
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int state = 0; state < states; state++) {
+            patternAtState[state] = patternsAtStates.get(state);
+        }
+        for (int c = 0; c < alphabetSize; c++) {
+            int child = children.get(ROOT)[c];
+            transitions[c] = child;
+            if (child != ROOT) {
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int failure = failures[state];
+            outputLinks[state] = (patternAtState[failure] >= 0 ? failure : outputLinks[failure]);
+            for (int c = 0; c < alphabetSize; c++) {
+                int child = children.get(state)[c];
+                if (child != ROOT) {
+                    failures[child] = transitions[(failure * alphabetSize) + c];
+                    transitions[(state * alphabetSize) + c] = child;
+                    queue.add(child);
+                } else {
+                    transitions[(state * alphabetSize) + c] =
+                            transitions[(failure * alphabetSize) + c];
+                }
+            }
+        }
+    }
+
+    static String normalize(String pattern) {
+        return pattern.trim().replaceAll("\\s+", " ").toLowerCase(Locale.US);
+    }
+
+    /**
+     * Reports every whole-word match, in order of where they end (and, for matches that end at
+     * the same character, longest first)
+     */
+    void scan(String text, MatchHandler handler) {
+        int state = ROOT;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                c = ' ';
+            } else {
+                c = Character.toLowerCase(c);
+            }
+            int characterClass = (c < characterClasses.length ? characterClasses[c] : 0);
+            state = transitions[(state * alphabetSize) + characterClass];
+            if (patternAtState[state] < 0 && outputLinks[state] < 0) {
+                continue;
+            }
+            int end = i + 1;
+            if (end < text.length() && Character.isLetterOrDigit(text.charAt(end))) {
+                continue;
+            }
+            for (int output = (patternAtState[state] >= 0 ? state : outputLinks[state]);
+                    output >= 0; output = outputLinks[output]) {
+                int pattern = patternAtState[output];
+                int start = end - patternLengths[pattern];
+                if (start == 0 || !Character.isLetterOrDigit(text.charAt(start - 1))) {
+                    handler.match(pattern, start, end);
+                }
+            }
+        }
+    }
+
+    int getStates() {
+        return patternAtState.length;
+    }
+}
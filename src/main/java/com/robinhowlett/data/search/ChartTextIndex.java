@@ -0,0 +1,187 @@
+package com.robinhowlett.data.search;
+
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Starter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * An inverted index of the chart caller's text: each race's footnotes and each starter's comments
+ * <p>
+ * Every footnote and comment is a document, identified by its race and the starter's program (or
+ * a null program for the footnotes). The text is split into lower case alphanumeric tokens, and
+ * each token's documents and positions are appended to its {@link PostingList}, so a decade of
+ * charts takes roughly a byte or two per token occurrence. Races can be added incrementally; a
+ * race that was already added is ignored. Queries are built with {@link TextQuery}. Instances are
+ * not thread-safe.
+ */
+public class ChartTextIndex {
+
+    private final Map<String, PostingList> postingLists = new HashMap<>();
+    private final Map<Key, Integer> raceIds = new HashMap<>();
+    private final List<Key> races = new ArrayList<>();
+
+    // one element per document
+    private int documents;
+    private int[] documentRaces = new int[1024];
+    private String[] documentPrograms = new String[1024];
+
+    /**
+     * @return the lower case runs of letters and digits in the text
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean letterOrDigit = (i < text.length() &&
+                    Character.isLetterOrDigit(text.charAt(i)));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.US));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @return true if the race was added, or false if it had been already (or has no track, date,
+     * or race number)
+     */
+    public boolean add(RaceResult raceResult) {
+        if (raceResult.getTrack() == null || raceResult.getRaceDate() == null ||
+                raceResult.getRaceNumber() == null) {
+            return false;
+        }
+        Key race = new Key(raceResult.getTrack().getCanonical(), raceResult.getRaceDate(),
+                raceResult.getRaceNumber());
+        if (raceIds.containsKey(race)) {
+            return false;
+        }
+        int raceId = races.size();
+        races.add(race);
+        raceIds.put(race, raceId);
+
+        addDocument(raceId, null, raceResult.getFootnotes());
+        if (raceResult.getStarters() != null) {
+            for (Starter starter : raceResult.getStarters()) {
+                addDocument(raceId, starter.getProgram(), starter.getComments());
+            }
+        }
+        return true;
+    }
+
+    private void addDocument(int raceId, String program, String text) {
+        List<String> tokens = tokenize(text);
+        if (tokens.isEmpty()) {
+            return;
+        }
+        if (documents == documentRaces.length) {
+            documentRaces = Arrays.copyOf(documentRaces, documents * 2);
+            documentPrograms = Arrays.copyOf(documentPrograms, documents * 2);
+        }
+        int document = documents++;
+        documentRaces[document] = raceId;
+        documentPrograms[document] = program;
+
+        // each token's positions, preceded by their count
+        Map<String, int[]> positionsByToken = new LinkedHashMap<>();
+        for (int position = 0; position < tokens.size(); position++) {
+            int[] positions = positionsByToken.computeIfAbsent(tokens.get(position),
+                    token -> new int[]{0});
+            if (positions[0] + 1 == positions.length) {
+                positions = Arrays.copyOf(positions, positions.length * 2);
+                positionsByToken.put(tokens.get(position), positions);
+            }
+            positions[++positions[0]] = position;
+        }
+        positionsByToken.forEach((token, positions) ->
+                postingLists.computeIfAbsent(token, t -> new PostingList())
+                        .add(document, Arrays.copyOfRange(positions, 1, positions[0] + 1)));
+    }
+
+    /**
+     * @return the matching footnotes and comments, in the order they were added
+     */
+    public List<Hit> search(TextQuery query) {
+        BitSet matches = query.evaluate(this);
+        List<Hit> hits = new ArrayList<>(matches.cardinality());
+        for (int document = matches.nextSetBit(0); document >= 0;
+                document = matches.nextSetBit(document + 1)) {
+            hits.add(new Hit(races.get(documentRaces[document]), documentPrograms[document]));
+        }
+        return hits;
+    }
+
+    /**
+     * @return the number of footnotes and comments containing the term
+     */
+    public int getDocumentFrequency(String term) {
+        PostingList postingList = getPostingList(term.toLowerCase(Locale.US));
+        return (postingList != null ? postingList.getDocuments() : 0);
+    }
+
+    PostingList getPostingList(String token) {
+        return postingLists.get(token);
+    }
+
+    public int getDocuments() {
+        return documents;
+    }
+
+    public int getRaces() {
+        return races.size();
+    }
+
+    public int getTerms() {
+        return postingLists.size();
+    }
+
+    /**
+     * @return the total size of the encoded posting lists
+     */
+    public long getPostingBytes() {
+        long bytes = 0;
+        for (PostingList postingList : postingLists.values()) {
+            bytes += postingList.getLength();
+        }
+        return bytes;
+    }
+
+    /**
+     * Identifies a race by its canonical track code, race date, and race number
+     */
+    @Data
+    public static class Key {
+        private final String track;
+        private final LocalDate raceDate;
+        private final int raceNumber;
+    }
+
+    /**
+     * A matching footnote (with a null program) or starter comment
+     */
+    @Data
+    public static class Hit {
+        private final Key race;
+        private final String program;
+
+        public boolean isFootnote() {
+            return (program == null);
+        }
+    }
+}
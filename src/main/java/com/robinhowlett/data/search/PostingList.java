@@ -0,0 +1,137 @@
+package com.robinhowlett.data.search;
+
+import java.util.Arrays;
+
+/**
+ * The documents that contain a term, with the term's positions in each, as a delta- and
+ * varint-encoded byte array
+ * <p>
+ * Each document is written as the gap from the previous document id, the number of positions, and
+ * the gaps between positions, each as a varint (seven bits per byte, with the high bit set on
+ * every byte but the last), so the small gaps of common terms take one byte each. Documents must
+ * be added in increasing id order.
+ */
+class PostingList {
+
+    private byte[] bytes = new byte[8];
+    private int length;
+    private int documents;
+    private int lastDocument = -1;
+
+    /**
+     * @param positions the term's positions in the document, in increasing order
+     */
+    void add(int document, int[] positions) {
+        if (document <= lastDocument) {
+            throw new IllegalArgumentException(String.format("Document %d added after %d",
+                    document, lastDocument));
+        }
+        writeVarint(document - lastDocument);
+        writeVarint(positions.length);
+        int lastPosition = 0;
+        for (int position : positions) {
+            writeVarint(position - lastPosition);
+            lastPosition = position;
+        }
+        lastDocument = document;
+        documents++;
+    }
+
+    private void writeVarint(int value) {
+        if (length + 5 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(length + 5, bytes.length * 2));
+        }
+        while ((value & ~0x7F) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    int getDocuments() {
+        return documents;
+    }
+
+    /**
+     * @return the number of bytes used by the encoded postings
+     */
+    int getLength() {
+        return length;
+    }
+
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Decodes the postings one document at a time
+     */
+    class Cursor {
+        private int offset;
+        private int document = -1;
+        private int[] positions = new int[4];
+        private int count;
+
+        /**
+         * @return false once every document has been read
+         */
+        boolean next() {
+            if (offset >= length) {
+                return false;
+            }
+            document += readVarint();
+            count = readVarint();
+            if (count > positions.length) {
+                positions = new int[Math.max(count, positions.length * 2)];
+            }
+            int position = 0;
+            for (int i = 0; i < count; i++) {
+                position += readVarint();
+                positions[i] = position;
+            }
+            return true;
+        }
+
+        /**
+         * Moves to the first document at or after the target
+         *
+         * @return false if there is no such document
+         */
+        boolean advance(int target) {
+            while (document < target) {
+                if (!next()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        int getDocument() {
+            return document;
+        }
+
+        boolean hasPosition(int position) {
+            return Arrays.binarySearch(positions, 0, count, position) >= 0;
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        int getPosition(int index) {
+            return positions[index];
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.robinhowlett.data.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * A query over a {@link ChartTextIndex}: a term, a phrase, or a boolean combination of other
+ * queries, e.g. {@code and(phrase("4 wide"), not(term("lane")))}
+ * <p>
+ * Terms and phrases are tokenized the same way as the indexed text, so they are case-insensitive.
+ */
+public abstract class TextQuery {
+
+    /**
+     * @return the ids of the matching documents
+     */
+    abstract BitSet evaluate(ChartTextIndex index);
+
+    public static TextQuery term(String term) {
+        return phrase(term);
+    }
+
+    /**
+     * Matches documents with the text's tokens in consecutive positions
+     */
+    public static TextQuery phrase(String text) {
+        List<String> tokens = ChartTextIndex.tokenize(text);
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException(String.format("No terms in: %s", text));
+        }
+        return new Phrase(tokens);
+    }
+
+    public static TextQuery and(TextQuery... queries) {
+        return new Combination(true, queries);
+    }
+
+    public static TextQuery or(TextQuery... queries) {
+        return new Combination(false, queries);
+    }
+
+    public static TextQuery not(TextQuery query) {
+        return new Not(query);
+    }
+
+    private static class Phrase extends TextQuery {
+        private final List<String> tokens;
+
+        Phrase(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        @Override
+        BitSet evaluate(ChartTextIndex index) {
+            BitSet documents = new BitSet();
+            List<PostingList.Cursor> cursors = new ArrayList<>();
+            for (String token : tokens) {
+                PostingList postingList = index.getPostingList(token);
+                if (postingList == null) {
+                    return documents;
+                }
+                cursors.add(postingList.cursor());
+            }
+
+            PostingList.Cursor first = cursors.get(0);
+            while (first.next()) {
+                int document = first.getDocument();
+                if (matches(cursors, document)) {
+                    documents.set(document);
+                }
+            }
+            return documents;
+        }
+
+        private static boolean matches(List<PostingList.Cursor> cursors, int document) {
+            for (int i = 1; i < cursors.size(); i++) {
+                PostingList.Cursor cursor = cursors.get(i);
+                if (!cursor.advance(document) || cursor.getDocument() != document) {
+                    return false;
+                }
+            }
+            if (cursors.size() == 1) {
+                return true;
+            }
+            PostingList.Cursor first = cursors.get(0);
+            for (int p = 0; p < first.getCount(); p++) {
+                int start = first.getPosition(p);
+                int i = 1;
+                while (i < cursors.size() && cursors.get(i).hasPosition(start + i)) {
+                    i++;
+                }
+                if (i == cursors.size()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return (tokens.size() == 1 ? tokens.get(0) : "\"" + String.join(" ", tokens) + "\"");
+        }
+    }
+
+    private static class Combination extends TextQuery {
+        private final boolean and;
+        private final List<TextQuery> queries;
+
+        Combination(boolean and, TextQuery... queries) {
+            if (queries.length == 0) {
+                throw new IllegalArgumentException("At least one query is required");
+            }
+            this.and = and;
+            this.queries = Arrays.asList(queries);
+        }
+
+        @Override
+        BitSet evaluate(ChartTextIndex index) {
+            BitSet documents = queries.get(0).evaluate(index);
+            for (int i = 1; i < queries.size(); i++) {
+                if (and && documents.isEmpty()) {
+                    break;
+                }
+                BitSet other = queries.get(i).evaluate(index);
+                if (and) {
+                    documents.and(other);
+                } else {
+                    documents.or(other);
+                }
+            }
+            return documents;
+        }
+
+        @Override
+        public String toString() {
+            List<String> parts = new ArrayList<>();
+            for (TextQuery query : queries) {
+                parts.add(query.toString());
+            }
+            return "(" + String.join(and ? " AND " : " OR ", parts) + ")";
+        }
+    }
+
+    private static class Not extends TextQuery {
+        private final TextQuery query;
+
+        Not(TextQuery query) {
+            this.query = query;
+        }
+
+        @Override
+        BitSet evaluate(ChartTextIndex index) {
+            BitSet documents = new BitSet();
+            documents.set(0, index.getDocuments());
+            documents.andNot(query.evaluate(index));
+            return documents;
+        }
+
+        @Override
+        public String toString() {
+            return "NOT " + query;
+        }
+    }
+}
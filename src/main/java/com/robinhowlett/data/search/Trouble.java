@@ -0,0 +1,45 @@
+package com.robinhowlett.data.search;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The kinds of trouble described by chart callers, each a bit of a {@link
+ * com.robinhowlett.data.Starter}'s trouble mask
+ * <p>
+ * A flag's bit is its ordinal, so new kinds must only ever be added at the end.
+ */
+public enum Trouble {
+    STEADIED,
+    CHECKED,
+    BUMPED,
+    SQUEEZED,
+    BLOCKED,
+    STUMBLED,
+    BROKE_SLOWLY,
+    BOBBLED,
+    LUGGED,
+    CLIPPED_HEELS,
+    ALTERED_COURSE,
+    WIDE,
+    EASED,
+    LOST_RIDER;
+
+    public int getMask() {
+        return 1 << ordinal();
+    }
+
+    public boolean isSet(Integer mask) {
+        return (mask != null && (mask & getMask()) != 0);
+    }
+
+    public static Set<Trouble> fromMask(Integer mask) {
+        Set<Trouble> troubles = EnumSet.noneOf(Trouble.class);
+        for (Trouble trouble : values()) {
+            if (trouble.isSet(mask)) {
+                troubles.add(trouble);
+            }
+        }
+        return troubles;
+    }
+}
@@ -0,0 +1,122 @@
+package com.robinhowlett.data.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * The phrases a {@link TroubleLineExtractor} looks for: trouble (e.g. "steadied" or "boxed in"),
+ * how many horses wide a starter was (e.g. "4w" or "four wide"), and the points of the race they
+ * refer to (e.g. "1/4" or "far turn")
+ * <p>
+ * Phrases are matched as whole words, ignoring case; adding a phrase again replaces its meaning.
+ */
+public class TroubleLexicon {
+
+    private static final String[] NUMBERS =
+            {"two", "three", "four", "five", "six", "seven", "eight", "nine"};
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * @return the lexicon of common trouble lines, widths, and calls
+     */
+    public static TroubleLexicon defaults() {
+        TroubleLexicon lexicon = new TroubleLexicon()
+                .trouble(Trouble.STEADIED, "steadied", "stdd", "steadied sharply")
+                .trouble(Trouble.CHECKED, "checked", "chkd", "took up", "checked hard")
+                .trouble(Trouble.BUMPED, "bumped", "bmpd", "bumped start", "brushed",
+                        "bumped repeatedly")
+                .trouble(Trouble.SQUEEZED, "squeezed", "sqzd", "pinched", "pinched back",
+                        "squeezed start")
+                .trouble(Trouble.BLOCKED, "blocked", "boxed in", "shut off", "no room",
+                        "in tight", "no room to run")
+                .trouble(Trouble.STUMBLED, "stumbled", "stumbled start", "stumbled badly",
+                        "stumbled at the start")
+                .trouble(Trouble.BROKE_SLOWLY, "broke slowly", "off slowly", "off slow",
+                        "slow start", "slow away", "dwelt", "hesitated", "missed the break")
+                .trouble(Trouble.BOBBLED, "bobbled", "bobble", "bobbled start")
+                .trouble(Trouble.LUGGED, "lugged in", "lugged out", "bore in", "bore out",
+                        "drifted out", "drifted in")
+                .trouble(Trouble.CLIPPED_HEELS, "clipped heels")
+                .trouble(Trouble.ALTERED_COURSE, "altered course", "altered path")
+                .trouble(Trouble.WIDE, "wide", "very wide", "carried wide", "floated wide",
+                        "wide trip", "went wide", "lost ground")
+                .trouble(Trouble.EASED, "eased", "eased up", "eased late")
+                .trouble(Trouble.LOST_RIDER, "lost rider", "lost jockey", "unseated",
+                        "unseated rider")
+                .call(Call.QUARTER, "1/4")
+                .call(Call.HALF, "1/2")
+                .call(Call.THREE_QUARTERS, "3/4")
+                .call(Call.FIRST_TURN, "first turn", "1st turn", "clubhouse turn")
+                .call(Call.BACKSTRETCH, "backstretch", "backside", "down the backstretch")
+                .call(Call.FAR_TURN, "turn", "far turn", "2nd turn", "second turn",
+                        "final turn", "3/8")
+                .call(Call.STRETCH, "stretch", "lane", "upper stretch", "into the stretch",
+                        "into the lane", "str", "1/8");
+        for (int wide = 2; wide <= 9; wide++) {
+            String word = NUMBERS[wide - 2];
+            lexicon.width(wide, wide + "w", wide + " wide", wide + "-wide", word + " wide",
+                    word + "-wide", word + " paths wide");
+        }
+        return lexicon;
+    }
+
+    public TroubleLexicon trouble(Trouble trouble, String... phrases) {
+        return add(new Entry(trouble, null, null), phrases);
+    }
+
+    public TroubleLexicon width(int wide, String... phrases) {
+        return add(new Entry(null, wide, null), phrases);
+    }
+
+    public TroubleLexicon call(Call call, String... phrases) {
+        return add(new Entry(null, null, call), phrases);
+    }
+
+    private TroubleLexicon add(Entry entry, String... phrases) {
+        for (String phrase : phrases) {
+            entries.put(AhoCorasick.normalize(phrase), entry);
+        }
+        return this;
+    }
+
+    List<String> getPhrases() {
+        return Collections.unmodifiableList(new ArrayList<>(entries.keySet()));
+    }
+
+    List<Entry> getEntries() {
+        return Collections.unmodifiableList(new ArrayList<>(entries.values()));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * The points of the race a width can refer to, resolved against each starter's points of call
+     */
+    public enum Call {
+        QUARTER,
+        HALF,
+        THREE_QUARTERS,
+        FIRST_TURN,
+        BACKSTRETCH,
+        FAR_TURN,
+        STRETCH
+    }
+
+    /**
+     * What a phrase means: exactly one of a trouble, a width, or a call
+     */
+    @Data
+    static class Entry {
+        private final Trouble trouble;
+        private final Integer wide;
+        private final Call call;
+    }
+}
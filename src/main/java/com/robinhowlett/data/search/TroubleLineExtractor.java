@@ -0,0 +1,282 @@
+package com.robinhowlett.data.search;
+
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Starter;
+import com.robinhowlett.data.search.TroubleLexicon.Call;
+import com.robinhowlett.data.search.TroubleLexicon.Entry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Extracts the trouble described in each {@link Starter}'s comments and in the race's footnotes
+ * as a bitmask of {@link Trouble} flags, and records how many horses wide a starter was at the
+ * points of call the text names (e.g. "4w 1/4, 5w lane" or "raced four wide on the far turn")
+ * <p>
+ * The phrases of a {@link TroubleLexicon} are compiled into one {@link AhoCorasick} matcher, so
+ * each comment and the footnotes are scanned once, in linear time. A footnote sentence is
+ * attributed to the starter whose horse's name appears first in it as whole words (the longest
+ * name, if several start at the same place), or otherwise to the starter of the previous
+ * sentence. A width applies to each call that follows it in the same clause, and
+ * a width of {@value #WIDE_TRIP} or more is also flagged as {@link Trouble#WIDE}. The results are
+ * set as each starter's trouble mask and each matching {@link
+ * com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition}'s wide value. Instances are
+ * thread-safe, and archives are processed in parallel on a {@link ForkJoinPool}.
+ */
+public class TroubleLineExtractor {
+
+    public static final int WIDE_TRIP = 4;
+
+    private static final String START = "Start";
+    private static final String STRETCH = "Str";
+
+    private final AhoCorasick matcher;
+    private final List<Entry> entries;
+    private final ForkJoinPool forkJoinPool;
+
+    public TroubleLineExtractor() {
+        this(TroubleLexicon.defaults());
+    }
+
+    public TroubleLineExtractor(TroubleLexicon lexicon) {
+        this(lexicon, ForkJoinPool.commonPool());
+    }
+
+    public TroubleLineExtractor(TroubleLexicon lexicon, ForkJoinPool forkJoinPool) {
+        this.matcher = new AhoCorasick(lexicon.getPhrases());
+        this.entries = lexicon.getEntries();
+        this.forkJoinPool = forkJoinPool;
+    }
+
+    public void extract(Collection<RaceResult> raceResults) {
+        forkJoinPool.submit(() -> raceResults.parallelStream().forEach(this::extract)).join();
+    }
+
+    public void extract(RaceResult raceResult) {
+        List<Starter> starters = raceResult.getStarters();
+        if (starters == null || starters.isEmpty()) {
+            return;
+        }
+        int[] masks = new int[starters.size()];
+        if (raceResult.getFootnotes() != null) {
+            scanFootnotes(raceResult.getFootnotes(), starters, masks);
+        }
+        for (int i = 0; i < starters.size(); i++) {
+            String comments = starters.get(i).getComments();
+            if (comments != null) {
+                Scan scan = new Scan(comments, starters, masks);
+                scan.target = i;
+                matcher.scan(comments, scan);
+            }
+        }
+        for (int i = 0; i < starters.size(); i++) {
+            starters.get(i).setTrouble(masks[i]);
+        }
+    }
+
+    /**
+     * @return the trouble mask of the text, without attributing it to any starter
+     */
+    public int troubleOf(String text) {
+        int[] masks = new int[1];
+        Scan scan = new Scan(text, null, masks);
+        scan.target = 0;
+        matcher.scan(text, scan);
+        return masks[0];
+    }
+
+    private void scanFootnotes(String footnotes, List<Starter> starters, int[] masks) {
+        String lowerCase = footnotes.toLowerCase(Locale.US);
+        List<String> names = new ArrayList<>();
+        for (Starter starter : starters) {
+            names.add(starter.getHorse() != null && starter.getHorse().getName() != null ?
+                    starter.getHorse().getName().toLowerCase(Locale.US) : null);
+        }
+
+        // the next index of each name in the footnotes, or -1
+        int[] nextMentions = new int[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            nextMentions[i] = (names.get(i) != null && !names.get(i).isEmpty() ?
+                    indexOfWords(lowerCase, names.get(i), 0) : -1);
+        }
+
+        // the end of each sentence, and the starter it is about (or -1)
+        List<int[]> sentences = new ArrayList<>();
+        int target = -1;
+        int start = 0;
+        while (start < footnotes.length()) {
+            int end = sentenceEnd(footnotes, start);
+            int first = end;
+            for (int i = 0; i < names.size(); i++) {
+                if (nextMentions[i] >= 0 && nextMentions[i] < start) {
+                    nextMentions[i] = indexOfWords(lowerCase, names.get(i), start);
+                }
+                // e.g. "Tizzy Lady" rather than "Tizzy"
+                if (nextMentions[i] >= 0 && (nextMentions[i] < first ||
+                        (nextMentions[i] == first && first < end &&
+                                names.get(i).length() > names.get(target).length()))) {
+                    first = nextMentions[i];
+                    target = i;
+                }
+            }
+            sentences.add(new int[]{end, target});
+            start = end;
+        }
+
+        Scan scan = new Scan(footnotes, starters, masks);
+        scan.sentences = sentences;
+        matcher.scan(footnotes, scan);
+    }
+
+    /**
+     * @return the index of the words in the text, not within other words, from the given index,
+     * or -1
+     */
+    static int indexOfWords(String text, String words, int from) {
+        int index = text.indexOf(words, from);
+        while (index >= 0) {
+            int end = index + words.length();
+            if ((index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1))) &&
+                    (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)))) {
+                return index;
+            }
+            index = text.indexOf(words, index + 1);
+        }
+        return -1;
+    }
+
+    private static int sentenceEnd(String text, int start) {
+        for (int i = start; i < text.length(); i++) {
+            if (text.charAt(i) == '.' &&
+                    (i + 1 == text.length() || Character.isWhitespace(text.charAt(i + 1)))) {
+                return i + 1;
+            }
+        }
+        return text.length();
+    }
+
+    /**
+     * The state of one scan of a comment or the footnotes
+     */
+    private class Scan implements AhoCorasick.MatchHandler {
+        private final String text;
+        private final List<Starter> starters;
+        private final int[] masks;
+        private List<int[]> sentences; // for the footnotes
+        private int sentence;
+        private int target = -1;
+        private int lastStart = -1;
+        private int lastEnd = -1;
+        private Integer wide;
+        private int wideEnd;
+
+        Scan(String text, List<Starter> starters, int[] masks) {
+            this.text = text;
+            this.starters = starters;
+            this.masks = masks;
+        }
+
+        @Override
+        public void match(int pattern, int start, int end) {
+            // skip e.g. "turn" within "far turn"
+            if (start >= lastStart && end <= lastEnd) {
+                return;
+            }
+            lastStart = start;
+            lastEnd = end;
+
+            if (sentences != null) {
+                int previous = sentence;
+                while (sentence < sentences.size() - 1 && start >= sentences.get(sentence)[0]) {
+                    sentence++;
+                }
+                target = sentences.get(sentence)[1];
+                if (sentence != previous) {
+                    wide = null;
+                }
+            }
+            if (target < 0) {
+                return;
+            }
+
+            Entry entry = entries.get(pattern);
+            if (entry.getTrouble() != null) {
+                masks[target] |= entry.getTrouble().getMask();
+            } else if (entry.getWide() != null) {
+                wide = entry.getWide();
+                wideEnd = end;
+                if (wide >= WIDE_TRIP) {
+                    masks[target] |= Trouble.WIDE.getMask();
+                }
+            } else if (wide != null && !separated(wideEnd, start) && starters != null) {
+                PointOfCall pointOfCall = resolve(starters.get(target), entry.getCall());
+                if (pointOfCall != null && pointOfCall.getRelativePosition() != null) {
+                    pointOfCall.getRelativePosition().setWide(wide);
+                }
+            }
+        }
+
+        private boolean separated(int from, int to) {
+            for (int i = from; i < to; i++) {
+                char c = text.charAt(i);
+                if (c == ',' || c == ';' || c == '.') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @return the starter's point of call for the part of the race, or null if it has none
+     */
+    static PointOfCall resolve(Starter starter, Call call) {
+        List<PointOfCall> pointsOfCall = starter.getPointsOfCall();
+        if (pointsOfCall == null) {
+            return null;
+        }
+        // the calls after the start and before the finish, and the stretch call
+        List<PointOfCall> running = new ArrayList<>();
+        PointOfCall stretch = null;
+        for (int i = 0; i < pointsOfCall.size() - 1; i++) {
+            PointOfCall pointOfCall = pointsOfCall.get(i);
+            if (STRETCH.equals(pointOfCall.getText())) {
+                stretch = pointOfCall;
+            } else if (!START.equals(pointOfCall.getText()) && stretch == null) {
+                running.add(pointOfCall);
+            }
+        }
+
+        switch (call) {
+            case QUARTER:
+                return withText(running, "1/4");
+            case HALF:
+                return withText(running, "1/2");
+            case THREE_QUARTERS:
+                return withText(running, "3/4");
+            case FIRST_TURN:
+                return (running.isEmpty() ? null : running.get(0));
+            case BACKSTRETCH:
+                return (running.size() < 3 ? null : running.get(running.size() - 2));
+            case FAR_TURN:
+                return (running.isEmpty() ? null : running.get(running.size() - 1));
+            case STRETCH:
+                return stretch;
+            default:
+                return null;
+        }
+    }
+
+    private static PointOfCall withText(List<PointOfCall> pointsOfCall, String text) {
+        for (PointOfCall pointOfCall : pointsOfCall) {
+            if (text.equals(pointOfCall.getText())) {
+                return pointOfCall;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,162 @@
+package com.robinhowlett.data.wagering;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * An exotic wager ticket as one bitmask of selected program numbers per leg (a finishing position
+ * for single-race wagers, or a race for multi-race wagers), using the same bit layout as {@link
+ * WinningCombination}
+ * <p>
+ * Straight, box, and key wheel tickets have factory methods; any part-wheel or multi-race ticket
+ * can be built from per-leg {@link #mask(int...)}s with {@link #of(ExoticType, long...)}.
+ */
+@EqualsAndHashCode
+public class ExoticTicket {
+
+    @Getter
+    private final ExoticType type;
+    private final long[] selections;
+
+    private ExoticTicket(ExoticType type, long[] selections) {
+        this.type = type;
+        this.selections = selections;
+    }
+
+    public static ExoticTicket of(ExoticType type, long... selections) {
+        return new ExoticTicket(type, Arrays.copyOf(selections, selections.length));
+    }
+
+    // straight(TRIFECTA, 3, 7, 1) is the 3-7-1 trifecta
+    public static ExoticTicket straight(ExoticType type, int... programs) {
+        long[] selections = new long[programs.length];
+        for (int leg = 0; leg < programs.length; leg++) {
+            selections[leg] = mask(programs[leg]);
+        }
+        return new ExoticTicket(type, selections);
+    }
+
+    // box(TRIFECTA, 3, 7, 1) covers every finishing order of 3, 7, and 1
+    public static ExoticTicket box(ExoticType type, int... programs) {
+        long[] selections = new long[legsOf(type)];
+        Arrays.fill(selections, mask(programs));
+        return new ExoticTicket(type, selections);
+    }
+
+    // wheel(EXACTA, 3, 1, 2, 5) is 3 to win with 1, 2, or 5 second
+    public static ExoticTicket wheel(ExoticType type, int key, int... with) {
+        long[] selections = new long[legsOf(type)];
+        Arrays.fill(selections, mask(with));
+        selections[0] = mask(key);
+        return new ExoticTicket(type, selections);
+    }
+
+    private static int legsOf(ExoticType type) {
+        if (type.getLegs() == 0) {
+            throw new IllegalArgumentException(String.format("The number of legs of a %s varies;" +
+                    " use of(type, selections...) instead", type.getChartValue()));
+        }
+        return type.getLegs();
+    }
+
+    public static long mask(int... programs) {
+        long mask = 0;
+        for (int program : programs) {
+            if (program < 1 || program > WinningCombination.MAX_PROGRAM) {
+                throw new IllegalArgumentException(String.format("Program number %d is not " +
+                        "between 1 and %d", program, WinningCombination.MAX_PROGRAM));
+            }
+            mask |= 1L << program;
+        }
+        return mask;
+    }
+
+    public int getLegs() {
+        return selections.length;
+    }
+
+    public long getSelections(int leg) {
+        return selections[leg];
+    }
+
+    /**
+     * @return the number of distinct combinations this ticket covers, e.g. to price it at the
+     * wager unit; a leg of {@link WinningCombination#ALL} counts every possible program number, so
+     * use a mask of the actual field instead when pricing
+     */
+    public long getCombinations() {
+        if (type.isMultiRace()) {
+            long combinations = 1;
+            for (long selection : selections) {
+                combinations *= Long.bitCount(selection);
+            }
+            return combinations;
+        }
+        if (type.isOrdered()) {
+            return countOrdered(0, 0L);
+        }
+        Set<Long> horses = new HashSet<>();
+        collectUnordered(0, 0L, horses);
+        return horses.size();
+    }
+
+    private long countOrdered(int leg, long used) {
+        if (leg == selections.length) {
+            return 1;
+        }
+        long count = 0;
+        long candidates = selections[leg] & ~used;
+        while (candidates != 0) {
+            long horse = Long.lowestOneBit(candidates);
+            count += countOrdered(leg + 1, used | horse);
+            candidates &= ~horse;
+        }
+        return count;
+    }
+
+    private void collectUnordered(int leg, long used, Set<Long> horses) {
+        if (leg == selections.length) {
+            horses.add(used);
+            return;
+        }
+        long candidates = selections[leg] & ~used;
+        while (candidates != 0) {
+            long horse = Long.lowestOneBit(candidates);
+            collectUnordered(leg + 1, used | horse, horses);
+            candidates &= ~horse;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(type.getChartValue()).append(' ');
+        for (int leg = 0; leg < selections.length; leg++) {
+            if (leg > 0) {
+                text.append('-');
+            }
+            text.append(toText(selections[leg]));
+        }
+        return text.toString();
+    }
+
+    // e.g. "1/4" or "ALL"
+    static String toText(long mask) {
+        if (mask == WinningCombination.ALL) {
+            return "ALL";
+        }
+        StringBuilder text = new StringBuilder();
+        long remaining = mask;
+        while (remaining != 0) {
+            if (text.length() > 0) {
+                text.append('/');
+            }
+            text.append(Long.numberOfTrailingZeros(remaining));
+            remaining &= remaining - 1;
+        }
+        return text.toString();
+    }
+}
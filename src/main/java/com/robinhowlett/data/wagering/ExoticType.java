@@ -0,0 +1,101 @@
+package com.robinhowlett.data.wagering;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The exotic wager types that appear in a chart's wagering grid, normalized from the free-text
+ * wager names (e.g. "Pick 3", "Pick Three", and "Pick 3 (Races 4-5-6)" are all {@link #PICK_3})
+ */
+@ToString
+public enum ExoticType {
+    EXACTA("Exacta", 2, false),
+    QUINELLA("Quinella", 2, false),
+    TRIFECTA("Trifecta", 3, false),
+    SUPERFECTA("Superfecta", 4, false),
+    SUPER_HIGH_FIVE("Super High Five", 5, false, "Super Hi 5", "Super Hi Five", "Pentafecta",
+            "Hi 5", "High Five"),
+    DAILY_DOUBLE("Daily Double", 2, true, "Double"),
+    PICK_3("Pick 3", 3, true, "Pick Three"),
+    PICK_4("Pick 4", 4, true, "Pick Four"),
+    PICK_5("Pick 5", 5, true, "Pick Five"),
+    PICK_6("Pick 6", 6, true, "Pick Six", "Jackpot Pick 6", "Jackpot Pick Six"),
+    PICK_7("Pick 7", 7, true, "Pick Seven"),
+    GRAND_SLAM("Grand Slam", 4, true),
+    PLACE_PICK_ALL("Place Pick All", 0, true),
+    OTHER("Other", 0, false);
+
+    private static final Map<String, ExoticType> TYPES_BY_NAME;
+
+    static {
+        Map<String, ExoticType> typesByName = new HashMap<>();
+        for (ExoticType type : values()) {
+            for (String name : type.names) {
+                typesByName.put(normalize(name), type);
+            }
+        }
+        TYPES_BY_NAME = Collections.unmodifiableMap(typesByName);
+    }
+
+    @Getter
+    private final String chartValue;
+    // the number of finishing positions or races selected, or 0 if it varies
+    @Getter
+    private final int legs;
+    // whether each leg is a different race, as opposed to a finishing position in one race
+    @Getter
+    private final boolean multiRace;
+    private final String[] names;
+
+    ExoticType(String chartValue, int legs, boolean multiRace, String... aliases) {
+        this.chartValue = chartValue;
+        this.legs = legs;
+        this.multiRace = multiRace;
+        this.names = new String[aliases.length + 1];
+        this.names[0] = chartValue;
+        System.arraycopy(aliases, 0, this.names, 1, aliases.length);
+    }
+
+    // only the Quinella pays on the selected horses finishing first and second in either order
+    public boolean isOrdered() {
+        return (this != QUINELLA);
+    }
+
+    // forChartValue("$1 Pick 3 (Races 4-5-6)") returns ExoticType.PICK_3
+    public static ExoticType forChartValue(String text) {
+        if (text == null) {
+            return OTHER;
+        }
+        return TYPES_BY_NAME.getOrDefault(normalize(text), OTHER);
+    }
+
+    /*
+     * Lower-cases the name and drops any parenthesized suffix, leading wager amount, and anything
+     * that is not a letter or digit
+     */
+    static String normalize(String name) {
+        int end = name.indexOf('(');
+        if (end < 0) {
+            end = name.length();
+        }
+        StringBuilder normalized = new StringBuilder(end);
+        boolean leadingAmount = true;
+        for (int i = 0; i < end; i++) {
+            char c = name.charAt(i);
+            if (leadingAmount) {
+                if (c == '$' || c == '.' || Character.isDigit(c) || Character.isWhitespace(c)) {
+                    continue;
+                }
+                leadingAmount = false;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+}
@@ -0,0 +1,231 @@
+package com.robinhowlett.data.wagering;
+
+import com.robinhowlett.data.RaceConditions;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.RaceTypeNameBlackTypeBreed;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collector;
+
+import lombok.Data;
+import lombok.Getter;
+
+/**
+ * Implied probability, overround, favorite, and longshot bias statistics of the win markets of
+ * many {@link RaceResult}s, grouped by track, race type, and field size
+ * <p>
+ * Each race's odds are extracted into a {@link RaceMarket} and folded into its group's primitive
+ * counters in one pass over the field. Betting interests are also counted by odds range, with
+ * their actual wins, the wins expected from their (normalized) implied probabilities, and their
+ * returns to a $1 win wager, so a longshot bias shows up as longer odds ranges winning less often
+ * than expected. Statistics built on different threads (e.g. via {@link #collector()} on a
+ * parallel stream) are combined with {@link #merge(MarketStatistics)}. Instances are not
+ * thread-safe.
+ */
+public class MarketStatistics {
+
+    // the lower bounds of the odds ranges, e.g. 3 is from 3-1 up to (but not including) 5-1
+    public static final double[] ODDS_RANGES = {0, 1, 2, 3, 5, 10, 20, 50};
+
+    private final Map<Key, Totals> totalsByKey = new HashMap<>();
+
+    public static Collector<RaceResult, ?, MarketStatistics> collector() {
+        return Collector.of(MarketStatistics::new, MarketStatistics::add,
+                MarketStatistics::merge);
+    }
+
+    /**
+     * @return the index in {@link #ODDS_RANGES} of the range these odds are in
+     */
+    public static int oddsRange(double odds) {
+        int range = 0;
+        while (range + 1 < ODDS_RANGES.length && odds >= ODDS_RANGES[range + 1]) {
+            range++;
+        }
+        return range;
+    }
+
+    public void add(RaceResult raceResult) {
+        RaceMarket market = RaceMarket.of(raceResult);
+        if (market == null) {
+            return;
+        }
+        String track = (raceResult.getTrack() != null ?
+                raceResult.getTrack().getCanonical() : null);
+        totalsByKey.computeIfAbsent(new Key(track, raceType(raceResult), market.size()),
+                key -> new Totals()).add(market);
+    }
+
+    private static String raceType(RaceResult raceResult) {
+        RaceConditions raceConditions = raceResult.getRaceConditions();
+        RaceTypeNameBlackTypeBreed raceType = (raceConditions != null ?
+                raceConditions.getRaceTypeNameBlackTypeBreed() : null);
+        return (raceType != null ? raceType.getCode() : null);
+    }
+
+    public MarketStatistics merge(MarketStatistics other) {
+        other.totalsByKey.forEach((key, totals) ->
+                totalsByKey.computeIfAbsent(key, k -> new Totals()).merge(totals));
+        return this;
+    }
+
+    /**
+     * @return the merged totals of every group that matches the query
+     */
+    public Totals query(Query query) {
+        Totals result = new Totals();
+        totalsByKey.forEach((key, totals) -> {
+            if (query.matches(key)) {
+                result.merge(totals);
+            }
+        });
+        return result;
+    }
+
+    public int getGroups() {
+        return totalsByKey.size();
+    }
+
+    /**
+     * The group a race is counted in; the field size is the number of betting interests
+     */
+    @Data
+    public static class Key {
+        private final String track;
+        private final String raceType;
+        private final int fieldSize;
+    }
+
+    /**
+     * The market statistics of one or more groups
+     */
+    public static class Totals {
+        @Getter
+        private int races;
+        private double overround;
+        @Getter
+        private int favoriteWins;
+        private double favoriteExpectedWins;
+        private final int[] starts = new int[ODDS_RANGES.length];
+        private final int[] wins = new int[ODDS_RANGES.length];
+        private final double[] expectedWins = new double[ODDS_RANGES.length];
+        private final double[] returns = new double[ODDS_RANGES.length];
+
+        void add(RaceMarket market) {
+            races++;
+            overround += market.getOverround();
+            int favorite = market.getFavorite();
+            if (market.isWinner(favorite)) {
+                favoriteWins++;
+            }
+            favoriteExpectedWins += market.getNormalizedProbability(favorite);
+            for (int i = 0; i < market.size(); i++) {
+                double odds = market.getOdds(i);
+                int range = oddsRange(odds);
+                starts[range]++;
+                expectedWins[range] += market.getNormalizedProbability(i);
+                if (market.isWinner(i)) {
+                    wins[range]++;
+                    returns[range] += odds + 1;
+                }
+            }
+        }
+
+        void merge(Totals other) {
+            races += other.races;
+            overround += other.overround;
+            favoriteWins += other.favoriteWins;
+            favoriteExpectedWins += other.favoriteExpectedWins;
+            for (int range = 0; range < ODDS_RANGES.length; range++) {
+                starts[range] += other.starts[range];
+                wins[range] += other.wins[range];
+                expectedWins[range] += other.expectedWins[range];
+                returns[range] += other.returns[range];
+            }
+        }
+
+        /**
+         * @return the mean overround, e.g. 0.2 for implied probabilities summing to 120%
+         */
+        public double getMeanOverround() {
+            return (races > 0 ? overround / races : Double.NaN);
+        }
+
+        public double getFavoriteWinPercentage() {
+            return (races > 0 ? (100.0 * favoriteWins) / races : Double.NaN);
+        }
+
+        /**
+         * @return the favorites' wins divided by the wins their odds implied
+         */
+        public double getFavoriteImpactValue() {
+            return (favoriteExpectedWins > 0 ? favoriteWins / favoriteExpectedWins : Double.NaN);
+        }
+
+        public int getStarts(int range) {
+            return starts[range];
+        }
+
+        public int getWins(int range) {
+            return wins[range];
+        }
+
+        public double getExpectedWins(int range) {
+            return expectedWins[range];
+        }
+
+        /**
+         * @return the range's wins divided by the wins its odds implied; below 1 for ranges that
+         * won less often than the market expected
+         */
+        public double getImpactValue(int range) {
+            return (expectedWins[range] > 0 ? wins[range] / expectedWins[range] : Double.NaN);
+        }
+
+        /**
+         * @return the percentage profit (or loss, if negative) of a win wager on every interest
+         * in the range, paid at its final odds
+         */
+        public double getReturnOnInvestment(int range) {
+            return (starts[range] > 0 ? (100.0 * (returns[range] - starts[range])) /
+                    starts[range] : Double.NaN);
+        }
+    }
+
+    /**
+     * Selects the groups to merge; criteria that are not set match every group
+     */
+    public static class Query {
+        private String track;
+        private String raceType;
+        private int minFieldSize;
+        private int maxFieldSize = Integer.MAX_VALUE;
+
+        public Query track(String track) {
+            this.track = track;
+            return this;
+        }
+
+        public Query raceType(String raceType) {
+            this.raceType = raceType;
+            return this;
+        }
+
+        public Query fieldSize(int fieldSize) {
+            return fieldSizes(fieldSize, fieldSize);
+        }
+
+        public Query fieldSizes(int min, int max) {
+            this.minFieldSize = min;
+            this.maxFieldSize = max;
+            return this;
+        }
+
+        boolean matches(Key key) {
+            return (track == null || track.equals(key.getTrack())) &&
+                    (raceType == null || raceType.equals(key.getRaceType())) &&
+                    key.getFieldSize() >= minFieldSize && key.getFieldSize() <= maxFieldSize;
+        }
+    }
+}
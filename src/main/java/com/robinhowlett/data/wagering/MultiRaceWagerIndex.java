@@ -0,0 +1,246 @@
+package com.robinhowlett.data.wagering;
+
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Starter;
+import com.robinhowlett.data.wagering.WagerPayoffPools.ExoticPayoffPool;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Links the multi-race exotic pools (Daily Double, Pick N, etc.) of a race card, i.e. all the
+ * {@link RaceResult}s of one track and date, to the races that made up their legs, and evaluates
+ * tickets against the official winners of those races
+ * <p>
+ * Charts list a multi-race pool under the race its sequence ended with, so unless the wager name
+ * says otherwise (e.g. "Pick 3 (Races 3-4-5)") a pool is assumed to span the preceding races. The
+ * winners of each leg are the starters with an official position of 1, which accounts for dead
+ * heats and disqualifications; a leg whose race is not on the card falls back to the charted
+ * winning numbers.
+ */
+public class MultiRaceWagerIndex {
+
+    // batches of tickets smaller than this are evaluated by a single task
+    static final int BATCH_THRESHOLD = 4096;
+
+    private static final Pattern RACES = Pattern.compile("\\(\\s*Races?\\s+([\\d\\s,-]+)\\)",
+            Pattern.CASE_INSENSITIVE);
+
+    @Getter
+    private final List<MultiRaceWager> wagers;
+    private final ForkJoinPool forkJoinPool;
+
+    public MultiRaceWagerIndex(List<RaceResult> card) {
+        this(card, ForkJoinPool.commonPool());
+    }
+
+    public MultiRaceWagerIndex(List<RaceResult> card, ForkJoinPool forkJoinPool) {
+        this.forkJoinPool = forkJoinPool;
+
+        Map<Integer, RaceResult> racesByNumber = new TreeMap<>();
+        for (RaceResult raceResult : card) {
+            if (raceResult.getRaceNumber() != null) {
+                racesByNumber.put(raceResult.getRaceNumber(), raceResult);
+            }
+        }
+
+        List<MultiRaceWager> multiRaceWagers = new ArrayList<>();
+        for (RaceResult raceResult : racesByNumber.values()) {
+            WagerPayoffPools wagerPayoffPools = raceResult.getWagerPayoffPools();
+            if (wagerPayoffPools == null || wagerPayoffPools.getExoticPayoffPools() == null) {
+                continue;
+            }
+            for (ExoticPayoffPool exoticPayoffPool : wagerPayoffPools.getExoticPayoffPools()) {
+                ExoticType type = ExoticType.forChartValue(exoticPayoffPool.getName());
+                if (type.isMultiRace()) {
+                    int[] legRaces = resolveLegRaces(type, exoticPayoffPool,
+                            raceResult.getRaceNumber());
+                    if (legRaces != null) {
+                        WinningCombination winners = winners(type, legRaces, exoticPayoffPool,
+                                racesByNumber);
+                        multiRaceWagers.add(new MultiRaceWager(type, exoticPayoffPool,
+                                legRaces, winners));
+                    }
+                }
+            }
+        }
+        wagers = Collections.unmodifiableList(multiRaceWagers);
+    }
+
+    /**
+     * @return the race numbers of each leg, or null if the number of legs is not known
+     */
+    static int[] resolveLegRaces(ExoticType type, ExoticPayoffPool exoticPayoffPool,
+            int listedRaceNumber) {
+        WinningCombination charted = exoticPayoffPool.getWinningCombination();
+        int legs = (type.getLegs() > 0 ? type.getLegs() :
+                (charted != null ? charted.getLegs() : 0));
+        if (legs == 0) {
+            return null;
+        }
+
+        if (exoticPayoffPool.getName() != null) {
+            Matcher matcher = RACES.matcher(exoticPayoffPool.getName());
+            if (matcher.find()) {
+                String[] numbers = matcher.group(1).trim().split("[\\s,-]+");
+                if (numbers.length == legs) {
+                    int[] legRaces = new int[legs];
+                    for (int leg = 0; leg < legs; leg++) {
+                        legRaces[leg] = Integer.parseInt(numbers[leg]);
+                    }
+                    return legRaces;
+                } else if (numbers.length == 2) { // e.g. "(Races 3-8)"
+                    return consecutive(Integer.parseInt(numbers[0]), legs);
+                }
+            }
+        }
+        return consecutive(listedRaceNumber - legs + 1, legs);
+    }
+
+    private static int[] consecutive(int first, int legs) {
+        int[] legRaces = new int[legs];
+        for (int leg = 0; leg < legs; leg++) {
+            legRaces[leg] = first + leg;
+        }
+        return legRaces;
+    }
+
+    private static WinningCombination winners(ExoticType type, int[] legRaces,
+            ExoticPayoffPool exoticPayoffPool, Map<Integer, RaceResult> racesByNumber) {
+        WinningCombination charted = exoticPayoffPool.getWinningCombination();
+        long[] legs = new long[legRaces.length];
+        for (int leg = 0; leg < legRaces.length; leg++) {
+            RaceResult raceResult = racesByNumber.get(legRaces[leg]);
+            if (raceResult != null) {
+                for (Starter winner : raceResult.getWinners()) {
+                    if (winner.getProgram() != null) {
+                        legs[leg] |= WinningCombination.programBit(winner.getProgram());
+                    }
+                }
+            }
+            if (legs[leg] == 0 && charted != null && leg < charted.getLegs()) {
+                legs[leg] = charted.getWinners(leg);
+            }
+        }
+        return new WinningCombination(type, legs, exoticPayoffPool.getNumberCorrect());
+    }
+
+    public List<MultiRaceWager> getWagers(ExoticType type) {
+        return wagers.stream()
+                .filter(wager -> wager.getType() == type)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the wagers with a leg in this race
+     */
+    public List<MultiRaceWager> getWagersIncluding(int raceNumber) {
+        return wagers.stream()
+                .filter(wager -> wager.getLeg(raceNumber) >= 0)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Evaluates the tickets in parallel batches on this index's {@link ForkJoinPool}, using {@link
+     * WinningCombination#isWinner(ExoticTicket)} (so a consolation pool's winners include wheels
+     * that cover a consolation combination)
+     *
+     * @return the indexes of the winning tickets
+     */
+    public BitSet evaluate(MultiRaceWager wager, List<ExoticTicket> tickets) {
+        long[] words = new long[(tickets.size() + 63) >>> 6];
+        forkJoinPool.invoke(new EvaluateTickets(wager.getWinners(), tickets, words, 0,
+                tickets.size()));
+        return BitSet.valueOf(words);
+    }
+
+    public int countWinners(MultiRaceWager wager, List<ExoticTicket> tickets) {
+        return evaluate(wager, tickets).cardinality();
+    }
+
+    /**
+     * A multi-race pool and the races that made up its legs
+     */
+    @Getter
+    @ToString
+    public static class MultiRaceWager {
+        private final ExoticType type;
+        private final ExoticPayoffPool exoticPayoffPool;
+        private final int[] legRaces;
+        // the official winners of each leg
+        private final WinningCombination winners;
+
+        MultiRaceWager(ExoticType type, ExoticPayoffPool exoticPayoffPool, int[] legRaces,
+                WinningCombination winners) {
+            this.type = type;
+            this.exoticPayoffPool = exoticPayoffPool;
+            this.legRaces = legRaces;
+            this.winners = winners;
+        }
+
+        public int getFirstRace() {
+            return legRaces[0];
+        }
+
+        /**
+         * @return the (zero-based) leg of this race, or -1 if it is not one of the legs
+         */
+        public int getLeg(int raceNumber) {
+            for (int leg = 0; leg < legRaces.length; leg++) {
+                if (legRaces[leg] == raceNumber) {
+                    return leg;
+                }
+            }
+            return -1;
+        }
+
+        public boolean isWinner(ExoticTicket ticket) {
+            return winners.isWinner(ticket);
+        }
+    }
+
+    // splits on 64-ticket boundaries so that each task writes to its own words
+    private static class EvaluateTickets extends RecursiveAction {
+        private final WinningCombination winners;
+        private final List<ExoticTicket> tickets;
+        private final long[] words;
+        private final int from;
+        private final int to;
+
+        EvaluateTickets(WinningCombination winners, List<ExoticTicket> tickets, long[] words,
+                int from, int to) {
+            this.winners = winners;
+            this.tickets = tickets;
+            this.words = words;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    if (winners.isWinner(tickets.get(i))) {
+                        words[i >>> 6] |= 1L << i;
+                    }
+                }
+                return;
+            }
+            int middle = (from + ((to - from) >>> 1)) & ~63;
+            invokeAll(new EvaluateTickets(winners, tickets, words, from, middle),
+                    new EvaluateTickets(winners, tickets, words, middle, to));
+        }
+    }
+}
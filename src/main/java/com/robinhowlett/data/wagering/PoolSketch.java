@@ -0,0 +1,128 @@
+package com.robinhowlett.data.wagering;
+
+import lombok.Getter;
+
+/**
+ * A mergeable summary of non-negative amounts (pool sizes, payoffs, carryovers) that keeps the
+ * count, sum, minimum, and maximum exactly, and estimates quantiles to within {@value
+ * #RELATIVE_ACCURACY} relative error
+ * <p>
+ * Amounts are counted in logarithmically-sized buckets, so memory grows with the spread of the
+ * amounts (a few hundred buckets for amounts spanning several orders of magnitude) rather than
+ * with how many were added. Sketches built on different threads can be combined with {@link
+ * #merge(PoolSketch)}. Instances are not thread-safe.
+ */
+public class PoolSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    // amounts below a cent are counted as zero
+    private static final double MIN_AMOUNT = 0.01;
+
+    @Getter
+    private long count;
+    @Getter
+    private double sum;
+    @Getter
+    private double min = Double.NaN;
+    @Getter
+    private double max = Double.NaN;
+    private long zeroCount;
+    private long[] counts = new long[0];
+    private int offset; // the bucket index of counts[0]
+
+    public void add(double amount) {
+        if (Double.isNaN(amount) || amount < 0) {
+            return;
+        }
+        count++;
+        sum += amount;
+        min = (Double.isNaN(min) ? amount : Math.min(min, amount));
+        max = (Double.isNaN(max) ? amount : Math.max(max, amount));
+        if (amount < MIN_AMOUNT) {
+            zeroCount++;
+        } else {
+            int index = (int) Math.ceil(Math.log(amount) / LOG_GAMMA);
+            ensureCapacity(index, index);
+            counts[index - offset]++;
+        }
+    }
+
+    public void merge(PoolSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        count += other.count;
+        sum += other.sum;
+        min = (Double.isNaN(min) ? other.min : Math.min(min, other.min));
+        max = (Double.isNaN(max) ? other.max : Math.max(max, other.max));
+        zeroCount += other.zeroCount;
+        if (other.counts.length > 0) {
+            ensureCapacity(other.offset, other.offset + other.counts.length - 1);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[other.offset + i - offset] += other.counts[i];
+            }
+        }
+    }
+
+    private void ensureCapacity(int fromIndex, int toIndex) {
+        if (counts.length == 0) {
+            counts = new long[Math.max(toIndex - fromIndex + 1, 16)];
+            offset = fromIndex;
+            return;
+        }
+        int end = offset + counts.length - 1;
+        int newOffset = Math.min(offset, fromIndex);
+        int newEnd = Math.max(end, toIndex);
+        if (newOffset == offset && newEnd == end) {
+            return;
+        }
+        // grow by at least half again, so that a run of new extremes doesn't copy every time
+        int length = Math.max(newEnd - newOffset + 1, counts.length + (counts.length >> 1));
+        if (newOffset < offset && newEnd == end) {
+            newOffset = newEnd - length + 1;
+        }
+        long[] grown = new long[length];
+        System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+        counts = grown;
+        offset = newOffset;
+    }
+
+    /**
+     * @return the amount at this quantile (e.g. 0.5 for the median), or NaN if nothing was added
+     */
+    public double getQuantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (Math.max(0, Math.min(1, quantile)) * (count - 1));
+        if (rank < zeroCount) {
+            return min;
+        }
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                double estimate = 2 * Math.pow(GAMMA, offset + i) / (GAMMA + 1);
+                return Math.max(min, Math.min(max, estimate));
+            }
+        }
+        return max;
+    }
+
+    public double getMedian() {
+        return getQuantile(0.5);
+    }
+
+    public double getMean() {
+        return (count > 0 ? sum / count : Double.NaN);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PoolSketch(count=%d, sum=%.2f, min=%.2f, median=%.2f, max=%.2f)",
+                count, sum, min, getMedian(), max);
+    }
+}
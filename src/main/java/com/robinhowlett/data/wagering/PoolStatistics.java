@@ -0,0 +1,194 @@
+package com.robinhowlett.data.wagering;
+
+import com.robinhowlett.data.RaceConditions;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.RaceTypeNameBlackTypeBreed;
+import com.robinhowlett.data.wagering.WagerPayoffPools.ExoticPayoffPool;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WinPlaceShowPayoffPool;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collector;
+
+import lombok.Data;
+import lombok.Getter;
+
+/**
+ * Running totals and quantile sketches of the pool sizes, payoffs, and carryovers of the wagering
+ * pools of many {@link RaceResult}s, grouped by track, month, wager, wager unit, and race type
+ * <p>
+ * Each race is added once; any combination of tracks, date range, wager, unit, and race type can
+ * then be queried by merging the matching groups, e.g. the median $0.50 Pick 5 pool at Santa
+ * Anita in 2016. Statistics built on different threads (e.g. via {@link #collector()} on a
+ * parallel stream) are combined with {@link #merge(PoolStatistics)}. Instances are not
+ * thread-safe.
+ */
+public class PoolStatistics {
+
+    // the wager of the combined Win-Place-Show pool, alongside the ExoticType names
+    public static final String WIN_PLACE_SHOW = "WPS";
+
+    private final Map<Key, Totals> totalsByKey = new HashMap<>();
+
+    public static Collector<RaceResult, ?, PoolStatistics> collector() {
+        return Collector.of(PoolStatistics::new, PoolStatistics::add, PoolStatistics::merge);
+    }
+
+    public void add(RaceResult raceResult) {
+        WagerPayoffPools wagerPayoffPools = raceResult.getWagerPayoffPools();
+        if (wagerPayoffPools == null || raceResult.getRaceDate() == null) {
+            return;
+        }
+        String track = (raceResult.getTrack() != null ?
+                raceResult.getTrack().getCanonical() : null);
+        YearMonth month = YearMonth.from(raceResult.getRaceDate());
+        String raceType = raceType(raceResult);
+
+        WinPlaceShowPayoffPool winPlaceShowPayoffPool =
+                wagerPayoffPools.getWinPlaceShowPayoffPools();
+        if (winPlaceShowPayoffPool != null &&
+                winPlaceShowPayoffPool.getTotalWinPlaceShowPool() != null) {
+            totals(new Key(track, month, WIN_PLACE_SHOW, 2.0, raceType)).getPools()
+                    .add(winPlaceShowPayoffPool.getTotalWinPlaceShowPool());
+        }
+
+        if (wagerPayoffPools.getExoticPayoffPools() != null) {
+            for (ExoticPayoffPool exoticPayoffPool : wagerPayoffPools.getExoticPayoffPools()) {
+                Totals totals = totals(new Key(track, month,
+                        ExoticType.forChartValue(exoticPayoffPool.getName()).name(),
+                        exoticPayoffPool.getUnit(), raceType));
+                if (exoticPayoffPool.getPool() != null) {
+                    totals.getPools().add(exoticPayoffPool.getPool());
+                }
+                if (exoticPayoffPool.getPayoff() != null) {
+                    totals.getPayoffs().add(exoticPayoffPool.getPayoff());
+                }
+                if (exoticPayoffPool.getCarryover() != null) {
+                    totals.getCarryovers().add(exoticPayoffPool.getCarryover());
+                }
+            }
+        }
+    }
+
+    private static String raceType(RaceResult raceResult) {
+        RaceConditions raceConditions = raceResult.getRaceConditions();
+        RaceTypeNameBlackTypeBreed raceType = (raceConditions != null ?
+                raceConditions.getRaceTypeNameBlackTypeBreed() : null);
+        return (raceType != null ? raceType.getCode() : null);
+    }
+
+    private Totals totals(Key key) {
+        return totalsByKey.computeIfAbsent(key, k -> new Totals());
+    }
+
+    public PoolStatistics merge(PoolStatistics other) {
+        other.totalsByKey.forEach((key, totals) -> totals(key).merge(totals));
+        return this;
+    }
+
+    /**
+     * @return the merged totals of every group that matches the query
+     */
+    public Totals query(Query query) {
+        Totals result = new Totals();
+        totalsByKey.forEach((key, totals) -> {
+            if (query.matches(key)) {
+                result.merge(totals);
+            }
+        });
+        return result;
+    }
+
+    public int getGroups() {
+        return totalsByKey.size();
+    }
+
+    /**
+     * The group a pool is counted in
+     */
+    @Data
+    public static class Key {
+        private final String track;
+        private final YearMonth month;
+        private final String wager;
+        private final Double unit;
+        private final String raceType;
+    }
+
+    /**
+     * The pool sizes, payoffs, and carryovers of one or more groups
+     */
+    @Getter
+    public static class Totals {
+        private final PoolSketch pools = new PoolSketch();
+        private final PoolSketch payoffs = new PoolSketch();
+        private final PoolSketch carryovers = new PoolSketch();
+
+        void merge(Totals other) {
+            pools.merge(other.pools);
+            payoffs.merge(other.payoffs);
+            carryovers.merge(other.carryovers);
+        }
+    }
+
+    /**
+     * Selects the groups to merge; criteria that are not set match every group
+     */
+    public static class Query {
+        private String track;
+        private YearMonth from;
+        private YearMonth to;
+        private String wager;
+        private Double unit;
+        private String raceType;
+
+        public Query track(String track) {
+            this.track = track;
+            return this;
+        }
+
+        // whole months are matched, so a range should start and end on month boundaries
+        public Query between(LocalDate from, LocalDate to) {
+            this.from = YearMonth.from(from);
+            this.to = YearMonth.from(to);
+            return this;
+        }
+
+        public Query year(int year) {
+            this.from = YearMonth.of(year, 1);
+            this.to = YearMonth.of(year, 12);
+            return this;
+        }
+
+        public Query wager(ExoticType type) {
+            this.wager = type.name();
+            return this;
+        }
+
+        public Query winPlaceShow() {
+            this.wager = WIN_PLACE_SHOW;
+            return this;
+        }
+
+        public Query unit(double unit) {
+            this.unit = unit;
+            return this;
+        }
+
+        public Query raceType(String raceType) {
+            this.raceType = raceType;
+            return this;
+        }
+
+        boolean matches(Key key) {
+            return (track == null || track.equals(key.getTrack())) &&
+                    (from == null || (key.getMonth() != null && !key.getMonth().isBefore(from))) &&
+                    (to == null || (key.getMonth() != null && !key.getMonth().isAfter(to))) &&
+                    (wager == null || wager.equals(key.getWager())) &&
+                    (unit == null || unit.equals(key.getUnit())) &&
+                    (raceType == null || raceType.equals(key.getRaceType()));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.robinhowlett.data.wagering;
+
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Starter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The win market of one race as primitive arrays, with one element per betting interest (the
+ * starters of a coupled or field entry share their odds and count as one interest)
+ * <p>
+ * The implied probability of odds of {@code o}-1 is {@code 1 / (o + 1)}; the overround is the
+ * amount by which the implied probabilities of the field sum to more than one, i.e. the share of
+ * the pool kept as takeout and breakage.
+ */
+public class RaceMarket {
+
+    private final double[] odds;
+    private final boolean[] winners;
+    private final int favorite; // the index of the betting favorite, or -1
+    private final double totalProbability;
+
+    RaceMarket(double[] odds, boolean[] winners, int favorite) {
+        this.odds = odds;
+        this.winners = winners;
+        this.favorite = favorite;
+        double total = 0;
+        for (int i = 0; i < odds.length; i++) {
+            total += 1 / (odds[i] + 1);
+        }
+        this.totalProbability = total;
+    }
+
+    /**
+     * @return the market of the starters that have odds, or null if fewer than two do
+     */
+    public static RaceMarket of(RaceResult raceResult) {
+        List<Starter> starters = raceResult.getStarters();
+        if (starters == null) {
+            return null;
+        }
+        double[] odds = new double[starters.size()];
+        boolean[] winners = new boolean[starters.size()];
+        Map<String, Integer> interests = new HashMap<>();
+        int size = 0;
+        int favorite = -1;
+        for (Starter starter : starters) {
+            if (starter.getOdds() == null || starter.getOdds() < 0) {
+                continue;
+            }
+            String entryProgram = (starter.getEntryProgram() != null ?
+                    starter.getEntryProgram() : starter.getProgram());
+            Integer interest = (entryProgram != null ? interests.get(entryProgram) : null);
+            if (interest == null) {
+                interest = size++;
+                odds[interest] = starter.getOdds();
+                if (entryProgram != null) {
+                    interests.put(entryProgram, interest);
+                }
+            }
+            winners[interest] |= starter.isWinner();
+            if (starter.getChoice() != null && starter.getChoice() == 1) {
+                favorite = interest;
+            }
+        }
+        if (size < 2) {
+            return null;
+        }
+        if (favorite < 0) {
+            favorite = 0;
+            for (int i = 1; i < size; i++) {
+                if (odds[i] < odds[favorite]) {
+                    favorite = i;
+                }
+            }
+        }
+        return new RaceMarket(copy(odds, size), copy(winners, size), favorite);
+    }
+
+    private static double[] copy(double[] values, int size) {
+        double[] copy = new double[size];
+        System.arraycopy(values, 0, copy, 0, size);
+        return copy;
+    }
+
+    private static boolean[] copy(boolean[] values, int size) {
+        boolean[] copy = new boolean[size];
+        System.arraycopy(values, 0, copy, 0, size);
+        return copy;
+    }
+
+    /**
+     * @return the number of betting interests
+     */
+    public int size() {
+        return odds.length;
+    }
+
+    public double getOdds(int interest) {
+        return odds[interest];
+    }
+
+    public boolean isWinner(int interest) {
+        return winners[interest];
+    }
+
+    public int getFavorite() {
+        return favorite;
+    }
+
+    public double getImpliedProbability(int interest) {
+        return 1 / (odds[interest] + 1);
+    }
+
+    /**
+     * @return the implied probability scaled so that the field's probabilities sum to one
+     */
+    public double getNormalizedProbability(int interest) {
+        return getImpliedProbability(interest) / totalProbability;
+    }
+
+    public double getOverround() {
+        return totalProbability - 1;
+    }
+}
@@ -0,0 +1,128 @@
+package com.robinhowlett.data.wagering;
+
+import com.robinhowlett.data.Starter;
+import com.robinhowlett.data.wagering.WagerPayoffPools.ExoticPayoffPool;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WinPlaceShowPayoffPool;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WinPlaceShowPayoffPool.WinPlaceShowPayoff;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable lookup view of a {@link WagerPayoffPools}: Win-Place-Show payoffs by program (or
+ * coupled/field entry program), and exotic payoffs by {@link ExoticType} and wager unit
+ */
+public class WagerPayoffIndex {
+
+    private final Map<String, WinPlaceShowPayoff> winPlaceShowPayoffsByProgram;
+    private final Map<ExoticType, List<ExoticPayoffPool>> exoticPayoffPoolsByType;
+
+    WagerPayoffIndex(WagerPayoffPools wagerPayoffPools) {
+        Map<String, WinPlaceShowPayoff> byProgram = new HashMap<>();
+        WinPlaceShowPayoffPool winPlaceShowPayoffPool =
+                wagerPayoffPools.getWinPlaceShowPayoffPools();
+        if (winPlaceShowPayoffPool != null &&
+                winPlaceShowPayoffPool.getWinPlaceShowPayoffs() != null) {
+            for (WinPlaceShowPayoff payoff : winPlaceShowPayoffPool.getWinPlaceShowPayoffs()) {
+                if (payoff.getProgram() != null) {
+                    byProgram.putIfAbsent(payoff.getProgram().toUpperCase(), payoff);
+                }
+            }
+            // coupled/field entries share the payoff of the first listed member
+            for (WinPlaceShowPayoff payoff : winPlaceShowPayoffPool.getWinPlaceShowPayoffs()) {
+                if (payoff.getProgram() != null) {
+                    byProgram.putIfAbsent(payoff.getEntryProgram().toUpperCase(), payoff);
+                }
+            }
+        }
+        winPlaceShowPayoffsByProgram = byProgram;
+
+        Map<ExoticType, List<ExoticPayoffPool>> byType = new EnumMap<>(ExoticType.class);
+        if (wagerPayoffPools.getExoticPayoffPools() != null) {
+            for (ExoticPayoffPool exoticPayoffPool : wagerPayoffPools.getExoticPayoffPools()) {
+                byType.computeIfAbsent(ExoticType.forChartValue(exoticPayoffPool.getName()),
+                        type -> new ArrayList<>(1)).add(exoticPayoffPool);
+            }
+        }
+        byType.replaceAll((type, pools) -> Collections.unmodifiableList(pools));
+        exoticPayoffPoolsByType = byType;
+    }
+
+    /**
+     * @param program the program number e.g. "1A"; an unmatched coupled/field entry member falls
+     *                back to the payoff of its entry (e.g. "1")
+     * @return the Win-Place-Show payoff, or null if the program did not finish in the money
+     */
+    public WinPlaceShowPayoff getWinPlaceShowPayoff(String program) {
+        if (program == null) {
+            return null;
+        }
+        String key = program.toUpperCase();
+        WinPlaceShowPayoff payoff = winPlaceShowPayoffsByProgram.get(key);
+        if (payoff == null) {
+            payoff = winPlaceShowPayoffsByProgram.get(Starter.getEntryProgram(key));
+        }
+        return payoff;
+    }
+
+    public Double getWinPayoff(String program) {
+        WinPlaceShowPayoff payoff = getWinPlaceShowPayoff(program);
+        return (payoff != null && payoff.getWin() != null ? payoff.getWin().getPayoff() : null);
+    }
+
+    public Double getPlacePayoff(String program) {
+        WinPlaceShowPayoff payoff = getWinPlaceShowPayoff(program);
+        return (payoff != null && payoff.getPlace() != null ?
+                payoff.getPlace().getPayoff() : null);
+    }
+
+    public Double getShowPayoff(String program) {
+        WinPlaceShowPayoff payoff = getWinPlaceShowPayoff(program);
+        return (payoff != null && payoff.getShow() != null ? payoff.getShow().getPayoff() : null);
+    }
+
+    /**
+     * @return every exotic payoff of this type, in chart order (e.g. a Pick 6 and its consolation)
+     */
+    public List<ExoticPayoffPool> getExoticPayoffPools(ExoticType type) {
+        return exoticPayoffPoolsByType.getOrDefault(type, Collections.emptyList());
+    }
+
+    /**
+     * @return the first exotic payoff of this type that was offered for this wager unit, or null
+     */
+    public ExoticPayoffPool getExoticPayoffPool(ExoticType type, double unit) {
+        for (ExoticPayoffPool exoticPayoffPool : getExoticPayoffPools(type)) {
+            if (exoticPayoffPool.getUnit() != null &&
+                    Double.compare(exoticPayoffPool.getUnit(), unit) == 0) {
+                return exoticPayoffPool;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Pari-mutuel payoffs scale with the amount wagered, so e.g. the $1 Trifecta payoff of a race
+     * that only lists a $2 Trifecta is half the listed payoff (ignoring breakage)
+     *
+     * @return the payoff for this wager unit, or null if the exotic was not offered
+     */
+    public Double getPayoff(ExoticType type, double unit) {
+        ExoticPayoffPool exactUnit = getExoticPayoffPool(type, unit);
+        if (exactUnit != null) {
+            return exactUnit.getPayoff();
+        }
+        for (ExoticPayoffPool exoticPayoffPool : getExoticPayoffPools(type)) {
+            Double poolUnit = exoticPayoffPool.getUnit();
+            Double payoff = exoticPayoffPool.getPayoff();
+            if (poolUnit != null && poolUnit > 0 && payoff != null) {
+                return payoff * unit / poolUnit;
+            }
+        }
+        return null;
+    }
+}
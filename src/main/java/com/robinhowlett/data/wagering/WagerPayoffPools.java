@@ -7,13 +7,16 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.robinhowlett.data.Horse;
 import com.robinhowlett.data.Starter;
+import com.robinhowlett.data.wagering.WinningCombination.InvalidWinningNumbersException;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 
 import static com.robinhowlett.data.Race.round;
@@ -23,12 +26,17 @@ import static com.robinhowlett.data.Race.round;
  * instances
  */
 @Data
+@ToString(exclude = "index")
 public class WagerPayoffPools {
 
     @JsonProperty("winPlaceShow")
     private final WinPlaceShowPayoffPool winPlaceShowPayoffPools;
     @JsonProperty("exotics")
     private final List<ExoticPayoffPool> exoticPayoffPools;
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient WagerPayoffIndex index;
 
     @JsonCreator
     public WagerPayoffPools(WinPlaceShowPayoffPool winPlaceShowPayoffPools,
@@ -37,20 +45,34 @@ public class WagerPayoffPools {
         this.exoticPayoffPools = exoticPayoffPools;
     }
 
+    /**
+     * @return the lookup view of these pools, built on first use
+     */
+    @JsonIgnore
+    public WagerPayoffIndex getIndex() {
+        if (index == null) {
+            index = new WagerPayoffIndex(this);
+        }
+        return index;
+    }
+
     @EqualsAndHashCode
     abstract static class Wager {
         @Getter
         protected final Double unit;
         @Getter
         protected final Double payoff;
-        protected Double odds; // for JSON
+        @Getter
+        protected final Double odds; // for JSON
 
         public Wager(Double unit, Double payoff) {
             this.unit = unit;
             this.payoff = payoff;
+            this.odds = calculateOdds(unit, payoff);
         }
 
-        public Double getOdds() {
+        // computed once, as backtests read the odds of every wager many times over
+        static Double calculateOdds(Double unit, Double payoff) {
             if (unit != null && payoff != null && unit > 0 && payoff > 0) {
                 double calc = ((payoff - unit) / unit);
                 if (!Double.isInfinite(calc)) {
@@ -208,7 +230,7 @@ public class WagerPayoffPools {
     @JsonPropertyOrder({"unit", "name", "winningNumbers", "numberCorrect", "payoff", "odds",
             "pool", "carryover"})
     @EqualsAndHashCode(callSuper = true)
-    @ToString(callSuper = true)
+    @ToString(callSuper = true, exclude = "winningCombination")
     public static class ExoticPayoffPool extends Wager {
         @Getter
         private final String name;
@@ -220,6 +242,9 @@ public class WagerPayoffPools {
         private final Double pool;
         @Getter
         private final Double carryover;
+        @JsonIgnore
+        @Getter
+        private final transient WinningCombination winningCombination;
 
         public ExoticPayoffPool(WagerNameUnit wagerNameUnit,
                 WinningNumbersPayoff winningNumbersPayoff, Double pool, Double carryover) {
@@ -232,6 +257,8 @@ public class WagerPayoffPools {
                     winningNumbersPayoff.getNumberCorrect() : null);
             this.pool = pool;
             this.carryover = carryover;
+            this.winningCombination = parseWinningCombination(name, winningNumbers,
+                    numberCorrect);
         }
 
         @JsonCreator
@@ -243,6 +270,23 @@ public class WagerPayoffPools {
             this.numberCorrect = numberCorrect;
             this.pool = pool;
             this.carryover = carryover;
+            this.winningCombination = parseWinningCombination(name, winningNumbers,
+                    numberCorrect);
+        }
+
+        // parsed once so that tickets can be evaluated without re-reading the text; null if the
+        // winning numbers are missing or not in a recognized format
+        static WinningCombination parseWinningCombination(String name, String winningNumbers,
+                Integer numberCorrect) {
+            if (winningNumbers == null) {
+                return null;
+            }
+            try {
+                return WinningCombination.parse(ExoticType.forChartValue(name), winningNumbers,
+                        numberCorrect);
+            } catch (InvalidWinningNumbersException e) {
+                return null;
+            }
         }
     }
 
@@ -0,0 +1,213 @@
+package com.robinhowlett.data.wagering;
+
+import com.robinhowlett.data.wagering.WagerPayoffPools.ExoticPayoffPool;
+import com.robinhowlett.exceptions.DataModelException;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * The winning numbers of an {@link ExoticPayoffPool} (e.g. "3-7-1", "1/4-5-6/7-2", or "2-ALL-5")
+ * parsed into one bitmask per leg, where bit {@code n} is set if program number {@code n} was a
+ * winner of that leg (more than one bit for a dead heat, and every bit for "ALL")
+ * <p>
+ * Coupled entries such as "1A" count as their entry number, and program numbers must be between
+ * 1 and {@value #MAX_PROGRAM}.
+ */
+@EqualsAndHashCode
+public class WinningCombination {
+
+    public static final int MAX_PROGRAM = 63;
+    public static final long ALL = -1L << 1;
+
+    @Getter
+    private final ExoticType type;
+    private final long[] legs;
+    // how many legs must be correct to be paid e.g. 5 for a Pick 6 consolation
+    @Getter
+    private final int numberCorrect;
+
+    WinningCombination(ExoticType type, long[] legs, Integer numberCorrect) {
+        this.type = type;
+        this.legs = legs;
+        this.numberCorrect = (numberCorrect != null && numberCorrect > 0 &&
+                numberCorrect < legs.length ? numberCorrect : legs.length);
+    }
+
+    public static WinningCombination parse(ExoticType type, String winningNumbers,
+            Integer numberCorrect) throws InvalidWinningNumbersException {
+        if (winningNumbers == null || winningNumbers.trim().isEmpty()) {
+            throw new InvalidWinningNumbersException(winningNumbers);
+        }
+        String[] legTexts = winningNumbers.trim().split("-");
+        long[] legs = new long[legTexts.length];
+        for (int leg = 0; leg < legTexts.length; leg++) {
+            for (String alternative : legTexts[leg].split("/")) {
+                long selection = parseSelection(alternative.trim());
+                if (selection == 0) {
+                    throw new InvalidWinningNumbersException(winningNumbers);
+                }
+                legs[leg] |= selection;
+            }
+        }
+        return new WinningCombination(type, legs, numberCorrect);
+    }
+
+    private static long parseSelection(String text) {
+        if (text.equalsIgnoreCase("ALL")) {
+            return ALL;
+        }
+        return programBit(text);
+    }
+
+    /**
+     * @return the bit for a program number, or 0 if it is not a number (allowing a coupled entry's
+     * letter e.g. "1A") between 1 and {@value #MAX_PROGRAM}
+     */
+    static long programBit(String program) {
+        int number = 0;
+        int digits = 0;
+        while (digits < program.length() && Character.isDigit(program.charAt(digits))) {
+            number = (number * 10) + (program.charAt(digits++) - '0');
+            if (number > MAX_PROGRAM) {
+                return 0;
+            }
+        }
+        boolean suffix = (digits == program.length() ||
+                (digits == program.length() - 1 && Character.isLetter(program.charAt(digits))));
+        return (digits > 0 && number > 0 && suffix ? 1L << number : 0);
+    }
+
+    public int getLegs() {
+        return legs.length;
+    }
+
+    /**
+     * @return the bitmask of winning program numbers for this (zero-based) leg
+     */
+    public long getWinners(int leg) {
+        return legs[leg];
+    }
+
+    /**
+     * @return whether the ticket covers a paid combination: for multi-race wagers, one of its
+     * combinations must be correct in exactly {@link #getNumberCorrect()} legs (so a consolation
+     * pool pays a wheel that includes a losing horse in a winning leg, but not a ticket with only
+     * winners in every leg, which is paid from the main pool); for single-race wagers, each
+     * position must include a winner of that position, using a different horse for every position
+     */
+    public boolean isWinner(ExoticTicket ticket) {
+        if (ticket.getType() != type || ticket.getLegs() != legs.length) {
+            return false;
+        }
+        if (type.isMultiRace()) {
+            return coversCorrectLegs(ticket);
+        }
+        if (!type.isOrdered()) {
+            return assignUnordered(ticket, 0, 0L, 0);
+        }
+
+        long covered = 0;
+        boolean single = true;
+        for (int leg = 0; leg < legs.length; leg++) {
+            long hits = legs[leg] & ticket.getSelections(leg);
+            if (hits == 0) {
+                return false;
+            }
+            single &= (Long.bitCount(hits) == 1);
+            covered |= hits;
+        }
+        // e.g. a straight ticket: one winner per position, all different horses
+        if (single && Long.bitCount(covered) == legs.length) {
+            return true;
+        }
+        return assignOrdered(ticket, 0, 0L);
+    }
+
+    // legs without a winner must be missed and legs with both a winner and a loser may be, so
+    // the combinations miss between mustMiss and (mustMiss + flexible) legs
+    private boolean coversCorrectLegs(ExoticTicket ticket) {
+        int mustMiss = 0;
+        int flexible = 0;
+        for (int leg = 0; leg < legs.length; leg++) {
+            long selections = ticket.getSelections(leg);
+            if ((selections & legs[leg]) == 0) {
+                mustMiss++;
+            } else if ((selections & ~legs[leg]) != 0) {
+                flexible++;
+            }
+        }
+        int missed = legs.length - numberCorrect;
+        return (mustMiss <= missed && missed <= mustMiss + flexible);
+    }
+
+    /**
+     * @return for multi-race wagers, the number of legs where the ticket included a winner
+     */
+    public int getCorrectLegs(ExoticTicket ticket) {
+        int correct = 0;
+        int shared = Math.min(legs.length, ticket.getLegs());
+        for (int leg = 0; leg < shared; leg++) {
+            if ((legs[leg] & ticket.getSelections(leg)) != 0) {
+                correct++;
+            }
+        }
+        return correct;
+    }
+
+    // a different winning horse from the ticket for each position, in order
+    private boolean assignOrdered(ExoticTicket ticket, int leg, long used) {
+        if (leg == legs.length) {
+            return true;
+        }
+        long candidates = legs[leg] & ticket.getSelections(leg) & ~used;
+        while (candidates != 0) {
+            long horse = Long.lowestOneBit(candidates);
+            if (assignOrdered(ticket, leg + 1, used | horse)) {
+                return true;
+            }
+            candidates &= ~horse;
+        }
+        return false;
+    }
+
+    // as above, but each finishing position may be matched to any unused ticket position
+    private boolean assignUnordered(ExoticTicket ticket, int leg, long used, int usedTicketLegs) {
+        if (leg == legs.length) {
+            return true;
+        }
+        for (int ticketLeg = 0; ticketLeg < legs.length; ticketLeg++) {
+            if ((usedTicketLegs & (1 << ticketLeg)) != 0) {
+                continue;
+            }
+            long candidates = legs[leg] & ticket.getSelections(ticketLeg) & ~used;
+            while (candidates != 0) {
+                long horse = Long.lowestOneBit(candidates);
+                if (assignUnordered(ticket, leg + 1, used | horse,
+                        usedTicketLegs | (1 << ticketLeg))) {
+                    return true;
+                }
+                candidates &= ~horse;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int leg = 0; leg < legs.length; leg++) {
+            if (leg > 0) {
+                text.append('-');
+            }
+            text.append(ExoticTicket.toText(legs[leg]));
+        }
+        return text.toString();
+    }
+
+    public static class InvalidWinningNumbersException extends DataModelException {
+        public InvalidWinningNumbersException(String winningNumbers) {
+            super(String.format("Unable to parse the winning numbers: %s", winningNumbers));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.robinhowlett.formats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The fixed, ordered columns of a table written by {@link ColumnarTableWriter}
+ */
+@EqualsAndHashCode
+@ToString
+public class ColumnarSchema {
+
+    @Getter
+    private final String name;
+    @Getter
+    private final List<Column> columns;
+
+    public ColumnarSchema(String name, List<Column> columns) {
+        this.name = name;
+        this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+    }
+
+    public int size() {
+        return columns.size();
+    }
+
+    public Column getColumn(int index) {
+        return columns.get(index);
+    }
+
+    /**
+     * @return the index of the named column, or -1 if there is no such column
+     */
+    public int indexOf(String columnName) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).getName().equals(columnName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @EqualsAndHashCode
+    @ToString
+    public static class Column {
+        @Getter
+        private final String name;
+        @Getter
+        private final ColumnType type;
+
+        public Column(String name, ColumnType type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    /**
+     * How a column's values are stored. Text with few distinct values (names, track codes etc.)
+     * should use {@link #DICTIONARY}, which stores each distinct value once and an int code per
+     * row; everything else uses {@link #STRING}.
+     */
+    public enum ColumnType {
+        INT(1),
+        LONG(2),
+        DOUBLE(3),
+        STRING(4),
+        DICTIONARY(5);
+
+        @Getter
+        private final int id;
+
+        ColumnType(int id) {
+            this.id = id;
+        }
+
+        public static ColumnType forId(int id) {
+            for (ColumnType columnType : values()) {
+                if (columnType.id == id) {
+                    return columnType;
+                }
+            }
+            throw new IllegalArgumentException(String.format("Unknown column type: %d", id));
+        }
+    }
+
+    public static class Builder {
+        private final String name;
+        private final List<Column> columns = new ArrayList<>();
+
+        public Builder(String name) {
+            this.name = name;
+        }
+
+        public Builder column(String name, ColumnType type) {
+            columns.add(new Column(name, type));
+            return this;
+        }
+
+        public ColumnarSchema build() {
+            return new ColumnarSchema(name, columns);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.robinhowlett.formats;
+
+import com.robinhowlett.formats.ColumnarSchema.ColumnType;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+
+import static com.robinhowlett.formats.ColumnarTableWriter.MAGIC;
+import static com.robinhowlett.formats.ColumnarTableWriter.VERSION;
+
+/**
+ * Reads the record batches written by {@link ColumnarTableWriter}, one {@link Batch} at a time
+ */
+public class ColumnarTableReader implements Closeable {
+
+    private final DataInputStream input;
+    @Getter
+    private final ColumnarSchema schema;
+    private final List<List<String>> dictionaries = new ArrayList<>();
+    private boolean finished;
+
+    public ColumnarTableReader(InputStream inputStream) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(inputStream, 1 << 16));
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not a columnar table");
+        }
+        int version = input.readInt();
+        if (version != VERSION) {
+            throw new IOException(String.format("Unsupported columnar table version: %d",
+                    version));
+        }
+        ColumnarSchema.Builder builder = new ColumnarSchema.Builder(readString(input));
+        int columns = input.readInt();
+        for (int i = 0; i < columns; i++) {
+            String name = readString(input);
+            ColumnType type = ColumnType.forId(input.readByte());
+            builder.column(name, type);
+            dictionaries.add(type == ColumnType.DICTIONARY ? new ArrayList<>() : null);
+        }
+        schema = builder.build();
+    }
+
+    /**
+     * @return the next batch, or null once every batch has been read
+     */
+    public Batch nextBatch() throws IOException {
+        if (finished) {
+            return null;
+        }
+        int rows = input.readInt();
+        if (rows == 0) {
+            finished = true;
+            return null;
+        }
+        for (List<String> dictionary : dictionaries) {
+            if (dictionary != null) {
+                int entries = input.readInt();
+                for (int i = 0; i < entries; i++) {
+                    dictionary.add(readString(input));
+                }
+            }
+        }
+
+        int words = (rows + 63) >>> 6;
+        Object[] values = new Object[schema.size()];
+        long[][] nulls = new long[schema.size()][words];
+        for (int i = 0; i < schema.size(); i++) {
+            for (int word = 0; word < words; word++) {
+                nulls[i][word] = input.readLong();
+            }
+            values[i] = readValues(schema.getColumn(i).getType(), rows);
+        }
+        return new Batch(rows, values, nulls);
+    }
+
+    private Object readValues(ColumnType type, int rows) throws IOException {
+        switch (type) {
+            case LONG:
+                long[] longs = new long[rows];
+                for (int row = 0; row < rows; row++) {
+                    longs[row] = input.readLong();
+                }
+                return longs;
+            case DOUBLE:
+                double[] doubles = new double[rows];
+                for (int row = 0; row < rows; row++) {
+                    doubles[row] = input.readDouble();
+                }
+                return doubles;
+            case STRING:
+                String[] strings = new String[rows];
+                for (int row = 0; row < rows; row++) {
+                    strings[row] = readString(input);
+                }
+                return strings;
+            default:
+                int[] ints = new int[rows];
+                for (int row = 0; row < rows; row++) {
+                    ints[row] = input.readInt();
+                }
+                return ints;
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    /**
+     * The column-major values of one batch. Dictionary columns hold int codes; use {@link
+     * #getString(int, int)} to resolve them.
+     */
+    public class Batch {
+        @Getter
+        private final int rows;
+        private final Object[] values;
+        private final long[][] nulls;
+
+        Batch(int rows, Object[] values, long[][] nulls) {
+            this.rows = rows;
+            this.values = values;
+            this.nulls = nulls;
+        }
+
+        public boolean isNull(int column, int row) {
+            return ColumnarTableWriter.isNull(nulls[column], row);
+        }
+
+        public int[] getInts(int column) {
+            return (int[]) values[column];
+        }
+
+        public long[] getLongs(int column) {
+            return (long[]) values[column];
+        }
+
+        public double[] getDoubles(int column) {
+            return (double[]) values[column];
+        }
+
+        public Integer getInt(int column, int row) {
+            return (isNull(column, row) ? null : getInts(column)[row]);
+        }
+
+        public Long getLong(int column, int row) {
+            return (isNull(column, row) ? null : getLongs(column)[row]);
+        }
+
+        public Double getDouble(int column, int row) {
+            return (isNull(column, row) ? null : getDoubles(column)[row]);
+        }
+
+        public String getString(int column, int row) {
+            if (isNull(column, row)) {
+                return null;
+            }
+            List<String> dictionary = dictionaries.get(column);
+            return (dictionary != null ? dictionary.get(getInts(column)[row]) :
+                    ((String[]) values[column])[row]);
+        }
+    }
+}
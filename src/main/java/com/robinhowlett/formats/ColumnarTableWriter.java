@@ -0,0 +1,251 @@
+package com.robinhowlett.formats;
+
+import com.robinhowlett.formats.ColumnarSchema.ColumnType;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes rows of a {@link ColumnarSchema} table as a sequence of column-major record batches, so
+ * memory use is bounded by the batch size (plus the distinct values of dictionary columns)
+ * <p>
+ * The file layout is:
+ * <pre>
+ * int magic, int version, string table name, int column count, (string name, byte type)...
+ * batches: int row count,
+ *          per dictionary column: int new entry count, string entry...
+ *          per column: long[] null bitmap, values (int, long, double, string, or int code)
+ * int 0
+ * </pre>
+ * Strings are an int byte length followed by UTF-8 bytes. Dictionary codes are assigned in the
+ * order values are first seen, and each batch carries only the entries new to that batch.
+ */
+public class ColumnarTableWriter implements Closeable {
+
+    static final int MAGIC = 0x52434F4C; // "RCOL"
+    static final int VERSION = 1;
+
+    private final DataOutputStream output;
+    private final ColumnarSchema schema;
+    private final int batchSize;
+    private final Object[] values;
+    private final long[][] nulls;
+    private final List<Map<String, Integer>> dictionaries = new ArrayList<>();
+    private final List<List<String>> newDictionaryEntries = new ArrayList<>();
+    private int rows;
+    private long totalRows;
+    private boolean closed;
+
+    public ColumnarTableWriter(OutputStream outputStream, ColumnarSchema schema, int batchSize)
+            throws IOException {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be at least 1");
+        }
+        this.output = new DataOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+        this.schema = schema;
+        this.batchSize = batchSize;
+        this.values = new Object[schema.size()];
+        this.nulls = new long[schema.size()][(batchSize + 63) >>> 6];
+        for (int i = 0; i < schema.size(); i++) {
+            ColumnType type = schema.getColumn(i).getType();
+            values[i] = newValues(type, batchSize);
+            // every value is null until it is set
+            Arrays.fill(nulls[i], -1L);
+            dictionaries.add(type == ColumnType.DICTIONARY ? new HashMap<>() : null);
+            newDictionaryEntries.add(type == ColumnType.DICTIONARY ? new ArrayList<>() : null);
+        }
+        writeHeader();
+    }
+
+    private static Object newValues(ColumnType type, int size) {
+        switch (type) {
+            case LONG:
+                return new long[size];
+            case DOUBLE:
+                return new double[size];
+            case STRING:
+                return new String[size];
+            default:
+                return new int[size];
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        writeString(output, schema.getName());
+        output.writeInt(schema.size());
+        for (ColumnarSchema.Column column : schema.getColumns()) {
+            writeString(output, column.getName());
+            output.writeByte(column.getType().getId());
+        }
+    }
+
+    public ColumnarTableWriter setInt(int column, Integer value) {
+        if (value == null) {
+            return setNull(column);
+        }
+        ((int[]) values[column])[rows] = value;
+        return setNotNull(column);
+    }
+
+    public ColumnarTableWriter setLong(int column, Long value) {
+        if (value == null) {
+            return setNull(column);
+        }
+        ((long[]) values[column])[rows] = value;
+        return setNotNull(column);
+    }
+
+    public ColumnarTableWriter setDouble(int column, Double value) {
+        if (value == null) {
+            return setNull(column);
+        }
+        ((double[]) values[column])[rows] = value;
+        return setNotNull(column);
+    }
+
+    /**
+     * Sets the value of a {@link ColumnType#STRING} or {@link ColumnType#DICTIONARY} column
+     */
+    public ColumnarTableWriter setString(int column, String value) {
+        if (value == null) {
+            return setNull(column);
+        }
+        Map<String, Integer> dictionary = dictionaries.get(column);
+        if (dictionary != null) {
+            Integer code = dictionary.get(value);
+            if (code == null) {
+                code = dictionary.size();
+                dictionary.put(value, code);
+                newDictionaryEntries.get(column).add(value);
+            }
+            ((int[]) values[column])[rows] = code;
+        } else {
+            ((String[]) values[column])[rows] = value;
+        }
+        return setNotNull(column);
+    }
+
+    public ColumnarTableWriter setNull(int column) {
+        nulls[column][rows >>> 6] |= (1L << rows);
+        return this;
+    }
+
+    private ColumnarTableWriter setNotNull(int column) {
+        nulls[column][rows >>> 6] &= ~(1L << rows);
+        return this;
+    }
+
+    /**
+     * Completes the current row; columns not set are null. Writes a batch once it is full.
+     */
+    public void endRow() throws IOException {
+        rows++;
+        totalRows++;
+        if (rows == batchSize) {
+            writeBatch();
+        }
+    }
+
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    private void writeBatch() throws IOException {
+        if (rows == 0) {
+            return;
+        }
+        output.writeInt(rows);
+        for (List<String> entries : newDictionaryEntries) {
+            if (entries != null) {
+                output.writeInt(entries.size());
+                for (String entry : entries) {
+                    writeString(output, entry);
+                }
+                entries.clear();
+            }
+        }
+
+        int words = (rows + 63) >>> 6;
+        for (int i = 0; i < schema.size(); i++) {
+            long[] columnNulls = nulls[i];
+            for (int word = 0; word < words; word++) {
+                output.writeLong(columnNulls[word]);
+            }
+            writeValues(schema.getColumn(i).getType(), values[i], columnNulls);
+            Arrays.fill(columnNulls, 0, words, -1L);
+        }
+        rows = 0;
+    }
+
+    private void writeValues(ColumnType type, Object columnValues, long[] columnNulls)
+            throws IOException {
+        switch (type) {
+            case LONG:
+                long[] longs = (long[]) columnValues;
+                for (int row = 0; row < rows; row++) {
+                    output.writeLong(isNull(columnNulls, row) ? 0 : longs[row]);
+                }
+                break;
+            case DOUBLE:
+                double[] doubles = (double[]) columnValues;
+                for (int row = 0; row < rows; row++) {
+                    output.writeDouble(isNull(columnNulls, row) ? 0 : doubles[row]);
+                }
+                break;
+            case STRING:
+                String[] strings = (String[]) columnValues;
+                for (int row = 0; row < rows; row++) {
+                    if (isNull(columnNulls, row)) {
+                        output.writeInt(0);
+                    } else {
+                        writeString(output, strings[row]);
+                    }
+                    strings[row] = null;
+                }
+                break;
+            default:
+                int[] ints = (int[]) columnValues;
+                for (int row = 0; row < rows; row++) {
+                    output.writeInt(isNull(columnNulls, row) ? 0 : ints[row]);
+                }
+        }
+    }
+
+    static boolean isNull(long[] nulls, int row) {
+        return (nulls[row >>> 6] & (1L << row)) != 0;
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Writes any partial batch and the end marker, then closes the underlying stream
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeBatch();
+            output.writeInt(0);
+        } finally {
+            output.close();
+        }
+    }
+}
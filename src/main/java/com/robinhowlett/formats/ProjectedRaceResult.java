@@ -0,0 +1,171 @@
+package com.robinhowlett.formats;
+
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Track;
+import com.robinhowlett.formats.Projection.Section;
+
+import org.springframework.hateoas.Link;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.Getter;
+
+/**
+ * The projected top-level fields of one serialized {@link RaceResult}, as read by {@link
+ * RaceResultProjectionReader}
+ * <p>
+ * Each field is held as its buffered JSON tokens and only decoded on first access, after which
+ * the decoded value is cached. Asking for a field whose section was not projected is an error,
+ * while a projected field that was absent from the input is null.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public class ProjectedRaceResult {
+
+    private final ObjectCodec codec;
+    @Getter
+    private final Projection projection;
+    private final Map<String, TokenBuffer> fields;
+    private final Map<String, Object> decoded = new HashMap<>();
+
+    ProjectedRaceResult(ObjectCodec codec, Projection projection,
+            Map<String, TokenBuffer> fields) {
+        this.codec = codec;
+        this.projection = projection;
+        this.fields = fields;
+    }
+
+    /**
+     * @return the names of the projected fields present in the input, in input order
+     */
+    public Set<String> getFieldNames() {
+        return Collections.unmodifiableSet(fields.keySet());
+    }
+
+    public boolean has(String field) {
+        return fields.containsKey(field);
+    }
+
+    public Track getTrack() {
+        return get("track", Track.class);
+    }
+
+    /**
+     * Race dates are accepted both as {@code [year, month, day]} and as {@code {"year", "month",
+     * "day"}}
+     */
+    public LocalDate getRaceDate() {
+        Object cached = decoded.get("raceDate");
+        if (cached instanceof LocalDate) {
+            return (LocalDate) cached;
+        }
+        JsonNode node = getNode("raceDate");
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        LocalDate raceDate = (node.isArray() ?
+                LocalDate.of(node.path(0).asInt(), node.path(1).asInt(), node.path(2).asInt()) :
+                LocalDate.of(node.path("year").asInt(), node.path("month").asInt(),
+                        node.path("day").asInt()));
+        decoded.put("raceDate", raceDate);
+        return raceDate;
+    }
+
+    public Integer getRaceNumber() {
+        return get("raceNumber", Integer.class);
+    }
+
+    public boolean isCancelled() {
+        return Boolean.TRUE.equals(get("cancelled", Boolean.class));
+    }
+
+    public Long getFinalMillis() {
+        return get("finalMillis", Long.class);
+    }
+
+    public List<Link> getLinks() {
+        Link[] links = get("links", Link[].class);
+        return (links != null ? Arrays.asList(links) : null);
+    }
+
+    public JsonNode getConditions() {
+        return getNode("conditions");
+    }
+
+    public JsonNode getStarters() {
+        return getNode("starters");
+    }
+
+    public JsonNode getScratches() {
+        return getNode("scratches");
+    }
+
+    public JsonNode getWagering() {
+        return getNode("wagering");
+    }
+
+    public JsonNode getFractionals() {
+        return getNode("fractionals");
+    }
+
+    public JsonNode getSplits() {
+        return getNode("splits");
+    }
+
+    public JsonNode getRatings() {
+        return getNode("ratings");
+    }
+
+    public JsonNode getFootnotes() {
+        return getNode("footnotes");
+    }
+
+    /**
+     * @return the field as a JSON tree, or null if it was absent from the input
+     */
+    public JsonNode getNode(String field) {
+        JsonNode node = get(field, JsonNode.class);
+        return (node instanceof MissingNode ? null : node);
+    }
+
+    /**
+     * @return the field decoded as the given type, or null if it was absent from the input
+     * @throws IllegalStateException if the field's section was not projected
+     * @throws UncheckedIOException  if the buffered field cannot be decoded as the given type
+     */
+    public <T> T get(String field, Class<T> type) {
+        Section section = Projection.sectionOf(field);
+        if (!projection.includes(section)) {
+            throw new IllegalStateException(String.format("The %s field was not read as the %s " +
+                    "section is not part of %s", field, section, projection));
+        }
+        Object cached = decoded.get(field);
+        if (type.isInstance(cached)) {
+            return type.cast(cached);
+        }
+        TokenBuffer buffer = fields.get(field);
+        if (buffer == null) {
+            return null;
+        }
+        try {
+            T value = codec.readValue(buffer.asParser(codec), type);
+            decoded.put(field, value);
+            return value;
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Unable to decode the %s field as %s",
+                    field, type.getSimpleName()), e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.robinhowlett.formats;
+
+import com.robinhowlett.data.RaceResult;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * The sections of a serialized {@link RaceResult} to read with {@link
+ * RaceResultProjectionReader}; the top-level fields of every other section are skipped
+ */
+@EqualsAndHashCode
+@ToString
+public class Projection {
+
+    private static final Map<String, Section> SECTIONS_BY_FIELD = new HashMap<>();
+
+    static {
+        SECTIONS_BY_FIELD.put("links", Section.LINKS);
+        SECTIONS_BY_FIELD.put("starters", Section.STARTERS);
+        SECTIONS_BY_FIELD.put("scratches", Section.SCRATCHES);
+        SECTIONS_BY_FIELD.put("wagering", Section.WAGERING);
+        SECTIONS_BY_FIELD.put("fractionals", Section.FRACTIONALS);
+        SECTIONS_BY_FIELD.put("splits", Section.FRACTIONALS);
+        SECTIONS_BY_FIELD.put("ratings", Section.RATINGS);
+        SECTIONS_BY_FIELD.put("footnotes", Section.FOOTNOTES);
+    }
+
+    private final Set<Section> sections;
+
+    private Projection(Set<Section> sections) {
+        this.sections = Collections.unmodifiableSet(sections);
+    }
+
+    public static Projection of(Section section, Section... sections) {
+        return new Projection(EnumSet.of(section, sections));
+    }
+
+    public static Projection all() {
+        return new Projection(EnumSet.allOf(Section.class));
+    }
+
+    public Set<Section> getSections() {
+        return sections;
+    }
+
+    public boolean includes(Section section) {
+        return sections.contains(section);
+    }
+
+    public boolean includes(String field) {
+        return includes(sectionOf(field));
+    }
+
+    /**
+     * @return the section a top-level {@link RaceResult} JSON field belongs to; any field not
+     * listed elsewhere (including the unwrapped cancellation, distance, and post time fields) is
+     * part of the {@link Section#HEADER}
+     */
+    public static Section sectionOf(String field) {
+        return SECTIONS_BY_FIELD.getOrDefault(field, Section.HEADER);
+    }
+
+    public enum Section {
+        HEADER,
+        LINKS,
+        STARTERS,
+        SCRATCHES,
+        WAGERING,
+        FRACTIONALS,
+        RATINGS,
+        FOOTNOTES
+    }
+}
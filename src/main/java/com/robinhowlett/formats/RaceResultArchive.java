@@ -0,0 +1,497 @@
+package com.robinhowlett.formats;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.robinhowlett.data.RaceResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import lombok.Data;
+
+/**
+ * An append-only archive of {@link RaceResult}s stored as deflated JSON records in segment
+ * files, with a sorted in-memory index from {@link Key} (canonical track, race date, and race
+ * number) to the record's location
+ * <p>
+ * Each record is {@code int marker, int length, int CRC32, short track length, track, int epoch
+ * day, int race number, payload}, where the length and checksum cover everything after the
+ * checksum. Reads slice the memory-mapped segment without copying and verify the checksum. When
+ * the archive is opened, a torn or corrupt record at the end of the newest segment (e.g. from a
+ * crash mid-append) is truncated away; appending a key again supersedes the earlier record, and
+ * {@link #compact()} rewrites only the latest record for each key.
+ * <p>
+ * Instances are not thread-safe.
+ */
+public class RaceResultArchive implements Closeable {
+
+    public static final long DEFAULT_MAX_SEGMENT_SIZE = 256L * 1024 * 1024;
+
+    static final int SEGMENT_MAGIC = 0x52524131; // "RRA1"
+    static final int SEGMENT_HEADER_SIZE = 4;
+    static final int RECORD_MARKER = 0x5245434F; // "RECO"
+    static final int RECORD_HEADER_SIZE = 12;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".rra";
+
+    private final Path directory;
+    private final long maxSegmentSize;
+    private final boolean syncOnAppend;
+    private final ObjectMapper objectMapper;
+    private final NavigableMap<Integer, Segment> segments = new TreeMap<>();
+    private final NavigableMap<Key, Location> index = new TreeMap<>();
+    private Segment active;
+
+    public RaceResultArchive(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_SEGMENT_SIZE, true, new DataModelObjectMapper());
+    }
+
+    /**
+     * @param syncOnAppend whether every append is forced to disk before returning; if false, call
+     *                     {@link #flush()} at suitable checkpoints
+     */
+    public RaceResultArchive(Path directory, long maxSegmentSize, boolean syncOnAppend,
+            ObjectMapper objectMapper) throws IOException {
+        // segments are mapped, and sliced, as a single buffer
+        if (maxSegmentSize <= SEGMENT_HEADER_SIZE || maxSegmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid maximum segment size: " + maxSegmentSize);
+        }
+        this.directory = directory;
+        this.maxSegmentSize = maxSegmentSize;
+        this.syncOnAppend = syncOnAppend;
+        this.objectMapper = objectMapper;
+
+        Files.createDirectories(directory);
+        List<Integer> ids = new ArrayList<>();
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : paths) {
+                ids.add(segmentId(path));
+            }
+        }
+        Collections.sort(ids);
+        for (int i = 0; i < ids.size(); i++) {
+            Segment segment = Segment.open(segmentPath(ids.get(i)), ids.get(i));
+            segments.put(segment.id, segment);
+            recover(segment, (i == ids.size() - 1));
+        }
+        active = (segments.isEmpty() ? newSegment(0) : segments.lastEntry().getValue());
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    public NavigableSet<Key> keys() {
+        return Collections.unmodifiableNavigableSet(index.navigableKeySet());
+    }
+
+    public boolean contains(Key key) {
+        return index.containsKey(key);
+    }
+
+    public Key append(RaceResult raceResult) throws IOException {
+        Key key = Key.of(raceResult);
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(4096);
+        try (OutputStream outputStream = new DeflaterOutputStream(payload,
+                new Deflater(Deflater.BEST_SPEED), 4096)) {
+            objectMapper.writeValue(outputStream, raceResult);
+        }
+        append(key, payload.toByteArray());
+        return key;
+    }
+
+    /**
+     * Appends an already deflated JSON payload
+     */
+    public void append(Key key, byte[] payload) throws IOException {
+        byte[] track = key.getTrack().getBytes(StandardCharsets.UTF_8);
+        if (track.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Track is too long: " + key.getTrack());
+        }
+        int keyLength = 2 + track.length + 8;
+        int bodyLength = keyLength + payload.length;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + bodyLength);
+        record.putInt(RECORD_MARKER).putInt(bodyLength).putInt(0)
+                .putShort((short) track.length).put(track)
+                .putInt((int) key.getRaceDate().toEpochDay()).putInt(key.getRaceNumber())
+                .put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER_SIZE, bodyLength);
+        record.putInt(8, (int) crc.getValue());
+        record.flip();
+
+        if (active.size > SEGMENT_HEADER_SIZE &&
+                active.size + record.remaining() > maxSegmentSize) {
+            active.channel.force(false);
+            active = newSegment(active.id + 1);
+        }
+        long offset = active.append(record);
+        if (syncOnAppend) {
+            active.channel.force(false);
+        }
+        index.put(key, new Location(active.id, offset, RECORD_HEADER_SIZE + keyLength,
+                payload.length));
+    }
+
+    /**
+     * @return a read-only view of the stored (deflated) payload, sliced from the memory-mapped
+     * segment without copying
+     * @throws CorruptRecordException if the record's checksum does not match
+     */
+    public Optional<ByteBuffer> getRecord(Key key) throws IOException {
+        Location location = index.get(key);
+        if (location == null) {
+            return Optional.empty();
+        }
+        Segment segment = segments.get(location.segmentId);
+        ByteBuffer record = segment.slice(location.offset,
+                location.payloadOffset + location.payloadLength);
+        verify(record, segment, location.offset);
+
+        record.position(location.payloadOffset);
+        return Optional.of(record.slice());
+    }
+
+    /**
+     * @return the record's JSON, inflated as it is read
+     */
+    public Optional<InputStream> openJson(Key key) throws IOException {
+        Optional<ByteBuffer> record = getRecord(key);
+        if (!record.isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.of(new InflaterInputStream(
+                new ByteBufferBackedInputStream(record.get()), new Inflater(),
+                4096));
+    }
+
+    /**
+     * Decodes the record's JSON as a tree or a projection of it; {@link RaceResult} itself cannot
+     * be deserialized (its unwrapped creator properties are not supported by Jackson), so use
+     * {@link #openJson(Key)} to stream the JSON elsewhere if the full object is needed
+     *
+     * @param type e.g. {@link com.fasterxml.jackson.databind.JsonNode}, or a class of the fields
+     *             of interest that ignores unknown properties
+     */
+    public <T> Optional<T> read(Key key, Class<T> type) throws IOException {
+        Optional<InputStream> json = openJson(key);
+        if (!json.isPresent()) {
+            return Optional.empty();
+        }
+        try (InputStream inputStream = json.get()) {
+            return Optional.of(objectMapper.readValue(inputStream, type));
+        }
+    }
+
+    /**
+     * Forces appended records to disk
+     */
+    public void flush() throws IOException {
+        active.channel.force(false);
+    }
+
+    /**
+     * Rewrites the latest record of every key, in key order, into new segments and deletes the
+     * old ones. Until the old segments are deleted the new ones supersede them, so a crash part
+     * way through leaves a readable archive.
+     */
+    public void compact() throws IOException {
+        active.channel.force(false);
+        List<Segment> oldSegments = new ArrayList<>(segments.values());
+        active = newSegment(active.id + 1);
+
+        Map<Key, Location> compacted = new TreeMap<>();
+        for (Map.Entry<Key, Location> entry : index.entrySet()) {
+            Location location = entry.getValue();
+            int recordLength = location.payloadOffset + location.payloadLength;
+            Segment segment = segments.get(location.segmentId);
+            ByteBuffer record = segment.slice(location.offset, recordLength);
+            verify(record, segment, location.offset);
+
+            if (active.size > SEGMENT_HEADER_SIZE && active.size + recordLength > maxSegmentSize) {
+                active.channel.force(false);
+                active = newSegment(active.id + 1);
+            }
+            record.rewind();
+            long offset = active.append(record);
+            compacted.put(entry.getKey(), new Location(active.id, offset, location.payloadOffset,
+                    location.payloadLength));
+        }
+        active.channel.force(false);
+        index.putAll(compacted);
+
+        for (Segment segment : oldSegments) {
+            segments.remove(segment.id);
+            segment.close();
+            Files.delete(segment.path);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Segment segment : segments.values()) {
+            try {
+                if (segment == active) {
+                    segment.channel.force(false);
+                }
+                segment.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        segments.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Indexes every valid record of the segment. Later records (and later segments) supersede
+     * earlier ones with the same key.
+     */
+    private void recover(Segment segment, boolean newest) throws IOException {
+        if (segment.size < SEGMENT_HEADER_SIZE ||
+                segment.slice(0, SEGMENT_HEADER_SIZE).getInt() != SEGMENT_MAGIC) {
+            if (newest && segment.size < SEGMENT_HEADER_SIZE) {
+                // crashed while creating the segment
+                segment.truncate(0);
+                segment.append((ByteBuffer) ByteBuffer.allocate(SEGMENT_HEADER_SIZE)
+                        .putInt(SEGMENT_MAGIC).flip());
+                return;
+            }
+            throw new CorruptRecordException(segment.path, 0);
+        }
+
+        long offset = SEGMENT_HEADER_SIZE;
+        while (offset < segment.size) {
+            Location location = readLocation(segment, offset, newest);
+            if (location == null) {
+                if (!newest) {
+                    throw new CorruptRecordException(segment.path, offset);
+                }
+                segment.truncate(offset);
+                break;
+            }
+            ByteBuffer record = segment.slice(offset, location.payloadOffset);
+            record.position(RECORD_HEADER_SIZE);
+            index.put(readKey(record), location);
+            offset += location.payloadOffset + location.payloadLength;
+        }
+    }
+
+    /**
+     * @return the location of the record at this offset, or null if the record is incomplete or
+     * (when verifying) its checksum does not match
+     */
+    private static Location readLocation(Segment segment, long offset, boolean verify)
+            throws IOException {
+        if (segment.size - offset < RECORD_HEADER_SIZE + 2) {
+            return null;
+        }
+        ByteBuffer header = segment.slice(offset, RECORD_HEADER_SIZE + 2);
+        int bodyLength = header.getInt(4);
+        if (header.getInt(0) != RECORD_MARKER || bodyLength < 10 ||
+                bodyLength > segment.size - offset - RECORD_HEADER_SIZE) {
+            return null;
+        }
+        int keyLength = 2 + header.getShort(RECORD_HEADER_SIZE) + 8;
+        if (keyLength < 10 || keyLength > bodyLength) {
+            return null;
+        }
+        Location location = new Location(segment.id, offset, RECORD_HEADER_SIZE + keyLength,
+                bodyLength - keyLength);
+        if (verify) {
+            ByteBuffer record = segment.slice(offset, RECORD_HEADER_SIZE + bodyLength);
+            if (checksum(record) != record.getInt(8)) {
+                return null;
+            }
+        }
+        return location;
+    }
+
+    private static Key readKey(ByteBuffer record) {
+        byte[] track = new byte[record.getShort()];
+        record.get(track);
+        LocalDate raceDate = LocalDate.ofEpochDay(record.getInt());
+        return new Key(new String(track, StandardCharsets.UTF_8), raceDate, record.getInt());
+    }
+
+    private static void verify(ByteBuffer record, Segment segment, long offset)
+            throws CorruptRecordException {
+        if (record.getInt(0) != RECORD_MARKER || checksum(record) != record.getInt(8)) {
+            throw new CorruptRecordException(segment.path, offset);
+        }
+    }
+
+    private static int checksum(ByteBuffer record) {
+        ByteBuffer body = record.duplicate();
+        body.position(RECORD_HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private Segment newSegment(int id) throws IOException {
+        Segment segment = Segment.create(segmentPath(id), id);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private Path segmentPath(int id) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static int segmentId(Path path) {
+        String fileName = path.getFileName().toString();
+        return Integer.parseInt(fileName.substring(SEGMENT_PREFIX.length(),
+                fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * Identifies a race by its canonical track code, race date, and race number
+     */
+    @Data
+    public static class Key implements Comparable<Key> {
+        private static final Comparator<Key> ORDER = Comparator.comparing(Key::getTrack)
+                .thenComparing(Key::getRaceDate)
+                .thenComparingInt(Key::getRaceNumber);
+
+        private final String track;
+        private final LocalDate raceDate;
+        private final int raceNumber;
+
+        public static Key of(RaceResult raceResult) {
+            if (raceResult.getTrack() == null || raceResult.getRaceDate() == null ||
+                    raceResult.getRaceNumber() == null) {
+                throw new IllegalArgumentException(
+                        "A track, race date, and race number are required to archive a race");
+            }
+            return new Key(raceResult.getTrack().getCanonical(), raceResult.getRaceDate(),
+                    raceResult.getRaceNumber());
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static class Location {
+        private final int segmentId;
+        private final long offset;
+        private final int payloadOffset; // relative to the record
+        private final int payloadLength;
+
+        Location(int segmentId, long offset, int payloadOffset, int payloadLength) {
+            this.segmentId = segmentId;
+            this.offset = offset;
+            this.payloadOffset = payloadOffset;
+            this.payloadLength = payloadLength;
+        }
+    }
+
+    private static class Segment implements Closeable {
+        private final Path path;
+        private final int id;
+        private final FileChannel channel;
+        private long size;
+        private MappedByteBuffer mapped;
+
+        private Segment(Path path, int id, FileChannel channel) throws IOException {
+            this.path = path;
+            this.id = id;
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        static Segment open(Path path, int id) throws IOException {
+            return new Segment(path, id, FileChannel.open(path, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE));
+        }
+
+        static Segment create(Path path, int id) throws IOException {
+            Segment segment = new Segment(path, id, FileChannel.open(path,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE));
+            segment.append((ByteBuffer) ByteBuffer.allocate(SEGMENT_HEADER_SIZE)
+                    .putInt(SEGMENT_MAGIC).flip());
+            return segment;
+        }
+
+        /**
+         * @return the offset the record was written at
+         */
+        long append(ByteBuffer record) throws IOException {
+            long offset = size;
+            long position = offset;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            size = position;
+            return offset;
+        }
+
+        /**
+         * @return a view of the mapped segment, remapping if it has grown since last mapped
+         */
+        ByteBuffer slice(long offset, int length) throws IOException {
+            if (mapped == null || mapped.capacity() < offset + length) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer view = mapped.duplicate();
+            view.limit((int) offset + length).position((int) offset);
+            return view.slice().asReadOnlyBuffer();
+        }
+
+        void truncate(long newSize) throws IOException {
+            channel.truncate(newSize);
+            channel.force(true);
+            size = newSize;
+            mapped = null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            mapped = null;
+            channel.close();
+        }
+    }
+
+    public static class CorruptRecordException extends IOException {
+        public CorruptRecordException(Path path, long offset) {
+            super(String.format("Corrupt archive record in %s at offset %d", path, offset));
+        }
+    }
+}
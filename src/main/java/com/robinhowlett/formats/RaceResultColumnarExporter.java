@@ -0,0 +1,317 @@
+package com.robinhowlett.formats;
+
+import com.robinhowlett.data.DistanceSurfaceTrackRecord;
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition;
+import com.robinhowlett.data.RaceConditions;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.RaceTypeNameBlackTypeBreed;
+import com.robinhowlett.data.Starter;
+import com.robinhowlett.data.wagering.WagerPayoffPools;
+import com.robinhowlett.data.wagering.WagerPayoffPools.ExoticPayoffPool;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WinPlaceShowPayoffPool.WinPlaceShowPayoff;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static com.robinhowlett.formats.ColumnarSchema.ColumnType.DICTIONARY;
+import static com.robinhowlett.formats.ColumnarSchema.ColumnType.DOUBLE;
+import static com.robinhowlett.formats.ColumnarSchema.ColumnType.INT;
+import static com.robinhowlett.formats.ColumnarSchema.ColumnType.LONG;
+import static com.robinhowlett.formats.ColumnarSchema.ColumnType.STRING;
+
+/**
+ * Exports {@link RaceResult}s into four {@link ColumnarTableWriter} tables (races, starters,
+ * points of call, and exotic payoffs), joined by a race id assigned in export order
+ * <p>
+ * Races are mapped one at a time and each table is written in batches, so a whole season can be
+ * streamed through in bounded memory. Names, track codes, and other repetitive text are
+ * dictionary-encoded.
+ */
+public class RaceResultColumnarExporter implements Closeable {
+
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+
+    public static final String RACES_FILE = "races.rcol";
+    public static final String STARTERS_FILE = "starters.rcol";
+    public static final String CALLS_FILE = "calls.rcol";
+    public static final String EXOTICS_FILE = "exotics.rcol";
+
+    public static final ColumnarSchema RACES = new ColumnarSchema.Builder("races")
+            .column("raceId", INT)
+            .column("track", DICTIONARY)
+            .column("raceDate", INT) // days since 1970-01-01
+            .column("raceNumber", INT)
+            .column("cancelled", INT)
+            .column("breed", DICTIONARY)
+            .column("raceCode", DICTIONARY)
+            .column("grade", INT)
+            .column("purse", INT)
+            .column("distanceFeet", INT)
+            .column("surface", DICTIONARY)
+            .column("course", DICTIONARY)
+            .column("trackCondition", DICTIONARY)
+            .column("numberOfRunners", INT)
+            .column("finalMillis", LONG)
+            .build();
+
+    public static final ColumnarSchema STARTERS = new ColumnarSchema.Builder("starters")
+            .column("raceId", INT)
+            .column("program", DICTIONARY)
+            .column("horse", DICTIONARY)
+            .column("jockey", DICTIONARY)
+            .column("trainer", DICTIONARY)
+            .column("owner", DICTIONARY)
+            .column("postPosition", INT)
+            .column("finishPosition", INT)
+            .column("officialPosition", INT)
+            .column("odds", DOUBLE)
+            .column("choice", INT)
+            .column("winPayoff", DOUBLE)
+            .column("placePayoff", DOUBLE)
+            .column("showPayoff", DOUBLE)
+            .column("finishMillis", LONG)
+            .build();
+
+    public static final ColumnarSchema CALLS = new ColumnarSchema.Builder("calls")
+            .column("raceId", INT)
+            .column("program", DICTIONARY)
+            .column("point", INT)
+            .column("text", DICTIONARY)
+            .column("feet", INT)
+            .column("position", INT)
+            .column("lengthsAhead", DOUBLE)
+            .column("totalLengthsBehind", DOUBLE)
+            .build();
+
+    public static final ColumnarSchema EXOTICS = new ColumnarSchema.Builder("exotics")
+            .column("raceId", INT)
+            .column("name", DICTIONARY)
+            .column("unit", DOUBLE)
+            .column("winningNumbers", STRING)
+            .column("numberCorrect", INT)
+            .column("payoff", DOUBLE)
+            .column("pool", DOUBLE)
+            .column("carryover", DOUBLE)
+            .build();
+
+    private final ColumnarTableWriter races;
+    private final ColumnarTableWriter starters;
+    private final ColumnarTableWriter calls;
+    private final ColumnarTableWriter exotics;
+    private int nextRaceId;
+
+    public RaceResultColumnarExporter(Path directory) throws IOException {
+        this(directory, DEFAULT_BATCH_SIZE);
+    }
+
+    public RaceResultColumnarExporter(Path directory, int batchSize) throws IOException {
+        Files.createDirectories(directory);
+        // if a table cannot be opened, the tables already opened are closed before rethrowing
+        ColumnarTableWriter[] writers = new ColumnarTableWriter[4];
+        try {
+            writers[0] = open(directory.resolve(RACES_FILE), RACES, batchSize);
+            writers[1] = open(directory.resolve(STARTERS_FILE), STARTERS, batchSize);
+            writers[2] = open(directory.resolve(CALLS_FILE), CALLS, batchSize);
+            writers[3] = open(directory.resolve(EXOTICS_FILE), EXOTICS, batchSize);
+        } catch (IOException | RuntimeException e) {
+            IOException failure = closeAll(writers);
+            if (failure != null) {
+                e.addSuppressed(failure);
+            }
+            throw e;
+        }
+        races = writers[0];
+        starters = writers[1];
+        calls = writers[2];
+        exotics = writers[3];
+    }
+
+    private static ColumnarTableWriter open(Path path, ColumnarSchema schema, int batchSize)
+            throws IOException {
+        OutputStream outputStream = Files.newOutputStream(path);
+        try {
+            return new ColumnarTableWriter(outputStream, schema, batchSize);
+        } catch (IOException | RuntimeException e) {
+            try {
+                outputStream.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of races exported
+     */
+    public int export(Stream<RaceResult> raceResults) throws IOException {
+        int exported = 0;
+        Iterator<RaceResult> iterator = raceResults.iterator();
+        while (iterator.hasNext()) {
+            export(iterator.next());
+            exported++;
+        }
+        return exported;
+    }
+
+    /**
+     * @return the race id assigned to this race
+     */
+    public int export(RaceResult raceResult) throws IOException {
+        int raceId = nextRaceId++;
+        writeRace(raceId, raceResult);
+
+        if (raceResult.getStarters() != null) {
+            for (Starter starter : raceResult.getStarters()) {
+                writeStarter(raceId, starter);
+                if (starter.getPointsOfCall() != null) {
+                    for (PointOfCall pointOfCall : starter.getPointsOfCall()) {
+                        writeCall(raceId, starter.getProgram(), pointOfCall);
+                    }
+                }
+            }
+        }
+
+        WagerPayoffPools wagerPayoffPools = raceResult.getWagerPayoffPools();
+        if (wagerPayoffPools != null && wagerPayoffPools.getExoticPayoffPools() != null) {
+            for (ExoticPayoffPool exoticPayoffPool : wagerPayoffPools.getExoticPayoffPools()) {
+                writeExotic(raceId, exoticPayoffPool);
+            }
+        }
+        return raceId;
+    }
+
+    private void writeRace(int raceId, RaceResult raceResult) throws IOException {
+        races.setInt(0, raceId)
+                .setString(1, (raceResult.getTrack() != null ?
+                        raceResult.getTrack().getCanonical() : null))
+                .setInt(2, (raceResult.getRaceDate() != null ?
+                        (int) raceResult.getRaceDate().toEpochDay() : null))
+                .setInt(3, raceResult.getRaceNumber())
+                .setInt(4, (raceResult.getCancellation() != null &&
+                        raceResult.getCancellation().isCancelled() ? 1 : 0))
+                .setInt(13, raceResult.getNumberOfRunners())
+                .setLong(14, raceResult.getFinalMillis());
+
+        RaceConditions raceConditions = raceResult.getRaceConditions();
+        if (raceConditions != null) {
+            RaceTypeNameBlackTypeBreed raceType = raceConditions.getRaceTypeNameBlackTypeBreed();
+            if (raceType != null) {
+                races.setString(5, (raceType.getBreed() != null ?
+                        raceType.getBreed().getCode() : null))
+                        .setString(6, raceType.getCode())
+                        .setInt(7, raceType.getGrade());
+            }
+            races.setInt(8, (raceConditions.getPurse() != null ?
+                    raceConditions.getPurse().getValue() : null));
+        }
+
+        DistanceSurfaceTrackRecord distanceSurfaceTrackRecord =
+                raceResult.getDistanceSurfaceTrackRecord();
+        if (distanceSurfaceTrackRecord != null) {
+            races.setInt(9, (distanceSurfaceTrackRecord.getRaceDistance() != null ?
+                    distanceSurfaceTrackRecord.getRaceDistance().getFeet() : null))
+                    .setString(10, distanceSurfaceTrackRecord.getSurface())
+                    .setString(11, distanceSurfaceTrackRecord.getCourse())
+                    .setString(12, (distanceSurfaceTrackRecord.getTrackCondition() != null ?
+                            distanceSurfaceTrackRecord.getTrackCondition().getCode() : null));
+        }
+        races.endRow();
+    }
+
+    private void writeStarter(int raceId, Starter starter) throws IOException {
+        WinPlaceShowPayoff payoff = starter.getWinPlaceShowPayoff();
+        starters.setInt(0, raceId)
+                .setString(1, starter.getProgram())
+                .setString(2, (starter.getHorse() != null ? starter.getHorse().getName() : null))
+                .setString(3, (starter.getJockey() != null ?
+                        starter.getJockey().getName() : null))
+                .setString(4, (starter.getTrainer() != null ?
+                        starter.getTrainer().getName() : null))
+                .setString(5, (starter.getOwner() != null ? starter.getOwner().getName() : null))
+                .setInt(6, starter.getPostPosition())
+                .setInt(7, starter.getFinishPosition())
+                .setInt(8, starter.getOfficialPosition())
+                .setDouble(9, starter.getOdds())
+                .setInt(10, starter.getChoice())
+                .setDouble(11, (payoff != null && payoff.getWin() != null ?
+                        payoff.getWin().getPayoff() : null))
+                .setDouble(12, (payoff != null && payoff.getPlace() != null ?
+                        payoff.getPlace().getPayoff() : null))
+                .setDouble(13, (payoff != null && payoff.getShow() != null ?
+                        payoff.getShow().getPayoff() : null))
+                .setLong(14, (starter.getFinishFractional() != null ?
+                        starter.getFinishFractional().getMillis() : null));
+        starters.endRow();
+    }
+
+    private void writeCall(int raceId, String program, PointOfCall pointOfCall)
+            throws IOException {
+        calls.setInt(0, raceId)
+                .setString(1, program)
+                .setInt(2, pointOfCall.getPoint())
+                .setString(3, pointOfCall.getText())
+                .setInt(4, pointOfCall.getFeet());
+
+        RelativePosition relativePosition = pointOfCall.getRelativePosition();
+        if (relativePosition != null) {
+            calls.setInt(5, relativePosition.getPosition())
+                    .setDouble(6, (relativePosition.getLengthsAhead() != null ?
+                            relativePosition.getLengthsAhead().getLengths() : null))
+                    .setDouble(7, (relativePosition.getTotalLengthsBehind() != null ?
+                            relativePosition.getTotalLengthsBehind().getLengths() : null));
+        }
+        calls.endRow();
+    }
+
+    private void writeExotic(int raceId, ExoticPayoffPool exoticPayoffPool) throws IOException {
+        exotics.setInt(0, raceId)
+                .setString(1, exoticPayoffPool.getName())
+                .setDouble(2, exoticPayoffPool.getUnit())
+                .setString(3, exoticPayoffPool.getWinningNumbers())
+                .setInt(4, exoticPayoffPool.getNumberCorrect())
+                .setDouble(5, exoticPayoffPool.getPayoff())
+                .setDouble(6, exoticPayoffPool.getPool())
+                .setDouble(7, exoticPayoffPool.getCarryover());
+        exotics.endRow();
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = closeAll(new ColumnarTableWriter[]{races, starters, calls,
+                exotics});
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Closes every (non-null) writer, even if an earlier one fails
+     *
+     * @return the first failure, with any later ones suppressed, or null
+     */
+    private static IOException closeAll(ColumnarTableWriter[] writers) {
+        IOException failure = null;
+        for (ColumnarTableWriter writer : writers) {
+            if (writer == null) {
+                continue;
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        return failure;
+    }
+}
@@ -0,0 +1,116 @@
+package com.robinhowlett.formats;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.robinhowlett.data.RaceResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams serialized {@link RaceResult}s as {@link ProjectedRaceResult}s, reading only the
+ * top-level fields of the requested {@link Projection} sections
+ * <p>
+ * Unrequested fields are skipped at the token level without being materialized, so e.g. a scan
+ * of race headers does not pay for building the starters, wagering, and links of every race.
+ * The input may be a JSON array of race results or a sequence of root-level race result
+ * objects; it is not closed by this reader.
+ */
+public class RaceResultProjectionReader {
+
+    private final ObjectMapper objectMapper;
+
+    public RaceResultProjectionReader() {
+        this(new DataModelObjectMapper());
+    }
+
+    public RaceResultProjectionReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Races are read lazily as the stream is consumed; I/O and parse failures while consuming
+     * are rethrown as {@link UncheckedIOException}s. Closing the stream releases the parser.
+     */
+    public Stream<ProjectedRaceResult> readRaceResults(InputStream inputStream,
+            Projection projection) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(inputStream);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+        JsonToken first = parser.nextToken();
+        boolean array = (first == JsonToken.START_ARRAY);
+        if (array) {
+            parser.nextToken();
+        }
+
+        Iterator<ProjectedRaceResult> iterator = new Iterator<ProjectedRaceResult>() {
+            @Override
+            public boolean hasNext() {
+                JsonToken token = parser.currentToken();
+                return (token != null && !(array && token == JsonToken.END_ARRAY));
+            }
+
+            @Override
+            public ProjectedRaceResult next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    ProjectedRaceResult projected = readRaceResult(parser, projection);
+                    parser.nextToken();
+                    return projected;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        parser.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Reads the race result object at the parser's current {@link JsonToken#START_OBJECT},
+     * leaving the parser on its {@link JsonToken#END_OBJECT}
+     */
+    ProjectedRaceResult readRaceResult(JsonParser parser, Projection projection)
+            throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, String.format("Expected a race result object " +
+                    "but found %s", parser.currentToken()));
+        }
+
+        Map<String, TokenBuffer> fields = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if (projection.includes(field)) {
+                TokenBuffer buffer = new TokenBuffer(parser);
+                buffer.copyCurrentStructure(parser);
+                fields.put(field, buffer);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new ProjectedRaceResult(objectMapper, projection, fields);
+    }
+}
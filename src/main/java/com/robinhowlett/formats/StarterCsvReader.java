@@ -0,0 +1,315 @@
+package com.robinhowlett.formats;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.csv.CsvFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.robinhowlett.exceptions.DataModelException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import static com.robinhowlett.formats.StarterCsvWriter.POINTS_OF_CALL;
+import static com.robinhowlett.formats.StarterCsvWriter.SCHEMA;
+
+/**
+ * Reads the output of {@link StarterCsvWriter} back into {@link Columns} of primitive arrays,
+ * one value per row, without creating an object per row
+ */
+public class StarterCsvReader {
+
+    private final CsvFactory csvFactory;
+
+    public StarterCsvReader() {
+        this(new CsvFactory());
+    }
+
+    public StarterCsvReader(CsvFactory csvFactory) {
+        this.csvFactory = csvFactory;
+    }
+
+    /**
+     * @throws UnexpectedCsvHeaderException if the header does not match {@link
+     *                                      StarterCsvWriter#SCHEMA}
+     */
+    public Columns read(InputStream inputStream)
+            throws IOException, UnexpectedCsvHeaderException {
+        Columns columns = new Columns(1024);
+        try (CsvParser parser = csvFactory.createParser(inputStream)) {
+            parser.setSchema(CsvSchema.emptySchema());
+            parser.enable(CsvParser.Feature.WRAP_AS_ARRAY);
+
+            // the outer array wraps every row
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return columns;
+            }
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return columns;
+            }
+            verifyHeader(parser);
+
+            int columnCount = SCHEMA.size();
+            while (parser.nextToken() == JsonToken.START_ARRAY) {
+                columns.ensureCapacity();
+                int column = 0;
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    if (column < columnCount) {
+                        columns.set(column, parser);
+                    }
+                    column++;
+                }
+                if (column != columnCount) {
+                    throw new IOException(String.format("Row %d has %d columns; expected %d",
+                            columns.getSize() + 1, column, columnCount));
+                }
+                columns.size++;
+            }
+        }
+        columns.trimToSize();
+        return columns;
+    }
+
+    private static void verifyHeader(CsvParser parser)
+            throws IOException, UnexpectedCsvHeaderException {
+        int column = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            String name = parser.getText();
+            if (column >= SCHEMA.size() || !SCHEMA.columnName(column).equals(name)) {
+                throw new UnexpectedCsvHeaderException(name, column);
+            }
+            column++;
+        }
+        if (column != SCHEMA.size()) {
+            throw new UnexpectedCsvHeaderException(null, column);
+        }
+    }
+
+    /**
+     * The starter rows as parallel arrays, in {@link StarterCsvWriter#SCHEMA} order. Missing
+     * integers are 0, missing decimals are {@link Double#NaN}, missing finish times are -1, and
+     * missing text is null. Point of call values are indexed by point - 1 and then by row.
+     */
+    @Getter
+    public static class Columns {
+        private static final double[] POWERS_OF_TEN = new double[]{1e0, 1e1, 1e2, 1e3, 1e4, 1e5,
+                1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+
+        private int size;
+        private String[] tracks;
+        private LocalDate[] raceDates;
+        private int[] raceNumbers;
+        private String[] programs;
+        private String[] horses;
+        private String[] jockeys;
+        private String[] trainers;
+        private double[] odds;
+        private int[] choices;
+        private int[] postPositions;
+        private int[] officialPositions;
+        private double[] winPayoffs;
+        private double[] placePayoffs;
+        private double[] showPayoffs;
+        private long[] finishMillis;
+        private final int[][] positions = new int[POINTS_OF_CALL][];
+        private final double[][] lengthsBehind = new double[POINTS_OF_CALL][];
+        @Getter(AccessLevel.NONE)
+        private String raceDateText;
+
+        Columns(int initialCapacity) {
+            resize(Math.max(initialCapacity, 1));
+        }
+
+        void ensureCapacity() {
+            if (size == tracks.length) {
+                resize(tracks.length * 2);
+            }
+        }
+
+        /**
+         * Converts the current value without any intermediate objects beyond the parser's own
+         * {@link String}; consecutive rows of the same race reuse the previous row's race date
+         */
+        void set(int column, CsvParser parser) throws IOException {
+            String value = parser.getText();
+            switch (column) {
+                case 0:
+                    tracks[size] = (size > 0 && value.equals(tracks[size - 1]) ?
+                            tracks[size - 1] : text(value));
+                    return;
+                case 1:
+                    if (size > 0 && raceDates[size - 1] != null && value.equals(raceDateText)) {
+                        raceDates[size] = raceDates[size - 1];
+                    } else {
+                        raceDateText = text(value);
+                        raceDates[size] = (raceDateText != null ?
+                                LocalDate.parse(raceDateText) : null);
+                    }
+                    return;
+                case 2:
+                    raceNumbers[size] = integer(value);
+                    return;
+                case 3:
+                    programs[size] = text(value);
+                    return;
+                case 4:
+                    horses[size] = text(value);
+                    return;
+                case 5:
+                    jockeys[size] = text(value);
+                    return;
+                case 6:
+                    trainers[size] = text(value);
+                    return;
+                case 7:
+                    odds[size] = decimal(value);
+                    return;
+                case 8:
+                    choices[size] = integer(value);
+                    return;
+                case 9:
+                    postPositions[size] = integer(value);
+                    return;
+                case 10:
+                    officialPositions[size] = integer(value);
+                    return;
+                case 11:
+                    winPayoffs[size] = decimal(value);
+                    return;
+                case 12:
+                    placePayoffs[size] = decimal(value);
+                    return;
+                case 13:
+                    showPayoffs[size] = decimal(value);
+                    return;
+                case 14:
+                    finishMillis[size] = (value.isEmpty() ? -1 : longValue(value));
+                    return;
+                default:
+                    int point = (column - 15) / 2;
+                    if ((column - 15) % 2 == 0) {
+                        positions[point][size] = integer(value);
+                    } else {
+                        lengthsBehind[point][size] = decimal(value);
+                    }
+            }
+        }
+
+        void trimToSize() {
+            if (size != tracks.length) {
+                resize(size);
+            }
+        }
+
+        private void resize(int capacity) {
+            tracks = (tracks != null ? Arrays.copyOf(tracks, capacity) : new String[capacity]);
+            raceDates = (raceDates != null ? Arrays.copyOf(raceDates, capacity) :
+                    new LocalDate[capacity]);
+            raceNumbers = copyOf(raceNumbers, capacity);
+            programs = (programs != null ? Arrays.copyOf(programs, capacity) :
+                    new String[capacity]);
+            horses = (horses != null ? Arrays.copyOf(horses, capacity) : new String[capacity]);
+            jockeys = (jockeys != null ? Arrays.copyOf(jockeys, capacity) : new String[capacity]);
+            trainers = (trainers != null ? Arrays.copyOf(trainers, capacity) :
+                    new String[capacity]);
+            odds = copyOf(odds, capacity);
+            choices = copyOf(choices, capacity);
+            postPositions = copyOf(postPositions, capacity);
+            officialPositions = copyOf(officialPositions, capacity);
+            winPayoffs = copyOf(winPayoffs, capacity);
+            placePayoffs = copyOf(placePayoffs, capacity);
+            showPayoffs = copyOf(showPayoffs, capacity);
+            finishMillis = (finishMillis != null ? Arrays.copyOf(finishMillis, capacity) :
+                    new long[capacity]);
+            for (int i = 0; i < POINTS_OF_CALL; i++) {
+                positions[i] = copyOf(positions[i], capacity);
+                lengthsBehind[i] = copyOf(lengthsBehind[i], capacity);
+            }
+        }
+
+        private static int[] copyOf(int[] values, int capacity) {
+            return (values != null ? Arrays.copyOf(values, capacity) : new int[capacity]);
+        }
+
+        private static double[] copyOf(double[] values, int capacity) {
+            return (values != null ? Arrays.copyOf(values, capacity) : new double[capacity]);
+        }
+
+        private static String text(String value) {
+            return (value.isEmpty() ? null : value);
+        }
+
+        private static int integer(String value) {
+            if (value.isEmpty()) {
+                return 0;
+            }
+            long number = longValue(value);
+            if (number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+                throw new NumberFormatException(value);
+            }
+            return (int) number;
+        }
+
+        private static long longValue(String value) {
+            int length = value.length();
+            boolean negative = (value.charAt(0) == '-');
+            // anything other than a short run of digits is left to Long.parseLong
+            if (length > 18 || (negative && length == 1)) {
+                return Long.parseLong(value);
+            }
+            long number = 0;
+            for (int i = (negative ? 1 : 0); i < length; i++) {
+                int digit = value.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    return Long.parseLong(value);
+                }
+                number = number * 10 + digit;
+            }
+            return (negative ? -number : number);
+        }
+
+        /**
+         * Plain decimals of up to 15 significant digits are converted with a single division,
+         * which is exact for both operands and so correctly rounded; anything else falls back to
+         * {@link Double#parseDouble(String)}
+         */
+        private static double decimal(String value) {
+            int length = value.length();
+            if (length == 0) {
+                return Double.NaN;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int fractionDigits = -1;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= '0' && c <= '9') {
+                    mantissa = mantissa * 10 + (c - '0');
+                    digits++;
+                    if (fractionDigits >= 0) {
+                        fractionDigits++;
+                    }
+                } else if (c == '.' && fractionDigits < 0) {
+                    fractionDigits = 0;
+                } else {
+                    return Double.parseDouble(value);
+                }
+            }
+            if (digits == 0 || digits > 15) {
+                return Double.parseDouble(value);
+            }
+            return (fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa);
+        }
+    }
+
+    public static class UnexpectedCsvHeaderException extends DataModelException {
+        public UnexpectedCsvHeaderException(String name, int column) {
+            super(String.format("Unexpected CSV header column %d: %s (expected %s)", column + 1,
+                    name, (column < SCHEMA.size() ? SCHEMA.columnName(column) : "no column")));
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.robinhowlett.formats;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.robinhowlett.data.FractionalPoint.Fractional;
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Starter;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WinPlaceShowPayoffPool.WinPlaceShowPayoff;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Writes one CSV row per {@link Starter}, flattening the race key, connections, odds, Win-Place-
+ * Show payoffs, final time, and the position and total lengths behind at each of the six points
+ * of call (Start, three calls, Str, and Fin)
+ * <p>
+ * Rows are written straight to the {@link CsvGenerator} in {@link #SCHEMA} column order, so no
+ * intermediate maps or trees are built. Missing values are written as empty columns.
+ */
+public class StarterCsvWriter {
+
+    public static final int POINTS_OF_CALL = 6;
+    public static final CsvSchema SCHEMA = buildSchema();
+
+    // null values are skipped (not written as empty columns) when writing rows as arrays
+    private static final String MISSING = "";
+
+    private final CsvFactory csvFactory;
+
+    public StarterCsvWriter() {
+        this(new CsvFactory());
+    }
+
+    public StarterCsvWriter(CsvFactory csvFactory) {
+        this.csvFactory = csvFactory;
+    }
+
+    static CsvSchema buildSchema() {
+        CsvSchema.Builder builder = CsvSchema.builder()
+                .addColumn("track")
+                .addColumn("raceDate")
+                .addNumberColumn("raceNumber")
+                .addColumn("program")
+                .addColumn("horse")
+                .addColumn("jockey")
+                .addColumn("trainer")
+                .addNumberColumn("odds")
+                .addNumberColumn("choice")
+                .addNumberColumn("postPosition")
+                .addNumberColumn("officialPosition")
+                .addNumberColumn("winPayoff")
+                .addNumberColumn("placePayoff")
+                .addNumberColumn("showPayoff")
+                .addNumberColumn("finishMillis");
+        for (int point = 1; point <= POINTS_OF_CALL; point++) {
+            builder.addNumberColumn("point" + point + "Position")
+                    .addNumberColumn("point" + point + "Lengths");
+        }
+        return builder.setUseHeader(true).build();
+    }
+
+    /**
+     * Writes the header and then every {@link Starter} of every {@link RaceResult}. The output
+     * stream is flushed but not closed.
+     *
+     * @return the number of rows written (excluding the header)
+     */
+    public long write(Stream<RaceResult> raceResults, OutputStream outputStream)
+            throws IOException {
+        long rows = 0;
+        int[] positions = new int[POINTS_OF_CALL];
+        double[] lengths = new double[POINTS_OF_CALL];
+        try (CsvGenerator generator = csvFactory.createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setSchema(SCHEMA);
+
+            Iterator<RaceResult> iterator = raceResults.iterator();
+            while (iterator.hasNext()) {
+                RaceResult raceResult = iterator.next();
+                List<Starter> starters = raceResult.getStarters();
+                if (starters == null) {
+                    continue;
+                }
+
+                String track = (raceResult.getTrack() != null ?
+                        raceResult.getTrack().getCode() : null);
+                String raceDate = (raceResult.getRaceDate() != null ?
+                        raceResult.getRaceDate().toString() : null);
+                for (Starter starter : starters) {
+                    generator.writeStartArray();
+                    writeString(generator, track);
+                    writeString(generator, raceDate);
+                    writeNumber(generator, raceResult.getRaceNumber());
+                    writeStarter(generator, starter, positions, lengths);
+                    generator.writeEndArray();
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static void writeStarter(CsvGenerator generator, Starter starter, int[] positions,
+            double[] lengths) throws IOException {
+        writeString(generator, starter.getProgram());
+        writeString(generator, (starter.getHorse() != null ? starter.getHorse().getName() : null));
+        writeString(generator,
+                (starter.getJockey() != null ? starter.getJockey().getName() : null));
+        writeString(generator,
+                (starter.getTrainer() != null ? starter.getTrainer().getName() : null));
+        writeNumber(generator, starter.getOdds());
+        writeNumber(generator, starter.getChoice());
+        writeNumber(generator, starter.getPostPosition());
+        writeNumber(generator, starter.getOfficialPosition());
+
+        WinPlaceShowPayoff payoff = starter.getWinPlaceShowPayoff();
+        writeNumber(generator, (payoff != null && payoff.getWin() != null ?
+                payoff.getWin().getPayoff() : null));
+        writeNumber(generator, (payoff != null && payoff.getPlace() != null ?
+                payoff.getPlace().getPayoff() : null));
+        writeNumber(generator, (payoff != null && payoff.getShow() != null ?
+                payoff.getShow().getPayoff() : null));
+
+        Fractional finish = starter.getFinishFractional();
+        Long finishMillis = (finish != null ? finish.getMillis() : null);
+        if (finishMillis != null) {
+            generator.writeNumber(finishMillis);
+        } else {
+            generator.writeString(MISSING);
+        }
+
+        fillPointsOfCall(starter.getPointsOfCall(), positions, lengths);
+        for (int i = 0; i < POINTS_OF_CALL; i++) {
+            if (positions[i] > 0) {
+                generator.writeNumber(positions[i]);
+            } else {
+                generator.writeString(MISSING);
+            }
+            if (!Double.isNaN(lengths[i])) {
+                generator.writeNumber(lengths[i]);
+            } else {
+                generator.writeString(MISSING);
+            }
+        }
+    }
+
+    /**
+     * Slots each point of call by its 1-based point; the leader is 0 lengths behind
+     */
+    static void fillPointsOfCall(List<PointOfCall> pointsOfCall, int[] positions,
+            double[] lengths) {
+        Arrays.fill(positions, 0);
+        Arrays.fill(lengths, Double.NaN);
+        if (pointsOfCall == null) {
+            return;
+        }
+        for (PointOfCall pointOfCall : pointsOfCall) {
+            int index = pointOfCall.getPoint() - 1;
+            RelativePosition relativePosition = pointOfCall.getRelativePosition();
+            if (index < 0 || index >= POINTS_OF_CALL || relativePosition == null ||
+                    relativePosition.getPosition() == null) {
+                continue;
+            }
+            int position = relativePosition.getPosition();
+            positions[index] = position;
+            if (relativePosition.getTotalLengthsBehind() != null &&
+                    relativePosition.getTotalLengthsBehind().getLengths() != null) {
+                lengths[index] = relativePosition.getTotalLengthsBehind().getLengths();
+            } else if (position == 1) {
+                lengths[index] = 0;
+            }
+        }
+    }
+
+    private static void writeString(CsvGenerator generator, String value) throws IOException {
+        if (value != null) {
+            generator.writeString(value);
+        } else {
+            generator.writeString(MISSING);
+        }
+    }
+
+    private static void writeNumber(CsvGenerator generator, Integer value) throws IOException {
+        if (value != null) {
+            generator.writeNumber(value);
+        } else {
+            generator.writeString(MISSING);
+        }
+    }
+
+    private static void writeNumber(CsvGenerator generator, Double value) throws IOException {
+        if (value != null) {
+            generator.writeNumber(value);
+        } else {
+            generator.writeString(MISSING);
+        }
+    }
+}
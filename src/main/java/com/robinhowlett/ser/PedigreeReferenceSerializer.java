@@ -0,0 +1,36 @@
+package com.robinhowlett.ser;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.robinhowlett.data.Horse;
+import com.robinhowlett.data.PedigreeGraph;
+
+import java.io.IOException;
+
+/**
+ * Jackson serializer that writes a {@link Horse} as its name and its id in a {@link
+ * PedigreeGraph}, instead of repeating its pedigree, e.g. {"name":"Tiznow","pedigreeId":12};
+ * horses not yet in the graph are added to it
+ */
+public class PedigreeReferenceSerializer extends StdSerializer<Horse> {
+
+    private final PedigreeGraph pedigreeGraph;
+
+    public PedigreeReferenceSerializer(PedigreeGraph pedigreeGraph) {
+        super(Horse.class);
+        this.pedigreeGraph = pedigreeGraph;
+    }
+
+    @Override
+    public void serialize(Horse horse, JsonGenerator jsonGenerator,
+            SerializerProvider serializerProvider) throws IOException {
+        jsonGenerator.writeStartObject();
+        jsonGenerator.writeStringField("name", horse.getName());
+        int id = pedigreeGraph.add(horse);
+        if (id != PedigreeGraph.NONE) {
+            jsonGenerator.writeNumberField("pedigreeId", id);
+        }
+        jsonGenerator.writeEndObject();
+    }
+}
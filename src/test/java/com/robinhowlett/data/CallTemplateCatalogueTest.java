@@ -0,0 +1,79 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.samples.SampleRaceDistances;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertThat;
+
+public class CallTemplateCatalogueTest {
+
+    private final CallTemplateCatalogue catalogue = CallTemplateCatalogue.getInstance();
+
+    @Test
+    public void floorIndex_WithVariousDistances_ReturnsGreatestFloorNotAboveDistance() {
+        int[] floors = new int[]{0, 2640, 3300, 3960};
+
+        assertThat(CallTemplateCatalogue.floorIndex(floors, 0), equalTo(0));
+        assertThat(CallTemplateCatalogue.floorIndex(floors, 2639), equalTo(0));
+        assertThat(CallTemplateCatalogue.floorIndex(floors, 3300), equalTo(2));
+        assertThat(CallTemplateCatalogue.floorIndex(floors, 3630), equalTo(2));
+        assertThat(CallTemplateCatalogue.floorIndex(floors, 10560), equalTo(3));
+        assertThat(CallTemplateCatalogue.floorIndex(new int[]{660}, 330), equalTo(-1));
+    }
+
+    @Test
+    public void getPointsOfCall_WithOneMileThoroughbred_ReturnsOneMileTemplate() {
+        PointsOfCall pointsOfCall = catalogue.getPointsOfCall(SampleRaceDistances.oneMile(),
+                Breed.THOROUGHBRED).get();
+
+        assertThat(pointsOfCall.getFloor(), equalTo(5280));
+        assertThat(pointsOfCall.getStretchPointOfCall().get().getText(), equalTo("Str"));
+        assertThat(pointsOfCall.getFinishPointOfCall().get().getText(), equalTo("Fin"));
+    }
+
+    @Test
+    public void getPointsOfCall_WithArabian_FallsBackToThoroughbredTemplates() {
+        assertThat(catalogue.getPointsOfCall(3630, Breed.ARABIAN),
+                equalTo(catalogue.getPointsOfCall(3630, Breed.THOROUGHBRED)));
+    }
+
+    @Test
+    public void getFractionalPoint_WithSixAndOneHalfFurlongs_ReturnsSixFurlongTemplate() {
+        FractionalPoint fractionalPoint =
+                catalogue.getFractionalPoint(4290, Breed.THOROUGHBRED).get();
+
+        assertThat(fractionalPoint.getFloor(), equalTo(3960));
+        assertThat(fractionalPoint.printFractionalDistances(), equalTo("1/4,1/2,5/8,Fin"));
+    }
+
+    @Test
+    public void getStretchPointOfCall_WithoutStretchCall_ReturnsEmpty() {
+        List<PointOfCall> calls = new ArrayList<PointOfCall>() {{
+            add(new PointOfCall(1, "Start", null, null));
+            add(new PointOfCall(6, "Fin", "350y", 1050));
+        }};
+
+        PointsOfCall pointsOfCall = new PointsOfCall("350 Yards", 0, calls);
+
+        assertFalse(pointsOfCall.getStretchPointOfCall().isPresent());
+        assertThat(pointsOfCall.getFinishPointOfCall().get().getFeet(), equalTo(1050));
+    }
+
+    @Test
+    public void copyCalls_WithTemplate_CreatesEqualButSeparateCalls() {
+        PointsOfCall template = catalogue.getPointsOfCall(3960, Breed.THOROUGHBRED).get();
+
+        List<PointOfCall> copies = template.copyCalls();
+
+        assertThat(copies, equalTo(template.getCalls()));
+        assertNotSame(copies.get(0), template.getCalls().get(0));
+    }
+}
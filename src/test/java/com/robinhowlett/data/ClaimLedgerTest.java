@@ -0,0 +1,114 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.ClaimLedger.ClaimEvent;
+import com.robinhowlett.data.ClaimLedger.ClaimFollowUp;
+import com.robinhowlett.data.ClaimLedger.TrainerClaims;
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition;
+import com.robinhowlett.data.Starter.Claim;
+import com.robinhowlett.data.samples.SampleTracks;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.Assert.assertThat;
+
+public class ClaimLedgerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2016, 6, 1);
+
+    @Test
+    public void getClaimChain_WithLateAndRepeatedCharts_ReturnsClaimsInDateOrder()
+            throws Exception {
+        ClaimLedger ledger = new ClaimLedger();
+        ledger.add(race(DAY.plusDays(40), 3, "Smith", 2, claimed("Jones", "Jones Stable")));
+        ledger.add(race(DAY, 1, "Brown", 1, claimed("Smith", "Smith Racing")));
+        ledger.add(race(DAY.plusDays(20), 5, "smith", 4, unclaimed()));
+        ledger.add(race(DAY, 1, "Brown", 1, claimed("Smith", "Smith Racing")));
+
+        assertThat(ledger.getStarts("Claimed Horse"), equalTo(3));
+        List<ClaimEvent> chain = ledger.getClaimChain("CLAIMED HORSE");
+        assertThat(chain.size(), equalTo(2));
+        assertThat(chain.get(0), equalTo(new ClaimEvent("Claimed Horse", DAY, "ARP", 1, 10000,
+                "Brown", "Smith", "Smith Racing")));
+        assertThat(chain.get(1).getRaceDate(), equalTo(DAY.plusDays(40)));
+        assertThat(chain.get(1).getFromTrainer(), equalTo("Smith"));
+        assertThat(chain.get(1).getToTrainer(), equalTo("Jones"));
+
+        assertThat(ledger.getClaimChain("Unknown Horse").isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void getClaimsBy_WithClaimedHorses_JoinsNextStarts() throws Exception {
+        ClaimLedger ledger = new ClaimLedger();
+        ledger.add(race(DAY, 1, "Brown", 1, claimed("Smith", "Smith Racing")));
+        ledger.add(race(DAY.plusDays(20), 5, "Smith", 1, claimed("Jones", null)));
+        ledger.add(race(DAY.plusDays(50), 2, "Jones", 3, unclaimed()));
+
+        List<ClaimFollowUp> smith = ledger.getClaimsBy("Smith");
+        assertThat(smith.size(), equalTo(1));
+        assertThat(smith.get(0).getNextStart().getDaysSinceClaim(), equalTo(20));
+        assertThat(smith.get(0).getNextStart().isWinner(), equalTo(true));
+        assertThat(smith.get(0).getNextStart().isClaimedAgain(), equalTo(true));
+
+        List<ClaimFollowUp> jones = ledger.getClaimsBy("Jones");
+        assertThat(jones.get(0).getClaim().getToOwner(), nullValue());
+        assertThat(jones.get(0).getNextStart().getPosition(), equalTo(3));
+        assertThat(jones.get(0).getNextStart().getTrainer(), equalTo("Jones"));
+
+        ledger.add(race(DAY.plusDays(80), 4, "Jones", 2, claimed("Brown", "Brown Farm")));
+        assertThat(ledger.getClaimsBy("Brown").get(0).getNextStart(), nullValue());
+
+        TrainerClaims smithClaims = ledger.getTrainerClaims("Smith");
+        assertThat(smithClaims.getClaimsIn(), equalTo(1));
+        assertThat(smithClaims.getClaimsOut(), equalTo(1));
+        assertThat(smithClaims.getNextStartWinPercentage(), closeTo(100, 0.0001));
+        TrainerClaims brownClaims = ledger.getTrainerClaims("Brown");
+        assertThat(brownClaims.getClaimsIn(), equalTo(1));
+        assertThat(brownClaims.getClaimsOut(), equalTo(1));
+        assertThat(brownClaims.getNextStarts(), equalTo(0));
+        assertThat(ledger.getTrainerClaims("Nobody").getClaimsIn(), equalTo(0));
+    }
+
+    private static Claim claimed(String newTrainerName, String newOwnerName) {
+        return new Claim(new ClaimingPrice(10000),
+                new ClaimedHorse(newTrainerName, newOwnerName));
+    }
+
+    private static Claim unclaimed() {
+        return new Claim(new ClaimingPrice(10000), null);
+    }
+
+    // the claimed horse runs against a rival trained by someone else
+    private static RaceResult race(LocalDate raceDate, int raceNumber, String trainer,
+            int position, Claim claim) {
+        return new RaceResult.Builder()
+                .track(SampleTracks.getSampleTrackAraphaoe())
+                .raceDate(raceDate)
+                .raceNumber(raceNumber)
+                .starters(Arrays.asList(
+                        starter("1", "Claimed Horse", trainer, position, claim),
+                        starter("2", "Rival", "Other", (position == 1 ? 2 : 1), unclaimed())))
+                .build();
+    }
+
+    private static Starter starter(String program, String horse, String trainer, int position,
+            Claim claim) {
+        PointOfCall finish = new PointOfCall(6, "Fin", "6f", 3960);
+        finish.setRelativePosition(new RelativePosition(position, null));
+        return new Starter.Builder()
+                .program(program)
+                .horse(new Horse(horse))
+                .trainer(new Trainer(null, trainer))
+                .claim(claim)
+                .pointsOfCall(Collections.singletonList(finish))
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.RaceConditions.ClaimingPriceRange;
+
+import org.junit.Test;
+
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import static java.util.Locale.US;
+
+public class ClaimingPriceRangeTest {
+
+    // the original regular expression, used as the reference implementation
+    private static final Pattern CLAIMING_PRICE_PATTERN =
+            Pattern.compile("Claiming Price: " +
+                    "\\$([0-9]{1,3}(,[0-9]{3})*)( - \\$([0-9]{1,3}(,[0-9]{3})*))?$");
+
+    private static final String[] FRAGMENTS = new String[]{"Claiming Price: ", "$", "0", "1",
+            "5", "9", "12", "500", ",", ",000", ",500", " - ", " - $", "\n", "\r\n", " ",
+            "Claiming Price: $", "FOR MAIDENS", "lbs.", "Price"};
+
+    @Test
+    public void parse_WithSingleClaimingPrice_ReturnsSameMinAndMax() {
+        assertThat(ClaimingPriceRange.parse("FOR MAIDENS, TWO YEARS OLD. Weight, 120 lbs. " +
+                        "Claiming Price: $40,000"),
+                equalTo(new ClaimingPriceRange(40000, 40000)));
+    }
+
+    @Test
+    public void parse_WithClaimingPriceRange_ReturnsMinAndMax() {
+        assertThat(ClaimingPriceRange.parse("FOR THREE YEAR OLDS AND UPWARD. Claiming Price: " +
+                        "$25,000 - $22,500"),
+                equalTo(new ClaimingPriceRange(22500, 25000)));
+    }
+
+    @Test
+    public void parse_WithReversedClaimingPriceRange_SwapsMinAndMax() {
+        assertThat(ClaimingPriceRange.parse("Claiming Price: $7,500 - $10,000"),
+                equalTo(new ClaimingPriceRange(7500, 10000)));
+    }
+
+    @Test
+    public void parse_WithTrailingLineTerminator_ReturnsClaimingPrice() {
+        assertThat(ClaimingPriceRange.parse("Claiming Price: $5,000\r\n"),
+                equalTo(new ClaimingPriceRange(5000, 5000)));
+    }
+
+    @Test
+    public void parse_WithClaimingPriceNotAtEnd_ReturnsNull() {
+        assertThat(ClaimingPriceRange.parse("Claiming Price: $5,000. Claiming Price: 4,000"),
+                nullValue());
+        assertThat(ClaimingPriceRange.parse("Claiming Price: $5000"), nullValue());
+        assertThat(ClaimingPriceRange.parse("Claiming Price: $5,00"), nullValue());
+        assertThat(ClaimingPriceRange.parse(""), nullValue());
+    }
+
+    @Test
+    public void parse_WithRandomConditions_MatchesRegularExpressionImplementation() {
+        Random random = new Random(20161105L);
+        for (int i = 0; i < 200000; i++) {
+            StringBuilder text = new StringBuilder();
+            int fragments = 1 + random.nextInt(8);
+            for (int j = 0; j < fragments; j++) {
+                text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            String conditions = text.toString();
+
+            assertThat(conditions, ClaimingPriceRange.parse(conditions),
+                    equalTo(parseWithRegularExpression(conditions)));
+        }
+    }
+
+    private static ClaimingPriceRange parseWithRegularExpression(String raceConditions) {
+        Matcher matcher = CLAIMING_PRICE_PATTERN.matcher(raceConditions);
+        if (matcher.find()) {
+            try {
+                int maxClaim = toInt(NumberFormat.getNumberInstance(US).parse(matcher.group(1)));
+                int minClaim = (matcher.group(4) != null ?
+                        toInt(NumberFormat.getNumberInstance(US).parse(matcher.group(4))) :
+                        maxClaim);
+                return new ClaimingPriceRange(Math.min(minClaim, maxClaim),
+                        Math.max(minClaim, maxClaim));
+            } catch (ParseException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return null;
+    }
+
+    // absurdly large amounts saturate rather than overflow
+    private static int toInt(Number number) {
+        return (int) Math.min(number.doubleValue(), Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,176 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.ConnectionStatistics.Connection;
+import com.robinhowlett.data.ConnectionStatistics.Distance;
+import com.robinhowlett.data.ConnectionStatistics.Record;
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.RaceDistance;
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition;
+import com.robinhowlett.data.wagering.WagerPayoffPools;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WinPlaceShowPayoffPool;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WinPlaceShowPayoffPool.WinPlaceShowPayoff;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.Assert.assertThat;
+
+public class ConnectionStatisticsTest {
+
+    private static final LocalDate OPENING_DAY = LocalDate.of(2016, 1, 1);
+
+    @Test
+    public void getRecord_AsRacesArrive_SlidesWindows() throws Exception {
+        ConnectionStatistics statistics = new ConnectionStatistics();
+        statistics.add(race(0, "Dirt", 3960, "Bob Baffert", "Mike Smith", 6.0));
+        statistics.add(race(20, "Turf", 5610, "Mike Smith", "Bob Baffert", 3.0));
+        statistics.add(race(50, "Turf", 3300, "Bob Baffert", "Mike Smith", 4.4));
+
+        Record last30 = statistics.getRecord(Connection.TRAINER, "BOB BAFFERT", 30);
+        assertThat(last30.getStarts(), equalTo(1));
+        assertThat(last30.getWins(), equalTo(1));
+        assertThat(last30.getReturnOnInvestment(), closeTo(120, 0.0001));
+
+        Record last60 = statistics.getRecord(Connection.TRAINER, "Bob Baffert", 60);
+        assertThat(last60.getStarts(), equalTo(3));
+        assertThat(last60.getWins(), equalTo(2));
+        assertThat(last60.getInTheMoney(), equalTo(3));
+        assertThat(last60.getWinReturns(), closeTo(10.4, 0.0001));
+        assertThat(last60.getReturnOnInvestment(), closeTo(((10.4 - 6) / 6) * 100, 0.0001));
+
+        Record turfSprints = statistics.getRecord(Connection.TRAINER, "Bob Baffert", 60,
+                "Turf", Distance.SPRINT);
+        assertThat(turfSprints.getStarts(), equalTo(1));
+        assertThat(turfSprints.getWinPercentage(), closeTo(100, 0.0001));
+
+        Record combo = statistics.getRecord(Connection.JOCKEY_TRAINER,
+                ConnectionStatistics.jockeyTrainer("Joel Rosario", "Bob Baffert"), 365);
+        assertThat(combo.getStarts(), equalTo(2));
+        assertThat(statistics.getRecord(Connection.OWNER, "Owner of Mike Smith", 365)
+                .getStarts(), equalTo(3));
+
+        // a later race slides the windows of every connection
+        statistics.add(race(120, "Dirt", 5280, "Todd Pletcher", "Chad Brown", 5.0));
+        assertThat(statistics.getRecord(Connection.TRAINER, "Bob Baffert", 60).getStarts(),
+                equalTo(0));
+        assertThat(statistics.getRecord(Connection.TRAINER, "Bob Baffert", 365).getStarts(),
+                equalTo(3));
+        assertThat(statistics.getLatestDate(), equalTo(OPENING_DAY.plusDays(120)));
+    }
+
+    @Test
+    public void add_WithLateCharts_AddsThemToTheWindowsThatCoverThem() throws Exception {
+        ConnectionStatistics statistics = new ConnectionStatistics();
+        statistics.add(race(400, "Dirt", 3960, "Bob Baffert", "Mike Smith", 6.0));
+        statistics.add(race(380, "Dirt", 3960, "Bob Baffert", "Mike Smith", 5.0));
+        statistics.add(race(340, "Dirt", 3960, "Bob Baffert", "Mike Smith", 4.0));
+        // older than the longest window
+        statistics.add(race(10, "Dirt", 3960, "Bob Baffert", "Mike Smith", 3.0));
+
+        assertThat(statistics.getRecord(Connection.TRAINER, "Bob Baffert", 30).getWins(),
+                equalTo(2));
+        assertThat(statistics.getRecord(Connection.TRAINER, "Bob Baffert", 60).getWins(),
+                equalTo(2));
+        assertThat(statistics.getRecord(Connection.TRAINER, "Bob Baffert", 365).getWins(),
+                equalTo(3));
+        assertThat(statistics.getRecord(Connection.TRAINER, "Bob Baffert", 365)
+                .getWinReturns(), closeTo(15, 0.0001));
+    }
+
+    @Test
+    public void getRecord_WithMostlyOrderedRaces_MatchesRecountingFromScratch() throws Exception {
+        Random random = new Random(26);
+        List<String> trainers = Arrays.asList("Bob Baffert", "Todd Pletcher", "Chad Brown",
+                "Steve Asmussen");
+        ConnectionStatistics statistics = new ConnectionStatistics();
+        List<RaceResult> raceResults = new ArrayList<>();
+        int day = 0;
+        for (int i = 0; i < 3000; i++) {
+            day += random.nextInt(2);
+            int raceDay = (random.nextInt(20) == 0 ? day - random.nextInt(400) : day);
+            RaceResult raceResult = race(raceDay,
+                    (random.nextBoolean() ? "Dirt" : "Turf"), 3000 + random.nextInt(6000),
+                    trainers.get(random.nextInt(trainers.size())),
+                    trainers.get(random.nextInt(trainers.size())), 2.2 + random.nextInt(40));
+            raceResults.add(raceResult);
+            statistics.add(raceResult);
+
+            if (i % 100 == 99) {
+                for (String trainer : trainers) {
+                    for (int window : ConnectionStatistics.DEFAULT_WINDOWS) {
+                        assertThat(statistics.getRecord(Connection.TRAINER, trainer, window,
+                                "Turf", null), equalTo(recount(raceResults, trainer, window)));
+                    }
+                }
+            }
+        }
+    }
+
+    private static Record recount(List<RaceResult> raceResults, String trainer, int window) {
+        LocalDate latest = raceResults.stream().map(RaceResult::getRaceDate)
+                .max(LocalDate::compareTo).get();
+        int starts = 0;
+        int wins = 0;
+        int inTheMoney = 0;
+        long winReturns = 0;
+        for (RaceResult raceResult : raceResults) {
+            if (!raceResult.getRaceDate().isAfter(latest.minusDays(window)) ||
+                    !raceResult.getDistanceSurfaceTrackRecord().getSurface().equals("Turf")) {
+                continue;
+            }
+            for (Starter starter : raceResult.getStarters()) {
+                if (starter.getTrainer().getName().equals(trainer)) {
+                    starts++;
+                    if (starter.getOfficialPosition() == 1) {
+                        wins++;
+                        winReturns += Math.round(
+                                starter.getWinPlaceShowPayoff().getWin().getPayoff() * 100);
+                    }
+                    inTheMoney++;
+                }
+            }
+        }
+        return new Record(starts, wins, inTheMoney, winReturns / 100.0);
+    }
+
+    private static RaceResult race(int day, String surface, int feet, String winningTrainer,
+            String secondTrainer, double winPayoff) {
+        List<WinPlaceShowPayoff> winPlaceShowPayoffs = Arrays.asList(
+                new WinPlaceShowPayoff("1", new Horse("Horse 1"), winPayoff, 2.8, 2.4),
+                new WinPlaceShowPayoff("2", new Horse("Horse 2"), null, 3.6, 2.2));
+        return new RaceResult.Builder()
+                .raceDate(OPENING_DAY.plusDays(day))
+                .raceNumber(1)
+                .distanceAndSurfaceAndTrackRecord(new DistanceSurfaceTrackRecord(
+                        new RaceDistance(null, null, null, true, feet), surface, null, null,
+                        null))
+                .starters(Arrays.asList(
+                        starter(1, new Jockey("Joel", "Rosario"), winningTrainer),
+                        starter(2, new Jockey("Mike", "Smith"), secondTrainer)))
+                .wagerPoolsAndPayoffs(new WagerPayoffPools(
+                        new WinPlaceShowPayoffPool(1000, winPlaceShowPayoffs), null))
+                .build();
+    }
+
+    private static Starter starter(int position, Jockey jockey, String trainer) {
+        PointOfCall finish = new PointOfCall(6, "Fin", null, null);
+        finish.setRelativePosition(new RelativePosition(position, null));
+        String[] names = trainer.split(" ", 2);
+        return new Starter.Builder()
+                .program(String.valueOf(position))
+                .horse(new Horse("Horse " + position))
+                .jockey(jockey)
+                .trainer(new Trainer(names[0], names[1]))
+                .owner(new Owner("Owner of " + trainer))
+                .pointsOfCall(Collections.singletonList(finish))
+                .build();
+    }
+}
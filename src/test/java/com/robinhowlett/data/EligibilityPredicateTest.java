@@ -0,0 +1,141 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.samples.SampleRaceConditions;
+import com.robinhowlett.data.samples.SampleRaceRestrictions;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static com.robinhowlett.data.EligibilityPredicate.COLT;
+import static com.robinhowlett.data.EligibilityPredicate.FILLY;
+import static com.robinhowlett.data.EligibilityPredicate.GELDING;
+import static com.robinhowlett.data.EligibilityPredicate.MARE;
+import static com.robinhowlett.data.EligibilityPredicate.UNKNOWN_AGE;
+import static com.robinhowlett.data.EligibilityPredicate.UNKNOWN_SEX;
+import static com.robinhowlett.data.EligibilityPredicate.packHorse;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class EligibilityPredicateTest {
+
+    private static final int COLORADO = 6;
+    private static final int KENTUCKY = 17;
+
+    @Test
+    public void test_WithFilliesAndMaresRace_OnlyAcceptsFemalesOfEligibleAge() {
+        EligibilityPredicate predicate = EligibilityPredicate.compile(
+                SampleRaceRestrictions.threeYearOldAndOlderFilliesAndMares(), null, COLORADO);
+
+        assertTrue(predicate.test(packHorse(FILLY, 3, KENTUCKY, 0)));
+        assertTrue(predicate.test(packHorse(MARE, 7, 0, 0)));
+        assertFalse(predicate.test(packHorse(FILLY, 2, KENTUCKY, 0)));
+        assertFalse(predicate.test(packHorse(GELDING, 4, KENTUCKY, 0)));
+        assertFalse(predicate.test(packHorse(UNKNOWN_SEX, 4, KENTUCKY, 0)));
+    }
+
+    @Test
+    public void test_WithStateBredRace_OnlyAcceptsHorsesBredInThatState() {
+        EligibilityPredicate predicate = EligibilityPredicate.compile(
+                SampleRaceRestrictions.twoYearOldFilliesStateBred(), null, COLORADO);
+
+        assertTrue(predicate.test(packHorse(FILLY, 2, COLORADO, 0)));
+        assertFalse(predicate.test(packHorse(FILLY, 2, KENTUCKY, 0)));
+        assertFalse(predicate.test(packHorse(FILLY, 3, COLORADO, 0)));
+    }
+
+    @Test
+    public void test_WithClaimingRace_RejectsHorsesWithHigherClaimingPriceFloor() {
+        EligibilityPredicate predicate = EligibilityPredicate.compile(
+                SampleRaceRestrictions.threeAndFourYearOlds(),
+                SampleRaceConditions.twentyTwoFiveToTwentyFiveThousandClaimingPriceRange(), 0);
+
+        assertTrue(predicate.test(packHorse(COLT, 3, 0, 0)));
+        assertTrue(predicate.test(packHorse(COLT, 4, 0, 25000)));
+        assertFalse(predicate.test(packHorse(COLT, 4, 0, 30000)));
+        assertFalse(predicate.test(packHorse(COLT, 5, 0, 0)));
+    }
+
+    @Test
+    public void test_WithUnknownSexAndOpenRace_AcceptsHorse() {
+        EligibilityPredicate predicate = EligibilityPredicate.compile(
+                SampleRaceRestrictions.threeAndOlderAllAgesNonWinnersOfTwoLifetime(), null, 0);
+
+        assertTrue(predicate.test(packHorse(UNKNOWN_SEX, 9, 0, 0)));
+    }
+
+    @Test
+    public void test_WithNoSexesParsed_AcceptsEverySex() {
+        EligibilityPredicate predicate = EligibilityPredicate.compile(
+                new RaceRestrictions(null, 3, -1, 0, false), null, 0);
+
+        assertTrue(predicate.test(packHorse(COLT, 3, 0, 0)));
+        assertTrue(predicate.test(packHorse(MARE, 5, 0, 0)));
+        assertTrue(predicate.test(packHorse(UNKNOWN_SEX, 4, 0, 0)));
+        assertFalse(predicate.test(packHorse(FILLY, 2, 0, 0)));
+    }
+
+    @Test
+    public void test_WithUnknownAge_OnlyAcceptsHorseForRacesWithoutAgeRestrictions() {
+        assertFalse(EligibilityPredicate.compile(
+                SampleRaceRestrictions.threeAndFourYearOlds(), null, 0)
+                .test(packHorse(COLT, UNKNOWN_AGE, 0, 0)));
+        assertTrue(EligibilityPredicate.compile((RaceRestrictions) null, null, 0)
+                .test(packHorse(COLT, UNKNOWN_AGE, 0, 0)));
+        assertThat(EligibilityPredicate.ageOn(null, LocalDate.of(2015, 1, 1)),
+                equalTo(UNKNOWN_AGE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile_WithStateBredRaceAndUnknownState_ThrowsIllegalArgumentException() {
+        EligibilityPredicate.compile(SampleRaceRestrictions.twoYearOldFilliesStateBred(), null, 0);
+    }
+
+    @Test
+    public void packHorse_WithHorseDetails_UsesSexAndAgeOnRaceDate() {
+        Horse horse = new Horse("Back Stop");
+        horse.setSex("Filly");
+        horse.setFoalingDate(LocalDate.of(2012, 3, 30));
+
+        assertThat(packHorse(horse, LocalDate.of(2015, 1, 1), KENTUCKY, 0),
+                equalTo(packHorse(FILLY, 3, KENTUCKY, 0)));
+    }
+
+    @Test
+    public void filter_WithColumnsOfRaces_ReturnsEligibleRaceIndices() {
+        EligibilityPredicate.Columns races = new EligibilityPredicate.Columns(1);
+        races.add(EligibilityPredicate.compile(
+                SampleRaceRestrictions.threeYearOldAndOlderFilliesAndMares(), null, COLORADO));
+        races.add(EligibilityPredicate.compile(
+                SampleRaceRestrictions.twoYearOldFilliesStateBred(), null, COLORADO));
+        races.add(EligibilityPredicate.compile(
+                SampleRaceRestrictions.threeAndFourYearOlds(), null, COLORADO));
+
+        int[] matches = new int[races.getSize()];
+        int matched = races.filter(packHorse(FILLY, 3, KENTUCKY, 0), matches);
+
+        assertThat(matched, equalTo(2));
+        assertThat(matches[0], equalTo(0));
+        assertThat(matches[1], equalTo(2));
+    }
+
+    @Test
+    public void filter_WithManyHorses_ReturnsEligibleHorseIndices() {
+        EligibilityPredicate predicate = EligibilityPredicate.compile(
+                SampleRaceRestrictions.twoYearOldFilliesStateBred(), null, COLORADO);
+        long[] horses = new long[]{
+                packHorse(FILLY, 2, KENTUCKY, 0),
+                packHorse(FILLY, 2, COLORADO, 0),
+                packHorse(COLT, 2, COLORADO, 0)
+        };
+
+        int[] matches = new int[horses.length];
+        int matched = predicate.filter(horses, horses.length, matches);
+
+        assertThat(matched, equalTo(1));
+        assertThat(matches[0], equalTo(1));
+    }
+}
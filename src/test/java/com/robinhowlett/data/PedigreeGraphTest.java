@@ -0,0 +1,138 @@
+package com.robinhowlett.data;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.robinhowlett.formats.DataModelObjectMapper;
+import com.robinhowlett.ser.PedigreeReferenceSerializer;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class PedigreeGraphTest {
+
+    @Test
+    public void add_WithFoalsOfTheSameSire_StoresSireOnce() throws Exception {
+        PedigreeGraph graph = new PedigreeGraph();
+        int first = graph.add(foal("Arrogate", "Unbridled's Song", "Bubbler", "Distorted Humor"));
+        int second = graph.add(foal("Liam's Map", "UNBRIDLED'S SONG", "Miss Macy Sue", "Trippi"));
+
+        assertThat(graph.size(), equalTo(7));
+        int sire = graph.getId("Unbridled's Song");
+        assertThat(graph.getSire(first), equalTo(sire));
+        assertThat(graph.getSire(second), equalTo(sire));
+        assertThat(graph.getProgenyOfSire(sire), equalTo(new int[]{first, second}));
+        assertThat(graph.getHorse(first).getSire(), sameInstance(graph.getHorse(second).getSire()));
+        assertThat(graph.getName(graph.getDamSire(second)), equalTo("Trippi"));
+        assertThat(graph.getProgenyOfDamSire(graph.getId("Trippi")), equalTo(new int[]{second}));
+    }
+
+    @Test
+    public void add_WithLaterDetails_FillsInMissingDetails() throws Exception {
+        PedigreeGraph graph = new PedigreeGraph();
+        graph.add(new Horse("Tiznow"));
+        Horse tiznow = new Horse("Tiznow");
+        tiznow.setColor("Bay");
+        tiznow.setSire(new Horse("Cee's Tizzy"));
+        graph.add(tiznow);
+
+        Horse view = graph.getHorse("Tiznow");
+        assertThat(view.getColor(), equalTo("Bay"));
+        assertThat(view.getSire().getName(), equalTo("Cee's Tizzy"));
+        assertThat(view.getDam(), nullValue());
+        assertThat(view, sameInstance(graph.getHorse(graph.add(tiznow))));
+        assertThat(graph.getProgenyOfSire(graph.getId("Cee's Tizzy")).length, equalTo(1));
+    }
+
+    @Test
+    public void add_WithConflictingLaterParent_KeepsFirstParent() throws Exception {
+        PedigreeGraph graph = new PedigreeGraph();
+        graph.add(foal("Arrogate", "Unbridled's Song", "Bubbler", "Distorted Humor"));
+        graph.add(foal("Arrogate", "Tapit", "Bubbler", "Distorted Humor"));
+
+        assertThat(graph.getHorse("Arrogate").getSire().getName(), equalTo("Unbridled's Song"));
+        assertThat(graph.getProgenyOfSire(graph.getId("Tapit")).length, equalTo(0));
+    }
+
+    @Test
+    public void add_WithNamesakesFoaledOnDifferentDates_KeepsThemApart() throws Exception {
+        PedigreeGraph graph = new PedigreeGraph();
+        Horse thoroughbred = foal("Dash", "Tapit", "Bubbler", "Distorted Humor");
+        thoroughbred.setFoalingDate(LocalDate.of(2012, 3, 1));
+        Horse quarterHorse = foal("DASH", "Corona Cartel", "Jess Vanna", "Special Effort");
+        quarterHorse.setFoalingDate(LocalDate.of(1998, 4, 2));
+        int first = graph.add(thoroughbred);
+        int second = graph.add(quarterHorse);
+
+        assertThat(graph.getIds("Dash"), equalTo(new int[]{first, second}));
+        assertThat(graph.getName(graph.getSire(second)), equalTo("Corona Cartel"));
+
+        // with two horses of that name, an undated sighting cannot be matched to either...
+        int undated = graph.add(foal("Dash", "Tapit", "Bubbler", "Distorted Humor"));
+        assertThat(graph.getIds("Dash"), equalTo(new int[]{first, second, undated}));
+        // ...but an undated sire or dam is matched to the only horse of that name
+        assertThat(graph.getIds("Tapit").length, equalTo(1));
+        assertThat(graph.getDam(undated), equalTo(graph.getDam(first)));
+    }
+
+    @Test
+    public void getHorse_WithCyclicPedigree_ComparesAndPrintsById() throws Exception {
+        PedigreeGraph graph = new PedigreeGraph();
+        Horse first = graph.getHorse(graph.add(new Horse("First")));
+        Horse second = graph.getHorse(graph.add(new Horse("Second")));
+        first.setSire(second);
+        second.setSire(first);
+
+        assertThat(first.equals(second), equalTo(false));
+        assertThat(first.equals(new Horse("First")), equalTo(false));
+        assertThat(new Horse("First").equals(first), equalTo(false));
+        assertThat(first.hashCode(), equalTo(graph.getHorse("First").hashCode()));
+        assertThat(second.toString(), equalTo("PedigreeGraph.GraphHorse(id=1, name=Second)"));
+    }
+
+    @Test
+    public void getDamSire_WithDamsSireOnly_MatchesGraphDamSire() throws Exception {
+        PedigreeGraph graph = new PedigreeGraph();
+        Horse foal = foal("Arrogate", "Unbridled's Song", "Bubbler", "Distorted Humor");
+        foal.setDamSire(null);
+        int id = graph.add(foal);
+
+        assertThat(graph.getName(graph.getDamSire(id)), equalTo("Distorted Humor"));
+        assertThat(graph.getHorse(id).getDamSire().getName(), equalTo("Distorted Humor"));
+    }
+
+    @Test
+    public void serialize_WithPedigreeReferenceSerializer_ReferencesHorsesById() throws Exception {
+        PedigreeGraph graph = new PedigreeGraph();
+        DataModelObjectMapper mapper = new DataModelObjectMapper();
+        mapper.registerModule(new SimpleModule()
+                .addSerializer(Horse.class, new PedigreeReferenceSerializer(graph)));
+
+        JsonNode horse = mapper.readTree(mapper.writeValueAsString(
+                foal("Arrogate", "Unbridled's Song", "Bubbler", "Distorted Humor")));
+        JsonNode horses = new DataModelObjectMapper().valueToTree(graph).get("horses");
+
+        assertThat(horse.get("name").asText(), equalTo("Arrogate"));
+        assertThat(horse.get("pedigreeId").asInt(), equalTo(0));
+        assertThat(horse.has("sire"), equalTo(false));
+        assertThat(horses.size(), equalTo(4));
+        assertThat(horses.get(0).get("sire").asInt(), equalTo(graph.getId("Unbridled's Song")));
+        assertThat(horses.get(graph.getId("Bubbler")).get("sire").asInt(),
+                equalTo(graph.getId("Distorted Humor")));
+    }
+
+    private static Horse foal(String name, String sire, String dam, String damSire) {
+        Horse damHorse = new Horse(dam);
+        damHorse.setSire(new Horse(damSire));
+        Horse foal = new Horse(name);
+        foal.setSire(new Horse(sire));
+        foal.setDam(damHorse);
+        foal.setDamSire(new Horse(damSire));
+        return foal;
+    }
+}
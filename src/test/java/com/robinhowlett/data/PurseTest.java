@@ -0,0 +1,69 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.Purse.Breakdown;
+import com.robinhowlett.data.Purse.EnhancementType;
+import com.robinhowlett.data.Purse.PurseEnhancement;
+import com.robinhowlett.data.samples.SamplePurses;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class PurseTest {
+
+    @Test
+    public void getBreakdown_WithValueOfRace_ParsesAmountsAndPayouts() throws Exception {
+        Purse purse = SamplePurses.oneHundredGrandPurseWithAddedAvailableIncludesPlusAndValue();
+
+        Breakdown breakdown = purse.getBreakdown();
+
+        assertThat(breakdown.getValue(), equalTo(100000));
+        assertThat(breakdown.getAvailableMoney(), equalTo(40000));
+        assertThat(breakdown.getAddedMoney(), equalTo(40000));
+        assertThat(breakdown.getIncludedMoney(), equalTo(2000));
+        assertThat(breakdown.getValueOfRace(), equalTo(9700));
+        assertThat(breakdown.getPaidPositions(), equalTo(9));
+        assertThat(breakdown.getPayout(1), equalTo(5820));
+        assertThat(breakdown.getPayout(4), equalTo(485));
+        assertThat(breakdown.getPayout(9), equalTo(97));
+        assertThat(breakdown.getPayout(10), equalTo(0));
+        assertThat(breakdown.getPayout(null), equalTo(0));
+        assertThat(purse.getBreakdown(), sameInstance(breakdown));
+    }
+
+    @Test
+    public void getEnhancements_WithEnhancementAdded_RebuildsCachedText() throws Exception {
+        Purse purse = SamplePurses.oneHundredGrandPurseWithAddedAvailableIncludesPlusAndValue();
+
+        assertThat(purse.getEnhancements(),
+                equalTo("Plus: $40,000 Added, Includes: $2,000 Other Sources"));
+        assertThat(purse.getEnhancements(EnhancementType.PLUS), equalTo(Arrays.asList(
+                new PurseEnhancement(EnhancementType.PLUS, "$40,000 Added"))));
+
+        purse.enhancementsList.add(new PurseEnhancement(EnhancementType.PLUS, "$5,000 KTDF"));
+
+        assertThat(purse.getEnhancements(), equalTo("Plus: $40,000 Added, " +
+                "Includes: $2,000 Other Sources, Plus: $5,000 KTDF"));
+        assertThat(purse.getEnhancements(EnhancementType.PLUS).size(), equalTo(2));
+        assertThat(purse.getBreakdown().getAddedMoney(), equalTo(45000));
+    }
+
+    @Test
+    public void setValueOfRace_WithCachedBreakdown_RebuildsBreakdown() throws Exception {
+        Purse purse = new Purse(20000, "$20,000", null, null, null);
+        assertThat(purse.getEnhancements(), nullValue());
+        assertThat(purse.getEnhancements(EnhancementType.INCLUDES).isEmpty(), equalTo(true));
+        assertThat(purse.getBreakdown().getValueOfRace(), nullValue());
+        assertThat(purse.getBreakdown().getPaidPositions(), equalTo(0));
+
+        purse.setValueOfRace("$20,000 1st $12,000, 2nd $4,000, 3rd $2,400");
+
+        assertThat(purse.getBreakdown().getValueOfRace(), equalTo(20000));
+        assertThat(purse.getBreakdown().getPayout(3), equalTo(2400));
+    }
+}
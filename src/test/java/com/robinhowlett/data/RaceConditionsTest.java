@@ -4,6 +4,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 import static com.robinhowlett.data.RaceRestrictions.ALL_SEXES;
@@ -153,4 +154,42 @@ public class RaceConditionsTest {
                 ),
                 equalTo("3+ (C&G) [S] CLM 10-8.5K (NW2 L)"));
     }
+
+    @Test
+    public void appendThousands_WithAmountsBelowTenThousand_MatchesSingleDecimalFormatting() {
+        for (int amount = -2000; amount < 10000; amount += 5) {
+            Assert.assertThat(
+                    RaceConditions.appendThousands(new StringBuilder(), amount).toString(),
+                    equalTo(String.format(Locale.US, "%.1f", amount / (double) 1000)));
+        }
+    }
+
+    @Test
+    public void getSummary_AfterSettingPurse_RebuildsSummary() {
+        RaceConditions raceConditions = new RaceConditions(null, null,
+                new RaceRestrictions(null, 3, -1, 24, false),
+                new RaceTypeNameBlackTypeBreed("ALLOWANCE", Breed.THOROUGHBRED),
+                new Purse(20000, "$20,000", null, null, null));
+        Assert.assertThat(raceConditions.getSummary(), equalTo("3+ (F&M) ALW 20K"));
+
+        raceConditions.setPurse(new Purse(5500, "$5,500", null, null, null));
+
+        Assert.assertThat(raceConditions.getSummary(), equalTo("3+ (F&M) ALW 5.5K"));
+        Assert.assertThat(raceConditions.getSummaryComponents().getPurseBucket(), equalTo(55));
+    }
+
+    @Test
+    public void getSummaryComponents_WithClaimingRace_ExposesComponentsAsPrimitives() {
+        RaceConditions raceConditions = new RaceConditions(null,
+                new RaceConditions.ClaimingPriceRange(8500, 10000),
+                new RaceRestrictions("NW2 L", 3, -1, 3, true),
+                new RaceTypeNameBlackTypeBreed("CLAIMING", Breed.THOROUGHBRED),
+                new Purse(20000, "$20,000", null, null, null));
+
+        RaceConditions.SummaryComponents components = raceConditions.getSummaryComponents();
+
+        Assert.assertThat(components,
+                equalTo(new RaceConditions.SummaryComponents("3+ (C&G) [S] CLM 10-8.5K (NW2 L)",
+                        "3+", 3, -1, 3, true, "CLM", 0, true, 8500, 10000, 0)));
+    }
 }
@@ -0,0 +1,101 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.formats.DataModelObjectMapper;
+
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.robinhowlett.data.Breed.isTBOrArabian;
+import static com.robinhowlett.data.RaceTypeNameBlackTypeBreed.RACE_TYPE_CODES;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class RaceTypeNameBlackTypeBreedTest {
+
+    @Test
+    public void typeFromCode_WithAllCodesAndBreeds_MatchesFirstInsertionOrderScan() {
+        List<String> codes = new ArrayList<>(RACE_TYPE_CODES.values());
+        codes.add("ZCH");
+        codes.add("XYZ");
+
+        for (Breed breed : Breed.values()) {
+            for (String code : codes) {
+                assertThat(code + " " + breed,
+                        RaceTypeNameBlackTypeBreed.typeFromCode(code, breed),
+                        equalTo(typeFromCodeByScanning(code, breed)));
+            }
+        }
+    }
+
+    @Test
+    public void typeFromCode_WithBreedSpecificCodes_ReturnsBreedSpecificRaceType() {
+        assertThat(RaceTypeNameBlackTypeBreed.typeFromCode("AOC", Breed.THOROUGHBRED).getKey(),
+                equalTo("ALLOWANCE OPTIONAL CLAIMING"));
+        assertThat(RaceTypeNameBlackTypeBreed.typeFromCode("AOC", Breed.QUARTER_HORSE).getKey(),
+                equalTo("SPEED INDEX OPTIONAL CLAIMING"));
+        assertThat(RaceTypeNameBlackTypeBreed.typeFromCode("STR", Breed.ARABIAN).getKey(),
+                equalTo("STARTER ALLOWANCE"));
+        assertThat(RaceTypeNameBlackTypeBreed.typeFromCode("STR", Breed.MIXED).getKey(),
+                equalTo("STAKES TRIAL"));
+    }
+
+    @Test
+    public void typeFromCode_WithRepeatedLookups_ReturnsSharedEntry() {
+        assertThat(RaceTypeNameBlackTypeBreed.typeFromCode("CLM", Breed.THOROUGHBRED),
+                sameInstance(RaceTypeNameBlackTypeBreed.typeFromCode("CLM", Breed.THOROUGHBRED)));
+        assertThat(RaceTypeNameBlackTypeBreed.typeFromCode("XYZ", Breed.THOROUGHBRED),
+                sameInstance(RaceTypeNameBlackTypeBreed.UNKNOWN_CODE_TYPE));
+    }
+
+    @Test
+    public void deserialize_WithCodeButNoType_DerivesTypeAndNormalizesCode() throws Exception {
+        RaceTypeNameBlackTypeBreed raceType = new DataModelObjectMapper().readValue(
+                "{\"breed\":\"THOROUGHBRED\",\"code\":\"MAT\"}",
+                RaceTypeNameBlackTypeBreed.class);
+
+        assertThat(raceType.getType(), equalTo("MATCH RACE"));
+        assertThat(raceType.getCode(), equalTo("MCH"));
+    }
+
+    @Test
+    public void constructor_WithCodeButNoType_KeepsNullType() {
+        RaceTypeNameBlackTypeBreed raceType = new RaceTypeNameBlackTypeBreed(null, "MSW",
+                null, null, null, Breed.THOROUGHBRED);
+
+        assertThat(raceType.getType(), nullValue());
+        assertThat(raceType.getCode(), equalTo("MSW"));
+    }
+
+    // the original implementation, used as the reference
+    private static Map.Entry<String, String> typeFromCodeByScanning(String code, Breed breed) {
+        if (code.equals("AOC")) {
+            return isTBOrArabian(breed) ?
+                    new AbstractMap.SimpleEntry<>("ALLOWANCE OPTIONAL CLAIMING", code) :
+                    new AbstractMap.SimpleEntry<>("SPEED INDEX OPTIONAL CLAIMING", code);
+        } else if (code.equals("TRL")) {
+            return isTBOrArabian(breed) ?
+                    new AbstractMap.SimpleEntry<>("TRIAL", code) :
+                    new AbstractMap.SimpleEntry<>("TRIALS", code);
+        } else if ((code.equals("MAT") && isTBOrArabian(breed)) || code.equals("MCH")) {
+            return new AbstractMap.SimpleEntry<>("MATCH RACE", "MCH");
+        } else if (code.equals("STR") && isTBOrArabian(breed)) {
+            return new AbstractMap.SimpleEntry<>("STARTER ALLOWANCE", "STA");
+        } else if (code.equals("CAN") || code.equals("ZCH")) {
+            return new AbstractMap.SimpleEntry<>("CANCELLED", "CAN");
+        } else if (code.equals("STK") || code.equals("CLT")) {
+            return new AbstractMap.SimpleEntry<>("STAKES", "STK");
+        } else {
+            return RACE_TYPE_CODES.entrySet().stream()
+                    .filter(entry -> entry.getValue().equals(code))
+                    .findFirst()
+                    .orElse(new AbstractMap.SimpleEntry<>("UNKNOWN RACE TYPE", "UNK"));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.TrackCondition;
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition;
+import com.robinhowlett.data.ScratchIndex.Query;
+import com.robinhowlett.data.ScratchIndex.Totals;
+import com.robinhowlett.data.samples.SampleDistanceSurfaceTrackRecords;
+import com.robinhowlett.data.samples.SampleTracks;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.Assert.assertThat;
+
+public class ScratchIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2016, 1, 15);
+
+    @Test
+    public void query_WithOffTurfRacesInTheWet_ReturnsScratchRateAndReasons() throws Exception {
+        ScratchIndex index = new ScratchIndex();
+        index.add(race(DAY, true, TrackCondition.SLOPPY, 6, "Off Turf", "off  turf", "Vet"));
+        index.add(race(DAY, true, TrackCondition.MUDDY, 8, "Off Turf", "Trainer"));
+        index.add(race(DAY, false, TrackCondition.FAST, 10, "Vet"));
+        index.add(race(DAY.plusMonths(2), true, TrackCondition.SLOPPY, 6, "OFF TURF"));
+
+        Totals offTurfInTheWet = index.query(new Query().track("ARP").offTurf(true)
+                .trackConditions(TrackCondition.SLOPPY, TrackCondition.MUDDY)
+                .between(DAY, DAY.plusDays(10)));
+
+        assertThat(offTurfInTheWet.getRaces(), equalTo(2));
+        assertThat(offTurfInTheWet.getEntries(), equalTo(19));
+        assertThat(offTurfInTheWet.getScratchRate(), closeTo(100.0 * 5 / 19, 0.0001));
+        assertThat(new ArrayList<>(offTurfInTheWet.getScratchReasons().keySet()),
+                equalTo(Arrays.asList("Off Turf", "Vet", "Trainer")));
+        assertThat(offTurfInTheWet.getScratchReasons().get("Off Turf"), equalTo(3));
+
+        assertThat(index.query(new Query().offTurf(true)).getScratches(), equalTo(6));
+        assertThat(index.query(new Query().surface("Dirt")).getRaces(), equalTo(4));
+        assertThat(index.query(new Query().between(DAY.plusMonths(1), null)).getRaces(),
+                equalTo(1));
+        assertThat(index.query(new Query().track("GP")).getRaces(), equalTo(0));
+    }
+
+    @Test
+    public void merge_WithIndexesBuiltInParallel_MatchesSequentialIndex() throws Exception {
+        List<RaceResult> raceResults = new ArrayList<>();
+        for (int day = 0; day < 200; day++) {
+            if (day % 10 == 0) {
+                raceResults.add(cancelled(DAY.plusDays(day),
+                        (day % 20 == 0 ? "Weather" : "Track Condition")));
+            }
+            raceResults.add(race(DAY.plusDays(day), (day % 3 == 0), TrackCondition.GOOD, 7,
+                    (day % 2 == 0 ? "Vet" : "Stewards")));
+        }
+
+        ScratchIndex sequential = new ScratchIndex();
+        raceResults.forEach(sequential::add);
+        ScratchIndex parallel = raceResults.parallelStream().collect(ScratchIndex.collector());
+
+        Totals expected = sequential.query(new Query());
+        Totals actual = parallel.query(new Query());
+        assertThat(actual.getRaces(), equalTo(220));
+        assertThat(actual.getCancelled(), equalTo(20));
+        assertThat(actual.getCancellationRate(), closeTo(100.0 * 20 / 220, 0.0001));
+        assertThat(actual.getCancellationReasons(), equalTo(expected.getCancellationReasons()));
+        assertThat(actual.getScratchReasons(), equalTo(expected.getScratchReasons()));
+        assertThat(actual.getScratchReasons().get("Vet"), equalTo(100));
+    }
+
+    private static RaceResult race(LocalDate raceDate, boolean offTurf,
+            TrackCondition trackCondition, int starters, String... scratchReasons) {
+        DistanceSurfaceTrackRecord distanceSurfaceTrackRecord = new DistanceSurfaceTrackRecord(
+                SampleDistanceSurfaceTrackRecords.sixFurlongs(), "Dirt", offTurf);
+        distanceSurfaceTrackRecord.setTrackCondition(trackCondition);
+        List<Scratch> scratches = new ArrayList<>();
+        for (String reason : scratchReasons) {
+            scratches.add(new Scratch(new Horse("Scratched"), reason));
+        }
+        List<Starter> field = new ArrayList<>();
+        for (int program = 1; program <= starters; program++) {
+            PointOfCall finish = new PointOfCall(6, "Fin", "6f", 3960);
+            finish.setRelativePosition(new RelativePosition(program, null));
+            field.add(new Starter.Builder()
+                    .program(String.valueOf(program))
+                    .pointsOfCall(Collections.singletonList(finish))
+                    .build());
+        }
+        return new RaceResult.Builder()
+                .track(SampleTracks.getSampleTrackAraphaoe())
+                .raceDate(raceDate)
+                .raceNumber(1)
+                .distanceAndSurfaceAndTrackRecord(distanceSurfaceTrackRecord)
+                .starters(field)
+                .scratches(scratches)
+                .build();
+    }
+
+    private static RaceResult cancelled(LocalDate raceDate, String reason) {
+        return new RaceResult.Builder()
+                .cancellation(new Cancellation(reason))
+                .track(SampleTracks.getSampleTrackAraphaoe())
+                .raceDate(raceDate)
+                .raceNumber(2)
+                .starters(Collections.emptyList())
+                .build();
+    }
+}
@@ -0,0 +1,141 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.RaceDistance;
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition;
+import com.robinhowlett.data.SireStatistics.DistanceBucket;
+import com.robinhowlett.data.SireStatistics.Record;
+import com.robinhowlett.data.SireStatistics.Role;
+import com.robinhowlett.data.running_line.LastRaced;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.Assert.assertThat;
+
+public class SireStatisticsTest {
+
+    private static final LastRaced FIRST_TIME_STARTER = new LastRaced(null, null, null);
+    private static final LastRaced RACED_BEFORE =
+            new LastRaced(LocalDate.of(2016, 7, 1), 23, null);
+
+    @Test
+    public void forFeet_WithBoundaryDistances_ReturnsBucket() throws Exception {
+        assertThat(DistanceBucket.forFeet(1050), equalTo(DistanceBucket.UNDER_SIX_FURLONGS));
+        assertThat(DistanceBucket.forFeet(3960), equalTo(DistanceBucket.SIX_FURLONGS));
+        assertThat(DistanceBucket.forFeet(5280), equalTo(DistanceBucket.MILE));
+        assertThat(DistanceBucket.forFeet(5610), equalTo(DistanceBucket.MILE));
+        assertThat(DistanceBucket.forFeet(5940), equalTo(DistanceBucket.NINE_FURLONGS_AND_UP));
+        assertThat(DistanceBucket.forFeet(null), equalTo(DistanceBucket.UNKNOWN));
+    }
+
+    @Test
+    public void add_WithRaces_CountsSireAndDamSireBySurfaceAndDistance() throws Exception {
+        SireStatistics statistics = new SireStatistics();
+        statistics.add(race("Dirt", 3960, FIRST_TIME_STARTER));
+        statistics.add(race("Turf", 5280, RACED_BEFORE));
+
+        Record tapit = statistics.getRecord("TAPIT", Role.SIRE);
+        assertThat(tapit.getStarts(), equalTo(4));
+        assertThat(tapit.getWins(), equalTo(2));
+        assertThat(tapit.getInTheMoney(), equalTo(4));
+        assertThat(tapit.getFirstTimeStarts(), equalTo(2));
+        assertThat(tapit.getFirstTimeWins(), equalTo(1));
+        assertThat(tapit.getWinPercentage(), closeTo(50, 0.0001));
+
+        Record tapitOnTurf = statistics.getRecord("Tapit", Role.SIRE, "Turf", null);
+        assertThat(tapitOnTurf.getStarts(), equalTo(2));
+        assertThat(tapitOnTurf.getFirstTimeStarts(), equalTo(0));
+
+        Record tapitSprinting = statistics.getRecord("Tapit", Role.SIRE, "Dirt",
+                DistanceBucket.SIX_FURLONGS);
+        assertThat(tapitSprinting.getStarts(), equalTo(2));
+        assertThat(tapitSprinting.getFirstTimeWinPercentage(), closeTo(50, 0.0001));
+
+        // the second foal's damsire is resolved from the dam's sire
+        Record unbridled = statistics.getRecord("Unbridled", Role.DAM_SIRE);
+        assertThat(unbridled.getStarts(), equalTo(4));
+        assertThat(statistics.getRecord("Unbridled", Role.SIRE).getStarts(), equalTo(0));
+
+        assertThat(statistics.getRecord("Unknown", Role.SIRE).getWinPercentage(), equalTo(0.0));
+        assertThat(statistics.getSires(), equalTo(Arrays.asList("Tapit", "Unbridled")));
+    }
+
+    @Test
+    public void add_WithLastRacedNotParsed_DoesNotCountFirstTimeStarters() throws Exception {
+        SireStatistics statistics = new SireStatistics();
+        statistics.add(race("Dirt", 3960, null));
+
+        Record tapit = statistics.getRecord("Tapit", Role.SIRE);
+        assertThat(tapit.getStarts(), equalTo(2));
+        assertThat(tapit.getFirstTimeStarts(), equalTo(0));
+    }
+
+    @Test
+    public void collector_WithParallelStream_MergesPartitions() throws Exception {
+        List<RaceResult> raceResults = new ArrayList<>();
+        SireStatistics sequential = new SireStatistics();
+        for (int i = 0; i < 1000; i++) {
+            RaceResult raceResult = race((i % 3 == 0 ? "Turf" : "Dirt"), 3000 + (i * 5),
+                    (i % 2 == 0 ? FIRST_TIME_STARTER : RACED_BEFORE));
+            raceResults.add(raceResult);
+            sequential.add(raceResult);
+        }
+
+        SireStatistics parallel = raceResults.parallelStream()
+                .collect(SireStatistics.collector());
+
+        for (DistanceBucket bucket : DistanceBucket.values()) {
+            for (String surface : Arrays.asList("Dirt", "Turf", "Synthetic")) {
+                for (Role role : Role.values()) {
+                    assertThat(parallel.getRecord("Tapit", role, surface, bucket),
+                            equalTo(sequential.getRecord("Tapit", role, surface, bucket)));
+                    assertThat(parallel.getRecord("Unbridled", role, surface, bucket),
+                            equalTo(sequential.getRecord("Unbridled", role, surface, bucket)));
+                }
+            }
+        }
+        assertThat(parallel.getRecord("Tapit", Role.SIRE).getStarts(), equalTo(2000));
+    }
+
+    private static RaceResult race(String surface, int feet, LastRaced lastRaced) {
+        Horse first = new Horse("First Foal");
+        first.setSire(new Horse("Tapit"));
+        first.setDamSire(new Horse("Unbridled"));
+
+        Horse dam = new Horse("Second Dam");
+        dam.setSire(new Horse("Unbridled"));
+        Horse second = new Horse("Second Foal");
+        second.setSire(new Horse("Tapit"));
+        second.setDam(dam);
+
+        return new RaceResult.Builder()
+                .raceDate(LocalDate.of(2016, 7, 24))
+                .raceNumber(1)
+                .distanceAndSurfaceAndTrackRecord(new DistanceSurfaceTrackRecord(
+                        new RaceDistance(null, null, null, true, feet), surface, null, null,
+                        null))
+                .starters(Arrays.asList(
+                        starter(first, 1, lastRaced),
+                        starter(second, 2, lastRaced)))
+                .build();
+    }
+
+    private static Starter starter(Horse horse, int position, LastRaced lastRaced) {
+        PointOfCall finish = new PointOfCall(6, "Fin", null, null);
+        finish.setRelativePosition(new RelativePosition(position, null));
+        return new Starter.Builder()
+                .program(String.valueOf(position))
+                .horse(horse)
+                .lastRaced(lastRaced)
+                .pointsOfCall(Collections.singletonList(finish))
+                .build();
+    }
+}
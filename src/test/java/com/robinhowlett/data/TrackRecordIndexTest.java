@@ -0,0 +1,144 @@
+package com.robinhowlett.data;
+
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.TrackRecord;
+import com.robinhowlett.data.FractionalPoint.Fractional;
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition;
+import com.robinhowlett.data.TrackRecordIndex.CorruptSnapshotException;
+import com.robinhowlett.data.TrackRecordIndex.Key;
+import com.robinhowlett.data.TrackRecordIndex.RecordBreak;
+import com.robinhowlett.data.TrackRecordIndex.Time;
+import com.robinhowlett.data.samples.SampleDistanceSurfaceTrackRecords;
+import com.robinhowlett.data.samples.SampleTracks;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class TrackRecordIndexTest {
+
+    private static final Key ARAPAHOE_SIX_FURLONGS_DIRT = new Key("ARP", 3960, "Dirt", "Dirt");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void add_WithFasterFinalTime_FlagsAndStoresNewRecord() throws Exception {
+        TrackRecordIndex index = new TrackRecordIndex();
+
+        assertThat(index.add(race(1, "Slow Poke", 70000L)), nullValue());
+        assertThat(index.getRecord(ARAPAHOE_SIX_FURLONGS_DIRT).getMillis(), equalTo(68190L));
+
+        // equalling the record doesn't break it
+        assertThat(index.add(race(2, "Quick Step", 68190L)), nullValue());
+
+        RecordBreak recordBreak = index.add(race(3, "Lightning Bolt", 67900L));
+        assertThat(recordBreak.getKey(), equalTo(ARAPAHOE_SIX_FURLONGS_DIRT));
+        assertThat(recordBreak.getPrevious().getHolder(), equalTo(new Horse("No It Ain't")));
+        assertThat(recordBreak.getCurrent(), equalTo(new TrackRecord(
+                new Horse("Lightning Bolt"), "1:07.900", 67900L, LocalDate.of(2016, 7, 24))));
+        assertThat(recordBreak.getRaceNumber(), equalTo(3));
+        assertThat(index.getRecord(ARAPAHOE_SIX_FURLONGS_DIRT).getMillis(), equalTo(67900L));
+
+        // a later chart still listing the old record doesn't restore it
+        assertThat(index.add(race(4, "Slow Poke", 71000L)), nullValue());
+        assertThat(index.getRecord(ARAPAHOE_SIX_FURLONGS_DIRT).getMillis(), equalTo(67900L));
+    }
+
+    @Test
+    public void add_WithoutListedRecord_DoesNotFlagInferredRecordsAsBroken() throws Exception {
+        TrackRecordIndex index = new TrackRecordIndex();
+
+        assertThat(index.add(race(1, "Slow Poke", 70000L, false)), nullValue());
+        assertThat(index.add(race(2, "Quick Step", 69000L, false)), nullValue());
+        assertThat(index.getRecord(ARAPAHOE_SIX_FURLONGS_DIRT).getMillis(), equalTo(69000L));
+        assertThat(index.isRecordListed(ARAPAHOE_SIX_FURLONGS_DIRT), equalTo(false));
+
+        // once a chart lists the record, races beating the stored record are reported
+        assertThat(index.add(race(3, "Slow Poke", 70000L, true)), nullValue());
+        assertThat(index.getRecord(ARAPAHOE_SIX_FURLONGS_DIRT).getMillis(), equalTo(68190L));
+        assertThat(index.isRecordListed(ARAPAHOE_SIX_FURLONGS_DIRT), equalTo(true));
+        assertThat(index.add(race(4, "Lightning Bolt", 67900L, false)).getPrevious().getMillis(),
+                equalTo(68190L));
+    }
+
+    @Test
+    public void getFastestTimes_WithManyRaces_KeepsTheFastest() throws Exception {
+        TrackRecordIndex index = new TrackRecordIndex(3);
+        for (int raceNumber = 1; raceNumber <= 10; raceNumber++) {
+            index.add(race(raceNumber, "Horse " + raceNumber, 68000L + (raceNumber * 100)));
+        }
+
+        List<Time> fastest = index.getFastestTimes(ARAPAHOE_SIX_FURLONGS_DIRT);
+        assertThat(fastest.stream().map(Time::getMillis).collect(Collectors.toList()),
+                equalTo(Arrays.asList(68100L, 68190L, 68200L)));
+        assertThat(fastest.get(1).getHorse(), equalTo("No It Ain't"));
+        assertThat(fastest.get(1).getRaceNumber(), nullValue());
+        assertThat(index.getFastestTimes(new Key("ARP", 5280, "Dirt", "Dirt")),
+                equalTo(Collections.emptyList()));
+    }
+
+    @Test
+    public void load_WithSavedSnapshot_RestoresIndex() throws Exception {
+        TrackRecordIndex index = new TrackRecordIndex(5);
+        index.add(race(1, "Slow Poke", 70000L));
+        index.add(race(2, "Lightning Bolt", 67900L));
+        Path path = temporaryFolder.getRoot().toPath().resolve("track-records.bin");
+
+        index.save(path);
+        TrackRecordIndex loaded = TrackRecordIndex.load(path);
+
+        assertThat(loaded.getTimesPerConfiguration(), equalTo(5));
+        assertThat(loaded.getKeys(), equalTo(index.getKeys()));
+        assertThat(loaded.getRecord(ARAPAHOE_SIX_FURLONGS_DIRT),
+                equalTo(index.getRecord(ARAPAHOE_SIX_FURLONGS_DIRT)));
+        assertThat(loaded.isRecordListed(ARAPAHOE_SIX_FURLONGS_DIRT), equalTo(true));
+        assertThat(loaded.getFastestTimes(ARAPAHOE_SIX_FURLONGS_DIRT),
+                equalTo(index.getFastestTimes(ARAPAHOE_SIX_FURLONGS_DIRT)));
+    }
+
+    @Test(expected = CorruptSnapshotException.class)
+    public void readSnapshot_WithOtherData_ThrowsCorruptSnapshotException() throws Exception {
+        TrackRecordIndex.readSnapshot(new ByteArrayInputStream(new byte[16]));
+    }
+
+    private static RaceResult race(int raceNumber, String winner, long finalMillis) {
+        return race(raceNumber, winner, finalMillis, true);
+    }
+
+    private static RaceResult race(int raceNumber, String winner, long finalMillis,
+            boolean recordListed) {
+        PointOfCall finish = new PointOfCall(6, "Fin", null, null);
+        finish.setRelativePosition(new RelativePosition(1, null));
+        Starter starter = new Starter.Builder()
+                .program("1")
+                .horse(new Horse(winner))
+                .pointsOfCall(Collections.singletonList(finish))
+                .fractionals(Collections.singletonList(
+                        new Fractional(6, "Fin", "6f", 3960, finalMillis)))
+                .build();
+        return new RaceResult.Builder()
+                .track(SampleTracks.getSampleTrackAraphaoe())
+                .raceDate(LocalDate.of(2016, 7, 24))
+                .raceNumber(raceNumber)
+                .distanceAndSurfaceAndTrackRecord(recordListed ?
+                        SampleDistanceSurfaceTrackRecords.arapahoeSixFurlongs() :
+                        new DistanceSurfaceTrackRecord(
+                                SampleDistanceSurfaceTrackRecords.sixFurlongs(), "Dirt", null,
+                                null, null))
+                .starters(Collections.singletonList(starter))
+                .build();
+    }
+}
@@ -0,0 +1,135 @@
+package com.robinhowlett.data.ratings;
+
+import com.robinhowlett.data.DistanceSurfaceTrackRecord;
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.RaceDistance;
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.TrackCondition;
+import com.robinhowlett.data.FractionalPoint.Fractional;
+import com.robinhowlett.data.Horse;
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Starter;
+import com.robinhowlett.data.ratings.TrackBias.RunningStyle;
+import com.robinhowlett.data.samples.SampleDistanceSurfaceTrackRecords;
+import com.robinhowlett.data.samples.SampleTracks;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class CardAnalyzerTest {
+
+    private static final LocalDate RACE_DATE = LocalDate.of(2016, 7, 24);
+
+    @Test
+    public void analyzeCard_WithInsideSpeedBias_CountsPostsStylesAndVariants() throws Exception {
+        List<RaceResult> card = Arrays.asList(
+                race(RACE_DATE, 1, dirt(), 69554L),
+                race(RACE_DATE, 2, dirt(), 68872L),
+                race(RACE_DATE, 3, dirt(), 70236L),
+                race(RACE_DATE, 4, firmTurf(), 70000L));
+
+        List<TrackBias> biases = new CardAnalyzer().analyzeCard(card);
+
+        assertThat(biases.size(), equalTo(2));
+        TrackBias dirt = biases.get(0);
+        assertThat(dirt.getTrack(), equalTo("ARP"));
+        assertThat(dirt.getSurface(), equalTo("Dirt"));
+        assertThat(dirt.getRaces(), equalTo(3));
+        assertThat(dirt.getPostStarts(1), equalTo(3));
+        assertThat(dirt.getPostWins(1), equalTo(3));
+        assertThat(dirt.getPostImpactValue(1), closeTo(4, 0.0001));
+        assertThat(dirt.getPostImpactValue(4), closeTo(0, 0.0001));
+        assertTrue(Double.isNaN(dirt.getPostImpactValue(TrackBias.MAX_POST)));
+        assertThat(dirt.getStyleStarts(RunningStyle.LEADER), equalTo(3));
+        assertThat(dirt.getStyleImpactValue(RunningStyle.LEADER), closeTo(4, 0.0001));
+        assertThat(dirt.getStyleStarts(RunningStyle.PRESSER), equalTo(6));
+        assertThat(dirt.getStyleStarts(RunningStyle.CLOSER), equalTo(3));
+        // winners 1%, 2%, and 3% slower than the track record, and 7 points faster than par
+        assertThat(dirt.getRecordVariant(), equalTo(2.0));
+        assertThat(dirt.getParVariant(), equalTo(7.0));
+
+        TrackBias turf = biases.get(1);
+        assertThat(turf.getTrackCondition(), equalTo(TrackCondition.FIRM));
+        assertThat(turf.getRaces(), equalTo(1));
+        assertThat(turf.getRecordVariant(), equalTo(null));
+        assertThat(turf.getParVariant(), equalTo(null));
+    }
+
+    @Test
+    public void analyze_WithSeason_BuildsOrderedTableWithTotals() throws Exception {
+        List<RaceResult> season = new ArrayList<>();
+        for (int day = 30; day >= 0; day--) {
+            for (int raceNumber = 1; raceNumber <= 4; raceNumber++) {
+                season.add(race(RACE_DATE.plusDays(day), raceNumber,
+                        (raceNumber == 4 ? firmTurf() : dirt()), 70000L));
+            }
+        }
+
+        BiasTable table = new CardAnalyzer().analyze(season);
+
+        assertThat(table.size(), equalTo(62));
+        assertThat(table.getRows().get(0).getRaceDate(), equalTo(RACE_DATE));
+        assertThat(table.getRows().get(61).getRaceDate(), equalTo(RACE_DATE.plusDays(30)));
+
+        TrackBias dirt = table.total(row -> "Dirt".equals(row.getSurface()));
+        assertThat(dirt.getTrack(), equalTo("ARP"));
+        assertThat(dirt.getRaceDate(), equalTo(null));
+        assertThat(dirt.getTrackCondition(), equalTo(null));
+        assertThat(dirt.getRaces(), equalTo(93));
+        assertThat(dirt.getPostWins(1), equalTo(93));
+        assertThat(dirt.getParVariant(), equalTo(null));
+
+        assertThat(table.total(row -> true).getSurface(), equalTo(null));
+        assertThat(table.total(row -> true).getRaces(), equalTo(124));
+    }
+
+    private static DistanceSurfaceTrackRecord dirt() {
+        return SampleDistanceSurfaceTrackRecords.arapahoeSixFurlongs();
+    }
+
+    private static DistanceSurfaceTrackRecord firmTurf() {
+        DistanceSurfaceTrackRecord turf = new DistanceSurfaceTrackRecord(
+                SampleDistanceSurfaceTrackRecords.sixFurlongs(), "Turf", null, null, null);
+        turf.setTrackCondition(TrackCondition.FIRM);
+        return turf;
+    }
+
+    // four starters, with the inside horse leading at the first call and winning
+    private static RaceResult race(LocalDate raceDate, int raceNumber,
+            DistanceSurfaceTrackRecord distanceSurfaceTrackRecord, long finalMillis) {
+        List<Starter> starters = new ArrayList<>();
+        for (int post = 1; post <= 4; post++) {
+            PointOfCall start = new PointOfCall(1, "Start", null, null);
+            start.setRelativePosition(new RelativePosition(post, null));
+            PointOfCall firstCall = new PointOfCall(2, "1/4", "1/4m", 1320);
+            firstCall.setRelativePosition(new RelativePosition(Math.min(post, 3) +
+                    (post == 4 ? 1 : 0), null));
+            PointOfCall finish = new PointOfCall(6, "Fin", "6f", 3960);
+            finish.setRelativePosition(new RelativePosition(post, null));
+            starters.add(new Starter.Builder()
+                    .program(String.valueOf(post))
+                    .horse(new Horse("Horse " + post))
+                    .postPosition(post)
+                    .pointsOfCall(Arrays.asList(start, firstCall, finish))
+                    .fractionals(Arrays.asList(new Fractional(6, "Fin", "6f", 3960,
+                            finalMillis + ((post - 1) * 200L))))
+                    .build());
+        }
+        return new RaceResult.Builder()
+                .track(SampleTracks.getSampleTrackAraphaoe())
+                .raceDate(raceDate)
+                .raceNumber(raceNumber)
+                .distanceAndSurfaceAndTrackRecord(distanceSurfaceTrackRecord)
+                .starters(starters)
+                .build();
+    }
+}
@@ -0,0 +1,141 @@
+package com.robinhowlett.data.ratings;
+
+import com.robinhowlett.data.DistanceSurfaceTrackRecord;
+import com.robinhowlett.data.DistanceSurfaceTrackRecord.RaceDistance;
+import com.robinhowlett.data.FractionalPoint.Fractional;
+import com.robinhowlett.data.Horse;
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Rating;
+import com.robinhowlett.data.Starter;
+import com.robinhowlett.data.Track;
+import com.robinhowlett.data.samples.SampleTracks;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class RatingPipelineTest {
+
+    private static final LocalDate RACE_DATE = LocalDate.of(2016, 7, 24);
+
+    @Test
+    public void rateCard_WithFastDirt_SubtractsVariantFromEveryFigure() throws Exception {
+        Track track = SampleTracks.getSampleTrackAraphaoe();
+        List<RaceResult> card = Arrays.asList(
+                race(track, 1, "Dirt", 69000L, 69400L),
+                race(track, 2, "Dirt", 69400L, 70000L),
+                race(track, 3, "Dirt", 68600L, 70600L),
+                race(track, 4, "Turf", 70000L, 71000L));
+
+        new RatingPipeline(Arrays.asList(new SpeedFigureCalculator())).rateCard(card);
+
+        // winners of 115, 109, and 121 before the variant
+        assertThat(card.get(0).getRatings(), equalTo(Arrays.asList(
+                new Rating("Speed Figure Variant", "+15", 15.0, null))));
+        Starter winner = card.get(0).getStarters().get(0);
+        assertThat(winner.getRatings(), equalTo(Arrays.asList(
+                new Rating("Speed Figure", "100", 100.0, "Variant +15"))));
+        assertThat(figure(card.get(0).getStarters().get(1)), equalTo(94.0));
+        assertThat(figure(card.get(2).getStarters().get(0)), equalTo(106.0));
+
+        // a single turf race is too few to derive a variant from
+        assertThat(card.get(3).getRatings().isEmpty(), equalTo(true));
+        assertThat(figure(card.get(3).getStarters().get(0)), equalTo(100.0));
+        assertThat(figure(card.get(3).getStarters().get(1)), equalTo(85.0));
+    }
+
+    @Test
+    public void rate_WithSeveralCards_DerivesVariantsPerCardAndReplacesOldRatings()
+            throws Exception {
+        Track other = SampleTracks.getSampleTrackAraphaoe();
+        other.setCode("DMR");
+        List<RaceResult> raceResults = new ArrayList<>();
+        for (int raceNumber = 1; raceNumber <= 3; raceNumber++) {
+            raceResults.add(race(SampleTracks.getSampleTrackAraphaoe(), raceNumber, "Dirt",
+                    70000L, 71000L));
+            raceResults.add(race(other, raceNumber, "Dirt", 71000L, 72000L));
+        }
+        RatingPipeline pipeline = RatingPipeline.installed();
+        assertThat(pipeline.getCalculators().stream().map(RatingCalculator::getName)
+                .collect(Collectors.toList()), equalTo(Arrays.asList(
+                SpeedFigureCalculator.NAME, PaceFigureCalculator.NAME)));
+
+        pipeline.rate(raceResults);
+        pipeline.rate(raceResults);
+
+        for (RaceResult raceResult : raceResults) {
+            Starter winner = raceResult.getStarters().get(0);
+            assertThat(winner.getRatings().size(), equalTo(2));
+            assertThat(figure(winner), equalTo(100.0));
+            assertThat(pace(winner), equalTo(100.0));
+            assertThat(figure(raceResult.getStarters().get(1)), equalTo(85.0));
+        }
+        assertThat(raceResults.get(0).getRatings().isEmpty(), equalTo(true));
+        assertThat(raceResults.get(1).getRatings().get(0).getValue(), equalTo(-15.0));
+    }
+
+    @Test
+    public void rate_WithoutFinalTime_ReturnsNull() throws Exception {
+        Starter starter = new Starter.Builder().program("1").horse(new Horse("No Time")).build();
+        RaceResult raceResult = race(SampleTracks.getSampleTrackAraphaoe(), 1, "Dirt", 70000L,
+                71000L);
+
+        assertThat(new SpeedFigureCalculator().rate(raceResult, starter, TrackVariants.none()),
+                nullValue());
+        assertThat(new PaceFigureCalculator().rate(raceResult, starter, TrackVariants.none()),
+                nullValue());
+    }
+
+    private static Double figure(Starter starter) {
+        return rating(starter, SpeedFigureCalculator.NAME);
+    }
+
+    private static Double pace(Starter starter) {
+        return rating(starter, PaceFigureCalculator.NAME);
+    }
+
+    private static Double rating(Starter starter, String name) {
+        return starter.getRatings().stream().filter(rating -> rating.getName().equals(name))
+                .findFirst().map(Rating::getValue).orElse(null);
+    }
+
+    // six furlongs, with a half-mile run at par in 44.546 seconds
+    private static RaceResult race(Track track, int raceNumber, String surface,
+            long winnerMillis, long secondMillis) {
+        return new RaceResult.Builder()
+                .track(track)
+                .raceDate(RACE_DATE)
+                .raceNumber(raceNumber)
+                .distanceAndSurfaceAndTrackRecord(new DistanceSurfaceTrackRecord(
+                        new RaceDistance("Six Furlongs", "6 Furlongs", "6f", true, 3960), surface,
+                        null, null, null))
+                .starters(Arrays.asList(
+                        starter(1, 44546L + (winnerMillis - 70000L), winnerMillis),
+                        starter(2, 44546L + (secondMillis - 70000L), secondMillis)))
+                .build();
+    }
+
+    private static Starter starter(int position, long halfMillis, long finishMillis) {
+        PointOfCall finish = new PointOfCall(6, "Fin", null, null);
+        finish.setRelativePosition(new RelativePosition(position, null));
+        return new Starter.Builder()
+                .program(String.valueOf(position))
+                .horse(new Horse("Horse " + position))
+                .pointsOfCall(Arrays.asList(finish))
+                .fractionals(Arrays.asList(
+                        new Fractional(1, "1/4", "1/4m", 1320, 22000L),
+                        new Fractional(2, "1/2", "1/2m", 2640, halfMillis),
+                        new Fractional(6, "Fin", "6f", 3960, finishMillis)))
+                .build();
+    }
+}
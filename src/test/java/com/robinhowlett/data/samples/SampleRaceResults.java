@@ -1,6 +1,28 @@
 package com.robinhowlett.data.samples;
 
+import com.robinhowlett.data.FractionalPoint.Fractional;
+import com.robinhowlett.data.Horse;
+import com.robinhowlett.data.Jockey;
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition.LengthsAhead;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition.TotalLengthsBehind;
 import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Starter;
+import com.robinhowlett.data.Trainer;
+import com.robinhowlett.data.running_line.Odds;
+import com.robinhowlett.data.wagering.WagerPayoffPools;
+import com.robinhowlett.data.wagering.WagerPayoffPools.ExoticPayoffPool;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WagerNameUnit;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WinPlaceShowPayoffPool;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WinPlaceShowPayoffPool.WinPlaceShowPayoff;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WinningNumbersPayoff;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public class SampleRaceResults {
 
@@ -14,4 +36,72 @@ public class SampleRaceResults {
         RaceResult.Builder builder = new RaceResult.Builder();
         return builder.build();
     }
+
+    public static RaceResult twoStarterQuarterHorseRace() {
+        List<Starter> starters = new ArrayList<>();
+        starters.add(starter("1", "Perkin Desire", new Trainer("Judd", "Kearl"), 0.9, 1,
+                new RelativePosition(1, new LengthsAhead("1 3/4", 1.75)), 18015L));
+        RelativePosition second = new RelativePosition(2, new LengthsAhead("1/2", 0.5));
+        second.setTotalLengthsBehind(new TotalLengthsBehind("1 3/4", 1.75));
+        starters.add(starter("2", "Ima Cutie Patutie", null, 3.2, 2, second, 18317L));
+
+        List<WinPlaceShowPayoff> winPlaceShowPayoffs = Arrays.asList(
+                new WinPlaceShowPayoff("1", new Horse("Perkin Desire"), 3.8, 2.8, 2.4),
+                new WinPlaceShowPayoff("2", new Horse("Ima Cutie Patutie"), null, 3.6, 2.2));
+        List<ExoticPayoffPool> exoticPayoffPools = Collections.singletonList(
+                new ExoticPayoffPool(new WagerNameUnit(2.0, "Exacta"),
+                        new WinningNumbersPayoff("1-2", null, 6.8), 1542d, null));
+
+        RaceResult.Builder builder = new RaceResult.Builder();
+        builder.track(SampleTracks.getSampleTrackAraphaoe())
+                .raceDate(LocalDate.of(2016, 7, 24))
+                .raceNumber(1)
+                .distanceAndSurfaceAndTrackRecord(
+                        SampleDistanceSurfaceTrackRecords.arapahoeSixFurlongs())
+                .starters(starters)
+                .wagerPoolsAndPayoffs(new WagerPayoffPools(
+                        new WinPlaceShowPayoffPool(2416, winPlaceShowPayoffs),
+                        exoticPayoffPools));
+        return builder.build();
+    }
+
+    /**
+     * A two-starter race on the same card as {@link #twoStarterQuarterHorseRace()}, optionally
+     * with a dead heat for the win
+     */
+    public static RaceResult twoStarterQuarterHorseRace(int raceNumber, String first,
+            String second, boolean deadHeat, ExoticPayoffPool... exoticPayoffPools) {
+        List<Starter> starters = new ArrayList<>();
+        starters.add(starter(first, "Horse " + first, null, 1.5, 1,
+                new RelativePosition(1, null), 18015L));
+        starters.add(starter(second, "Horse " + second, null, 2.5, 2,
+                new RelativePosition((deadHeat ? 1 : 2), null), 18015L));
+
+        RaceResult.Builder builder = new RaceResult.Builder();
+        builder.track(SampleTracks.getSampleTrackAraphaoe())
+                .raceDate(LocalDate.of(2016, 7, 24))
+                .raceNumber(raceNumber)
+                .starters(starters)
+                .wagerPoolsAndPayoffs(new WagerPayoffPools(null,
+                        Arrays.asList(exoticPayoffPools)));
+        return builder.build();
+    }
+
+    private static Starter starter(String program, String horse, Trainer trainer, double odds,
+            int postPosition, RelativePosition finish, long finishMillis) {
+        PointOfCall start = new PointOfCall(1, "Start", null, null);
+        start.setRelativePosition(new RelativePosition(postPosition, null));
+        PointOfCall fin = new PointOfCall(6, "Fin", "350y", 1050);
+        fin.setRelativePosition(finish);
+
+        Starter.Builder builder = new Starter.Builder();
+        builder.program(program).horse(new Horse(horse)).jockey(new Jockey("Ramiro", "Garcia"))
+                .trainer(trainer)
+                .odds(new Odds(odds, (odds < 1)))
+                .postPosition(postPosition)
+                .pointsOfCall(Arrays.asList(start, fin))
+                .fractionals(Collections.singletonList(
+                        new Fractional(6, "Fin", "350y", 1050, finishMillis)));
+        return builder.build();
+    }
 }
@@ -0,0 +1,104 @@
+package com.robinhowlett.data.search;
+
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Starter;
+import com.robinhowlett.data.search.ChartTextIndex.Hit;
+import com.robinhowlett.data.search.ChartTextIndex.Key;
+import com.robinhowlett.data.samples.SampleTracks;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.robinhowlett.data.search.TextQuery.and;
+import static com.robinhowlett.data.search.TextQuery.not;
+import static com.robinhowlett.data.search.TextQuery.or;
+import static com.robinhowlett.data.search.TextQuery.phrase;
+import static com.robinhowlett.data.search.TextQuery.term;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class ChartTextIndexTest {
+
+    private static final LocalDate RACE_DATE = LocalDate.of(2016, 7, 24);
+
+    @Test
+    public void tokenize_WithChartCallerText_SplitsIntoLowerCaseTokens() throws Exception {
+        assertThat(ChartTextIndex.tokenize("Bumped start, 4-5 wide into lane; STEADIED 1/4."),
+                equalTo(Arrays.asList("bumped", "start", "4", "5", "wide", "into", "lane",
+                        "steadied", "1", "4")));
+        assertThat(ChartTextIndex.tokenize(null).isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void search_WithPhraseAndBooleanQueries_ReturnsMatchingComments() throws Exception {
+        ChartTextIndex index = new ChartTextIndex();
+        index.add(race(1, "RIDER WON'T BE HELD 4 WIDE INTO LANE.",
+                "bumped start, 4 wide into lane", "rail trip, drew clear", "wide 4 turn"));
+        index.add(race(2, null, "steadied 3/8, 4 wide", "bumped start", ""));
+
+        assertThat(index.add(race(1, "again", "again", "again", "again")), equalTo(false));
+        assertThat(index.getRaces(), equalTo(2));
+        assertThat(index.getDocuments(), equalTo(6));
+        assertThat(index.getDocumentFrequency("Bumped"), equalTo(2));
+
+        assertThat(index.search(phrase("4 wide into lane")), equalTo(Arrays.asList(
+                new Hit(race(1), null), new Hit(race(1), "1"))));
+        assertThat(index.search(phrase("4 wide")).size(), equalTo(3));
+        assertThat(index.search(and(term("bumped"), not(phrase("into lane")))),
+                equalTo(Arrays.asList(new Hit(race(2), "2"))));
+        assertThat(index.search(or(term("steadied"), term("RAIL"))), equalTo(Arrays.asList(
+                new Hit(race(1), "2"), new Hit(race(2), "1"))));
+        assertThat(index.search(phrase("wide 4 wide")).isEmpty(), equalTo(true));
+        assertThat(index.search(term("lugged")).isEmpty(), equalTo(true));
+        assertThat(index.search(not(term("wide"))).size(), equalTo(2));
+    }
+
+    @Test
+    public void search_WithManyRaces_DecodesMultiByteGaps() throws Exception {
+        ChartTextIndex index = new ChartTextIndex();
+        for (int raceNumber = 1; raceNumber <= 2000; raceNumber++) {
+            String comment = (raceNumber % 500 == 0 ? "lost rider" : "no factor");
+            index.add(race(raceNumber, null, comment));
+        }
+
+        List<Hit> hits = index.search(phrase("lost rider"));
+
+        assertThat(hits.size(), equalTo(4));
+        assertThat(hits.get(3).getRace().getRaceNumber(), equalTo(2000));
+        assertThat(index.search(and(term("no"), term("factor"))).size(), equalTo(1996));
+        // a byte each for the document gap, count, and position, except for the two-byte gaps of
+        // 500 documents between the "lost rider" comments
+        assertThat(index.getPostingBytes(), equalTo((1996L * 2 * 3) + (4 * 2 * 4)));
+    }
+
+    private static Key race(int raceNumber) {
+        return new Key("ARP", RACE_DATE, raceNumber);
+    }
+
+    private static RaceResult race(int raceNumber, String footnotes, String... comments) {
+        List<Starter> starters = new ArrayList<>();
+        for (int i = 0; i < comments.length; i++) {
+            PointOfCall finish = new PointOfCall(6, "Fin", "6f", 3960);
+            finish.setRelativePosition(new RelativePosition(i + 1, null));
+            starters.add(new Starter.Builder()
+                    .program(String.valueOf(i + 1))
+                    .comments(comments[i])
+                    .pointsOfCall(Collections.singletonList(finish))
+                    .build());
+        }
+        return new RaceResult.Builder()
+                .track(SampleTracks.getSampleTrackAraphaoe())
+                .raceDate(RACE_DATE)
+                .raceNumber(raceNumber)
+                .starters(starters)
+                .footnotes(footnotes)
+                .build();
+    }
+}
@@ -0,0 +1,141 @@
+package com.robinhowlett.data.search;
+
+import com.robinhowlett.data.Horse;
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.Starter;
+import com.robinhowlett.data.samples.SampleTracks;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class TroubleLineExtractorTest {
+
+    private final TroubleLineExtractor extractor = new TroubleLineExtractor();
+
+    @Test
+    public void troubleOf_WithOverlappingPhrases_MatchesWholeWordsOnly() throws Exception {
+        assertThat(Trouble.fromMask(extractor.troubleOf("Bumped start, STEADIED 3/8, 4-5w")),
+                equalTo(EnumSet.of(Trouble.BUMPED, Trouble.STEADIED, Trouble.WIDE)));
+        // "3 wide" is not a wide trip, and its "wide" is not matched on its own
+        assertThat(extractor.troubleOf("saved ground, 3 wide turn"), equalTo(0));
+        assertThat(extractor.troubleOf("released, unchecked"), equalTo(0));
+        assertThat(Trouble.fromMask(extractor.troubleOf("boxed\nin lane")),
+                equalTo(EnumSet.of(Trouble.BLOCKED)));
+    }
+
+    @Test
+    public void extract_WithCommentsAndFootnotes_SetsTroubleMasksAndWidths() throws Exception {
+        RaceResult raceResult = race(
+                "BIG HORSE was bumped at the start. Raced three wide on the far turn and four " +
+                        "wide into the lane. LATE BLOOMER checked in tight.",
+                "4w 1/4, 5w lane", "rail trip, steadied far turn", null);
+
+        extractor.extract(Arrays.asList(raceResult));
+
+        Starter first = raceResult.getStarters().get(0);
+        assertThat(Trouble.fromMask(first.getTrouble()), equalTo(EnumSet.of(Trouble.WIDE)));
+        assertThat(wide(first, "1/4"), equalTo(4));
+        assertThat(wide(first, "1/2"), nullValue());
+        assertThat(wide(first, "Str"), equalTo(5));
+
+        Starter second = raceResult.getStarters().get(1);
+        assertThat(Trouble.fromMask(second.getTrouble()),
+                equalTo(EnumSet.of(Trouble.STEADIED, Trouble.CHECKED, Trouble.BLOCKED)));
+        assertThat(wide(second, "3/4"), nullValue());
+
+        Starter third = raceResult.getStarters().get(2);
+        assertThat(Trouble.fromMask(third.getTrouble()),
+                equalTo(EnumSet.of(Trouble.BUMPED, Trouble.WIDE)));
+        assertThat(wide(third, "3/4"), equalTo(3));
+        assertThat(wide(third, "Str"), equalTo(4));
+    }
+
+    @Test
+    public void extract_WithNamesWithinOtherWordsAndNames_MatchesWholeNames() throws Exception {
+        String[] horses = {"Ace", "Big Horse", "Tizzy", "Tizzy Lady"};
+        RaceResult raceResult = raceWithHorses(horses,
+                "Outpaced early, BIG HORSE was bumped and steadied. TIZZY LADY checked. " +
+                        "Tizzy's rider lost ground.", null, null, null, null);
+
+        extractor.extract(raceResult);
+
+        List<Starter> starters = raceResult.getStarters();
+        assertThat(starters.get(0).getTrouble(), equalTo(0));
+        assertThat(Trouble.fromMask(starters.get(1).getTrouble()),
+                equalTo(EnumSet.of(Trouble.BUMPED, Trouble.STEADIED)));
+        assertThat(Trouble.fromMask(starters.get(2).getTrouble()),
+                equalTo(EnumSet.of(Trouble.WIDE)));
+        assertThat(Trouble.fromMask(starters.get(3).getTrouble()),
+                equalTo(EnumSet.of(Trouble.CHECKED)));
+    }
+
+    @Test
+    public void extract_WithCustomLexicon_UsesOnlyItsPhrases() throws Exception {
+        TroubleLineExtractor custom = new TroubleLineExtractor(new TroubleLexicon()
+                .trouble(Trouble.LUGGED, "lugged in", "ducked in")
+                .width(6, "6p")
+                .call(TroubleLexicon.Call.BACKSTRETCH, "backstretch"));
+        RaceResult raceResult = race(null, "ducked in, 6p backstretch, steadied", null, null);
+
+        custom.extract(raceResult);
+
+        Starter first = raceResult.getStarters().get(0);
+        assertThat(Trouble.fromMask(first.getTrouble()),
+                equalTo(EnumSet.of(Trouble.LUGGED, Trouble.WIDE)));
+        assertThat(wide(first, "1/2"), equalTo(6));
+        assertThat(raceResult.getStarters().get(1).getTrouble(), equalTo(0));
+    }
+
+    private static Integer wide(Starter starter, String call) {
+        for (PointOfCall pointOfCall : starter.getPointsOfCall()) {
+            if (pointOfCall.getText().equals(call)) {
+                return pointOfCall.getRelativePosition().getWide();
+            }
+        }
+        throw new IllegalArgumentException(call);
+    }
+
+    // a route, with points of call at the 1/4, 1/2, 3/4, stretch, and finish
+    private static RaceResult race(String footnotes, String... comments) {
+        return raceWithHorses(new String[]{"Front Runner", "Late Bloomer", "Big Horse"},
+                footnotes, comments);
+    }
+
+    private static RaceResult raceWithHorses(String[] horses, String footnotes,
+            String... comments) {
+        List<Starter> starters = new ArrayList<>();
+        for (int i = 0; i < comments.length; i++) {
+            List<PointOfCall> pointsOfCall = new ArrayList<>();
+            String[] calls = {"Start", "1/4", "1/2", "3/4", "Str", "Fin"};
+            for (int call = 0; call < calls.length; call++) {
+                PointOfCall pointOfCall = new PointOfCall(call + 1, calls[call], null, null);
+                pointOfCall.setRelativePosition(new RelativePosition(i + 1, null));
+                pointsOfCall.add(pointOfCall);
+            }
+            starters.add(new Starter.Builder()
+                    .program(String.valueOf(i + 1))
+                    .horse(new Horse(horses[i]))
+                    .comments(comments[i])
+                    .pointsOfCall(pointsOfCall)
+                    .build());
+        }
+        return new RaceResult.Builder()
+                .track(SampleTracks.getSampleTrackAraphaoe())
+                .raceDate(LocalDate.of(2016, 7, 24))
+                .raceNumber(1)
+                .starters(starters)
+                .footnotes(footnotes)
+                .build();
+    }
+}
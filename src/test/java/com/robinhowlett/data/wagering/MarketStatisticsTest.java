@@ -0,0 +1,131 @@
+package com.robinhowlett.data.wagering;
+
+import com.robinhowlett.data.Breed;
+import com.robinhowlett.data.Horse;
+import com.robinhowlett.data.PointsOfCall.PointOfCall;
+import com.robinhowlett.data.PointsOfCall.PointOfCall.RelativePosition;
+import com.robinhowlett.data.RaceConditions;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.RaceTypeNameBlackTypeBreed;
+import com.robinhowlett.data.Starter;
+import com.robinhowlett.data.running_line.Odds;
+import com.robinhowlett.data.samples.SampleTracks;
+import com.robinhowlett.data.wagering.MarketStatistics.Query;
+import com.robinhowlett.data.wagering.MarketStatistics.Totals;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class MarketStatisticsTest {
+
+    @Test
+    public void of_WithCoupledEntry_CountsOneBettingInterestPerEntry() throws Exception {
+        RaceResult raceResult = race(1, "CLM", new String[]{"1", "1A", "2", "3"},
+                new double[]{1, 1, 3, 4}, "2");
+
+        RaceMarket market = RaceMarket.of(raceResult);
+
+        assertThat(market.size(), equalTo(3));
+        assertThat(market.getFavorite(), equalTo(0));
+        assertThat(market.isWinner(1), equalTo(true));
+        assertThat(market.getImpliedProbability(0), closeTo(0.5, 0.0001));
+        // 1/2 + 1/4 + 1/5
+        assertThat(market.getOverround(), closeTo(-0.05, 0.0001));
+        assertThat(market.getNormalizedProbability(2), closeTo(0.2 / 0.95, 0.0001));
+    }
+
+    @Test
+    public void of_WithOneBettingInterest_ReturnsNull() throws Exception {
+        RaceResult raceResult = race(1, "CLM", new String[]{"1", "1A"}, new double[]{1, 1}, "1");
+
+        assertThat(RaceMarket.of(raceResult), nullValue());
+    }
+
+    @Test
+    public void oddsRange_WithRangeBoundaries_ReturnsRangeIndex() throws Exception {
+        assertThat(MarketStatistics.oddsRange(0.4), equalTo(0));
+        assertThat(MarketStatistics.oddsRange(1), equalTo(1));
+        assertThat(MarketStatistics.oddsRange(4.9), equalTo(3));
+        assertThat(MarketStatistics.oddsRange(99), equalTo(7));
+    }
+
+    @Test
+    public void query_WithStatisticsCollectedInParallel_MatchesSequentialTotals()
+            throws Exception {
+        List<RaceResult> raceResults = new ArrayList<>();
+        for (int raceNumber = 1; raceNumber <= 60; raceNumber++) {
+            String winner = (raceNumber % 3 == 0 ? "3" : "1");
+            if (raceNumber % 2 == 0) {
+                raceResults.add(race(raceNumber, "CLM", new String[]{"1", "2", "3"},
+                        new double[]{0.8, 2.5, 9}, winner));
+            } else {
+                raceResults.add(race(raceNumber, "AOC", new String[]{"1", "2", "3", "4"},
+                        new double[]{1.2, 2, 6, 25}, winner));
+            }
+        }
+
+        MarketStatistics sequential = new MarketStatistics();
+        raceResults.forEach(sequential::add);
+        MarketStatistics parallel = raceResults.parallelStream()
+                .collect(MarketStatistics.collector());
+
+        assertThat(parallel.getGroups(), equalTo(2));
+        Totals all = parallel.query(new Query());
+        Totals expected = sequential.query(new Query());
+        assertThat(all.getRaces(), equalTo(60));
+        assertThat(all.getFavoriteWins(), equalTo(expected.getFavoriteWins()));
+        assertThat(all.getMeanOverround(), closeTo(expected.getMeanOverround(), 1e-9));
+        for (int range = 0; range < MarketStatistics.ODDS_RANGES.length; range++) {
+            assertThat(all.getStarts(range), equalTo(expected.getStarts(range)));
+            assertThat(all.getExpectedWins(range), closeTo(expected.getExpectedWins(range), 1e-9));
+        }
+
+        Totals claiming = parallel.query(new Query().track("ARP").raceType("CLM").fieldSize(3));
+        assertThat(claiming.getRaces(), equalTo(30));
+        // the 4-5 favorite won 20 of 30 races, and the 9-1 shot won the other 10
+        assertThat(claiming.getFavoriteWins(), equalTo(20));
+        assertThat(claiming.getFavoriteWinPercentage(), closeTo(66.6667, 0.0001));
+        assertThat(claiming.getStarts(MarketStatistics.oddsRange(9)), equalTo(30));
+        assertThat(claiming.getReturnOnInvestment(MarketStatistics.oddsRange(9)),
+                closeTo(((10 * 10.0) - 30) / 30 * 100, 0.0001));
+        assertTrue(Double.isNaN(claiming.getImpactValue(MarketStatistics.oddsRange(30))));
+
+        assertThat(parallel.query(new Query().fieldSizes(4, 14)).getRaces(), equalTo(30));
+        assertThat(parallel.query(new Query().track("AQU")).getRaces(), equalTo(0));
+    }
+
+    private static RaceResult race(int raceNumber, String raceType, String[] programs,
+            double[] odds, String winner) {
+        List<Starter> starters = new ArrayList<>();
+        for (int i = 0; i < programs.length; i++) {
+            PointOfCall finish = new PointOfCall(6, "Fin", "6f", 3960);
+            finish.setRelativePosition(new RelativePosition(
+                    (programs[i].equals(winner) ? 1 : i + 2), null));
+            starters.add(new Starter.Builder()
+                    .program(programs[i])
+                    .horse(new Horse("Horse " + programs[i]))
+                    .odds(new Odds(odds[i], false))
+                    .pointsOfCall(Collections.singletonList(finish))
+                    .build());
+        }
+        return new RaceResult.Builder()
+                .track(SampleTracks.getSampleTrackAraphaoe())
+                .raceDate(LocalDate.of(2016, 7, 24))
+                .raceNumber(raceNumber)
+                .raceConditionsAndClaimingPricesRange(new RaceConditions(null, null, null))
+                .raceTypeAndRaceNameAndBlackTypeAndBreed(new RaceTypeNameBlackTypeBreed(null,
+                        raceType, null, null, null, Breed.THOROUGHBRED))
+                .starters(starters)
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.robinhowlett.data.wagering;
+
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.samples.SampleRaceResults;
+import com.robinhowlett.data.wagering.MultiRaceWagerIndex.MultiRaceWager;
+import com.robinhowlett.data.wagering.WagerPayoffPools.ExoticPayoffPool;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static com.robinhowlett.data.wagering.ExoticTicket.mask;
+import static com.robinhowlett.data.wagering.ExoticType.DAILY_DOUBLE;
+import static com.robinhowlett.data.wagering.ExoticType.PICK_3;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class MultiRaceWagerIndexTest {
+
+    @Test
+    public void getWagers_WithDailyDoubleListedInSecondRace_SpansFirstTwoRaces()
+            throws Exception {
+        MultiRaceWagerIndex index = new MultiRaceWagerIndex(card());
+
+        MultiRaceWager dailyDouble = index.getWagers(DAILY_DOUBLE).get(0);
+        assertThat(dailyDouble.getLegRaces(), equalTo(new int[]{1, 2}));
+        assertThat(dailyDouble.getWinners().getWinners(0), equalTo(mask(1)));
+        // dead heat for the win in the second race
+        assertThat(dailyDouble.getWinners().getWinners(1), equalTo(mask(3, 4)));
+        assertTrue(dailyDouble.isWinner(ExoticTicket.straight(DAILY_DOUBLE, 1, 4)));
+        assertFalse(dailyDouble.isWinner(ExoticTicket.straight(DAILY_DOUBLE, 2, 4)));
+    }
+
+    @Test
+    public void getWagers_WithRacesInWagerName_UsesNamedRaces() throws Exception {
+        MultiRaceWagerIndex index = new MultiRaceWagerIndex(card());
+
+        MultiRaceWager pick3 = index.getWagers(PICK_3).get(0);
+        assertThat(pick3.getLegRaces(), equalTo(new int[]{1, 2, 3}));
+        assertThat(pick3.getLeg(3), equalTo(2));
+        assertThat(index.getWagersIncluding(3).size(), equalTo(1));
+        assertThat(index.getWagersIncluding(2).size(), equalTo(2));
+        // the third race is not on the card, so its charted winner is used
+        assertThat(pick3.getWinners().getWinners(2), equalTo(mask(6)));
+    }
+
+    @Test
+    public void evaluate_WithLargeTicketBatch_FlagsEveryWinningTicket() throws Exception {
+        MultiRaceWagerIndex index = new MultiRaceWagerIndex(card());
+        MultiRaceWager pick3 = index.getWagers(PICK_3).get(0);
+
+        List<ExoticTicket> tickets = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            tickets.add(ExoticTicket.of(PICK_3, mask(1 + (i % 3)), mask(3, 4), mask(1 + (i % 7))));
+        }
+        BitSet winners = index.evaluate(pick3, tickets);
+
+        for (int i = 0; i < tickets.size(); i++) {
+            assertThat(winners.get(i), equalTo(i % 3 == 0 && i % 7 == 5));
+        }
+        assertThat(index.countWinners(pick3, tickets), equalTo(winners.cardinality()));
+    }
+
+    @Test
+    public void evaluate_WithConsolationPoolAndWheelTickets_FlagsCoveredCombinations()
+            throws Exception {
+        ExoticPayoffPool consolation = new ExoticPayoffPool(1.0, 8.6, "Pick 3 (Races 1-2-3)",
+                "1-3/4-6", 2, 3000d, null);
+        MultiRaceWagerIndex index = new MultiRaceWagerIndex(Arrays.asList(
+                SampleRaceResults.twoStarterQuarterHorseRace(1, "1", "2", false),
+                SampleRaceResults.twoStarterQuarterHorseRace(2, "3", "4", true, consolation)));
+        MultiRaceWager pick3 = index.getWagers(PICK_3).get(0);
+        assertThat(pick3.getWinners().getNumberCorrect(), equalTo(2));
+
+        List<ExoticTicket> tickets = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            switch (i % 4) {
+                case 0: // every leg won, with one horse per leg: paid by the main pool only
+                    tickets.add(ExoticTicket.of(PICK_3, mask(1), mask(3), mask(6)));
+                    break;
+                case 1: // a wheel that also covers 2-3-6
+                    tickets.add(ExoticTicket.of(PICK_3, mask(1, 2), mask(3), mask(6)));
+                    break;
+                case 2: // two of three
+                    tickets.add(ExoticTicket.of(PICK_3, mask(1), mask(5), mask(6)));
+                    break;
+                default: // at best one of three
+                    tickets.add(ExoticTicket.of(PICK_3, mask(2), mask(5), mask(6, 7)));
+            }
+        }
+        BitSet winners = index.evaluate(pick3, tickets);
+
+        for (int i = 0; i < tickets.size(); i++) {
+            assertThat(winners.get(i), equalTo(i % 4 == 1 || i % 4 == 2));
+        }
+        assertThat(index.countWinners(pick3, tickets), equalTo(2000));
+    }
+
+    private static List<RaceResult> card() {
+        ExoticPayoffPool dailyDouble = new ExoticPayoffPool(2.0, 12.4, "Daily Double", "1-3/4",
+                null, 1000d, null);
+        ExoticPayoffPool pick3 = new ExoticPayoffPool(1.0, 40.2, "Pick 3 (Races 1-2-3)",
+                "1-3/4-6", null, 3000d, null);
+        return Arrays.asList(
+                SampleRaceResults.twoStarterQuarterHorseRace(1, "1", "2", false),
+                SampleRaceResults.twoStarterQuarterHorseRace(2, "3", "4", true, dailyDouble,
+                        pick3));
+    }
+}
@@ -0,0 +1,83 @@
+package com.robinhowlett.data.wagering;
+
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.samples.SampleRaceResults;
+import com.robinhowlett.data.wagering.PoolStatistics.Query;
+import com.robinhowlett.data.wagering.PoolStatistics.Totals;
+import com.robinhowlett.data.wagering.WagerPayoffPools.ExoticPayoffPool;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class PoolStatisticsTest {
+
+    @Test
+    public void getQuantile_WithManyAmounts_IsWithinRelativeAccuracy() throws Exception {
+        PoolSketch sketch = new PoolSketch();
+        for (int amount = 1; amount <= 100000; amount++) {
+            sketch.add(amount);
+        }
+
+        assertThat(sketch.getCount(), equalTo(100000L));
+        assertThat(sketch.getMin(), equalTo(1.0));
+        assertThat(sketch.getMax(), equalTo(100000.0));
+        assertThat(sketch.getMedian(), closeTo(50000, 50000 * PoolSketch.RELATIVE_ACCURACY));
+        assertThat(sketch.getQuantile(0.99), closeTo(99000, 99000 * PoolSketch.RELATIVE_ACCURACY));
+    }
+
+    @Test
+    public void merge_WithSketchesOfDisjointRanges_EqualsSingleSketch() throws Exception {
+        PoolSketch all = new PoolSketch();
+        PoolSketch low = new PoolSketch();
+        PoolSketch high = new PoolSketch();
+        for (int amount = 0; amount <= 2000; amount++) {
+            all.add(amount);
+            (amount < 1000 ? low : high).add(amount);
+        }
+        high.merge(low);
+
+        assertThat(high.getCount(), equalTo(all.getCount()));
+        assertThat(high.getSum(), equalTo(all.getSum()));
+        assertThat(high.getMin(), equalTo(0.0));
+        for (double quantile : new double[]{0, 0.1, 0.25, 0.5, 0.75, 0.9, 1}) {
+            assertThat(high.getQuantile(quantile), equalTo(all.getQuantile(quantile)));
+        }
+    }
+
+    @Test
+    public void query_WithStatisticsCollectedInParallel_MergesMatchingGroups() throws Exception {
+        List<RaceResult> raceResults = new ArrayList<>();
+        for (int raceNumber = 1; raceNumber <= 40; raceNumber++) {
+            raceResults.add(SampleRaceResults.twoStarterQuarterHorseRace(raceNumber, "1", "2",
+                    false,
+                    new ExoticPayoffPool(0.5, 100.0 * raceNumber, "Pick 5", "1-2-3-4-5", null,
+                            1000.0 * raceNumber, (raceNumber % 10 == 0 ? 5000.0 : null)),
+                    new ExoticPayoffPool(2.0, 6.8, "Exacta", "1-2", null, 1542.0, null)));
+        }
+
+        PoolStatistics statistics = raceResults.parallelStream()
+                .collect(PoolStatistics.collector());
+
+        Totals pick5 = statistics.query(new Query().track("ARP").year(2016)
+                .wager(ExoticType.PICK_5).unit(0.5));
+        assertThat(pick5.getPools().getCount(), equalTo(40L));
+        assertThat(pick5.getPools().getSum(), equalTo(820000.0));
+        assertThat(pick5.getPools().getMedian(), closeTo(20000, 200));
+        assertThat(pick5.getCarryovers().getCount(), equalTo(4L));
+
+        Totals exacta = statistics.query(new Query().wager(ExoticType.EXACTA)
+                .between(LocalDate.of(2016, 7, 1), LocalDate.of(2016, 7, 31)));
+        assertThat(exacta.getPayoffs().getMean(), closeTo(6.8, 0.0001));
+
+        assertTrue(statistics.query(new Query().year(2017)).getPools().getCount() == 0);
+        assertThat(statistics.getGroups(), equalTo(2));
+    }
+}
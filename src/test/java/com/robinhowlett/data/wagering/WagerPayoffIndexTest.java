@@ -0,0 +1,89 @@
+package com.robinhowlett.data.wagering;
+
+import com.robinhowlett.data.Horse;
+import com.robinhowlett.data.samples.SampleWagerPayoffPools;
+import com.robinhowlett.data.wagering.WagerPayoffPools.ExoticPayoffPool;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WagerNameUnit;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WinPlaceShowPayoffPool;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WinPlaceShowPayoffPool.WinPlaceShowPayoff;
+import com.robinhowlett.data.wagering.WagerPayoffPools.WinningNumbersPayoff;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class WagerPayoffIndexTest {
+
+    @Test
+    public void getIndex_WithWinPlaceShowPayoffs_LooksUpByProgram() throws Exception {
+        WagerPayoffPools wagerPayoffPools = SampleWagerPayoffPools.expectedWagerPayoffPools();
+        WagerPayoffIndex index = wagerPayoffPools.getIndex();
+
+        assertThat(index.getWinPayoff("7"), equalTo(3.8));
+        assertThat(index.getPlacePayoff("8"), equalTo(6.4));
+        assertThat(index.getShowPayoff("3"), equalTo(3.4));
+        assertThat(index.getWinPayoff("8"), nullValue());
+        assertThat(index.getWinPlaceShowPayoff("5"), nullValue());
+        assertThat(wagerPayoffPools.getIndex(), sameInstance(index));
+    }
+
+    @Test
+    public void getWinPlaceShowPayoff_WithCoupledEntryMember_ReturnsEntryPayoff()
+            throws Exception {
+        WinPlaceShowPayoff entry = new WinPlaceShowPayoff("1", new Horse("Entry"), 5.0, 3.0, 2.2);
+        WagerPayoffIndex index = new WagerPayoffPools(new WinPlaceShowPayoffPool(1000,
+                Collections.singletonList(entry)), null).getIndex();
+
+        assertThat(index.getWinPlaceShowPayoff("1a"), sameInstance(entry));
+        assertThat(index.getWinPlaceShowPayoff("1X"), sameInstance(entry));
+    }
+
+    @Test
+    public void getPayoff_WithExoticType_MatchesOrScalesUnit() throws Exception {
+        WagerPayoffIndex index = new WagerPayoffPools(null, Arrays.asList(
+                exotic(1.0, "Trifecta", 52.4),
+                exotic(0.1, "Superfecta", 114.06),
+                exotic(2.0, "Pick 6", 1000.0),
+                exotic(2.0, "Pick 6", 20.0),
+                exotic(2.0, "Win Four", 80.0))).getIndex();
+
+        assertThat(index.getPayoff(ExoticType.TRIFECTA, 1.0), equalTo(52.4));
+        assertThat(index.getPayoff(ExoticType.TRIFECTA, 2.0), equalTo(104.8));
+        assertThat(index.getPayoff(ExoticType.SUPERFECTA, 1.0), equalTo(1140.6));
+        assertThat(index.getPayoff(ExoticType.EXACTA, 2.0), nullValue());
+        assertThat(index.getExoticPayoffPool(ExoticType.TRIFECTA, 2.0), nullValue());
+        assertThat(index.getExoticPayoffPools(ExoticType.PICK_6).size(), equalTo(2));
+        assertThat(index.getExoticPayoffPools(ExoticType.OTHER).get(0).getName(),
+                equalTo("Win Four"));
+    }
+
+    @Test
+    public void forChartValue_WithNameVariants_ReturnsNormalizedType() throws Exception {
+        assertThat(ExoticType.forChartValue("Daily Double"), equalTo(ExoticType.DAILY_DOUBLE));
+        assertThat(ExoticType.forChartValue("$1 Pick 3 (Races 4-5-6)"),
+                equalTo(ExoticType.PICK_3));
+        assertThat(ExoticType.forChartValue("Pick Four"), equalTo(ExoticType.PICK_4));
+        assertThat(ExoticType.forChartValue("SUPER HI-5"), equalTo(ExoticType.SUPER_HIGH_FIVE));
+        assertThat(ExoticType.forChartValue("Jackpot Pick 6"), equalTo(ExoticType.PICK_6));
+        assertThat(ExoticType.forChartValue(null), equalTo(ExoticType.OTHER));
+    }
+
+    @Test
+    public void getOdds_WithUnitAndPayoff_ComputedOnConstruction() throws Exception {
+        ExoticPayoffPool exacta = exotic(2.0, "Exacta", 23.4);
+
+        assertThat(exacta.getOdds(), equalTo(10.7));
+        assertThat(exotic(2.0, "Exacta", null).getOdds(), nullValue());
+    }
+
+    private static ExoticPayoffPool exotic(double unit, String name, Double payoff) {
+        return new ExoticPayoffPool(new WagerNameUnit(unit, name),
+                new WinningNumbersPayoff("1-2", null, payoff), null, null);
+    }
+}
@@ -0,0 +1,139 @@
+package com.robinhowlett.data.wagering;
+
+import com.robinhowlett.data.wagering.WagerPayoffPools.ExoticPayoffPool;
+import com.robinhowlett.data.wagering.WinningCombination.InvalidWinningNumbersException;
+
+import org.junit.Test;
+
+import static com.robinhowlett.data.wagering.ExoticTicket.mask;
+import static com.robinhowlett.data.wagering.ExoticType.EXACTA;
+import static com.robinhowlett.data.wagering.ExoticType.PICK_4;
+import static com.robinhowlett.data.wagering.ExoticType.PICK_6;
+import static com.robinhowlett.data.wagering.ExoticType.QUINELLA;
+import static com.robinhowlett.data.wagering.ExoticType.SUPERFECTA;
+import static com.robinhowlett.data.wagering.ExoticType.TRIFECTA;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class WinningCombinationTest {
+
+    @Test
+    public void parse_WithDeadHeatsAndAll_SetsOneBitPerWinner() throws Exception {
+        WinningCombination combination =
+                WinningCombination.parse(PICK_4, "1/4-5-ALL-12A", null);
+
+        assertThat(combination.getLegs(), equalTo(4));
+        assertThat(combination.getWinners(0), equalTo(mask(1, 4)));
+        assertThat(combination.getWinners(1), equalTo(mask(5)));
+        assertThat(combination.getWinners(2), equalTo(WinningCombination.ALL));
+        assertThat(combination.getWinners(3), equalTo(mask(12)));
+        assertThat(combination.getNumberCorrect(), equalTo(4));
+        assertThat(combination.toString(), equalTo("1/4-5-ALL-12"));
+    }
+
+    @Test(expected = InvalidWinningNumbersException.class)
+    public void parse_WithUnrecognizedSelection_ThrowsInvalidWinningNumbersException()
+            throws Exception {
+        WinningCombination.parse(TRIFECTA, "3-X-1", null);
+    }
+
+    @Test
+    public void isWinner_WithStraightBoxAndWheelTrifectas_MatchesFinishingOrder()
+            throws Exception {
+        WinningCombination combination = WinningCombination.parse(TRIFECTA, "3-7-1", null);
+
+        assertTrue(combination.isWinner(ExoticTicket.straight(TRIFECTA, 3, 7, 1)));
+        assertFalse(combination.isWinner(ExoticTicket.straight(TRIFECTA, 7, 3, 1)));
+        assertTrue(combination.isWinner(ExoticTicket.box(TRIFECTA, 1, 3, 7)));
+        assertFalse(combination.isWinner(ExoticTicket.box(TRIFECTA, 1, 3, 8)));
+        assertTrue(combination.isWinner(ExoticTicket.wheel(TRIFECTA, 3, 1, 2, 7)));
+        assertFalse(combination.isWinner(ExoticTicket.wheel(TRIFECTA, 7, 1, 2, 3)));
+        assertFalse(combination.isWinner(ExoticTicket.straight(EXACTA, 3, 7)));
+    }
+
+    @Test
+    public void isWinner_WithDeadHeatForSecond_PaysEitherHorseButNotTheSameHorseTwice()
+            throws Exception {
+        WinningCombination combination = WinningCombination.parse(SUPERFECTA, "3-7/8-7/8-1",
+                null);
+
+        assertTrue(combination.isWinner(ExoticTicket.straight(SUPERFECTA, 3, 8, 7, 1)));
+        assertTrue(combination.isWinner(ExoticTicket.of(SUPERFECTA, mask(3), mask(7, 8),
+                mask(7, 8), mask(1))));
+        assertFalse(combination.isWinner(ExoticTicket.of(SUPERFECTA, mask(3), mask(7),
+                mask(7), mask(1))));
+    }
+
+    @Test
+    public void isWinner_WithQuinella_PaysEitherOrder() throws Exception {
+        WinningCombination combination = WinningCombination.parse(QUINELLA, "7-8", null);
+
+        assertTrue(combination.isWinner(ExoticTicket.straight(QUINELLA, 8, 7)));
+        assertTrue(combination.isWinner(ExoticTicket.wheel(QUINELLA, 8, 2, 7)));
+        assertFalse(combination.isWinner(ExoticTicket.wheel(QUINELLA, 2, 7, 8)));
+    }
+
+    @Test
+    public void isWinner_WithPick6Consolation_PaysExactlyFiveOfSixLegs() throws Exception {
+        WinningCombination consolation = WinningCombination.parse(PICK_6, "1-2-3-4-5-6", 5);
+        ExoticTicket fiveOfSix = ExoticTicket.of(PICK_6, mask(1), mask(2), mask(3), mask(4, 9),
+                mask(5), mask(7));
+        ExoticTicket fourOfSix = ExoticTicket.of(PICK_6, mask(1), mask(2), mask(8), mask(4),
+                mask(5), mask(7));
+        ExoticTicket sixOfSix = ExoticTicket.of(PICK_6, mask(1), mask(2), mask(3), mask(4),
+                mask(5), mask(6));
+
+        assertThat(consolation.getCorrectLegs(fiveOfSix), equalTo(5));
+        assertTrue(consolation.isWinner(fiveOfSix));
+        assertFalse(consolation.isWinner(fourOfSix));
+        // a single horse per leg, all winners: paid from the main pool instead
+        assertFalse(consolation.isWinner(sixOfSix));
+    }
+
+    @Test
+    public void isWinner_WithPick6ConsolationAndWheel_PaysCoveredFiveOfSixCombination()
+            throws Exception {
+        WinningCombination consolation = WinningCombination.parse(PICK_6, "1-2-3-4-5-6", 5);
+        // 1-2-3-4-5-6 wins the main pool, but 8-2-3-4-5-6 is also covered
+        ExoticTicket partWheel = ExoticTicket.of(PICK_6, mask(1, 8), mask(2), mask(3), mask(4),
+                mask(5), mask(6));
+        ExoticTicket allWheel = ExoticTicket.of(PICK_6, mask(1), mask(2), mask(3), mask(4),
+                mask(5), WinningCombination.ALL);
+        // every combination misses at least two legs
+        ExoticTicket twoMisses = ExoticTicket.of(PICK_6, mask(1, 8), mask(9), mask(3), mask(4),
+                mask(5), mask(7));
+
+        assertThat(consolation.getCorrectLegs(partWheel), equalTo(6));
+        assertTrue(consolation.isWinner(partWheel));
+        assertTrue(consolation.isWinner(allWheel));
+        assertFalse(consolation.isWinner(twoMisses));
+    }
+
+    @Test
+    public void getCombinations_WithBoxesAndWheels_CountsDistinctCombinations()
+            throws Exception {
+        assertThat(ExoticTicket.box(TRIFECTA, 1, 2, 3, 4).getCombinations(), equalTo(24L));
+        assertThat(ExoticTicket.box(QUINELLA, 1, 2, 3, 4).getCombinations(), equalTo(6L));
+        assertThat(ExoticTicket.wheel(QUINELLA, 1, 2, 3).getCombinations(), equalTo(2L));
+        assertThat(ExoticTicket.wheel(EXACTA, 1, 1, 2, 3).getCombinations(), equalTo(2L));
+        assertThat(ExoticTicket.of(PICK_4, mask(1, 2), mask(3), mask(4, 5, 6), mask(7))
+                .getCombinations(), equalTo(6L));
+    }
+
+    @Test
+    public void getWinningCombination_WithExoticPayoffPool_IsParsedOnConstruction()
+            throws Exception {
+        ExoticPayoffPool trifecta = new ExoticPayoffPool(2.0, 104.8, "Trifecta", "7-8-3", null,
+                3983d, null);
+        ExoticPayoffPool unparseable = new ExoticPayoffPool(2.0, 10.0, "Exacta", "7 with 8",
+                null, null, null);
+
+        assertThat(trifecta.getWinningCombination().getType(), equalTo(TRIFECTA));
+        assertTrue(trifecta.getWinningCombination()
+                .isWinner(ExoticTicket.straight(TRIFECTA, 7, 8, 3)));
+        assertThat(unparseable.getWinningCombination(), nullValue());
+    }
+}
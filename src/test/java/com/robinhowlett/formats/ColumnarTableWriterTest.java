@@ -0,0 +1,81 @@
+package com.robinhowlett.formats;
+
+import com.robinhowlett.formats.ColumnarSchema.ColumnType;
+import com.robinhowlett.formats.ColumnarTableReader.Batch;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ColumnarTableWriterTest {
+
+    private static final ColumnarSchema SCHEMA = new ColumnarSchema.Builder("test")
+            .column("id", ColumnType.INT)
+            .column("name", ColumnType.DICTIONARY)
+            .column("amount", ColumnType.LONG)
+            .column("odds", ColumnType.DOUBLE)
+            .column("comment", ColumnType.STRING)
+            .build();
+
+    @Test
+    public void endRow_WithColumnsNotSet_WritesNullsInEveryBatch() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ColumnarTableWriter writer = new ColumnarTableWriter(outputStream, SCHEMA, 2)) {
+            writer.setInt(0, 1).setString(1, "Alpha").setLong(2, 42L).setDouble(3, 1.5)
+                    .setString(4, "first");
+            writer.endRow();
+            writer.setInt(0, 2);
+            writer.endRow();
+            writer.setInt(0, 3);
+            writer.endRow();
+            writer.setInt(0, 4).setString(1, "Beta").setNull(2).setLong(2, 7L);
+            writer.endRow();
+        }
+
+        try (ColumnarTableReader reader = new ColumnarTableReader(
+                new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Batch first = reader.nextBatch();
+            assertThat(first.getString(1, 0), equalTo("Alpha"));
+            assertThat(first.getLong(2, 0), equalTo(42L));
+            assertNoValues(first, 1);
+
+            Batch second = reader.nextBatch();
+            assertThat(second.getInt(0, 0), equalTo(3));
+            assertNoValues(second, 0);
+            assertThat(second.getString(1, 1), equalTo("Beta"));
+            assertThat(second.getLong(2, 1), equalTo(7L));
+            assertThat(second.getDouble(3, 1), nullValue());
+
+            assertThat(reader.nextBatch(), nullValue());
+        }
+    }
+
+    @Test
+    public void endRow_WithFirstRowNotSet_DoesNotDecodeFirstDictionaryEntry() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ColumnarTableWriter writer = new ColumnarTableWriter(outputStream, SCHEMA, 1)) {
+            writer.setInt(0, 1);
+            writer.endRow();
+            writer.setInt(0, 2).setString(1, "Alpha");
+            writer.endRow();
+        }
+
+        try (ColumnarTableReader reader = new ColumnarTableReader(
+                new ByteArrayInputStream(outputStream.toByteArray()))) {
+            assertNoValues(reader.nextBatch(), 0);
+            assertThat(reader.nextBatch().getString(1, 0), equalTo("Alpha"));
+        }
+    }
+
+    private static void assertNoValues(Batch batch, int row) {
+        assertThat(batch.getString(1, row), nullValue());
+        assertThat(batch.getLong(2, row), nullValue());
+        assertThat(batch.getDouble(3, row), nullValue());
+        assertThat(batch.getString(4, row), nullValue());
+    }
+}
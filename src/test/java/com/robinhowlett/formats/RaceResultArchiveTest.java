@@ -0,0 +1,162 @@
+package com.robinhowlett.formats;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.samples.SampleRaceResults;
+import com.robinhowlett.formats.RaceResultArchive.CorruptRecordException;
+import com.robinhowlett.formats.RaceResultArchive.Key;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import lombok.Data;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+public class RaceResultArchiveTest {
+
+    private static final DataModelObjectMapper MAPPER = new DataModelObjectMapper();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void read_WithAppendedRaceResult_ReturnsSameJson() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        RaceResult raceResult = SampleRaceResults.twoStarterQuarterHorseRace();
+
+        try (RaceResultArchive archive = new RaceResultArchive(directory)) {
+            Key key = archive.append(raceResult);
+
+            assertThat(key, equalTo(new Key("ARP", LocalDate.of(2016, 7, 24), 1)));
+            assertThat(archive.read(key, JsonNode.class).get(),
+                    equalTo(MAPPER.readTree(MAPPER.writeValueAsBytes(raceResult))));
+        }
+
+        try (RaceResultArchive archive = new RaceResultArchive(directory)) {
+            Key key = new Key("ARP", LocalDate.of(2016, 7, 24), 1);
+            assertThat(archive.read(key, JsonNode.class).get(),
+                    equalTo(MAPPER.readTree(MAPPER.writeValueAsBytes(raceResult))));
+            assertFalse(archive.getRecord(new Key("ARP", LocalDate.of(2016, 7, 24), 2))
+                    .isPresent());
+        }
+    }
+
+    @Test
+    public void read_WithProjection_DecodesOnlyItsFields() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+
+        try (RaceResultArchive archive = new RaceResultArchive(directory)) {
+            Key key = archive.append(SampleRaceResults.twoStarterQuarterHorseRace());
+
+            RaceSummary raceSummary = archive.read(key, RaceSummary.class).get();
+            assertThat(raceSummary.getRaceNumber(), equalTo(1));
+            assertThat(raceSummary.getNumberOfRunners(), equalTo(2));
+        }
+    }
+
+    @Test
+    public void open_WithTornRecordAtEnd_TruncatesAndKeepsEarlierRecords() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        try (RaceResultArchive archive = new RaceResultArchive(directory)) {
+            archive.append(key(1), payload("first"));
+            archive.append(key(2), payload("second"));
+        }
+        Path segment = directory.resolve("segment-000000.rra");
+        long size = Files.size(segment);
+        // a partially written third record
+        Files.write(segment, new byte[]{0x52, 0x45, 0x43, 0x4F, 0, 0, 0, 40, 1, 2},
+                StandardOpenOption.APPEND);
+
+        try (RaceResultArchive archive = new RaceResultArchive(directory)) {
+            assertThat(archive.size(), equalTo(2));
+            assertThat(Files.size(segment), equalTo(size));
+
+            archive.append(key(3), payload("third"));
+            assertThat(text(archive.getRecord(key(3)).get()), equalTo("third"));
+        }
+    }
+
+    @Test
+    public void compact_WithSupersededRecordsAcrossSegments_KeepsLatestRecords() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        try (RaceResultArchive archive = new RaceResultArchive(directory, 64, false, MAPPER)) {
+            for (int raceNumber = 1; raceNumber <= 5; raceNumber++) {
+                archive.append(key(raceNumber), payload("race " + raceNumber));
+            }
+            archive.append(key(2), payload("race 2 corrected"));
+            assertThat(segments(directory).size(), equalTo(6));
+
+            archive.compact();
+
+            assertThat(archive.size(), equalTo(5));
+            assertThat(segments(directory).size(), equalTo(5));
+            assertThat(text(archive.getRecord(key(2)).get()), equalTo("race 2 corrected"));
+        }
+
+        try (RaceResultArchive archive = new RaceResultArchive(directory, 64, false, MAPPER)) {
+            assertThat(archive.size(), equalTo(5));
+            assertThat(text(archive.getRecord(key(2)).get()), equalTo("race 2 corrected"));
+            assertThat(text(archive.getRecord(key(5)).get()), equalTo("race 5"));
+        }
+    }
+
+    @Test(expected = CorruptRecordException.class)
+    public void getRecord_WithCorruptPayload_ThrowsCorruptRecordException() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        try (RaceResultArchive archive = new RaceResultArchive(directory, 64, false, MAPPER)) {
+            archive.append(key(1), payload("first"));
+            archive.append(key(2), payload("a payload long enough to start a new segment"));
+        }
+        Path segment = directory.resolve("segment-000000.rra");
+        byte[] bytes = Files.readAllBytes(segment);
+        bytes[bytes.length - 1] ^= 0x01;
+        Files.write(segment, bytes);
+
+        // only the newest segment is verified when opened; older ones are verified on read
+        try (RaceResultArchive archive = new RaceResultArchive(directory, 64, false, MAPPER)) {
+            archive.getRecord(key(1));
+        }
+    }
+
+    private static Key key(int raceNumber) {
+        return new Key("ARP", LocalDate.of(2016, 7, 24), raceNumber);
+    }
+
+    private static byte[] payload(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<Path> segments(Path directory) throws Exception {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.collect(Collectors.toList());
+        }
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class RaceSummary {
+        private Integer raceNumber;
+        private Integer numberOfRunners;
+    }
+}
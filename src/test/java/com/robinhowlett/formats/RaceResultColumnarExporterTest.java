@@ -0,0 +1,138 @@
+package com.robinhowlett.formats;
+
+import com.robinhowlett.data.samples.SampleRaceResults;
+import com.robinhowlett.formats.ColumnarTableReader.Batch;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static com.robinhowlett.formats.RaceResultColumnarExporter.CALLS;
+import static com.robinhowlett.formats.RaceResultColumnarExporter.CALLS_FILE;
+import static com.robinhowlett.formats.RaceResultColumnarExporter.EXOTICS_FILE;
+import static com.robinhowlett.formats.RaceResultColumnarExporter.RACES;
+import static com.robinhowlett.formats.RaceResultColumnarExporter.RACES_FILE;
+import static com.robinhowlett.formats.RaceResultColumnarExporter.STARTERS;
+import static com.robinhowlett.formats.RaceResultColumnarExporter.STARTERS_FILE;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class RaceResultColumnarExporterTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void export_WithRaces_WritesRaceTableKeyedByRaceId() throws Exception {
+        Path directory = export(1);
+
+        try (InputStream inputStream = Files.newInputStream(directory.resolve(RACES_FILE));
+             ColumnarTableReader reader = new ColumnarTableReader(inputStream)) {
+            assertThat(reader.getSchema(), equalTo(RACES));
+
+            Batch first = reader.nextBatch();
+            assertThat(first.getRows(), equalTo(1));
+            assertThat(first.getInt(RACES.indexOf("raceId"), 0), equalTo(0));
+            assertThat(first.getString(RACES.indexOf("track"), 0), equalTo("ARP"));
+            assertThat(LocalDate.ofEpochDay(first.getInt(RACES.indexOf("raceDate"), 0)),
+                    equalTo(LocalDate.of(2016, 7, 24)));
+            assertThat(first.getInt(RACES.indexOf("distanceFeet"), 0), equalTo(3960));
+            assertThat(first.getString(RACES.indexOf("surface"), 0), equalTo("Dirt"));
+            assertThat(first.getLong(RACES.indexOf("finalMillis"), 0), equalTo(18015L));
+
+            Batch second = reader.nextBatch();
+            assertThat(second.getInt(RACES.indexOf("cancelled"), 0), equalTo(1));
+            assertThat(second.getString(RACES.indexOf("track"), 0), nullValue());
+
+            assertThat(reader.nextBatch(), nullValue());
+        }
+    }
+
+    @Test
+    public void export_WithSmallBatches_CarriesDictionaryAcrossBatches() throws Exception {
+        Path directory = export(1);
+
+        try (InputStream inputStream = Files.newInputStream(directory.resolve(STARTERS_FILE));
+             ColumnarTableReader reader = new ColumnarTableReader(inputStream)) {
+            int jockey = STARTERS.indexOf("jockey");
+            Batch first = reader.nextBatch();
+            Batch second = reader.nextBatch();
+
+            assertThat(second.getString(jockey, 0), equalTo("Ramiro Garcia"));
+            assertThat(second.getInts(jockey)[0], equalTo(first.getInts(jockey)[0]));
+            assertThat(first.getDouble(STARTERS.indexOf("winPayoff"), 0), equalTo(3.8));
+            assertThat(second.getDouble(STARTERS.indexOf("winPayoff"), 0), nullValue());
+            assertThat(second.getString(STARTERS.indexOf("trainer"), 0), nullValue());
+            assertThat(second.getLong(STARTERS.indexOf("finishMillis"), 0), equalTo(18317L));
+        }
+    }
+
+    @Test
+    public void export_WithPointsOfCallAndExotics_WritesOneRowEach() throws Exception {
+        Path directory = export(RaceResultColumnarExporter.DEFAULT_BATCH_SIZE);
+
+        try (InputStream inputStream = Files.newInputStream(directory.resolve(CALLS_FILE));
+             ColumnarTableReader reader = new ColumnarTableReader(inputStream)) {
+            Batch calls = reader.nextBatch();
+            assertThat(calls.getRows(), equalTo(4));
+            assertThat(calls.getString(CALLS.indexOf("program"), 3), equalTo("2"));
+            assertThat(calls.getInt(CALLS.indexOf("point"), 3), equalTo(6));
+            assertThat(calls.getDouble(CALLS.indexOf("totalLengthsBehind"), 3),
+                    equalTo(1.75));
+            assertThat(calls.getInt(CALLS.indexOf("feet"), 0), nullValue());
+        }
+
+        try (InputStream inputStream = Files.newInputStream(directory.resolve(EXOTICS_FILE));
+             ColumnarTableReader reader = new ColumnarTableReader(inputStream)) {
+            Batch exotics = reader.nextBatch();
+            assertThat(exotics.getRows(), equalTo(1));
+            assertThat(exotics.getString(1, 0), equalTo("Exacta"));
+            assertThat(exotics.getString(3, 0), equalTo("1-2"));
+            assertThat(exotics.getDouble(5, 0), equalTo(6.8));
+            assertThat(exotics.getDouble(7, 0), nullValue());
+        }
+    }
+
+    @Test
+    public void new_WithTableThatCannotBeOpened_ClosesTablesAlreadyOpened() throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        // a directory where the calls table would be written
+        Files.createDirectory(directory.resolve(CALLS_FILE));
+
+        try {
+            new RaceResultColumnarExporter(directory).close();
+            fail("Expected the calls table to fail to open");
+        } catch (IOException expected) {
+            // expected
+        }
+
+        for (String file : new String[]{RACES_FILE, STARTERS_FILE}) {
+            try (InputStream inputStream = Files.newInputStream(directory.resolve(file));
+                 ColumnarTableReader reader = new ColumnarTableReader(inputStream)) {
+                assertThat(reader.nextBatch(), nullValue());
+            }
+        }
+        assertFalse(Files.exists(directory.resolve(EXOTICS_FILE)));
+    }
+
+    private Path export(int batchSize) throws Exception {
+        Path directory = temporaryFolder.newFolder().toPath();
+        try (RaceResultColumnarExporter exporter =
+                     new RaceResultColumnarExporter(directory, batchSize)) {
+            assertThat(exporter.export(Stream.of(SampleRaceResults.twoStarterQuarterHorseRace(),
+                    SampleRaceResults.cancelledRaceDueToWeather())), equalTo(2));
+        }
+        return directory;
+    }
+}
@@ -0,0 +1,97 @@
+package com.robinhowlett.formats;
+
+import com.robinhowlett.data.RaceResult;
+import com.robinhowlett.data.samples.SampleRaceResults;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.robinhowlett.formats.Projection.Section.HEADER;
+import static com.robinhowlett.formats.Projection.Section.STARTERS;
+import static com.robinhowlett.formats.Projection.Section.WAGERING;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class RaceResultProjectionReaderTest {
+
+    private static final DataModelObjectMapper MAPPER = new DataModelObjectMapper();
+
+    private final RaceResultProjectionReader reader = new RaceResultProjectionReader(MAPPER);
+
+    @Test
+    public void readRaceResults_WithHeaderAndWagering_SkipsOtherSections() throws Exception {
+        byte[] json = MAPPER.writeValueAsBytes(Arrays.asList(
+                SampleRaceResults.twoStarterQuarterHorseRace(),
+                SampleRaceResults.cancelledRaceDueToWeather()));
+
+        List<ProjectedRaceResult> projected = read(json, Projection.of(HEADER, WAGERING));
+
+        assertThat(projected.size(), equalTo(2));
+        ProjectedRaceResult first = projected.get(0);
+        assertThat(first.getTrack().getCanonical(), equalTo("ARP"));
+        assertThat(first.getRaceDate(), equalTo(LocalDate.of(2016, 7, 24)));
+        assertThat(first.getRaceNumber(), equalTo(1));
+        assertThat(first.getFinalMillis(), equalTo(18015L));
+        assertFalse(first.isCancelled());
+        assertThat(first.getNode("distance").get("feet").asInt(), equalTo(3960));
+        assertThat(first.getWagering().get("exotics").get(0).get("winningNumbers").asText(),
+                equalTo("1-2"));
+        assertFalse(first.has("starters"));
+        assertFalse(first.has("links"));
+
+        assertTrue(projected.get(1).isCancelled());
+    }
+
+    @Test
+    public void readRaceResults_WithRootLevelSequence_ReadsEachRace() throws Exception {
+        RaceResult raceResult = SampleRaceResults.twoStarterQuarterHorseRace();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.write(MAPPER.writeValueAsBytes(raceResult));
+        outputStream.write('\n');
+        outputStream.write(MAPPER.writeValueAsBytes(raceResult));
+
+        List<ProjectedRaceResult> projected = read(outputStream.toByteArray(),
+                Projection.of(STARTERS));
+
+        assertThat(projected.size(), equalTo(2));
+        assertThat(projected.get(1).getStarters().get(1).get("horse").get("name").asText(),
+                equalTo("Ima Cutie Patutie"));
+        assertThat(projected.get(1).getFieldNames().size(), equalTo(1));
+    }
+
+    @Test
+    public void getNode_WithProjectedFieldAbsentFromInput_ReturnsNull() throws Exception {
+        byte[] json = "{\"raceNumber\":3}".getBytes("UTF-8");
+
+        ProjectedRaceResult projected = read(json, Projection.of(HEADER)).get(0);
+
+        assertThat(projected.getRaceNumber(), equalTo(3));
+        assertThat(projected.getRaceDate(), nullValue());
+        assertThat(projected.getNode("conditions"), nullValue());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void getStarters_WithStartersNotProjected_ThrowsIllegalStateException()
+            throws Exception {
+        byte[] json = MAPPER.writeValueAsBytes(SampleRaceResults.twoStarterQuarterHorseRace());
+
+        read(json, Projection.of(HEADER)).get(0).getStarters();
+    }
+
+    private List<ProjectedRaceResult> read(byte[] json, Projection projection) throws Exception {
+        try (Stream<ProjectedRaceResult> raceResults =
+                     reader.readRaceResults(new ByteArrayInputStream(json), projection)) {
+            return raceResults.collect(Collectors.toList());
+        }
+    }
+}
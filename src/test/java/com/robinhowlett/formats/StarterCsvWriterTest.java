@@ -0,0 +1,77 @@
+package com.robinhowlett.formats;
+
+import com.robinhowlett.data.samples.SampleRaceResults;
+import com.robinhowlett.formats.StarterCsvReader.Columns;
+import com.robinhowlett.formats.StarterCsvReader.UnexpectedCsvHeaderException;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class StarterCsvWriterTest {
+
+    @Test
+    public void write_WithQuarterHorseRace_WritesOneRowPerStarter() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long rows = new StarterCsvWriter().write(Stream.of(
+                SampleRaceResults.twoStarterQuarterHorseRace(),
+                SampleRaceResults.cancelledRaceDueToWeather()), outputStream);
+
+        String[] lines = new String(outputStream.toByteArray(), StandardCharsets.UTF_8)
+                .split("\n");
+        assertThat(rows, equalTo(2L));
+        assertThat(lines.length, equalTo(3));
+        assertThat(lines[0], equalTo("track,raceDate,raceNumber,program,horse,jockey,trainer," +
+                "odds,choice,postPosition,officialPosition,winPayoff,placePayoff,showPayoff," +
+                "finishMillis,point1Position,point1Lengths,point2Position,point2Lengths," +
+                "point3Position,point3Lengths,point4Position,point4Lengths,point5Position," +
+                "point5Lengths,point6Position,point6Lengths"));
+        assertThat(lines[1], equalTo("ARP,2016-07-24,1,1,\"Perkin Desire\",\"Ramiro Garcia\"," +
+                "\"Judd Kearl\",0.9,1,1,1,3.8,2.8,2.4,18015,1,0.0,,,,,,,,,1,0.0"));
+    }
+
+    @Test
+    public void read_WithWrittenStarters_RebuildsColumns() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new StarterCsvWriter().write(Stream.of(SampleRaceResults.twoStarterQuarterHorseRace()),
+                outputStream);
+
+        Columns columns = new StarterCsvReader().read(
+                new ByteArrayInputStream(outputStream.toByteArray()));
+
+        assertThat(columns.getSize(), equalTo(2));
+        assertThat(columns.getTracks()[1], equalTo("ARP"));
+        assertThat(columns.getRaceDates()[1], equalTo(LocalDate.of(2016, 7, 24)));
+        assertThat(columns.getRaceNumbers()[1], equalTo(1));
+        assertThat(columns.getHorses()[1], equalTo("Ima Cutie Patutie"));
+        assertThat(columns.getTrainers()[1], nullValue());
+        assertThat(columns.getOfficialPositions()[1], equalTo(2));
+        assertThat(columns.getWinPayoffs()[0], equalTo(3.8));
+        assertTrue(Double.isNaN(columns.getWinPayoffs()[1]));
+        assertThat(columns.getFinishMillis()[1], equalTo(18317L));
+        assertThat(columns.getPositions()[5][1], equalTo(2));
+        assertThat(columns.getLengthsBehind()[5][1], equalTo(1.75));
+        assertThat(columns.getPositions()[0][1], equalTo(2));
+        assertThat(columns.getPositions()[2][1], equalTo(0));
+        assertTrue(Double.isNaN(columns.getLengthsBehind()[0][1]));
+        assertThat(columns.getOdds()[1], equalTo(3.2));
+        assertThat(columns.getChoices()[1], equalTo(2));
+        assertThat(columns.getPositions()[5].length, equalTo(2));
+    }
+
+    @Test(expected = UnexpectedCsvHeaderException.class)
+    public void read_WithDifferentHeader_ThrowsUnexpectedCsvHeaderException() throws Exception {
+        new StarterCsvReader().read(new ByteArrayInputStream(
+                "track,raceDate,program\nARP,2016-07-24,1\n".getBytes(StandardCharsets.UTF_8)));
+    }
+}